@@ -2,6 +2,7 @@ package io.openaev.aop.lock;
 
 // Spring Framework
 import com.google.common.util.concurrent.Striped;
+import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -95,6 +96,18 @@ public class LockAspect {
     }
   }
 
+  /**
+   * Get the locks of several keys, to lock a batch of resources at once. The locks are returned in
+   * a consistent order, locking them in this order cannot deadlock with another batch.
+   *
+   * @param type the type of the locked resources
+   * @param keys the keys of the resources
+   * @return the distinct locks of the keys
+   */
+  public Iterable<Lock> getLocks(LockResourceType type, Collection<?> keys) {
+    return lockStripes.get(type).bulkGet(keys);
+  }
+
   private Object extractLockKey(ProceedingJoinPoint joinPoint, String spelExpression) {
     MethodSignature signature = (MethodSignature) joinPoint.getSignature();
     Object[] args = joinPoint.getArgs();
@@ -1,6 +1,8 @@
 package io.openaev.config;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -39,4 +41,53 @@ public class ThreadPoolTaskSchedulerConfig {
     executor.initialize();
     return executor;
   }
+
+  /**
+   * Dedicated executor for the per class queries of the global search. When saturated, the queries
+   * run on the calling thread instead of being queued behind the other searches
+   */
+  @Bean(name = "searchExecutor")
+  public Executor searchExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(7);
+    executor.setMaxPoolSize(14);
+    executor.setQueueCapacity(0);
+    executor.setThreadNamePrefix("Search-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Dedicated executor for the analytics engine indexing, so the sync of the models never runs on
+   * the common pool shared with the inject execution
+   */
+  @Bean(name = "indexingExecutor")
+  public Executor indexingExecutor(EngineConfig engineConfig) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    int concurrency = Math.max(1, engineConfig.getIndexingMaxConcurrentModels());
+    executor.setCorePoolSize(concurrency);
+    executor.setMaxPoolSize(concurrency);
+    executor.setThreadNamePrefix("Indexing-");
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Dedicated executor for the inject launches, one virtual thread per inject so the injects
+   * waiting for their injector type concurrency limit do not hold a platform thread
+   */
+  @Bean(name = "injectExecutionExecutor", destroyMethod = "shutdown")
+  public ExecutorService injectExecutionExecutor() {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Inject-", 0).factory());
+  }
+
+  /**
+   * Dedicated executor answering the agents waiting for their jobs, one virtual thread per agent so
+   * the job creation never runs their queries
+   */
+  @Bean(name = "agentJobExecutor", destroyMethod = "shutdown")
+  public ExecutorService agentJobExecutor() {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("AgentJob-", 0).factory());
+  }
 }
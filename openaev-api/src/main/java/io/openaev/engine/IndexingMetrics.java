@@ -0,0 +1,42 @@
+package io.openaev.engine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.openaev.database.model.IndexingRetry;
+import io.openaev.database.repository.IndexingRetryRepository;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+
+/** Expose the depth of the indexing retry queue and the backpressure on the analytics engine. */
+@Component
+@RequiredArgsConstructor
+public class IndexingMetrics implements MeterBinder {
+
+  private final IndexingRetryRepository indexingRetryRepository;
+  private final IndexingThrottle indexingThrottle;
+
+  @Override
+  public void bindTo(@NotNull MeterRegistry registry) {
+    for (IndexingRetry.Status status : IndexingRetry.Status.values()) {
+      Gauge.builder(
+              "openaev.indexing.retries",
+              indexingRetryRepository,
+              repository -> repository.countByStatus(status))
+          .description("Number of documents refused by the analytics engine, by retry status")
+          .tag("status", status.name().toLowerCase())
+          .register(registry);
+    }
+    Gauge.builder("openaev.indexing.inflight", indexingThrottle, IndexingThrottle::getInFlightBytes)
+        .description("Estimated size of the bulks currently sent to the analytics engine")
+        .baseUnit("bytes")
+        .register(registry);
+    Gauge.builder(
+            "openaev.indexing.rejections",
+            indexingThrottle,
+            IndexingThrottle::getConsecutiveRejections)
+        .description("Number of consecutive bulks rejected by the analytics engine")
+        .register(registry);
+  }
+}
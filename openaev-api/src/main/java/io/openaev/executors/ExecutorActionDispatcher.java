@@ -0,0 +1,329 @@
+package io.openaev.executors;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Dispatch of the batches of actions sent to the EDR APIs (CrowdStrike, SentinelOne, Tanium).
+ *
+ * <p>Every executor drains its own queue of batches through a token bucket: a burst of batches goes
+ * out at once, the next ones at the rate of the bucket, with a bounded number of calls in flight.
+ * Once the EDR API reported its quota, the rate grows from the configured one up to the maximum
+ * while the API and the implant callbacks keep up; without a quota to watch, the rate stays the
+ * configured one. It is halved back when the API reports its quota is nearly used or rejects a
+ * call, and the dispatch is held while the quota is exhausted or while the callbacks of the
+ * implants pile up in the inject trace queue.
+ */
+@Slf4j
+@Service
+public class ExecutorActionDispatcher {
+
+  // Queue fed by the callbacks of the implants on the inject API
+  private static final String CALLBACK_QUEUE = "inject-trace";
+  private static final String CALLBACK_QUEUE_DEPTH = "openaev.queue.depth";
+  // Time to wait for the callbacks to be absorbed before checking again
+  private static final long CALLBACK_BACKLOG_RECHECK = 1000L;
+  // Share of the API quota left under which the rate is halved
+  private static final double QUOTA_LOW_WATERMARK = 0.1;
+  // Rate growth for every batch sent without pressure
+  private static final double RATE_GROWTH = 1.1;
+
+  private final MeterRegistry meterRegistry;
+  private final double rate;
+  private final double maxRate;
+  private final int burst;
+  private final int maxInFlight;
+  private final long maxCallbackBacklog;
+
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("ExecutorActionDispatcher").daemon().factory());
+  // The EDR calls are blocking, sent on their own thread not to delay the other executors
+  private final ThreadFactory senders = Thread.ofVirtual().name("ExecutorAction-", 0).factory();
+
+  private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+  /**
+   * @param meterRegistry the registry to expose the dispatch metrics and read the callback load
+   * @param rate the batches sent per second and per executor, the rate never goes under
+   * @param maxRate the batches sent per second and per executor, the rate never goes over
+   * @param burst the batches sent at once after an idle period
+   * @param maxInFlight the batches sent and not answered yet, per executor
+   * @param maxCallbackBacklog the callbacks waiting in the inject trace queue holding the dispatch
+   */
+  public ExecutorActionDispatcher(
+      MeterRegistry meterRegistry,
+      @Value("${openaev.executor.dispatch.rate:0.2}") double rate,
+      @Value("${openaev.executor.dispatch.max-rate:5}") double maxRate,
+      @Value("${openaev.executor.dispatch.burst:1}") int burst,
+      @Value("${openaev.executor.dispatch.max-in-flight:4}") int maxInFlight,
+      @Value("${openaev.executor.dispatch.max-callback-backlog:5000}") long maxCallbackBacklog) {
+    this.meterRegistry = meterRegistry;
+    this.rate = rate > 0 ? rate : 0.2;
+    this.maxRate = Math.max(this.rate, maxRate);
+    this.burst = Math.max(1, burst);
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.maxCallbackBacklog = maxCallbackBacklog;
+  }
+
+  /**
+   * Send the batches of an inject to an EDR API, in order, at the pace of the executor
+   *
+   * @param executorName the executor the batches are sent to
+   * @param injectId the inject the batches execute, null for the maintenance actions
+   * @param batches the calls to the EDR API, one per batch
+   */
+  public void dispatch(String executorName, @Nullable String injectId, List<Runnable> batches) {
+    if (batches.isEmpty()) {
+      return;
+    }
+    Lane lane = lanes.computeIfAbsent(executorName, Lane::new);
+    InjectDispatch inject =
+        new InjectDispatch(injectId, System.nanoTime(), new AtomicInteger(batches.size()));
+    batches.forEach(batch -> lane.batches.add(new Batch(batch, inject)));
+    wakeUp(lane);
+  }
+
+  /**
+   * Adapt the pace of an executor to the quota reported by its EDR API
+   *
+   * @param executorName the executor
+   * @param limit the calls allowed by the API over its window
+   * @param remaining the calls left over the current window
+   * @param resetAt the end of the current window, null if unknown
+   */
+  public void onRateLimit(
+      String executorName, long limit, long remaining, @Nullable Instant resetAt) {
+    Lane lane = lanes.computeIfAbsent(executorName, Lane::new);
+    lane.quotaReported();
+    if (remaining <= 0 && resetAt != null) {
+      log.warn("{} API quota exhausted, dispatch held until {}", executorName, resetAt);
+      lane.holdUntil(resetAt.toEpochMilli());
+      lane.slowDown();
+    } else if (limit > 0 && remaining < limit * QUOTA_LOW_WATERMARK) {
+      lane.slowDown();
+    }
+  }
+
+  /**
+   * Slow an executor down after its EDR API rejected a call, with an HTTP 429 or 5xx status
+   *
+   * @param executorName the executor
+   */
+  public void onRejected(String executorName) {
+    lanes.computeIfAbsent(executorName, Lane::new).slowDown();
+  }
+
+  /**
+   * Current pace of an executor
+   *
+   * @param executorName the executor
+   * @return the batches sent per second
+   */
+  public double rate(String executorName) {
+    Lane lane = lanes.get(executorName);
+    return lane == null ? rate : lane.currentRate();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  // -- PRIVATE --
+
+  private void wakeUp(Lane lane) {
+    if (lane.draining.compareAndSet(false, true)) {
+      scheduler.execute(() -> drain(lane));
+    }
+  }
+
+  private void drain(Lane lane) {
+    try {
+      while (!lane.batches.isEmpty()) {
+        if (!lane.inFlight.tryAcquire()) {
+          // Woken up again by the end of a batch in flight
+          break;
+        }
+        long wait;
+        if (callbackBacklog() > maxCallbackBacklog) {
+          lane.slowDown();
+          wait = CALLBACK_BACKLOG_RECHECK;
+        } else {
+          wait = lane.acquire(System.currentTimeMillis());
+        }
+        if (wait > 0) {
+          lane.inFlight.release();
+          scheduler.schedule(() -> drain(lane), wait, TimeUnit.MILLISECONDS);
+          return;
+        }
+        Batch batch = lane.batches.poll();
+        if (batch != null) {
+          send(lane, batch);
+        } else {
+          lane.inFlight.release();
+        }
+      }
+    } catch (RuntimeException e) {
+      log.error("Error dispatching the {} actions: {}", lane.executorName, e.getMessage(), e);
+    }
+    lane.draining.set(false);
+    // A batch added after the last poll, or a batch in flight ended, before the lane was released
+    if (!lane.batches.isEmpty() && lane.inFlight.availablePermits() > 0) {
+      wakeUp(lane);
+    }
+  }
+
+  private void send(Lane lane, Batch batch) {
+    long lag = System.nanoTime() - batch.inject().enqueuedAt();
+    lane.lagTimer.record(lag, TimeUnit.NANOSECONDS);
+    if (batch.inject().remaining().decrementAndGet() == 0) {
+      lane.injectTimer.record(lag, TimeUnit.NANOSECONDS);
+      if (batch.inject().injectId() != null) {
+        log.info(
+            "Inject {} dispatched to {}, last batch sent after {} ms",
+            batch.inject().injectId(),
+            lane.executorName,
+            Duration.ofNanos(lag).toMillis());
+      }
+    }
+    senders
+        .newThread(
+            () -> {
+              try {
+                batch.action().run();
+              } catch (Exception e) {
+                log.error(
+                    "Error sending a batch of inject {} to {}: {}",
+                    batch.inject().injectId(),
+                    lane.executorName,
+                    e.getMessage(),
+                    e);
+                // A failed call is as much a sign of an overloaded API as a rejected one
+                lane.slowDown();
+              } finally {
+                lane.inFlight.release();
+                if (!lane.batches.isEmpty()) {
+                  wakeUp(lane);
+                }
+              }
+            })
+        .start();
+    if (callbackBacklog() <= maxCallbackBacklog / 2) {
+      lane.speedUp();
+    }
+  }
+
+  private double callbackBacklog() {
+    Gauge depth = meterRegistry.find(CALLBACK_QUEUE_DEPTH).tag("queue", CALLBACK_QUEUE).gauge();
+    return depth == null ? 0 : depth.value();
+  }
+
+  /**
+   * The batches of an inject being dispatched
+   *
+   * @param injectId the inject, null for the maintenance actions
+   * @param enqueuedAt the time the batches were queued, in nanoseconds
+   * @param remaining the batches not sent yet
+   */
+  private record InjectDispatch(String injectId, long enqueuedAt, AtomicInteger remaining) {}
+
+  private record Batch(Runnable action, InjectDispatch inject) {}
+
+  /** The queue and the token bucket of an executor */
+  private final class Lane {
+    private final String executorName;
+    private final Queue<Batch> batches = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final Semaphore inFlight = new Semaphore(maxInFlight);
+    private final Timer lagTimer;
+    private final Timer injectTimer;
+
+    // Token bucket, guarded by the lane
+    private double currentRate = rate;
+    private double tokens = burst;
+    private long refilledAt = System.currentTimeMillis();
+    private long heldUntil = 0;
+    // The rate only grows over the configured one with a quota of the API to watch
+    private boolean quotaReported = false;
+
+    private Lane(String executorName) {
+      this.executorName = executorName;
+      lagTimer =
+          Timer.builder("openaev.executor.dispatch.lag")
+              .description("Time between the queuing of a batch and its sending to the EDR API")
+              .tag("executor", executorName)
+              .publishPercentiles(0.5, 0.99)
+              .register(meterRegistry);
+      injectTimer =
+          Timer.builder("openaev.executor.dispatch.inject")
+              .description("Time to send all the batches of an inject to the EDR API")
+              .tag("executor", executorName)
+              .publishPercentiles(0.5, 0.99)
+              .register(meterRegistry);
+      Gauge.builder("openaev.executor.dispatch.pending", batches, Queue::size)
+          .description("Number of batches waiting to be sent to the EDR API")
+          .tag("executor", executorName)
+          .register(meterRegistry);
+      Gauge.builder("openaev.executor.dispatch.rate", this, Lane::currentRate)
+          .description("Batches sent per second to the EDR API")
+          .tag("executor", executorName)
+          .register(meterRegistry);
+    }
+
+    /** Time to wait for a token, 0 once taken */
+    private synchronized long acquire(long now) {
+      if (now < heldUntil) {
+        return heldUntil - now;
+      }
+      tokens = Math.min(burst, tokens + (now - refilledAt) * currentRate / 1000.0);
+      refilledAt = now;
+      if (tokens >= 1) {
+        tokens -= 1;
+        return 0;
+      }
+      return Math.max(1, (long) Math.ceil((1 - tokens) * 1000.0 / currentRate));
+    }
+
+    private synchronized void holdUntil(long until) {
+      heldUntil = Math.max(heldUntil, until);
+      tokens = 0;
+    }
+
+    private synchronized void slowDown() {
+      currentRate = Math.max(rate, currentRate / 2);
+    }
+
+    private synchronized void speedUp() {
+      currentRate = Math.min(quotaReported ? maxRate : rate, currentRate * RATE_GROWTH);
+    }
+
+    private synchronized void quotaReported() {
+      quotaReported = true;
+    }
+
+    private synchronized double currentRate() {
+      return currentRate;
+    }
+  }
+}
@@ -6,6 +6,7 @@ import static io.openaev.service.FileService.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openaev.database.model.*;
 import io.openaev.database.model.Executor;
+import io.openaev.database.raw.RawExecutorSyncCursor;
 import io.openaev.database.repository.ConnectorInstanceConfigurationRepository;
 import io.openaev.database.repository.ExecutionTraceRepository;
 import io.openaev.database.repository.ExecutorRepository;
@@ -21,8 +22,11 @@ import io.openaev.utils.mapper.ExecutorMapper;
 import jakarta.annotation.Resource;
 import jakarta.transaction.Transactional;
 import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -185,6 +189,31 @@ public class ExecutorService extends AbstractConnectorService<Executor, Executor
     return executor;
   }
 
+  /**
+   * Dates of the last devices syncs of an executor
+   *
+   * @param executorId the executor
+   * @return the date of the last sync, by synced scope
+   */
+  public Map<String, Instant> syncCursors(String executorId) {
+    return executorRepository.rawSyncCursors(executorId).stream()
+        .collect(
+            Collectors.toMap(
+                RawExecutorSyncCursor::getExecutor_sync_cursor_key,
+                RawExecutorSyncCursor::getExecutor_sync_cursor_value));
+  }
+
+  /**
+   * Store the date of the last devices sync of an executor
+   *
+   * @param executorId the executor
+   * @param key the synced scope
+   * @param value the date the sync started at
+   */
+  public void saveSyncCursor(String executorId, String key, Instant value) {
+    executorRepository.saveSyncCursor(executorId, key, value);
+  }
+
   @Transactional
   public void remove(String id) {
     executorRepository.findById(id).ifPresent(executor -> executorRepository.deleteById(id));
@@ -5,6 +5,7 @@ import static io.openaev.integration.impl.executors.crowdstrike.CrowdStrikeExecu
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openaev.authorisation.HttpClientFactory;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.crowdstrike.config.CrowdStrikeExecutorConfig;
 import io.openaev.executors.crowdstrike.model.*;
 import io.openaev.executors.crowdstrike.model.Authentication;
@@ -12,6 +13,7 @@ import io.openaev.executors.crowdstrike.model.ResourcesHosts;
 import io.openaev.executors.crowdstrike.model.ResourcesSession;
 import io.openaev.executors.exception.ExecutorException;
 import io.openaev.service.EndpointService;
+import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.io.IOException;
@@ -21,6 +23,7 @@ import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.client5.http.ClientProtocolException;
@@ -28,10 +31,14 @@ import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -48,42 +55,60 @@ public class CrowdStrikeExecutorClient {
   private static final String REAL_TIME_RESPONSE_URI =
       "/real-time-response/combined/batch-active-responder-command/v1";
 
+  private static final String RATE_LIMIT_HEADER = "X-RateLimit-Limit";
+  private static final String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+  // Epoch second the quota is reset at
+  private static final String RATE_LIMIT_RETRY_AFTER_HEADER = "X-RateLimit-RetryAfter";
+
   private final CrowdStrikeExecutorConfig config;
   private final ObjectMapper objectMapper = new ObjectMapper();
   private final HttpClientFactory httpClientFactory;
+  private final ExecutorActionDispatcher executorActionDispatcher;
 
-  private Instant lastAuthentication = Instant.now().minusSeconds(AUTH_TIMEOUT);
-  private String token;
+  private volatile Instant lastAuthentication = Instant.now().minusSeconds(AUTH_TIMEOUT);
+  private volatile String token;
 
   // -- ENDPOINTS --
 
   public List<CrowdStrikeDevice> devices(String hostGroup) {
+    List<CrowdStrikeDevice> hosts = new ArrayList<>();
+    devices(hostGroup, null, hosts::addAll);
+    return hosts;
+  }
+
+  /**
+   * Fetch the devices of a host group page by page, without keeping them in memory
+   *
+   * @param hostGroup the host group
+   * @param modifiedSince only the devices modified since this date, all of them when null
+   * @param onPage called with every page of devices, in order
+   * @return false if the API answered with errors
+   */
+  public boolean devices(
+      String hostGroup, @Nullable Instant modifiedSince, Consumer<List<CrowdStrikeDevice>> onPage) {
     try {
       int offset = 0;
-      List<CrowdStrikeDevice> hosts = new ArrayList<>();
-      ResourcesHosts partialResults = getResourcesHosts(offset, hostGroup);
+      ResourcesHosts partialResults = getResourcesHosts(offset, hostGroup, modifiedSince);
       if (partialResults.getErrors() != null && !partialResults.getErrors().isEmpty()) {
         logErrors(partialResults.getErrors(), hostGroup);
-        return hosts;
+        return false;
       } else if (partialResults.getResources() == null) {
-        return hosts;
-      } else {
-        hosts.addAll(partialResults.getResources());
+        return true;
       }
+      onPage.accept(partialResults.getResources());
       int numberOfExecution =
           Math.ceilDiv(
               partialResults.getMeta().getPagination().getTotal(),
               partialResults.getMeta().getPagination().getLimit());
       for (int callNumber = 1; callNumber < numberOfExecution; callNumber += 1) {
         offset += partialResults.getMeta().getPagination().getLimit();
-        partialResults = getResourcesHosts(offset, hostGroup);
+        partialResults = getResourcesHosts(offset, hostGroup, modifiedSince);
         if (partialResults.getResources() == null) {
-          return hosts;
-        } else {
-          hosts.addAll(partialResults.getResources());
+          return true;
         }
+        onPage.accept(partialResults.getResources());
       }
-      return hosts;
+      return true;
     } catch (Exception e) {
       log.error(String.format("Unexpected error occurred. Error: %s", e.getMessage()), e);
       throw new ExecutorException(e, e.getMessage(), CROWDSTRIKE_EXECUTOR_NAME);
@@ -106,14 +131,17 @@ public class CrowdStrikeExecutorClient {
     log.error(msg.toString());
   }
 
-  private ResourcesHosts getResourcesHosts(int offset, String hostGroup) {
+  private ResourcesHosts getResourcesHosts(
+      int offset, String hostGroup, @Nullable Instant modifiedSince) {
+    DateTimeFormatter formatter =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZone(ZoneOffset.UTC);
     final String formattedDateTime =
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")
-            .withZone(ZoneOffset.UTC)
-            .format(Instant.now().minusMillis(EndpointService.DELETE_TTL));
-    String fqlFilter =
-        URLEncoder.encode(
-            "last_seen:>'" + formattedDateTime + "'+hostname:!null", StandardCharsets.UTF_8);
+        formatter.format(Instant.now().minusMillis(EndpointService.DELETE_TTL));
+    String fql = "last_seen:>'" + formattedDateTime + "'+hostname:!null";
+    if (modifiedSince != null) {
+      fql += "+modified_timestamp:>'" + formatter.format(modifiedSince) + "'";
+    }
+    String fqlFilter = URLEncoder.encode(fql, StandardCharsets.UTF_8);
     String jsonResponse;
     try {
       jsonResponse =
@@ -185,14 +213,17 @@ public class CrowdStrikeExecutorClient {
   // -- PRIVATE --
 
   private String get(@NotBlank final String uri) throws IOException {
-    if (this.lastAuthentication.isBefore(Instant.now().minusSeconds(AUTH_TIMEOUT))) {
-      this.authenticate();
-    }
+    this.authenticateIfExpired();
     try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
       HttpGet httpGet = new HttpGet(this.config.getApiUrl() + uri);
       // Headers
       httpGet.addHeader("Authorization", "Bearer " + this.token);
-      return httpClient.execute(httpGet, response -> EntityUtils.toString(response.getEntity()));
+      return httpClient.execute(
+          httpGet,
+          response -> {
+            reportRateLimit(response);
+            return EntityUtils.toString(response.getEntity());
+          });
     } catch (IOException e) {
       throw new ClientProtocolException("Unexpected response for request on: " + uri, e);
     }
@@ -200,9 +231,7 @@ public class CrowdStrikeExecutorClient {
 
   private String post(@NotBlank final String uri, @NotNull final Map<String, Object> body)
       throws IOException {
-    if (this.lastAuthentication.isBefore(Instant.now().minusSeconds(AUTH_TIMEOUT))) {
-      this.authenticate();
-    }
+    this.authenticateIfExpired();
     try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
       HttpPost httpPost = new HttpPost(this.config.getApiUrl() + uri);
       // Headers
@@ -211,7 +240,12 @@ public class CrowdStrikeExecutorClient {
       // Body
       StringEntity entity = new StringEntity(this.objectMapper.writeValueAsString(body));
       httpPost.setEntity(entity);
-      return httpClient.execute(httpPost, response -> EntityUtils.toString(response.getEntity()));
+      return httpClient.execute(
+          httpPost,
+          response -> {
+            reportRateLimit(response);
+            return EntityUtils.toString(response.getEntity());
+          });
     } catch (IOException e) {
       throw new ClientProtocolException("Unexpected response", e);
     }
@@ -228,6 +262,37 @@ public class CrowdStrikeExecutorClient {
     post(uri, body);
   }
 
+  // The quota of the API client, shared by all the calls, and its rejections pace the dispatch of
+  // the actions
+  private void reportRateLimit(ClassicHttpResponse response) {
+    HttpStatusCode status = HttpStatusCode.valueOf(response.getCode());
+    if (status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS) || status.is5xxServerError()) {
+      this.executorActionDispatcher.onRejected(CROWDSTRIKE_EXECUTOR_NAME);
+    }
+    Header limit = response.getFirstHeader(RATE_LIMIT_HEADER);
+    Header remaining = response.getFirstHeader(RATE_LIMIT_REMAINING_HEADER);
+    if (limit == null || remaining == null) {
+      return;
+    }
+    try {
+      Header retryAfter = response.getFirstHeader(RATE_LIMIT_RETRY_AFTER_HEADER);
+      this.executorActionDispatcher.onRateLimit(
+          CROWDSTRIKE_EXECUTOR_NAME,
+          Long.parseLong(limit.getValue()),
+          Long.parseLong(remaining.getValue()),
+          retryAfter != null ? Instant.ofEpochSecond(Long.parseLong(retryAfter.getValue())) : null);
+    } catch (NumberFormatException e) {
+      log.debug("Unreadable CrowdStrike rate limit headers: {}", e.getMessage());
+    }
+  }
+
+  // The host groups being fetched concurrently, a single thread renews the token
+  private synchronized void authenticateIfExpired() throws IOException {
+    if (this.lastAuthentication.isBefore(Instant.now().minusSeconds(AUTH_TIMEOUT))) {
+      this.authenticate();
+    }
+  }
+
   private void authenticate() throws IOException {
     try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
       HttpPost httpPost = new HttpPost(this.config.getApiUrl() + OAUTH_URI);
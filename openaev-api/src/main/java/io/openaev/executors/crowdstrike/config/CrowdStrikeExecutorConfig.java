@@ -49,7 +49,7 @@ public class CrowdStrikeExecutorConfig extends BaseIntegrationConfiguration {
       jsonType = CONNECTOR_CONFIGURATION_TYPE.INTEGER,
       description =
           """
-          Crowdstrike API pagination per 5 seconds to set for hosts batch executions (number of hosts sent per 5 seconds to Crowdstrike to execute a payload)
+          Crowdstrike API pagination to set for hosts batch executions (number of hosts sent per call to Crowdstrike to execute a payload, the calls being paced by the executor dispatch rate)
           """)
   @Getter
   @NotBlank
@@ -66,6 +66,28 @@ public class CrowdStrikeExecutorConfig extends BaseIntegrationConfiguration {
   @NotBlank
   private Integer apiRegisterInterval = 1200;
 
+  @IntegrationConfigKey(
+      key = "EXECUTOR_CROWDSTRIKE_API_SYNC_CONCURRENCY",
+      jsonType = CONNECTOR_CONFIGURATION_TYPE.INTEGER,
+      description =
+          """
+          Number of host groups whose hosts are fetched concurrently from the Crowdstrike API on a register
+          """)
+  @Getter
+  @NotBlank
+  private Integer apiSyncConcurrency = 4;
+
+  @IntegrationConfigKey(
+      key = "EXECUTOR_CROWDSTRIKE_API_FULL_SYNC_INTERVAL",
+      jsonType = CONNECTOR_CONFIGURATION_TYPE.INTEGER,
+      description =
+          """
+          Crowdstrike API interval to fetch all the hosts of the host groups (in hours). In between, only the hosts modified since the previous register are fetched. All the hosts are fetched at least once a day, to refresh their last seen date. 0 to always fetch all the hosts
+          """)
+  @Getter
+  @NotBlank
+  private Integer apiFullSyncInterval = 0;
+
   @IntegrationConfigKey(
       key = "EXECUTOR_CROWDSTRIKE_CLEAN_IMPLANT_INTERVAL",
       jsonType = CONNECTOR_CONFIGURATION_TYPE.INTEGER,
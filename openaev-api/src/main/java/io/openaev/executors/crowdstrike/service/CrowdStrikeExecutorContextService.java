@@ -7,6 +7,7 @@ import static io.openaev.integration.impl.executors.crowdstrike.CrowdStrikeExecu
 import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorContextService;
 import io.openaev.executors.ExecutorHelper;
 import io.openaev.executors.ExecutorService;
@@ -16,9 +17,6 @@ import io.openaev.executors.crowdstrike.model.CrowdStrikeAction;
 import jakarta.validation.constraints.NotNull;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -47,8 +45,7 @@ public class CrowdStrikeExecutorContextService extends ExecutorContextService {
   private final Ee eeService;
   private final LicenseCacheManager licenseCacheManager;
   private final ExecutorService executorService;
-
-  ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+  private final ExecutorActionDispatcher executorActionDispatcher;
 
   @Override
   public void launchExecutorSubprocess(
@@ -90,12 +87,17 @@ public class CrowdStrikeExecutorContextService extends ExecutorContextService {
         getMacOSActions(
             getAgentsFromOS(csAgents, Endpoint.PLATFORM_TYPE.MacOS), injector, inject.getId()));
     // Launch payloads with CS API
-    executeActions(actions);
+    executeActions(inject.getId(), actions);
     return csAgents;
   }
 
   public void executeActions(List<CrowdStrikeAction> actions) {
+    executeActions(null, actions);
+  }
+
+  public void executeActions(String injectId, List<CrowdStrikeAction> actions) {
     int paginationLimit = this.crowdStrikeExecutorConfig.getApiBatchExecutionActionPagination();
+    List<Runnable> batches = new ArrayList<>();
     for (CrowdStrikeAction action : actions) {
       int paginationCount = (int) Math.ceil(action.getAgents().size() / (double) paginationLimit);
       for (int batchIndex = 0; batchIndex < paginationCount; batchIndex++) {
@@ -103,17 +105,16 @@ public class CrowdStrikeExecutorContextService extends ExecutorContextService {
         int toIndex = Math.min(fromIndex + paginationLimit, action.getAgents().size());
         List<String> batchAgentIds =
             action.getAgents().subList(fromIndex, toIndex).stream().map(Agent::getId).toList();
-        // Pagination of XXX agents (paginationLimit) per batch with 5s waiting
-        // because each XXX actions will call the CS API to execute the implants
-        // and each implant will call OpenAEV API to set traces
-        scheduledExecutorService.schedule(
+        batches.add(
             () ->
                 this.crowdStrikeExecutorClient.executeAction(
-                    batchAgentIds, action.getScriptName(), action.getCommandEncoded()),
-            batchIndex * 5L,
-            TimeUnit.SECONDS);
+                    batchAgentIds, action.getScriptName(), action.getCommandEncoded()));
       }
     }
+    // Pagination of XXX agents (paginationLimit) per batch, paced by the dispatcher
+    // because each XXX actions will call the CS API to execute the implants
+    // and each implant will call OpenAEV API to set traces
+    executorActionDispatcher.dispatch(SERVICE_NAME, injectId, batches);
   }
 
   private List<CrowdStrikeAction> getWindowsActions(
@@ -3,6 +3,7 @@ package io.openaev.executors.crowdstrike.service;
 import static io.openaev.utils.time.TimeUtils.toInstant;
 
 import io.openaev.database.model.*;
+import io.openaev.executors.ExecutorService;
 import io.openaev.executors.crowdstrike.client.CrowdStrikeExecutorClient;
 import io.openaev.executors.crowdstrike.config.CrowdStrikeExecutorConfig;
 import io.openaev.executors.crowdstrike.model.CrowdStrikeDevice;
@@ -14,20 +15,33 @@ import io.openaev.integration.impl.executors.crowdstrike.CrowdStrikeExecutorInte
 import io.openaev.service.AgentService;
 import io.openaev.service.AssetGroupService;
 import io.openaev.service.EndpointService;
+import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class CrowdStrikeExecutorService implements Runnable {
+  private static final String DEVICES_CURSOR = "devices:";
+  private static final String FULL_DEVICES_CURSOR = "devices-full:";
+  // Pages fetched ahead of the reconciliation
+  private static final int PAGES_BUFFER = 8;
+
   private final CrowdStrikeExecutorClient client;
   private final CrowdStrikeExecutorConfig config;
   private final EndpointService endpointService;
   private final AgentService agentService;
   private final AssetGroupService assetGroupService;
+  private final ExecutorService executorService;
 
   private Executor executor = null;
 
@@ -54,60 +68,188 @@ public class CrowdStrikeExecutorService implements Runnable {
       CrowdStrikeExecutorConfig config,
       EndpointService endpointService,
       AgentService agentService,
-      AssetGroupService assetGroupService) {
+      AssetGroupService assetGroupService,
+      ExecutorService executorService) {
     this.client = client;
     this.config = config;
     this.endpointService = endpointService;
     this.agentService = agentService;
     this.assetGroupService = assetGroupService;
+    this.executorService = executorService;
     this.executor = executor;
   }
 
   @Override
   public void run() {
     log.info("Running CrowdStrike executor endpoints gathering...");
+    Instant syncStart = Instant.now();
     List<String> hostGroups = Stream.of(this.config.getHostGroup().split(",")).distinct().toList();
-    ResourcesGroups crowdStrikeResourceGroup;
-    CrowdStrikeHostGroup crowdStrikeHostGroup;
-    for (String hostGroup : hostGroups) {
-      crowdStrikeResourceGroup = this.client.hostGroup(hostGroup);
-      if (crowdStrikeResourceGroup.getErrors() != null
-          && !crowdStrikeResourceGroup.getErrors().isEmpty()) {
-        logErrors(crowdStrikeResourceGroup.getErrors(), hostGroup);
-        continue;
+    Map<String, Instant> cursors =
+        isIncremental() ? this.executorService.syncCursors(this.executor.getId()) : Map.of();
+    // The host groups are fetched concurrently, their pages reconciled one at a time
+    BlockingQueue<HostGroupPage> pages = new ArrayBlockingQueue<>(PAGES_BUFFER);
+    Semaphore fetchPermits = new Semaphore(Math.max(1, this.config.getApiSyncConcurrency()));
+    java.util.concurrent.ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      for (String hostGroup : hostGroups) {
+        fetchers.execute(() -> fetch(hostGroup, cursors, syncStart, fetchPermits, pages));
       }
-      List<CrowdStrikeDevice> devices = this.client.devices(hostGroup);
-      if (!devices.isEmpty()) {
-        Optional<AssetGroup> existingAssetGroup =
-            assetGroupService.findByExternalReference(hostGroup);
-        AssetGroup assetGroup;
-        if (existingAssetGroup.isPresent()) {
-          assetGroup = existingAssetGroup.get();
+      EndpointService.ExecutorAgents knownAgents =
+          new EndpointService.ExecutorAgents(
+              agentService.getAgentsByExecutorType(
+                  CrowdStrikeExecutorIntegration.CROWDSTRIKE_EXECUTOR_TYPE));
+      Map<String, List<Asset>> assetsByHostGroup = new HashMap<>();
+      int remainingHostGroups = hostGroups.size();
+      while (remainingHostGroups > 0) {
+        HostGroupPage page = pages.take();
+        if (page.devices() != null) {
+          List<Agent> agents =
+              endpointService.syncAgentsEndpoints(toAgentEndpoint(page.devices()), knownAgents);
+          assetsByHostGroup
+              .computeIfAbsent(page.hostGroup(), k -> new ArrayList<>())
+              .addAll(agents.stream().map(Agent::getAsset).toList());
         } else {
-          assetGroup = new AssetGroup();
-          assetGroup.setExternalReference(hostGroup);
+          remainingHostGroups -= 1;
+          endHostGroup(page, assetsByHostGroup.remove(page.hostGroup()), syncStart);
         }
-        crowdStrikeHostGroup = crowdStrikeResourceGroup.getResources().getFirst();
-        assetGroup.setName(crowdStrikeHostGroup.getName());
-        assetGroup.setDescription(crowdStrikeHostGroup.getDescription());
-        log.info(
-            "CrowdStrike executor provisioning based on "
-                + devices.size()
-                + " assets for the host group "
-                + assetGroup.getName());
-        List<Agent> agents =
-            endpointService.syncAgentsEndpoints(
-                toAgentEndpoint(devices),
-                agentService.getAgentsByExecutorType(
-                    CrowdStrikeExecutorIntegration.CROWDSTRIKE_EXECUTOR_TYPE));
-        assetGroup.setAssets(agents.stream().map(Agent::getAsset).toList());
-        assetGroupService.createOrUpdateAssetGroupWithoutDynamicAssets(assetGroup);
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      fetchers.shutdownNow();
     }
   }
 
   // -- PRIVATE --
 
+  /**
+   * A page of devices of a host group, or the end of the host group when devices is null
+   *
+   * @param hostGroup the host group
+   * @param devices the devices of the page
+   * @param group the host group details, on the end only
+   * @param fullSync whether all the devices of the host group were fetched, on the end only
+   * @param succeeded whether the host group was fetched without error, on the end only
+   */
+  private record HostGroupPage(
+      String hostGroup,
+      List<CrowdStrikeDevice> devices,
+      CrowdStrikeHostGroup group,
+      boolean fullSync,
+      boolean succeeded) {}
+
+  private boolean isIncremental() {
+    return this.executor != null && this.config.getApiFullSyncInterval() > 0;
+  }
+
+  private boolean isFullSync(String hostGroup, Map<String, Instant> cursors, Instant syncStart) {
+    if (!isIncremental()) {
+      return true;
+    }
+    // The unmodified hosts only get their last seen date from a full sync, done within the TTL
+    Duration fullSyncInterval =
+        Collections.min(
+            List.of(
+                Duration.ofHours(this.config.getApiFullSyncInterval()),
+                Duration.ofMillis(EndpointService.DELETE_TTL)));
+    Instant lastFullSync = cursors.get(FULL_DEVICES_CURSOR + hostGroup);
+    return lastFullSync == null
+        || !cursors.containsKey(DEVICES_CURSOR + hostGroup)
+        || lastFullSync.isBefore(syncStart.minus(fullSyncInterval));
+  }
+
+  private void fetch(
+      String hostGroup,
+      Map<String, Instant> cursors,
+      Instant syncStart,
+      Semaphore fetchPermits,
+      BlockingQueue<HostGroupPage> pages) {
+    CrowdStrikeHostGroup group = null;
+    boolean fullSync = true;
+    boolean succeeded = false;
+    try {
+      fetchPermits.acquire();
+      try {
+        ResourcesGroups crowdStrikeResourceGroup = this.client.hostGroup(hostGroup);
+        if (crowdStrikeResourceGroup.getErrors() != null
+            && !crowdStrikeResourceGroup.getErrors().isEmpty()) {
+          logErrors(crowdStrikeResourceGroup.getErrors(), hostGroup);
+          return;
+        }
+        group = crowdStrikeResourceGroup.getResources().getFirst();
+        fullSync = isFullSync(hostGroup, cursors, syncStart);
+        succeeded =
+            this.client.devices(
+                hostGroup,
+                fullSync ? null : cursors.get(DEVICES_CURSOR + hostGroup),
+                devices -> put(pages, new HostGroupPage(hostGroup, devices, null, false, false)));
+      } finally {
+        fetchPermits.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.error("Error fetching the CrowdStrike host group {}: {}", hostGroup, e.getMessage(), e);
+      succeeded = false;
+    } finally {
+      // Interrupted once the reconciliation stopped, nobody is waiting for the end anymore
+      if (!Thread.currentThread().isInterrupted()) {
+        put(pages, new HostGroupPage(hostGroup, null, group, fullSync, succeeded));
+      }
+    }
+  }
+
+  private static void put(BlockingQueue<HostGroupPage> pages, HostGroupPage page) {
+    try {
+      pages.put(page);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("CrowdStrike host group fetch interrupted", e);
+    }
+  }
+
+  // The assets are null when no device was fetched for the host group
+  private void endHostGroup(HostGroupPage end, @Nullable List<Asset> assets, Instant syncStart) {
+    if (!end.succeeded()) {
+      return;
+    }
+    if (assets != null) {
+      Optional<AssetGroup> existingAssetGroup =
+          assetGroupService.findByExternalReference(end.hostGroup());
+      AssetGroup assetGroup;
+      if (existingAssetGroup.isPresent()) {
+        assetGroup = existingAssetGroup.get();
+      } else {
+        assetGroup = new AssetGroup();
+        assetGroup.setExternalReference(end.hostGroup());
+      }
+      assetGroup.setName(end.group().getName());
+      assetGroup.setDescription(end.group().getDescription());
+      log.info(
+          "CrowdStrike executor provisioning based on "
+              + assets.size()
+              + " assets for the host group "
+              + assetGroup.getName());
+      if (existingAssetGroup.isPresent() && !end.fullSync()) {
+        // Only the modified devices were fetched, the other members are kept
+        assetGroupService.createOrUpdateAssetGroupWithoutDynamicAssets(assetGroup);
+        assetGroupService.addAssetsWithoutDynamicAssets(
+            assetGroup.getId(), assets.stream().map(Asset::getId).distinct().toList());
+      } else {
+        assetGroup.setAssets(assets.stream().distinct().toList());
+        assetGroupService.createOrUpdateAssetGroupWithoutDynamicAssets(assetGroup);
+      }
+    }
+    if (isIncremental()) {
+      this.executorService.saveSyncCursor(
+          this.executor.getId(), DEVICES_CURSOR + end.hostGroup(), syncStart);
+      if (end.fullSync()) {
+        this.executorService.saveSyncCursor(
+            this.executor.getId(), FULL_DEVICES_CURSOR + end.hostGroup(), syncStart);
+      }
+    }
+  }
+
   private void logErrors(List<CrowdstrikeError> errors, String hostGroup) {
     StringBuilder msg =
         new StringBuilder(
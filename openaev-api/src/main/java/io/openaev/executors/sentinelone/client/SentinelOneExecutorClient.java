@@ -5,21 +5,29 @@ import static io.openaev.integration.impl.executors.sentinelone.SentinelOneExecu
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openaev.authorisation.HttpClientFactory;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.exception.ExecutorException;
 import io.openaev.executors.sentinelone.config.SentinelOneExecutorConfig;
 import io.openaev.executors.sentinelone.model.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.client5.http.ClientProtocolException;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
 
 @RequiredArgsConstructor
@@ -34,9 +42,13 @@ public class SentinelOneExecutorClient {
   private static final String GROUP_FILTER = "&groupIds=";
   private static final String CURSOR_PARAM = "&cursor=";
 
+  private static final String RATE_LIMIT_HEADER = "X-RateLimit-Limit";
+  private static final String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+
   private final SentinelOneExecutorConfig config;
   private final ObjectMapper objectMapper = new ObjectMapper();
   private final HttpClientFactory httpClientFactory;
+  private final ExecutorActionDispatcher executorActionDispatcher;
 
   /**
    * Get SentinelOne agents for filters set in properties
@@ -45,30 +57,57 @@ public class SentinelOneExecutorClient {
    */
   public Set<SentinelOneAgent> agents() {
     Set<SentinelOneAgent> agents = new HashSet<>();
+    for (String filter : filters()) {
+      agents(filter, agents::addAll);
+    }
+    return agents;
+  }
+
+  /**
+   * Account, site and group filters set in properties
+   *
+   * @return the filters to fetch the agents with
+   */
+  public List<String> filters() {
+    List<String> filters = new ArrayList<>();
     if (this.config.getAccountId() != null && !this.config.getAccountId().isBlank()) {
-      setAllAgentsFromFilter(ACCOUNT_FILTER + this.config.getAccountId(), agents);
+      filters.add(ACCOUNT_FILTER + this.config.getAccountId());
     }
     if (this.config.getSiteId() != null && !this.config.getSiteId().isBlank()) {
-      setAllAgentsFromFilter(SITE_FILTER + this.config.getSiteId(), agents);
+      filters.add(SITE_FILTER + this.config.getSiteId());
     }
     if (this.config.getGroupId() != null && !this.config.getGroupId().isBlank()) {
-      setAllAgentsFromFilter(GROUP_FILTER + this.config.getGroupId(), agents);
+      filters.add(GROUP_FILTER + this.config.getGroupId());
     }
-    return agents;
+    return filters;
   }
 
-  private void setAllAgentsFromFilter(String filter, Set<SentinelOneAgent> agents) {
-    ResponseAgent responseAgent = getSentinelOneAgents(filter);
-    if (responseAgent.getErrors() != null && !responseAgent.getErrors().isEmpty()) {
-      logErrors(responseAgent.getErrors(), "uri: " + AGENTS_URI + filter);
-    } else {
+  /**
+   * Fetch the agents of a filter page by page, without keeping them in memory
+   *
+   * @param filter the filter, one of {@link #filters()}
+   * @param onPage called with every page of agents, in order
+   * @return false if the API answered with errors
+   */
+  public boolean agents(String filter, Consumer<List<SentinelOneAgent>> onPage) {
+    String cursorFilter = filter;
+    while (true) {
+      ResponseAgent responseAgent = getSentinelOneAgents(cursorFilter);
+      if (responseAgent.getErrors() != null && !responseAgent.getErrors().isEmpty()) {
+        logErrors(responseAgent.getErrors(), "uri: " + AGENTS_URI + cursorFilter);
+        return false;
+      }
+      if (responseAgent.getPagination() == null) {
+        // The request failed, already logged
+        return false;
+      }
       if (responseAgent.getData() != null) {
-        agents.addAll(responseAgent.getData());
+        onPage.accept(responseAgent.getData());
       }
-      if (responseAgent.getPagination().getNextCursor() != null) {
-        setAllAgentsFromFilter(
-            filter + CURSOR_PARAM + responseAgent.getPagination().getNextCursor(), agents);
+      if (responseAgent.getPagination().getNextCursor() == null) {
+        return true;
       }
+      cursorFilter = filter + CURSOR_PARAM + responseAgent.getPagination().getNextCursor();
     }
   }
 
@@ -141,7 +180,12 @@ public class SentinelOneExecutorClient {
       HttpGet httpGet = new HttpGet(this.config.getApiUrl() + uri);
       // Headers
       httpGet.addHeader("Authorization", "Bearer " + this.config.getApiKey());
-      return httpClient.execute(httpGet, response -> EntityUtils.toString(response.getEntity()));
+      return httpClient.execute(
+          httpGet,
+          response -> {
+            reportRateLimit(response);
+            return EntityUtils.toString(response.getEntity());
+          });
     } catch (IOException e) {
       throw new ClientProtocolException(
           "Unexpected response for HTTP GET SentinelOne on: " + uri, e);
@@ -158,9 +202,44 @@ public class SentinelOneExecutorClient {
       // Body
       StringEntity entity = new StringEntity(this.objectMapper.writeValueAsString(body));
       httpPost.setEntity(entity);
-      return httpClient.execute(httpPost, response -> EntityUtils.toString(response.getEntity()));
+      return httpClient.execute(
+          httpPost,
+          response -> {
+            reportRateLimit(response);
+            return EntityUtils.toString(response.getEntity());
+          });
     } catch (IOException e) {
       throw new ClientProtocolException("Unexpected response for HTTP POST SentinelOne", e);
     }
   }
+
+  // The quota of the API token, shared by all the calls, and its rejections pace the dispatch of
+  // the actions
+  private void reportRateLimit(ClassicHttpResponse response) {
+    HttpStatusCode status = HttpStatusCode.valueOf(response.getCode());
+    if (status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS) || status.is5xxServerError()) {
+      this.executorActionDispatcher.onRejected(SENTINELONE_EXECUTOR_NAME);
+    }
+    try {
+      Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+      Instant resetAt =
+          retryAfter != null
+              ? Instant.now().plusSeconds(Long.parseLong(retryAfter.getValue()))
+              : null;
+      Header limit = response.getFirstHeader(RATE_LIMIT_HEADER);
+      Header remaining = response.getFirstHeader(RATE_LIMIT_REMAINING_HEADER);
+      if (limit != null && remaining != null) {
+        this.executorActionDispatcher.onRateLimit(
+            SENTINELONE_EXECUTOR_NAME,
+            Long.parseLong(limit.getValue()),
+            Long.parseLong(remaining.getValue()),
+            resetAt);
+      } else if (resetAt != null) {
+        // Rejected without the quota, held until the API accepts the calls again
+        this.executorActionDispatcher.onRateLimit(SENTINELONE_EXECUTOR_NAME, 0, 0, resetAt);
+      }
+    } catch (NumberFormatException e) {
+      log.debug("Unreadable SentinelOne rate limit headers: {}", e.getMessage());
+    }
+  }
 }
@@ -68,7 +68,7 @@ public class SentinelOneExecutorConfig extends BaseIntegrationConfiguration {
       key = "EXECUTOR_SENTINELONE_API_BATCH_EXECUTION_ACTION_PAGINATION",
       description =
           """
-          SentinelOne API pagination per 5 seconds to set for agents batch executions (number of agents sent per 5 seconds to SentinelOne to execute a payload)
+          SentinelOne API pagination to set for agents batch executions (number of agents sent per call to SentinelOne to execute a payload, the calls being paced by the executor dispatch rate)
           """,
       jsonType = CONNECTOR_CONFIGURATION_TYPE.INTEGER)
   @Getter
@@ -86,6 +86,17 @@ public class SentinelOneExecutorConfig extends BaseIntegrationConfiguration {
   @NotBlank
   private Integer apiRegisterInterval = 1200;
 
+  @IntegrationConfigKey(
+      key = "EXECUTOR_SENTINELONE_API_SYNC_CONCURRENCY",
+      description =
+          """
+          Number of account/site/group filters whose agents are fetched concurrently from the SentinelOne API on a register
+          """,
+      jsonType = CONNECTOR_CONFIGURATION_TYPE.INTEGER)
+  @Getter
+  @NotBlank
+  private Integer apiSyncConcurrency = 3;
+
   @IntegrationConfigKey(
       key = "EXECUTOR_SENTINELONE_CLEAN_IMPLANT_INTERVAL",
       description =
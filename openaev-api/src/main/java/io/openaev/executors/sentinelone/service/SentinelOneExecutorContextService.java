@@ -7,6 +7,7 @@ import static io.openaev.integration.impl.executors.sentinelone.SentinelOneExecu
 import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorContextService;
 import io.openaev.executors.ExecutorHelper;
 import io.openaev.executors.ExecutorService;
@@ -17,9 +18,6 @@ import io.openaev.executors.sentinelone.model.SentinelOneAction;
 import jakarta.validation.constraints.NotNull;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -39,13 +37,12 @@ public class SentinelOneExecutorContextService extends ExecutorContextService {
   private static final String MAC_EXTERNAL_REFERENCE =
       "agentID=$(sudo /Library/Sentinel/sentinel-agent.bundle/Contents/MacOS/sentinelctl status | grep ID: | sed 's/ID: //g; s/ //g');";
 
-  ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
-
   private final SentinelOneExecutorConfig config;
   private final SentinelOneExecutorClient client;
   private final Ee eeService;
   private final LicenseCacheManager licenseCacheManager;
   private final ExecutorService executorService;
+  private final ExecutorActionDispatcher executorActionDispatcher;
 
   @Override
   public void launchExecutorSubprocess(
@@ -113,12 +110,17 @@ public class SentinelOneExecutorContextService extends ExecutorContextService {
       }
     }
     // Launch payloads with SentinelOne API
-    executeActions(actions);
+    executeActions(inject.getId(), actions);
     return sentinelOneAgents;
   }
 
   public void executeActions(List<SentinelOneAction> actions) {
+    executeActions(null, actions);
+  }
+
+  public void executeActions(String injectId, List<SentinelOneAction> actions) {
     int paginationLimit = this.config.getApiBatchExecutionActionPagination();
+    List<Runnable> batches = new ArrayList<>();
     for (SentinelOneAction action : actions) {
       int paginationCount = (int) Math.ceil(action.getAgents().size() / (double) paginationLimit);
       for (int batchIndex = 0; batchIndex < paginationCount; batchIndex++) {
@@ -126,17 +128,16 @@ public class SentinelOneExecutorContextService extends ExecutorContextService {
         int toIndex = Math.min(fromIndex + paginationLimit, action.getAgents().size());
         List<String> batchAgentIds =
             action.getAgents().subList(fromIndex, toIndex).stream().map(Agent::getId).toList();
-        // Pagination of XXX agents (paginationLimit) per batch with 5s waiting
-        // because each XXX actions will call the SentinelOne API to execute the implants
-        // and each implant will call OpenAEV API to set traces
-        scheduledExecutorService.schedule(
+        batches.add(
             () ->
                 this.client.executeScript(
-                    batchAgentIds, action.getScriptId(), action.getCommandEncoded()),
-            batchIndex * 5L,
-            TimeUnit.SECONDS);
+                    batchAgentIds, action.getScriptId(), action.getCommandEncoded()));
       }
     }
+    // Pagination of XXX agents (paginationLimit) per batch, paced by the dispatcher
+    // because each XXX actions will call the SentinelOne API to execute the implants
+    // and each implant will call OpenAEV API to set traces
+    executorActionDispatcher.dispatch(SERVICE_NAME, injectId, batches);
   }
 
   private List<SentinelOneAction> getWindowsActions(
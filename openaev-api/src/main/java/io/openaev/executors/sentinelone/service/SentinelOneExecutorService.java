@@ -5,6 +5,7 @@ import static io.openaev.integration.impl.executors.sentinelone.SentinelOneExecu
 import io.openaev.database.model.*;
 import io.openaev.executors.model.AgentRegisterInput;
 import io.openaev.executors.sentinelone.client.SentinelOneExecutorClient;
+import io.openaev.executors.sentinelone.config.SentinelOneExecutorConfig;
 import io.openaev.executors.sentinelone.model.SentinelOneAgent;
 import io.openaev.executors.sentinelone.model.SentinelOneNetwork;
 import io.openaev.service.AgentService;
@@ -13,12 +14,20 @@ import io.openaev.service.EndpointService;
 import jakarta.validation.constraints.NotBlank;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class SentinelOneExecutorService implements Runnable {
+  // Pages fetched ahead of the reconciliation
+  private static final int PAGES_BUFFER = 8;
+
   private final SentinelOneExecutorClient client;
+  private final SentinelOneExecutorConfig config;
   private final EndpointService endpointService;
   private final AgentService agentService;
   private final AssetGroupService assetGroupService;
@@ -45,11 +54,13 @@ public class SentinelOneExecutorService implements Runnable {
   public SentinelOneExecutorService(
       Executor executor,
       SentinelOneExecutorClient client,
+      SentinelOneExecutorConfig config,
       EndpointService endpointService,
       AgentService agentService,
       AssetGroupService assetGroupService) {
     this.executor = executor;
     this.client = client;
+    this.config = config;
     this.endpointService = endpointService;
     this.agentService = agentService;
     this.assetGroupService = assetGroupService;
@@ -58,42 +69,66 @@ public class SentinelOneExecutorService implements Runnable {
   @Override
   public void run() {
     log.info("Running SentinelOne executor endpoints gathering...");
-    Set<SentinelOneAgent> sentinelOneAgents = this.client.agents();
-    if (!sentinelOneAgents.isEmpty()) {
-      // Put sentinel one agents into two maps: account/site/group id with agents ids +
+    List<String> filters = this.client.filters();
+    // The filters are fetched concurrently, their pages reconciled one at a time
+    BlockingQueue<FilterPage> pages = new ArrayBlockingQueue<>(PAGES_BUFFER);
+    Semaphore fetchPermits = new Semaphore(Math.max(1, this.config.getApiSyncConcurrency()));
+    java.util.concurrent.ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      for (String filter : filters) {
+        fetchers.execute(() -> fetch(filter, fetchPermits, pages));
+      }
+      EndpointService.ExecutorAgents knownAgents =
+          new EndpointService.ExecutorAgents(
+              agentService.getAgentsByExecutorType(SENTINELONE_EXECUTOR_TYPE));
+      // Synced agents by sentinel one agent id, an agent being returned by several filters
+      Map<String, Agent> syncedAgents = new HashMap<>();
+      // Put sentinel one agents into two maps: account/site/group id with assets +
       // account/site/group id with account/site/group name
-      Map<String, List<String>> assetGroupIdAgentIdsMap = new HashMap<>();
+      Map<String, Set<Asset>> assetGroupIdAssetsMap = new HashMap<>();
       Map<String, String> assetGroupIdNameMap = new HashMap<>();
-      for (SentinelOneAgent agent : sentinelOneAgents) {
-        String accountName = agent.getAccountName();
-        String siteName = accountName + "_" + agent.getSiteName();
-        String groupName = siteName + "_" + agent.getGroupName();
-        String agentId = agent.getUuid();
-        assetGroupIdAgentIdsMap
-            .computeIfAbsent(agent.getAccountId(), k -> new ArrayList<>())
-            .add(agentId);
-        assetGroupIdNameMap.putIfAbsent(agent.getAccountId(), accountName);
-        assetGroupIdAgentIdsMap
-            .computeIfAbsent(agent.getSiteId(), k -> new ArrayList<>())
-            .add(agentId);
-        assetGroupIdNameMap.putIfAbsent(agent.getSiteId(), siteName);
-        assetGroupIdAgentIdsMap
-            .computeIfAbsent(agent.getGroupId(), k -> new ArrayList<>())
-            .add(agentId);
-        assetGroupIdNameMap.putIfAbsent(agent.getGroupId(), groupName);
+      boolean succeeded = true;
+      int remainingFilters = filters.size();
+      while (remainingFilters > 0) {
+        FilterPage page = pages.take();
+        if (page.agents() == null) {
+          remainingFilters -= 1;
+          succeeded &= page.succeeded();
+          continue;
+        }
+        // Sync the sentinel one agents of the page to become OpenAEV agents/endpoints
+        List<SentinelOneAgent> newAgents =
+            page.agents().stream()
+                .filter(agent -> !syncedAgents.containsKey(agent.getUuid()))
+                .toList();
+        if (!newAgents.isEmpty()) {
+          endpointService
+              .syncAgentsEndpoints(toAgentEndpoint(newAgents), knownAgents)
+              .forEach(agent -> syncedAgents.put(agent.getExternalReference(), agent));
+        }
+        for (SentinelOneAgent agent : page.agents()) {
+          String accountName = agent.getAccountName();
+          String siteName = accountName + "_" + agent.getSiteName();
+          String groupName = siteName + "_" + agent.getGroupName();
+          Agent synced = syncedAgents.get(agent.getUuid());
+          addMember(assetGroupIdAssetsMap, agent.getAccountId(), synced);
+          assetGroupIdNameMap.putIfAbsent(agent.getAccountId(), accountName);
+          addMember(assetGroupIdAssetsMap, agent.getSiteId(), synced);
+          assetGroupIdNameMap.putIfAbsent(agent.getSiteId(), siteName);
+          addMember(assetGroupIdAssetsMap, agent.getGroupId(), synced);
+          assetGroupIdNameMap.putIfAbsent(agent.getGroupId(), groupName);
+        }
+      }
+      if (!succeeded) {
+        // The members of the accounts/sites/groups are only known from all the filters
+        log.warn("SentinelOne asset groups not updated, some agents could not be fetched");
+        return;
       }
-      // Sync all sentinel one agents to become OpenAEV agents/endpoints
-      List<Agent> agents =
-          endpointService.syncAgentsEndpoints(
-              toAgentEndpoint(sentinelOneAgents),
-              agentService.getAgentsByExecutorType(SENTINELONE_EXECUTOR_TYPE));
       // For each sentinel one account/site/group id, create/update the relevant OpenAEV asset group
       Optional<AssetGroup> existingAssetGroup;
       AssetGroup assetGroup;
-      for (Map.Entry<String, List<String>> assetGroupIdAgentIds :
-          assetGroupIdAgentIdsMap.entrySet()) {
-        String assetGroupId = assetGroupIdAgentIds.getKey();
-        List<String> agentIds = assetGroupIdAgentIds.getValue();
+      for (Map.Entry<String, Set<Asset>> assetGroupIdAssets : assetGroupIdAssetsMap.entrySet()) {
+        String assetGroupId = assetGroupIdAssets.getKey();
         existingAssetGroup = assetGroupService.findByExternalReference(assetGroupId);
         if (existingAssetGroup.isPresent()) {
           assetGroup = existingAssetGroup.get();
@@ -102,17 +137,76 @@ public class SentinelOneExecutorService implements Runnable {
           assetGroup.setExternalReference(assetGroupId);
         }
         assetGroup.setName(assetGroupIdNameMap.get(assetGroupId));
-        assetGroup.setAssets(
-            agents.stream()
-                .filter(agent -> agentIds.contains(agent.getId()))
-                .map(Agent::getAsset)
-                .toList());
+        assetGroup.setAssets(new ArrayList<>(assetGroupIdAssets.getValue()));
         assetGroupService.createOrUpdateAssetGroupWithoutDynamicAssets(assetGroup);
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      fetchers.shutdownNow();
+    }
+  }
+
+  // -- PRIVATE --
+
+  /**
+   * A page of agents of a filter, or the end of the filter when agents is null
+   *
+   * @param filter the account, site or group filter
+   * @param agents the agents of the page
+   * @param succeeded whether the filter was fetched without error, on the end only
+   */
+  private record FilterPage(String filter, List<SentinelOneAgent> agents, boolean succeeded) {}
+
+  private void fetch(String filter, Semaphore fetchPermits, BlockingQueue<FilterPage> pages) {
+    boolean succeeded = false;
+    try {
+      fetchPermits.acquire();
+      try {
+        succeeded =
+            this.client.agents(
+                filter,
+                agents -> {
+                  if (!agents.isEmpty()) {
+                    put(pages, new FilterPage(filter, agents, false));
+                  }
+                });
+      } finally {
+        fetchPermits.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.error("Error fetching the SentinelOne agents for {}: {}", filter, e.getMessage(), e);
+      succeeded = false;
+    } finally {
+      // Interrupted once the reconciliation stopped, nobody is waiting for the end anymore
+      if (!Thread.currentThread().isInterrupted()) {
+        put(pages, new FilterPage(filter, null, succeeded));
+      }
+    }
+  }
+
+  private static void put(BlockingQueue<FilterPage> pages, FilterPage page) {
+    try {
+      pages.put(page);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("SentinelOne agents fetch interrupted", e);
+    }
+  }
+
+  // The asset group is kept without the agent when it could not be synced
+  private static void addMember(
+      Map<String, Set<Asset>> assetGroupIdAssetsMap, String assetGroupId, Agent agent) {
+    Set<Asset> assets =
+        assetGroupIdAssetsMap.computeIfAbsent(assetGroupId, k -> new LinkedHashSet<>());
+    if (agent != null) {
+      assets.add(agent.getAsset());
     }
   }
 
-  private List<AgentRegisterInput> toAgentEndpoint(Set<SentinelOneAgent> agents) {
+  private List<AgentRegisterInput> toAgentEndpoint(List<SentinelOneAgent> agents) {
     return agents.stream()
         .map(
             sentinelOneAgent -> {
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openaev.authorisation.HttpClientFactory;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.exception.ExecutorException;
 import io.openaev.executors.tanium.config.TaniumExecutorConfig;
 import io.openaev.executors.tanium.model.DataComputerGroup;
@@ -25,15 +26,19 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.client5.http.ClientProtocolException;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -100,15 +105,36 @@ public class TaniumExecutorClient {
                   }
                   """;
 
+  private static final String RATE_LIMIT_HEADER = "X-RateLimit-Limit";
+  private static final String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+
   private final TaniumExecutorConfig config;
   private final ObjectMapper objectMapper = new ObjectMapper();
   private final HttpClientFactory httpClientFactory;
+  private final ExecutorActionDispatcher executorActionDispatcher;
 
   // -- ENDPOINTS --
 
   public List<NodeEndpoint> endpoints(String computerGroupId) {
     List<NodeEndpoint> endpoints = new ArrayList<>();
-    return getAllEndpointsFromComputerGroup(null, computerGroupId, endpoints);
+    endpoints(computerGroupId, endpoints::addAll);
+    return endpoints;
+  }
+
+  /**
+   * Fetch the endpoints of a computer group page by page, without keeping them in memory
+   *
+   * @param computerGroupId the computer group
+   * @param onPage called with every page of endpoints, in order
+   */
+  public void endpoints(String computerGroupId, Consumer<List<NodeEndpoint>> onPage) {
+    String after = null;
+    EdgesEndpoints edgesEndpoints;
+    do {
+      edgesEndpoints = getTaniumEndpoints(after, computerGroupId);
+      onPage.accept(edgesEndpoints.getEdges());
+      after = edgesEndpoints.getPageInfo().getEndCursor();
+    } while (edgesEndpoints.getPageInfo().isHasNextPage());
   }
 
   public List<NodeEndpoint> getAllEndpointsFromComputerGroup(
@@ -242,6 +268,7 @@ public class TaniumExecutorClient {
       return httpClient.execute(
           httpPost,
           (ClassicHttpResponse response) -> {
+            reportRateLimit(response);
             int status = response.getCode();
             String result = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
 
@@ -286,6 +313,36 @@ public class TaniumExecutorClient {
     }
   }
 
+  // The quota of the API token, shared by all the calls, and its rejections pace the dispatch of
+  // the actions
+  private void reportRateLimit(ClassicHttpResponse response) {
+    HttpStatusCode status = HttpStatusCode.valueOf(response.getCode());
+    if (status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS) || status.is5xxServerError()) {
+      this.executorActionDispatcher.onRejected(TANIUM_EXECUTOR_NAME);
+    }
+    try {
+      Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+      Instant resetAt =
+          retryAfter != null
+              ? Instant.now().plusSeconds(Long.parseLong(retryAfter.getValue()))
+              : null;
+      Header limit = response.getFirstHeader(RATE_LIMIT_HEADER);
+      Header remaining = response.getFirstHeader(RATE_LIMIT_REMAINING_HEADER);
+      if (limit != null && remaining != null) {
+        this.executorActionDispatcher.onRateLimit(
+            TANIUM_EXECUTOR_NAME,
+            Long.parseLong(limit.getValue()),
+            Long.parseLong(remaining.getValue()),
+            resetAt);
+      } else if (resetAt != null) {
+        // Rejected without the quota, held until the API accepts the calls again
+        this.executorActionDispatcher.onRateLimit(TANIUM_EXECUTOR_NAME, 0, 0, resetAt);
+      }
+    } catch (NumberFormatException e) {
+      log.debug("Unreadable Tanium rate limit headers: {}", e.getMessage());
+    }
+  }
+
   private static class GraphQLResponse<T> {
 
     public T data;
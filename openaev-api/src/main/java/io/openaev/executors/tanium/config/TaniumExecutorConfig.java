@@ -55,7 +55,7 @@ public class TaniumExecutorConfig extends BaseIntegrationConfiguration {
       key = "EXECUTOR_TANIUM_API_BATCH_EXECUTION_ACTION_PAGINATION",
       description =
           """
-          Tanium API pagination per 5 seconds to set for endpoints batch executions (number of endpoints sent per 5 seconds to Tanium to execute a payload)
+          Tanium API pagination to set for endpoints batch executions (number of endpoints sent per batch of calls to Tanium to execute a payload, the batches being paced by the executor dispatch rate)
           """,
       jsonType = CONNECTOR_CONFIGURATION_TYPE.INTEGER)
   @Getter
@@ -73,6 +73,17 @@ public class TaniumExecutorConfig extends BaseIntegrationConfiguration {
   @NotBlank
   private Integer apiRegisterInterval = 1200;
 
+  @IntegrationConfigKey(
+      key = "EXECUTOR_TANIUM_API_SYNC_CONCURRENCY",
+      description =
+          """
+          Number of computer groups whose endpoints are fetched concurrently from the Tanium API on a register
+          """,
+      jsonType = CONNECTOR_CONFIGURATION_TYPE.INTEGER)
+  @Getter
+  @NotBlank
+  private Integer apiSyncConcurrency = 4;
+
   @IntegrationConfigKey(
       key = "EXECUTOR_TANIUM_CLEAN_IMPLANT_INTERVAL",
       description =
@@ -7,6 +7,7 @@ import static io.openaev.integration.impl.executors.tanium.TaniumExecutorIntegra
 import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorContextService;
 import io.openaev.executors.ExecutorHelper;
 import io.openaev.executors.ExecutorService;
@@ -16,9 +17,6 @@ import io.openaev.executors.tanium.config.TaniumExecutorConfig;
 import io.openaev.executors.tanium.model.TaniumAction;
 import jakarta.validation.constraints.NotNull;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,10 +33,9 @@ public class TaniumExecutorContextService extends ExecutorContextService {
   private final TaniumExecutorConfig taniumExecutorConfig;
   private final TaniumExecutorClient taniumExecutorClient;
   private final ExecutorService executorService;
+  private final ExecutorActionDispatcher executorActionDispatcher;
   public static final String SERVICE_NAME = TANIUM_EXECUTOR_NAME;
 
-  ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
-
   @Override
   public void launchExecutorSubprocess(
       @NotNull final Inject inject,
@@ -97,32 +94,36 @@ public class TaniumExecutorContextService extends ExecutorContextService {
       }
     }
     // Launch payloads with Tanium API
-    executeActions(actions);
+    executeActions(inject.getId(), actions);
     return taniumAgents;
   }
 
   public void executeActions(List<TaniumAction> actions) {
+    executeActions(null, actions);
+  }
+
+  public void executeActions(String injectId, List<TaniumAction> actions) {
     int paginationLimit = this.taniumExecutorConfig.getApiBatchExecutionActionPagination();
     int paginationCount = (int) Math.ceil(actions.size() / (double) paginationLimit);
 
+    List<Runnable> batches = new ArrayList<>();
     for (int batchIndex = 0; batchIndex < paginationCount; batchIndex++) {
       int fromIndex = (batchIndex * paginationLimit);
       int toIndex = Math.min(fromIndex + paginationLimit, actions.size());
       List<TaniumAction> batchActions = actions.subList(fromIndex, toIndex);
-      // Pagination of XXX calls (paginationLimit) per batch with 5s waiting
-      // because each action will call the Tanium API to execute the implant
-      // and each implant will call OpenAEV API to set traces
-      scheduledExecutorService.schedule(
+      batches.add(
           () ->
               batchActions.forEach(
                   action ->
                       this.taniumExecutorClient.executeAction(
                           action.getAgentExternalReference(),
                           action.getScriptId(),
-                          action.getCommandEncoded())),
-          batchIndex * 5L,
-          TimeUnit.SECONDS);
+                          action.getCommandEncoded())));
     }
+    // Pagination of XXX calls (paginationLimit) per batch, paced by the dispatcher
+    // because each action will call the Tanium API to execute the implant
+    // and each implant will call OpenAEV API to set traces
+    executorActionDispatcher.dispatch(SERVICE_NAME, injectId, batches);
   }
 
   private List<TaniumAction> getWindowsActions(
@@ -13,15 +13,23 @@ import io.openaev.integration.impl.executors.tanium.TaniumExecutorIntegration;
 import io.openaev.service.AgentService;
 import io.openaev.service.AssetGroupService;
 import io.openaev.service.EndpointService;
+import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class TaniumExecutorService implements Runnable {
+  // Pages fetched ahead of the reconciliation
+  private static final int PAGES_BUFFER = 8;
+
   private final TaniumExecutorClient client;
   private final TaniumExecutorConfig config;
   private final EndpointService endpointService;
@@ -67,39 +75,122 @@ public class TaniumExecutorService implements Runnable {
     log.info("Running Tanium executor endpoints gathering...");
     List<String> computerGroupIds =
         Stream.of(this.config.getComputerGroupId().split(",")).distinct().toList();
-    for (String computerGroupId : computerGroupIds) {
-      TaniumComputerGroup computerGroup =
-          this.client.computerGroup(computerGroupId).getComputerGroup();
-      List<NodeEndpoint> nodeEndpoints = this.client.endpoints(computerGroupId);
-      if (!nodeEndpoints.isEmpty()) {
-        Optional<AssetGroup> existingAssetGroup =
-            assetGroupService.findByExternalReference(computerGroupId);
-        AssetGroup assetGroup;
-        if (existingAssetGroup.isPresent()) {
-          assetGroup = existingAssetGroup.get();
+    // The computer groups are fetched concurrently, their pages reconciled one at a time
+    BlockingQueue<ComputerGroupPage> pages = new ArrayBlockingQueue<>(PAGES_BUFFER);
+    Semaphore fetchPermits = new Semaphore(Math.max(1, this.config.getApiSyncConcurrency()));
+    java.util.concurrent.ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      for (String computerGroupId : computerGroupIds) {
+        fetchers.execute(() -> fetch(computerGroupId, fetchPermits, pages));
+      }
+      EndpointService.ExecutorAgents knownAgents =
+          new EndpointService.ExecutorAgents(
+              agentService.getAgentsByExecutorType(TaniumExecutorIntegration.TANIUM_EXECUTOR_TYPE));
+      Map<String, List<Asset>> assetsByComputerGroup = new HashMap<>();
+      int remainingComputerGroups = computerGroupIds.size();
+      while (remainingComputerGroups > 0) {
+        ComputerGroupPage page = pages.take();
+        if (page.endpoints() != null) {
+          List<Agent> agents =
+              endpointService.syncAgentsEndpoints(toAgentEndpoint(page.endpoints()), knownAgents);
+          assetsByComputerGroup
+              .computeIfAbsent(page.computerGroupId(), k -> new ArrayList<>())
+              .addAll(agents.stream().map(Agent::getAsset).toList());
         } else {
-          assetGroup = new AssetGroup();
-          assetGroup.setExternalReference(computerGroupId);
+          remainingComputerGroups -= 1;
+          endComputerGroup(page, assetsByComputerGroup.remove(page.computerGroupId()));
         }
-        assetGroup.setName(computerGroup.getName());
-        log.info(
-            "Tanium executor provisioning based on "
-                + nodeEndpoints.size()
-                + " assets for the computer group "
-                + assetGroup.getName());
-        List<Agent> agents =
-            endpointService.syncAgentsEndpoints(
-                toAgentEndpoint(nodeEndpoints),
-                agentService.getAgentsByExecutorType(
-                    TaniumExecutorIntegration.TANIUM_EXECUTOR_TYPE));
-        assetGroup.setAssets(agents.stream().map(Agent::getAsset).toList());
-        assetGroupService.createOrUpdateAssetGroupWithoutDynamicAssets(assetGroup);
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      fetchers.shutdownNow();
     }
   }
 
   // -- PRIVATE --
 
+  /**
+   * A page of endpoints of a computer group, or the end of the computer group when endpoints is
+   * null
+   *
+   * @param computerGroupId the computer group
+   * @param endpoints the endpoints of the page
+   * @param computerGroup the computer group details, on the end only
+   * @param succeeded whether the computer group was fetched without error, on the end only
+   */
+  private record ComputerGroupPage(
+      String computerGroupId,
+      List<NodeEndpoint> endpoints,
+      TaniumComputerGroup computerGroup,
+      boolean succeeded) {}
+
+  private void fetch(
+      String computerGroupId, Semaphore fetchPermits, BlockingQueue<ComputerGroupPage> pages) {
+    TaniumComputerGroup computerGroup = null;
+    boolean succeeded = false;
+    try {
+      fetchPermits.acquire();
+      try {
+        computerGroup = this.client.computerGroup(computerGroupId).getComputerGroup();
+        this.client.endpoints(
+            computerGroupId,
+            endpoints -> {
+              if (!endpoints.isEmpty()) {
+                put(pages, new ComputerGroupPage(computerGroupId, endpoints, null, false));
+              }
+            });
+        succeeded = true;
+      } finally {
+        fetchPermits.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.error(
+          "Error fetching the Tanium computer group {}: {}", computerGroupId, e.getMessage(), e);
+      succeeded = false;
+    } finally {
+      // Interrupted once the reconciliation stopped, nobody is waiting for the end anymore
+      if (!Thread.currentThread().isInterrupted()) {
+        put(pages, new ComputerGroupPage(computerGroupId, null, computerGroup, succeeded));
+      }
+    }
+  }
+
+  private static void put(BlockingQueue<ComputerGroupPage> pages, ComputerGroupPage page) {
+    try {
+      pages.put(page);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Tanium computer group fetch interrupted", e);
+    }
+  }
+
+  // The assets are null when no endpoint was fetched for the computer group
+  private void endComputerGroup(ComputerGroupPage end, @Nullable List<Asset> assets) {
+    if (!end.succeeded() || assets == null) {
+      return;
+    }
+    Optional<AssetGroup> existingAssetGroup =
+        assetGroupService.findByExternalReference(end.computerGroupId());
+    AssetGroup assetGroup;
+    if (existingAssetGroup.isPresent()) {
+      assetGroup = existingAssetGroup.get();
+    } else {
+      assetGroup = new AssetGroup();
+      assetGroup.setExternalReference(end.computerGroupId());
+    }
+    assetGroup.setName(end.computerGroup().getName());
+    log.info(
+        "Tanium executor provisioning based on "
+            + assets.size()
+            + " assets for the computer group "
+            + assetGroup.getName());
+    assetGroup.setAssets(assets.stream().distinct().toList());
+    assetGroupService.createOrUpdateAssetGroupWithoutDynamicAssets(assetGroup);
+  }
+
   private List<AgentRegisterInput> toAgentEndpoint(
       @NotNull final List<NodeEndpoint> nodeEndpoints) {
     return nodeEndpoints.stream()
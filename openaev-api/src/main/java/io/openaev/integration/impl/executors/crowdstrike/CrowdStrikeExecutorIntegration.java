@@ -8,6 +8,7 @@ import io.openaev.database.model.ConnectorType;
 import io.openaev.database.model.Endpoint;
 import io.openaev.database.model.Executor;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.crowdstrike.client.CrowdStrikeExecutorClient;
 import io.openaev.executors.crowdstrike.config.CrowdStrikeExecutorConfig;
@@ -62,6 +63,7 @@ public class CrowdStrikeExecutorIntegration extends Integration {
   private final ConnectorInstanceService connectorInstanceService;
   private final ConnectorInstance connectorInstance;
   private final HttpClientFactory httpClientFactory;
+  private final ExecutorActionDispatcher executorActionDispatcher;
   private final BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder;
 
   public CrowdStrikeExecutorIntegration(
@@ -76,7 +78,8 @@ public class CrowdStrikeExecutorIntegration extends Integration {
       ComponentRequestEngine componentRequestEngine,
       ThreadPoolTaskScheduler taskScheduler,
       BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder,
-      HttpClientFactory httpClientFactory) {
+      HttpClientFactory httpClientFactory,
+      ExecutorActionDispatcher executorActionDispatcher) {
     super(componentRequestEngine, connectorInstance, connectorInstanceService);
     this.taskScheduler = taskScheduler;
     this.endpointService = endpointService;
@@ -88,6 +91,7 @@ public class CrowdStrikeExecutorIntegration extends Integration {
     this.connectorInstanceService = connectorInstanceService;
     this.connectorInstance = connectorInstance;
     this.httpClientFactory = httpClientFactory;
+    this.executorActionDispatcher = executorActionDispatcher;
     this.baseIntegrationConfigurationBuilder = baseIntegrationConfigurationBuilder;
 
     // Refresh the context to get the config
@@ -121,13 +125,24 @@ public class CrowdStrikeExecutorIntegration extends Integration {
               Endpoint.PLATFORM_TYPE.MacOS.name()
             });
 
-    client = new CrowdStrikeExecutorClient(config, httpClientFactory);
+    client = new CrowdStrikeExecutorClient(config, httpClientFactory, executorActionDispatcher);
     crowdStrikeExecutorContextService =
         new CrowdStrikeExecutorContextService(
-            config, client, eeService, licenseCacheManager, executorService);
+            config,
+            client,
+            eeService,
+            licenseCacheManager,
+            executorService,
+            executorActionDispatcher);
     crowdStrikeExecutorService =
         new CrowdStrikeExecutorService(
-            executor, client, config, endpointService, agentService, assetGroupService);
+            executor,
+            client,
+            config,
+            endpointService,
+            agentService,
+            assetGroupService,
+            executorService);
     crowdStrikeGarbageCollectorService =
         new CrowdStrikeGarbageCollectorService(
             config, crowdStrikeExecutorContextService, agentService);
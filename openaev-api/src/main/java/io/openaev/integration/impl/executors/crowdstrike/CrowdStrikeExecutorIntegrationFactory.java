@@ -8,6 +8,7 @@ import io.openaev.database.model.CatalogConnector;
 import io.openaev.database.model.ConnectorInstance;
 import io.openaev.database.model.ConnectorType;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.crowdstrike.config.CrowdStrikeExecutorConfig;
 import io.openaev.integration.ComponentRequestEngine;
@@ -44,6 +45,7 @@ public class CrowdStrikeExecutorIntegrationFactory extends IntegrationFactory {
   private final CrowdStrikeExecutorConfigurationMigration crowdStrikeExecutorConfigurationMigration;
   private final FileService fileService;
   private final BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder;
+  private final ExecutorActionDispatcher executorActionDispatcher;
 
   public CrowdStrikeExecutorIntegrationFactory(
       ConnectorInstanceService connectorInstanceService,
@@ -59,7 +61,8 @@ public class CrowdStrikeExecutorIntegrationFactory extends IntegrationFactory {
       CrowdStrikeExecutorConfigurationMigration crowdStrikeExecutorConfigurationMigration,
       FileService fileService,
       BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder,
-      HttpClientFactory httpClientFactory) {
+      HttpClientFactory httpClientFactory,
+      ExecutorActionDispatcher executorActionDispatcher) {
     super(connectorInstanceService, catalogConnectorService, httpClientFactory);
     this.endpointService = endpointService;
     this.agentService = agentService;
@@ -74,6 +77,7 @@ public class CrowdStrikeExecutorIntegrationFactory extends IntegrationFactory {
     this.crowdStrikeExecutorConfigurationMigration = crowdStrikeExecutorConfigurationMigration;
     this.fileService = fileService;
     this.baseIntegrationConfigurationBuilder = baseIntegrationConfigurationBuilder;
+    this.executorActionDispatcher = executorActionDispatcher;
   }
 
   @Override
@@ -127,6 +131,7 @@ public class CrowdStrikeExecutorIntegrationFactory extends IntegrationFactory {
         componentRequestEngine,
         taskScheduler,
         baseIntegrationConfigurationBuilder,
-        httpClientFactory);
+        httpClientFactory,
+        executorActionDispatcher);
   }
 }
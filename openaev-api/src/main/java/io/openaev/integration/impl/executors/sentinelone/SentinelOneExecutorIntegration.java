@@ -8,6 +8,7 @@ import io.openaev.database.model.ConnectorType;
 import io.openaev.database.model.Endpoint;
 import io.openaev.database.model.Executor;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.exception.ExecutorException;
 import io.openaev.executors.sentinelone.client.SentinelOneExecutorClient;
@@ -59,6 +60,7 @@ public class SentinelOneExecutorIntegration extends Integration {
   private final ConnectorInstanceService connectorInstanceService;
   private final ConnectorInstance connectorInstance;
   private final HttpClientFactory httpClientFactory;
+  private final ExecutorActionDispatcher executorActionDispatcher;
   private final BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder;
 
   private final List<ScheduledFuture<?>> timers = new ArrayList<>();
@@ -75,7 +77,8 @@ public class SentinelOneExecutorIntegration extends Integration {
       ExecutorService executorService,
       ThreadPoolTaskScheduler taskScheduler,
       BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder,
-      HttpClientFactory httpClientFactory) {
+      HttpClientFactory httpClientFactory,
+      ExecutorActionDispatcher executorActionDispatcher) {
     super(componentRequestEngine, connectorInstance, connectorInstanceService);
     this.endpointService = endpointService;
     this.agentService = agentService;
@@ -87,6 +90,7 @@ public class SentinelOneExecutorIntegration extends Integration {
     this.connectorInstanceService = connectorInstanceService;
     this.connectorInstance = connectorInstance;
     this.httpClientFactory = httpClientFactory;
+    this.executorActionDispatcher = executorActionDispatcher;
     this.baseIntegrationConfigurationBuilder = baseIntegrationConfigurationBuilder;
 
     // Refresh the context to get the config
@@ -120,13 +124,18 @@ public class SentinelOneExecutorIntegration extends Integration {
               Endpoint.PLATFORM_TYPE.MacOS.name()
             });
 
-    client = new SentinelOneExecutorClient(config, httpClientFactory);
+    client = new SentinelOneExecutorClient(config, httpClientFactory, executorActionDispatcher);
     sentinelOneExecutorContextService =
         new SentinelOneExecutorContextService(
-            config, client, eeService, licenseCacheManager, executorService);
+            config,
+            client,
+            eeService,
+            licenseCacheManager,
+            executorService,
+            executorActionDispatcher);
     sentinelOneExecutorService =
         new SentinelOneExecutorService(
-            executor, client, endpointService, agentService, assetGroupService);
+            executor, client, config, endpointService, agentService, assetGroupService);
     sentinelOneGarbageCollectorService =
         new SentinelOneGarbageCollectorService(
             config, sentinelOneExecutorContextService, agentService);
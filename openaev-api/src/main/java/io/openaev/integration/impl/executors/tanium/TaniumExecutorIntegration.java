@@ -8,6 +8,7 @@ import io.openaev.database.model.ConnectorType;
 import io.openaev.database.model.Endpoint;
 import io.openaev.database.model.Executor;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.exception.ExecutorException;
 import io.openaev.executors.tanium.client.TaniumExecutorClient;
@@ -58,6 +59,7 @@ public class TaniumExecutorIntegration extends Integration {
   private final ConnectorInstanceService connectorInstanceService;
   private final ConnectorInstance connectorInstance;
   private final HttpClientFactory httpClientFactory;
+  private final ExecutorActionDispatcher executorActionDispatcher;
   private final BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder;
 
   private final List<ScheduledFuture<?>> timers = new ArrayList<>();
@@ -74,7 +76,8 @@ public class TaniumExecutorIntegration extends Integration {
       ExecutorService executorService,
       ThreadPoolTaskScheduler taskScheduler,
       BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder,
-      HttpClientFactory httpClientFactory) {
+      HttpClientFactory httpClientFactory,
+      ExecutorActionDispatcher executorActionDispatcher) {
     super(componentRequestEngine, connectorInstance, connectorInstanceService);
     this.endpointService = endpointService;
     this.agentService = agentService;
@@ -86,6 +89,7 @@ public class TaniumExecutorIntegration extends Integration {
     this.connectorInstanceService = connectorInstanceService;
     this.connectorInstance = connectorInstance;
     this.httpClientFactory = httpClientFactory;
+    this.executorActionDispatcher = executorActionDispatcher;
     this.baseIntegrationConfigurationBuilder = baseIntegrationConfigurationBuilder;
 
     // Refresh the context to get the config
@@ -119,10 +123,15 @@ public class TaniumExecutorIntegration extends Integration {
               Endpoint.PLATFORM_TYPE.MacOS.name()
             });
 
-    client = new TaniumExecutorClient(config, httpClientFactory);
+    client = new TaniumExecutorClient(config, httpClientFactory, executorActionDispatcher);
     taniumExecutorContextService =
         new TaniumExecutorContextService(
-            eeService, licenseCacheManager, config, client, executorService);
+            eeService,
+            licenseCacheManager,
+            config,
+            client,
+            executorService,
+            executorActionDispatcher);
     taniumExecutorService =
         new TaniumExecutorService(
             executor, client, config, endpointService, agentService, assetGroupService);
@@ -0,0 +1,45 @@
+package io.openaev.migration;
+
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_71__Add_indexing_retries extends BaseJavaMigration {
+  @Override
+  public void migrate(Context context) throws Exception {
+    try (Statement stmt = context.getConnection().createStatement()) {
+      // Table creation
+      stmt.execute(
+          """
+        CREATE TABLE indexing_retries (
+          indexing_retry_id varchar(255) PRIMARY KEY,
+          indexing_retry_type varchar(255) NOT NULL,
+          indexing_retry_document_id varchar(255) NOT NULL,
+          indexing_retry_document JSONB,
+          indexing_retry_status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+          indexing_retry_attempts integer NOT NULL DEFAULT 0,
+          indexing_retry_next_attempt_at TIMESTAMP WITH TIME ZONE,
+          indexing_retry_last_error text,
+          indexing_retry_updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+          CONSTRAINT indexing_retries_type_document_unique
+            UNIQUE (indexing_retry_type, indexing_retry_document_id)
+        );
+      """);
+
+      // Indexes
+      stmt.execute(
+          """
+        CREATE INDEX idx_indexing_retries_due
+        ON indexing_retries (indexing_retry_type, indexing_retry_next_attempt_at)
+        WHERE indexing_retry_status = 'PENDING';
+      """);
+      stmt.execute(
+          """
+        CREATE INDEX idx_indexing_retries_document_id
+        ON indexing_retries (indexing_retry_document_id);
+      """);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package io.openaev.migration;
+
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_72__Add_inject_execution_leases extends BaseJavaMigration {
+  @Override
+  public void migrate(Context context) throws Exception {
+    try (Statement stmt = context.getConnection().createStatement()) {
+      // Table creation
+      stmt.execute(
+          """
+        CREATE TABLE injects_execution_leases (
+          lease_inject_id varchar(255) PRIMARY KEY
+            REFERENCES injects(inject_id) ON DELETE CASCADE,
+          lease_owner varchar(255) NOT NULL,
+          lease_expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+        );
+      """);
+
+      // Indexes
+      stmt.execute(
+          """
+        CREATE INDEX idx_injects_execution_leases_expires_at
+        ON injects_execution_leases (lease_expires_at);
+      """);
+
+      // Shards of injects owned by a node, and the nodes sharing them
+      stmt.execute(
+          """
+        CREATE TABLE injects_execution_shards (
+          shard_id integer PRIMARY KEY,
+          shard_owner varchar(255),
+          shard_expires_at TIMESTAMP WITH TIME ZONE
+        );
+      """);
+      stmt.execute(
+          """
+        CREATE TABLE injects_execution_nodes (
+          node_id varchar(255) PRIMARY KEY,
+          node_seen_at TIMESTAMP WITH TIME ZONE NOT NULL
+        );
+      """);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package io.openaev.migration;
+
+import java.sql.Statement;
+import java.util.Map;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_73__Full_text_search_ids extends BaseJavaMigration {
+
+  // Index built concurrently, outside of a transaction, not to lock the writes on large tables
+  @Override
+  public boolean canExecuteInTransaction() {
+    return false;
+  }
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    // The full text search matches the name or the id: without an index on the id, the whole table
+    // is scanned whatever the index on the name
+    Map<String, String> idColumns =
+        Map.of(
+            "assets", "asset_id",
+            "asset_groups", "asset_group_id",
+            "users", "user_id",
+            "teams", "team_id",
+            "organizations", "organization_id",
+            "scenarios", "scenario_id",
+            "exercises", "exercise_id");
+    try (Statement select = context.getConnection().createStatement()) {
+      for (Map.Entry<String, String> idColumn : idColumns.entrySet()) {
+        // One statement by index, a concurrent build not being allowed in a multi statement query
+        select.execute(
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fts_%s_%s ON %s USING gin(to_tsvector('simple', %s))"
+                .formatted(
+                    idColumn.getKey(),
+                    idColumn.getValue(),
+                    idColumn.getKey(),
+                    idColumn.getValue()));
+      }
+    }
+  }
+}
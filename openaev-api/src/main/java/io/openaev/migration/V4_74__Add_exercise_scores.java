@@ -0,0 +1,90 @@
+package io.openaev.migration;
+
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_74__Add_exercise_scores extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    try (Statement statement = context.getConnection().createStatement()) {
+      // Global results of the exercises, computed on read and kept until their expectations change.
+      // The computed version is the last change of the expectations taken into account.
+      statement.executeUpdate(
+          """
+          CREATE TABLE IF NOT EXISTS exercise_scores (
+              exercise_id varchar(255) NOT NULL PRIMARY KEY
+                  REFERENCES exercises(exercise_id) ON DELETE CASCADE,
+              exercise_score_computed_version bigint NOT NULL DEFAULT 0,
+              exercise_score_results jsonb
+          );
+          CREATE TABLE IF NOT EXISTS exercise_score_changes (
+              exercise_score_change_id bigserial PRIMARY KEY,
+              exercise_id varchar(255) NOT NULL
+                  REFERENCES exercises(exercise_id) ON DELETE CASCADE
+          );
+          CREATE INDEX IF NOT EXISTS idx_exercise_score_changes_exercise
+              ON exercise_score_changes(exercise_id, exercise_score_change_id);
+          """);
+      // Every statement changing expectations marks their exercises as changed with a plain insert,
+      // no row being shared and locked by the concurrent writers of an exercise. The updates only
+      // mark the exercises whose expectations changed of score.
+      statement.executeUpdate(
+          """
+          CREATE OR REPLACE FUNCTION mark_exercise_score_changed()
+              RETURNS TRIGGER AS $$
+          BEGIN
+              INSERT INTO exercise_score_changes (exercise_id)
+              SELECT DISTINCT ce.exercise_id
+              FROM changed_expectations ce
+              JOIN exercises ex ON ex.exercise_id = ce.exercise_id;
+              RETURN NULL;
+          END;
+          $$ LANGUAGE plpgsql;
+
+          CREATE OR REPLACE FUNCTION mark_exercise_score_updated()
+              RETURNS TRIGGER AS $$
+          BEGIN
+              INSERT INTO exercise_score_changes (exercise_id)
+              SELECT DISTINCT e.exercise_id
+              FROM old_expectations oe
+              JOIN new_expectations ne ON ne.inject_expectation_id = oe.inject_expectation_id
+              CROSS JOIN LATERAL (VALUES (oe.exercise_id), (ne.exercise_id)) AS e(exercise_id)
+              JOIN exercises ex ON ex.exercise_id = e.exercise_id
+              WHERE (oe.inject_expectation_score, oe.inject_expectation_expected_score,
+                     oe.inject_expectation_group, oe.exercise_id)
+                  IS DISTINCT FROM (ne.inject_expectation_score, ne.inject_expectation_expected_score,
+                     ne.inject_expectation_group, ne.exercise_id);
+              RETURN NULL;
+          END;
+          $$ LANGUAGE plpgsql;
+
+          CREATE TRIGGER after_insert_mark_exercise_score_changed
+              AFTER INSERT ON injects_expectations
+              REFERENCING NEW TABLE AS changed_expectations
+              FOR EACH STATEMENT EXECUTE FUNCTION mark_exercise_score_changed();
+
+          CREATE TRIGGER after_update_mark_exercise_score_updated
+              AFTER UPDATE ON injects_expectations
+              REFERENCING OLD TABLE AS old_expectations NEW TABLE AS new_expectations
+              FOR EACH STATEMENT EXECUTE FUNCTION mark_exercise_score_updated();
+
+          CREATE TRIGGER after_delete_mark_exercise_score_changed
+              AFTER DELETE ON injects_expectations
+              REFERENCING OLD TABLE AS changed_expectations
+              FOR EACH STATEMENT EXECUTE FUNCTION mark_exercise_score_changed();
+          """);
+      // The exercises already having expectations are computed by the next refresh
+      statement.executeUpdate(
+          """
+          INSERT INTO exercise_score_changes (exercise_id)
+          SELECT DISTINCT ie.exercise_id
+          FROM injects_expectations ie
+          JOIN exercises ex ON ex.exercise_id = ie.exercise_id;
+          """);
+    }
+  }
+}
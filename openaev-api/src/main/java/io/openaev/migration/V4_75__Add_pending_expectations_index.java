@@ -0,0 +1,24 @@
+package io.openaev.migration;
+
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_75__Add_pending_expectations_index extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    try (Statement statement = context.getConnection().createStatement()) {
+      // Agent expectations polled by the collectors in creation order, each one skipping the ones
+      // it already gave a result for. Only the agent expectations are indexed.
+      statement.executeUpdate(
+          """
+          CREATE INDEX IF NOT EXISTS idx_injects_expectations_pending_agent
+              ON injects_expectations (inject_expectation_type, inject_expectation_created_at, inject_expectation_id)
+              WHERE agent_id IS NOT NULL;
+          """);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package io.openaev.migration;
+
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_76__Add_executor_sync_cursors extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    try (Statement statement = context.getConnection().createStatement()) {
+      // Date of the last devices sync of an executor, by synced scope (a host group for instance),
+      // the next sync only fetching the devices modified since
+      statement.executeUpdate(
+          """
+          CREATE TABLE IF NOT EXISTS executor_sync_cursors (
+              executor_id VARCHAR(255) NOT NULL REFERENCES executors(executor_id) ON DELETE CASCADE,
+              executor_sync_cursor_key VARCHAR(255) NOT NULL,
+              executor_sync_cursor_value TIMESTAMP WITH TIME ZONE NOT NULL,
+              PRIMARY KEY (executor_id, executor_sync_cursor_key)
+          );
+          """);
+    }
+  }
+}
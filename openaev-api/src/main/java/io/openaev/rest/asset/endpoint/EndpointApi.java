@@ -3,10 +3,10 @@ package io.openaev.rest.asset.endpoint;
 import static io.openaev.helper.StreamHelper.fromIterable;
 import static io.openaev.helper.StreamHelper.iterableToSet;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.openaev.aop.LogExecutionTime;
 import io.openaev.aop.RBAC;
 import io.openaev.database.model.Action;
-import io.openaev.database.model.Agent;
 import io.openaev.database.model.AssetAgentJob;
 import io.openaev.database.model.Endpoint;
 import io.openaev.database.model.ResourceType;
@@ -20,12 +20,18 @@ import io.openaev.rest.asset.endpoint.form.*;
 import io.openaev.rest.asset.endpoint.output.EndpointTargetOutput;
 import io.openaev.rest.exception.BadRequestException;
 import io.openaev.rest.helper.RestBehavior;
+import io.openaev.service.AgentHeartbeatService;
+import io.openaev.service.AssetAgentJobService;
 import io.openaev.service.EndpointService;
 import io.openaev.utils.FilterUtilsJpa;
 import io.openaev.utils.HttpReqRespUtils;
 import io.openaev.utils.InputFilterOptions;
 import io.openaev.utils.mapper.EndpointMapper;
 import io.openaev.utils.pagination.SearchPaginationInput;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -41,6 +47,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RequiredArgsConstructor
 @RestController
@@ -48,8 +55,11 @@ import org.springframework.web.bind.annotation.*;
 public class EndpointApi extends RestBehavior {
 
   public static final String ENDPOINT_URI = "/api/endpoints";
+  private static final int MAX_JOBS_POLL_WAIT = 60;
 
   private final EndpointService endpointService;
+  private final AgentHeartbeatService agentHeartbeatService;
+  private final AssetAgentJobService assetAgentJobService;
   private final EndpointRepository endpointRepository;
   private final AssetAgentJobRepository assetAgentJobRepository;
   private final TagRepository tagRepository;
@@ -118,10 +128,17 @@ public class EndpointApi extends RestBehavior {
   @PostMapping(ENDPOINT_URI + "/register")
   @RBAC(actionPerformed = Action.CREATE, resourceType = ResourceType.ASSET)
   @Transactional(rollbackFor = Exception.class)
-  public Endpoint upsertEndpoint(@Valid @RequestBody final EndpointRegisterInput input)
+  @ApiResponse(
+      responseCode = "200",
+      content = @Content(schema = @Schema(implementation = Endpoint.class)))
+  public JsonNode upsertEndpoint(@Valid @RequestBody final EndpointRegisterInput input)
       throws IOException {
     input.setSeenIp(HttpReqRespUtils.getClientIpAddressIfServletRequestExist());
-    return this.endpointService.register(input);
+    Optional<JsonNode> endpoint = this.agentHeartbeatService.heartbeat(input);
+    if (endpoint.isPresent()) {
+      return endpoint.get();
+    }
+    return mapper.valueToTree(this.endpointService.register(input));
   }
 
   @LogExecutionTime
@@ -129,14 +146,23 @@ public class EndpointApi extends RestBehavior {
   @RBAC(actionPerformed = Action.READ, resourceType = ResourceType.ASSET)
   @Transactional(rollbackFor = Exception.class)
   public List<AssetAgentJob> getEndpointJobs(@RequestBody final EndpointRegisterInput input) {
-    return this.assetAgentJobRepository.findAll(
-        AssetAgentJobSpecification.forEndpoint(
-            input.getExternalReference(),
-            input.isService()
-                ? Agent.DEPLOYMENT_MODE.service.name()
-                : Agent.DEPLOYMENT_MODE.session.name(),
-            input.isElevated() ? Agent.PRIVILEGE.admin.name() : Agent.PRIVILEGE.standard.name(),
-            input.getExecutedByUser()));
+    this.agentHeartbeatService.touch(input);
+    return this.assetAgentJobService.jobs(input);
+  }
+
+  @PostMapping(ENDPOINT_URI + "/jobs/poll")
+  @RBAC(actionPerformed = Action.READ, resourceType = ResourceType.ASSET)
+  @Operation(
+      summary = "Wait for the jobs of an agent",
+      description =
+          "Long poll answered as soon as the agent has jobs, or with an empty list once the wait "
+              + "time, in seconds, is over.")
+  public DeferredResult<List<AssetAgentJob>> pollEndpointJobs(
+      @RequestBody final EndpointRegisterInput input,
+      @RequestParam(defaultValue = "30") final int wait) {
+    this.agentHeartbeatService.touch(input);
+    int waitSeconds = Math.clamp(wait, 0, MAX_JOBS_POLL_WAIT);
+    return this.assetAgentJobService.awaitJobs(input, waitSeconds * 1000L);
   }
 
   @Deprecated(since = "1.11.0")
@@ -0,0 +1,16 @@
+package io.openaev.rest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+  public TooManyRequestsException() {
+    super();
+  }
+
+  public TooManyRequestsException(String errorMessage) {
+    super(errorMessage);
+  }
+}
@@ -19,7 +19,6 @@ import io.openaev.config.OpenAEVConfig;
 import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.database.raw.RawExerciseSimple;
-import io.openaev.database.raw.RawInjectExpectation;
 import io.openaev.database.raw.RawSimulation;
 import io.openaev.database.repository.*;
 import io.openaev.ee.Ee;
@@ -98,7 +97,6 @@ public class ExerciseService {
 
   private final AssetRepository assetRepository;
   private final AssetGroupRepository assetGroupRepository;
-  private final InjectExpectationRepository injectExpectationRepository;
   private final ArticleRepository articleRepository;
   private final ExerciseRepository exerciseRepository;
   private final TeamRepository teamRepository;
@@ -593,11 +591,11 @@ public class ExerciseService {
     Set<String> exerciseIds = getExerciseIds(exercises);
     MappingsByExerciseIds mappingsByExerciseIds = getResultsByExerciseIds(exerciseIds);
 
-    Map<String, List<RawInjectExpectation>> expectationsByExerciseIds =
-        getExpectationsByExerciseId(exerciseIds);
+    Map<String, List<ExpectationResultsByType>> resultsByExerciseIds =
+        resultUtils.computeExercisesGlobalResults(exerciseIds);
 
     for (ExerciseSimple exercise : exercises) {
-      setGlobalScore(exercise, expectationsByExerciseIds);
+      setGlobalScore(exercise, resultsByExerciseIds);
 
       setTargets(exercise, mappingsByExerciseIds);
     }
@@ -659,23 +657,10 @@ public class ExerciseService {
       Map<String, List<Object[]>> assetsByExerciseIds,
       Map<String, List<Object[]>> assetGroupsByExerciseIds) {}
 
-  private Map<String, List<RawInjectExpectation>> getExpectationsByExerciseId(
-      Set<String> exerciseIds) {
-    return ofNullable(injectExpectationRepository.rawForComputeGlobalByExerciseIds(exerciseIds))
-        .orElse(emptyList())
-        .stream()
-        .filter(Objects::nonNull)
-        .collect(Collectors.groupingBy(RawInjectExpectation::getExercise_id));
-  }
-
   private void setGlobalScore(
-      ExerciseSimple exercise, Map<String, List<RawInjectExpectation>> expectationsByExerciseIds) {
-    List<RawInjectExpectation> expectations =
-        expectationsByExerciseIds.getOrDefault(exercise.getId(), emptyList());
-    HashSet<String> injectIds = new HashSet<>(Arrays.asList(exercise.getInjectIds()));
-
+      ExerciseSimple exercise, Map<String, List<ExpectationResultsByType>> resultsByExerciseIds) {
     exercise.setExpectationResultByTypes(
-        injectExpectationMapper.extractExpectationResultByTypesFromRaw(injectIds, expectations));
+        resultsByExerciseIds.getOrDefault(exercise.getId(), emptyList()));
   }
 
   private void setTargets(ExerciseSimple exercise, MappingsByExerciseIds mappingsByExerciseIds) {
@@ -711,14 +696,12 @@ public class ExerciseService {
 
   // -- GLOBAL RESULTS --
   public List<ExpectationResultsByType> getGlobalResults(@NotBlank String exerciseId) {
-    return resultUtils.computeGlobalExpectationResults(
-        exerciseRepository.findInjectsByExercise(exerciseId));
+    return resultUtils.computeExerciseGlobalResults(exerciseId);
   }
 
   public ExercisesGlobalScoresOutput getExercisesGlobalScores(ExercisesGlobalScoresInput input) {
     Map<String, List<ExpectationResultsByType>> globalScoresByExerciseIds =
-        input.exerciseIds().stream()
-            .collect(Collectors.toMap(Function.identity(), this::getGlobalResults));
+        resultUtils.computeExercisesGlobalResults(input.exerciseIds());
     return new ExercisesGlobalScoresOutput(globalScoresByExerciseIds);
   }
 
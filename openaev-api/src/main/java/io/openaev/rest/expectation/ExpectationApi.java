@@ -1,24 +1,34 @@
 package io.openaev.rest.expectation;
 
+import static io.openaev.database.model.InjectExpectation.EXPECTATION_TYPE.DETECTION;
+import static io.openaev.database.model.InjectExpectation.EXPECTATION_TYPE.PREVENTION;
+
 import io.openaev.aop.RBAC;
 import io.openaev.database.model.Action;
 import io.openaev.database.model.InjectExpectation;
 import io.openaev.database.model.ResourceType;
 import io.openaev.model.inject.form.Expectation;
 import io.openaev.rest.exercise.form.ExpectationUpdateInput;
+import io.openaev.rest.expectation.form.PendingExpectationOutput;
 import io.openaev.rest.helper.RestBehavior;
 import io.openaev.rest.inject.form.InjectExpectationBulkUpdateInput;
 import io.openaev.rest.inject.form.InjectExpectationUpdateInput;
 import io.openaev.service.ExpectationService;
 import io.openaev.service.InjectExpectationService;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
 @RequiredArgsConstructor
@@ -28,6 +38,11 @@ public class ExpectationApi extends RestBehavior {
   public static final String EXPECTATIONS_URI = "/api/expectations";
   public static final String INJECTS_EXPECTATIONS_URI = "/api/injects/expectations";
 
+  private static final String PENDING_EXPECTATIONS_DESCRIPTION =
+      "Streams as NDJSON the agent inject expectations without result of the given source ID, whatever the results of the other sources, oldest first. "
+          + "Each line carries a cursor: pass the one of the last line received as 'since' to get the expectations created after it. "
+          + "An expectation created by a transaction committed late can be older than a cursor already received, so the polling should regularly start over without 'since'.";
+
   private final InjectExpectationService injectExpectationService;
   private final ExpectationService expectationService;
 
@@ -149,6 +164,62 @@ public class ExpectationApi extends RestBehavior {
     return injectExpectationService.detectionExpectationsNotFill(sourceId).stream().toList();
   }
 
+  @Operation(
+      summary = "Poll pending Inject Expectations for a Specific Source and type Prevention",
+      description = PENDING_EXPECTATIONS_DESCRIPTION)
+  @GetMapping(
+      value = INJECTS_EXPECTATIONS_URI + "/prevention/{sourceId}/pending",
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @RBAC(actionPerformed = Action.READ, resourceType = ResourceType.SIMULATION)
+  @Transactional
+  public void getInjectPreventionExpectationsPendingForSource(
+      @PathVariable String sourceId,
+      @RequestParam(required = false) final String since,
+      @RequestParam(required = false, defaultValue = "1000") final int limit,
+      HttpServletResponse response)
+      throws IOException {
+    writePendingExpectations(
+        injectExpectationService.pendingExpectations(PREVENTION, sourceId, since, limit), response);
+  }
+
+  @Operation(
+      summary = "Poll pending Inject Expectations for a Specific Source and type Detection",
+      description = PENDING_EXPECTATIONS_DESCRIPTION)
+  @GetMapping(
+      value = INJECTS_EXPECTATIONS_URI + "/detection/{sourceId}/pending",
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @RBAC(actionPerformed = Action.READ, resourceType = ResourceType.SIMULATION)
+  @Transactional
+  public void getInjectDetectionExpectationsPendingForSource(
+      @PathVariable String sourceId,
+      @RequestParam(required = false) final String since,
+      @RequestParam(required = false, defaultValue = "1000") final int limit,
+      HttpServletResponse response)
+      throws IOException {
+    writePendingExpectations(
+        injectExpectationService.pendingExpectations(DETECTION, sourceId, since, limit), response);
+  }
+
+  /**
+   * One JSON document per line, written as the expectations are read from the database cursor, so
+   * the clients process them as they come
+   */
+  private void writePendingExpectations(
+      Stream<PendingExpectationOutput> expectations, HttpServletResponse response)
+      throws IOException {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    OutputStream outputStream = response.getOutputStream();
+    try (expectations) {
+      Iterator<PendingExpectationOutput> iterator = expectations.iterator();
+      while (iterator.hasNext()) {
+        outputStream.write(mapper.writeValueAsBytes(iterator.next()));
+        outputStream.write('\n');
+      }
+    }
+    outputStream.flush();
+  }
+
   @Operation(
       summary = "Update Inject Expectation",
       description = "Update Inject expectation from an external source, e.g., EDR collector.")
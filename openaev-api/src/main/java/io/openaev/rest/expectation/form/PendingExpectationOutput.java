@@ -0,0 +1,54 @@
+package io.openaev.rest.expectation.form;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+
+/** An agent expectation waiting for the result of a collector, without its entity graph. */
+@Data
+@Builder
+public class PendingExpectationOutput {
+
+  @NotBlank
+  @JsonProperty("inject_expectation_id")
+  private String id;
+
+  @NotBlank
+  @JsonProperty("inject_expectation_type")
+  private String type;
+
+  @NotNull
+  @JsonProperty("inject_expectation_created_at")
+  private Instant createdAt;
+
+  /** Expiration time in seconds */
+  @JsonProperty("inject_expiration_time")
+  private Long expirationTime;
+
+  @JsonRawValue
+  @Schema(type = "array")
+  @JsonProperty("inject_expectation_signatures")
+  private String signatures;
+
+  @JsonProperty("inject_expectation_inject")
+  private String injectId;
+
+  @JsonProperty("inject_expectation_agent")
+  private String agentId;
+
+  @JsonProperty("inject_expectation_asset")
+  private String assetId;
+
+  @JsonProperty("inject_expectation_asset_group")
+  private String assetGroupId;
+
+  /** Position of the expectation, to resume the polling after it */
+  @NotBlank
+  @JsonProperty("cursor")
+  private String cursor;
+}
@@ -23,6 +23,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springdoc.api.ErrorMessage;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -237,6 +238,15 @@ public class RestBehavior {
     return new ResponseEntity<>(message, HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<ErrorMessage> handleTooManyRequestsException(TooManyRequestsException ex) {
+    ErrorMessage message = new ErrorMessage(ex.getMessage());
+    log.warn(String.format("TooManyRequestsException: %s", ex.getMessage()));
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(message);
+  }
+
   @ExceptionHandler(AlreadyExistingException.class)
   public ResponseEntity<ErrorMessage> handleAlreadyExistingException(AlreadyExistingException ex) {
     ErrorMessage message = new ErrorMessage(ex.getMessage());
@@ -0,0 +1,75 @@
+package io.openaev.rest.helper.queue;
+
+/**
+ * Size of the batches of a worker, adapted to the load.
+ *
+ * <p>A batch is flushed once its size reaches the threshold, or once its oldest element waited for
+ * the linger time. Under a sustained load the elements keep coming while a batch is processed, the
+ * next batch overflows the threshold and the threshold doubles, fewer but bigger batches being
+ * processed. When the load drops, the flushes are triggered by the linger time with partial
+ * batches, and the threshold shrinks back toward an immediate flush of every element. If the
+ * ingestion latency goes over the target, the threshold is halved whatever the load.
+ */
+class AdaptiveBatchSizer {
+
+  // Weight of the last flush in the flush duration average
+  private static final double FLUSH_DURATION_WEIGHT = 0.2;
+
+  private final int minSize;
+  private final int maxSize;
+  private final long targetLatency;
+  private final long maxLinger;
+
+  private volatile int threshold;
+  private volatile double flushDuration;
+
+  /**
+   * @param minSize the smallest threshold, 1 to flush immediately when idle
+   * @param maxSize the biggest threshold
+   * @param targetLatency the ingestion latency to stay under, in milliseconds
+   * @param maxLinger the longest time an element waits for its batch to fill, in milliseconds
+   */
+  AdaptiveBatchSizer(int minSize, int maxSize, long targetLatency, long maxLinger) {
+    this.minSize = Math.max(1, minSize);
+    this.maxSize = Math.max(this.minSize, maxSize);
+    this.targetLatency = Math.max(0, targetLatency);
+    this.maxLinger = Math.max(0, maxLinger);
+    this.threshold = this.minSize;
+  }
+
+  /** Number of buffered elements triggering a flush */
+  int threshold() {
+    return threshold;
+  }
+
+  /**
+   * Time the oldest element of a partial batch waits before a flush, leaving the time to process
+   * the batch within the target latency
+   */
+  long linger() {
+    return Math.min(maxLinger, Math.max(0, targetLatency - (long) flushDuration));
+  }
+
+  /**
+   * Adapt the threshold after a flush. Only called by the worker owning this sizer.
+   *
+   * @param batchSize the number of elements of the batch
+   * @param latency the p99 ingestion latency of the elements of the batch, in milliseconds
+   * @param duration the time to process the batch, in milliseconds
+   */
+  void onFlush(int batchSize, long latency, long duration) {
+    if (batchSize <= 0) {
+      return;
+    }
+    flushDuration = flushDuration + FLUSH_DURATION_WEIGHT * (duration - flushDuration);
+    int current = threshold;
+    if (latency > targetLatency) {
+      threshold = Math.max(minSize, current / 2);
+    } else if (batchSize > current) {
+      // Elements kept coming while the batch was filled or processed
+      threshold = (int) Math.min(maxSize, current * 2L);
+    } else if (batchSize < current) {
+      threshold = Math.max(minSize, (current + batchSize) / 2);
+    }
+  }
+}
@@ -1,10 +1,17 @@
 package io.openaev.rest.helper.queue;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.rabbitmq.client.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.openaev.config.QueueConfig;
 import io.openaev.config.RabbitMQSslConfiguration;
 import io.openaev.config.RabbitmqConfig;
+import io.openaev.rest.exception.TooManyRequestsException;
 import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -23,29 +30,45 @@ public class BatchQueueService<T extends Queueable> {
   public static final String ROUTING_KEY = "_push_routing_%s";
   public static final String EXCHANGE_KEY = "_amqp.%s.exchange";
   public static final String QUEUE_NAME = "_execution_%s";
+  private static final long MIN_LINGER_CHECK_PERIOD = 10L;
+  // Publishes of a message refused by the broker before it is given up
+  private static final int MAX_PUBLISH_ATTEMPTS = 3;
+
+  /** An element waiting for its batch, with the time it was consumed */
+  private record Buffered<T>(T element, long consumedAt) {}
 
   protected ObjectMapper mapper;
 
   private final RabbitmqConfig rabbitmqConfig;
 
   private Connection connection;
-  private List<Channel> publisherChannels = new ArrayList<>();
+  private final List<ConfirmedPublisher> publisherChannels = new CopyOnWriteArrayList<>();
+  // Messages published on a lost connection without being confirmed, published again on reconnect
+  private final List<ConfirmedPublisher.Message> unconfirmedOnShutdown = new ArrayList<>();
   private final String routingKey;
   private final String exchangeName;
   private final String queueName;
 
-  private final Map<Integer, BlockingQueue<T>> queue;
+  private final Map<Integer, BlockingQueue<Buffered<T>>> queue;
+  private final Map<Integer, AdaptiveBatchSizer> batchSizers;
 
   private final Map<T, DeliveryContext> deliveryTable = new ConcurrentHashMap<>();
 
   private final QueueConfig queueConfig;
+  private final SharedRabbitmqConnection sharedConnection;
   private final ScheduledExecutorService reconnectionExecutor;
   private final ShutdownListener shutdownListener;
 
   private final List<Channel> consumerChannels = new ArrayList<>();
-  private final Map<Integer, AtomicBoolean> insertInProgress = new HashMap<>();
+  private final Map<Integer, AtomicBoolean> insertInProgress = new ConcurrentHashMap<>();
   private final ExecutorService executor;
 
+  private final Timer flushTimer;
+  private final Timer latencyTimer;
+  private final DistributionSummary batchSizeSummary;
+  private final Counter publishRejectedCounter;
+  private final Counter nackCounter;
+
   /**
    * Public constructor of the BatchQueueService
    *
@@ -54,6 +77,8 @@ public class BatchQueueService<T extends Queueable> {
    * @param rabbitmqConfig the rabbitmq config object
    * @param mapper the mapper to use
    * @param queueConfig the queue config to use
+   * @param meterRegistry the registry to expose the queue metrics
+   * @param sharedConnection to share the connection of the queue, null to keep it private
    * @throws IOException In case of issue when communicating with rabbitMQ
    * @throws TimeoutException In case of a non responding rabbitMQ
    */
@@ -63,7 +88,9 @@ public class BatchQueueService<T extends Queueable> {
       RabbitmqConfig rabbitmqConfig,
       ObjectMapper mapper,
       QueueConfig queueConfig,
-      RabbitMQSslConfiguration rabbitMQSslConfiguration)
+      RabbitMQSslConfiguration rabbitMQSslConfiguration,
+      MeterRegistry meterRegistry,
+      SharedRabbitmqConnection sharedConnection)
       throws IOException, TimeoutException {
     this.clazz = clazz;
     this.queueExecution = queueExecution;
@@ -71,6 +98,7 @@ public class BatchQueueService<T extends Queueable> {
     this.queueConfig = queueConfig;
     this.rabbitmqConfig = rabbitmqConfig;
     this.rabbitMQSslConfiguration = rabbitMQSslConfiguration;
+    this.sharedConnection = sharedConnection;
 
     executor = Executors.newFixedThreadPool(queueConfig.getWorkerNumber());
     shutdownListener = this::handleConnectionShutdown;
@@ -84,21 +112,85 @@ public class BatchQueueService<T extends Queueable> {
         rabbitmqConfig.getPrefix()
             + String.format(BatchQueueService.QUEUE_NAME, queueConfig.getQueueName());
 
-    // The queue that will contain the object we need to process
-    queue = new HashMap<>();
+    // The queue that will contain the object we need to process, bounded to hold the consumption
+    // back when the workers are late instead of exhausting the memory
+    Map<Integer, BlockingQueue<Buffered<T>>> workerQueues = new HashMap<>();
+    Map<Integer, AdaptiveBatchSizer> workerBatchSizers = new HashMap<>();
     for (int i = 0; i < queueConfig.getWorkerNumber(); i++) {
-      queue.put(i, new LinkedBlockingQueue<>());
+      workerQueues.put(i, new LinkedBlockingQueue<>(bufferCapacity(queueConfig)));
+      workerBatchSizers.put(
+          i,
+          new AdaptiveBatchSizer(
+              queueConfig.getMinSize(),
+              queueConfig.getMaxSize(),
+              queueConfig.getTargetLatency(),
+              queueConfig.getWorkerFrequency()));
     }
+    queue = Map.copyOf(workerQueues);
+    batchSizers = Map.copyOf(workerBatchSizers);
+
+    // Metrics, by queue
+    String metricQueue = queueConfig.getQueueName();
+    Gauge.builder(
+            "openaev.queue.depth",
+            queue,
+            queues -> queues.values().stream().mapToInt(BlockingQueue::size).sum())
+        .description("Number of consumed messages buffered for a batch")
+        .tag("queue", metricQueue)
+        .register(meterRegistry);
+    Gauge.builder(
+            "openaev.queue.unconfirmed",
+            publisherChannels,
+            publishers -> publishers.stream().mapToInt(ConfirmedPublisher::pending).sum())
+        .description("Number of published messages waiting for a broker confirmation")
+        .tag("queue", metricQueue)
+        .register(meterRegistry);
+    batchSizeSummary =
+        DistributionSummary.builder("openaev.queue.batch.size")
+            .description("Number of messages processed per batch")
+            .tag("queue", metricQueue)
+            .register(meterRegistry);
+    flushTimer =
+        Timer.builder("openaev.queue.flush")
+            .description("Time to process a batch")
+            .tag("queue", metricQueue)
+            .register(meterRegistry);
+    latencyTimer =
+        Timer.builder("openaev.queue.latency")
+            .description("Time between the consumption of a message and the end of its batch")
+            .tag("queue", metricQueue)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    Gauge.builder(
+            "openaev.queue.batch.threshold",
+            batchSizers,
+            sizers -> sizers.values().stream().mapToInt(AdaptiveBatchSizer::threshold).sum())
+        .description("Number of buffered messages triggering a batch, summed over the workers")
+        .tag("queue", metricQueue)
+        .register(meterRegistry);
+    publishRejectedCounter =
+        Counter.builder("openaev.queue.rejected")
+            .description("Number of messages rejected for lack of capacity")
+            .tag("queue", metricQueue)
+            .tag("stage", "publish")
+            .register(meterRegistry);
+    nackCounter =
+        Counter.builder("openaev.queue.nacked")
+            .description("Number of published messages refused by the broker")
+            .tag("queue", metricQueue)
+            .register(meterRegistry);
 
     establishConnection();
 
-    // A scheduler to handle batches that did not reached the critical mass
+    // A scheduler to handle batches that did not reached the critical mass once their oldest
+    // element waited for the linger time of the worker
+    long lingerCheckPeriod =
+        Math.max(
+            MIN_LINGER_CHECK_PERIOD,
+            Math.min(queueConfig.getWorkerFrequency(), queueConfig.getTargetLatency()) / 4);
     ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
-    scheduledExecutor.scheduleAtFixedRate(
-        () -> queue.keySet().forEach(this::processBufferedBatch),
-        this.queueConfig.getWorkerFrequency(),
-        this.queueConfig.getWorkerFrequency(),
-        TimeUnit.MILLISECONDS);
+    scheduledExecutor.scheduleWithFixedDelay(
+        this::processLingeringBatches, lingerCheckPeriod, lingerCheckPeriod, TimeUnit.MILLISECONDS);
 
     // Reconnection executor that we will start if we ever lose connection
     this.reconnectionExecutor = Executors.newScheduledThreadPool(1);
@@ -124,7 +216,9 @@ public class BatchQueueService<T extends Queueable> {
     factory.setConnectionTimeout(10000);
     factory.setSharedExecutor(
         Executors.newFixedThreadPool(
-            queueConfig.getConsumerNumber() + queueConfig.getPublisherNumber()));
+            queueConfig.getConsumerNumber()
+                + queueConfig.getPublisherNumber()
+                + (sharedConnection != null ? 1 : 0)));
 
     // Configure SSL if enabled
     if (rabbitmqConfig.isSsl()) {
@@ -143,6 +237,34 @@ public class BatchQueueService<T extends Queueable> {
 
     // Create consumers that will handle the processing
     createChannels();
+
+    // Let the other components open their channels on it
+    if (sharedConnection != null) {
+      sharedConnection.connected(connection);
+    }
+
+    // Publish again what the previous connection did not get confirmed
+    List<ConfirmedPublisher.Message> unconfirmed;
+    synchronized (unconfirmedOnShutdown) {
+      unconfirmed = new ArrayList<>(unconfirmedOnShutdown);
+      unconfirmedOnShutdown.clear();
+    }
+    republish(unconfirmed);
+  }
+
+  private static int bufferCapacity(QueueConfig queueConfig) {
+    return Math.max(queueConfig.getBufferCapacity(), queueConfig.getMaxSize() + 1);
+  }
+
+  /**
+   * Prefetch of each consumer channel. Every message of a buffer is unacknowledged until its batch
+   * is processed, so the consumers together never prefetch more than a buffer can hold: a full
+   * buffer holds the deliveries back in the broker instead of making the consumers wait.
+   */
+  @VisibleForTesting
+  static int consumerPrefetch(QueueConfig queueConfig) {
+    int perConsumer = bufferCapacity(queueConfig) / Math.max(1, queueConfig.getConsumerNumber());
+    return Math.max(1, Math.min(queueConfig.getConsumerQos(), perConsumer));
   }
 
   /**
@@ -161,7 +283,10 @@ public class BatchQueueService<T extends Queueable> {
         arguments.put("x-queue-type", "quorum");
         publisherChannel.queueDeclare(queueName, true, false, false, arguments);
         publisherChannel.queueBind(queueName, exchangeName, routingKey);
-        publisherChannels.add(publisherChannel);
+        // Confirm mode, the publishes are pipelined and acknowledged asynchronously by the broker
+        publisherChannels.add(
+            new ConfirmedPublisher(
+                publisherChannel, queueConfig.getPublisherMaxUnconfirmed(), this::onNack));
       }
 
       consumerChannels.clear();
@@ -169,7 +294,7 @@ public class BatchQueueService<T extends Queueable> {
       for (int i = 0; i < queueConfig.getConsumerNumber(); ++i) {
         Channel consumerChannel = connection.createChannel();
         consumerChannels.add(consumerChannel);
-        consumerChannel.basicQos(queueConfig.getConsumerQos());
+        consumerChannel.basicQos(consumerPrefetch(queueConfig));
 
         // What to do when a message is consumed
         DeliverCallback deliverCallback =
@@ -178,15 +303,13 @@ public class BatchQueueService<T extends Queueable> {
               String message = new String(delivery.getBody(), StandardCharsets.UTF_8);
               log.trace("Received message from queue {} : '{}'", queueName, message);
 
-              // Unmarshalling of our object and setting it in the queue for processing
+              // Unmarshalling of our object
               T element = mapper.readValue(message, clazz);
               int elementKey = groupByKey(element);
-              queue
-                  .computeIfAbsent(elementKey, integer -> new LinkedBlockingQueue<>())
-                  .add(element);
 
               // Add the message and delivery tag into a hashmap that will allow us to ack when
-              // we've inserted in base
+              // we've inserted in base. Done before the buffering, a worker may process the
+              // element right away
               deliveryTable.put(
                   element,
                   DeliveryContext.builder()
@@ -194,8 +317,20 @@ public class BatchQueueService<T extends Queueable> {
                       .deliveryChannel(consumerChannel)
                       .build());
 
+              // Setting it in the queue for processing. The prefetch keeps the unacknowledged
+              // messages within the capacity of a buffer, so it only waits for room when elements
+              // consumed before a reconnection are still buffered
+              try {
+                queue.get(elementKey).put(new Buffered<>(element, System.currentTimeMillis()));
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                deliveryTable.remove(element);
+                consumerChannel.basicNack(delivery.getEnvelope().getDeliveryTag(), false, true);
+                return;
+              }
+
               // If we reach a critical mass, we take care of it immediately
-              if (queue.get(elementKey).size() > this.queueConfig.getMaxSize()) {
+              if (queue.get(elementKey).size() >= batchSizers.get(elementKey).threshold()) {
                 processBufferedBatch(elementKey);
               }
             };
@@ -271,8 +406,12 @@ public class BatchQueueService<T extends Queueable> {
         }
       }
 
-      // Closing the publishing channel
-      for (Channel channel : publisherChannels) {
+      // Closing the publishing channel, keeping what was not confirmed yet
+      for (ConfirmedPublisher publisher : publisherChannels) {
+        synchronized (unconfirmedOnShutdown) {
+          unconfirmedOnShutdown.addAll(publisher.drain());
+        }
+        Channel channel = publisher.getChannel();
         if (channel != null && channel.isOpen()) {
           channel.close();
         }
@@ -296,9 +435,22 @@ public class BatchQueueService<T extends Queueable> {
     closeResources();
   }
 
+  /** Process the batches whose oldest element waited for the linger time of their worker */
+  private void processLingeringBatches() {
+    long now = System.currentTimeMillis();
+    queue.forEach(
+        (workerId, workerQueue) -> {
+          Buffered<T> oldest = workerQueue.peek();
+          if (oldest != null && now - oldest.consumedAt() >= batchSizers.get(workerId).linger()) {
+            processBufferedBatch(workerId);
+          }
+        });
+  }
+
   /**
    * Process messages in the queue buffer. It will only process as many messages as what's
-   * configures in openbas.queue-config.<name of the queue>.max-size
+   * configures in openbas.queue-config.<name of the queue>.max-size, and keeps processing while the
+   * buffer holds more than the adaptive threshold of the worker
    */
   public void processBufferedBatch(int workerId) {
     if (insertInProgress
@@ -308,18 +460,31 @@ public class BatchQueueService<T extends Queueable> {
           () -> {
             do {
               // Draining the queue into the list with a max size
-              List<T> currentBatch = new ArrayList<>();
-              queue.get(workerId).drainTo(currentBatch);
+              List<Buffered<T>> bufferedBatch = new ArrayList<>();
+              queue.get(workerId).drainTo(bufferedBatch, queueConfig.getMaxSize());
+              List<T> currentBatch = new ArrayList<>(bufferedBatch.size());
+              bufferedBatch.forEach(buffered -> currentBatch.add(buffered.element()));
 
               // If the list is not empty, we process it
               List<T> processedElement = new ArrayList<>();
               if (!currentBatch.isEmpty()) {
-                log.info("Processing batch of {}", currentBatch.size());
+                log.debug("Processing batch of {}", currentBatch.size());
+                batchSizeSummary.record(currentBatch.size());
+                long start = System.currentTimeMillis();
                 try {
                   processedElement.addAll(queueExecution.perform(currentBatch));
                 } catch (Exception e) {
                   log.error("Error processing batch - Error during ingestion", e);
                 }
+                long end = System.currentTimeMillis();
+                flushTimer.record(end - start, TimeUnit.MILLISECONDS);
+                bufferedBatch.forEach(
+                    buffered ->
+                        latencyTimer.record(end - buffered.consumedAt(), TimeUnit.MILLISECONDS));
+                // The batch is in consumption order, the p99 latency is the one of its first
+                // percent
+                long p99Latency = end - bufferedBatch.get(bufferedBatch.size() / 100).consumedAt();
+                batchSizers.get(workerId).onFlush(currentBatch.size(), p99Latency, end - start);
               }
 
               // Sending Ack for all the processed element in the batch
@@ -356,30 +521,99 @@ public class BatchQueueService<T extends Queueable> {
                       e);
                 }
               }
-            } while (queue.get(workerId).size() > (queueConfig.getMaxSize() * 0.75));
+            } while (!queue.get(workerId).isEmpty()
+                && queue.get(workerId).size() >= batchSizers.get(workerId).threshold());
             insertInProgress.get(workerId).set(false);
           });
     }
   }
 
   /**
-   * Publish a stringified object of type T into the queue
+   * Publish a stringified object of type T into the queue. The publish does not wait for the broker
+   * confirmation, but is rejected if too many publishes are still waiting for theirs.
    *
    * @param element the T object to publish
    * @throws IOException in case of error during the publish
+   * @throws TooManyRequestsException if the queue cannot take more messages for now
    */
   public void publish(T element) throws IOException {
+    List<ConfirmedPublisher> publishers = publisherChannels;
+    if (publishers.isEmpty()) {
+      publishRejectedCounter.increment();
+      throw new TooManyRequestsException("Queue " + queueConfig.getQueueName() + " unavailable");
+    }
     try {
-      publisherChannels
-          .get(element.hashCode() % publisherChannels.size())
-          .basicPublish(
-              exchangeName, routingKey, null, mapper.writeValueAsString(element).getBytes());
+      boolean published =
+          publishers
+              .get(Math.floorMod(element.hashCode(), publishers.size()))
+              .publish(
+                  exchangeName,
+                  routingKey,
+                  mapper.writeValueAsString(element).getBytes(),
+                  queueConfig.getPublisherTimeout());
+      if (!published) {
+        publishRejectedCounter.increment();
+        throw new TooManyRequestsException("Queue " + queueConfig.getQueueName() + " is full");
+      }
     } catch (IOException e) {
       log.error(String.format("Error publishing batch: %s", e.getMessage()), e);
       throw e;
     }
   }
 
+  /**
+   * Messages refused by the broker are published again, up to {@link #MAX_PUBLISH_ATTEMPTS}
+   * publishes per message. The messages still refused after that are given up.
+   *
+   * @param messages the refused messages
+   */
+  private void onNack(List<ConfirmedPublisher.Message> messages) {
+    nackCounter.increment(messages.size());
+    List<ConfirmedPublisher.Message> retries = new ArrayList<>();
+    int givenUp = 0;
+    for (ConfirmedPublisher.Message message : messages) {
+      if (message.attempts() < MAX_PUBLISH_ATTEMPTS) {
+        retries.add(new ConfirmedPublisher.Message(message.body(), message.attempts() + 1));
+      } else {
+        givenUp++;
+      }
+    }
+    if (givenUp > 0) {
+      publishRejectedCounter.increment(givenUp);
+      log.error(
+          "{} messages refused {} times by the broker on queue {}, giving up",
+          givenUp,
+          MAX_PUBLISH_ATTEMPTS,
+          queueName);
+    }
+    if (!retries.isEmpty()) {
+      log.warn("{} messages refused by the broker, publishing them again", retries.size());
+      republish(retries);
+    }
+  }
+
+  private void republish(List<ConfirmedPublisher.Message> messages) {
+    int lost = 0;
+    for (ConfirmedPublisher.Message message : messages) {
+      List<ConfirmedPublisher> publishers = publisherChannels;
+      try {
+        // Without waiting, this may run on the thread delivering the confirmations
+        if (publishers.isEmpty()
+            || !publishers
+                .get(Math.floorMod(Arrays.hashCode(message.body()), publishers.size()))
+                .publish(exchangeName, routingKey, message, 0)) {
+          lost++;
+        }
+      } catch (IOException e) {
+        lost++;
+      }
+    }
+    if (lost > 0) {
+      publishRejectedCounter.increment(lost);
+      log.error("{} messages could not be published again on queue {}", lost, queueName);
+    }
+  }
+
   /**
    * Purge a queue
    *
@@ -387,7 +621,7 @@ public class BatchQueueService<T extends Queueable> {
    */
   public void forcePurge() throws IOException {
     try {
-      publisherChannels.getFirst().queuePurge(queueName);
+      publisherChannels.getFirst().getChannel().queuePurge(queueName);
     } catch (IOException e) {
       log.error(String.format("Error publishing batch: %s", e.getMessage()), e);
       throw e;
@@ -402,7 +636,7 @@ public class BatchQueueService<T extends Queueable> {
    */
   private int groupByKey(T element) {
     if (element.getUniqueElementKey() != null && !element.getUniqueElementKey().isEmpty()) {
-      return element.getUniqueElementKey().hashCode() % queueConfig.getWorkerNumber();
+      return Math.floorMod(element.getUniqueElementKey().hashCode(), queueConfig.getWorkerNumber());
     }
     return 0;
   }
@@ -0,0 +1,155 @@
+package io.openaev.rest.helper.queue;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A publisher channel in confirm mode. Messages are published without waiting for their
+ * confirmation, the broker acknowledging them asynchronously, possibly several at once. The number
+ * of messages waiting for a confirmation is bounded: once reached, a publish waits for a slot and
+ * gives up after a timeout, instead of piling up messages in memory.
+ */
+class ConfirmedPublisher implements ConfirmListener {
+
+  private final Channel channel;
+  private final Semaphore permits;
+  private final Consumer<List<Message>> onNack;
+
+  // Messages waiting for their confirmation, by publish sequence number
+  private final ConcurrentNavigableMap<Long, Message> unconfirmed = new ConcurrentSkipListMap<>();
+
+  /**
+   * A published message
+   *
+   * @param body the message
+   * @param attempts the number of times the message was published, this one included
+   */
+  record Message(byte[] body, int attempts) {}
+
+  /**
+   * @param channel the channel to publish on
+   * @param maxUnconfirmed the maximum number of messages waiting for a confirmation
+   * @param onNack what to do with the messages refused by the broker
+   * @throws IOException in case of error while switching the channel in confirm mode
+   */
+  ConfirmedPublisher(Channel channel, int maxUnconfirmed, Consumer<List<Message>> onNack)
+      throws IOException {
+    this.channel = channel;
+    this.permits = new Semaphore(Math.max(1, maxUnconfirmed));
+    this.onNack = onNack;
+    channel.confirmSelect();
+    channel.addConfirmListener(this);
+  }
+
+  Channel getChannel() {
+    return channel;
+  }
+
+  /**
+   * Publish a message without waiting for its confirmation
+   *
+   * @param exchange the exchange to publish to
+   * @param routingKey the routing key of the message
+   * @param body the message
+   * @param timeout the maximum time to wait for a slot, in milliseconds
+   * @return false if too many messages are still waiting for a confirmation
+   * @throws IOException in case of error during the publish
+   */
+  boolean publish(String exchange, String routingKey, byte[] body, long timeout)
+      throws IOException {
+    return publish(exchange, routingKey, new Message(body, 1), timeout);
+  }
+
+  /**
+   * Publish a message again without waiting for its confirmation
+   *
+   * @param exchange the exchange to publish to
+   * @param routingKey the routing key of the message
+   * @param message the message, with its number of attempts
+   * @param timeout the maximum time to wait for a slot, in milliseconds
+   * @return false if too many messages are still waiting for a confirmation
+   * @throws IOException in case of error during the publish
+   */
+  boolean publish(String exchange, String routingKey, Message message, long timeout)
+      throws IOException {
+    try {
+      if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+        return false;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    long sequence = -1;
+    try {
+      // The sequence number must be the one of the message, no publish in between
+      synchronized (channel) {
+        sequence = channel.getNextPublishSeqNo();
+        unconfirmed.put(sequence, message);
+        channel.basicPublish(exchange, routingKey, null, message.body());
+      }
+      return true;
+    } catch (IOException | RuntimeException e) {
+      if (sequence >= 0 && unconfirmed.remove(sequence) != null) {
+        permits.release();
+      }
+      throw e;
+    }
+  }
+
+  /** Number of messages waiting for a confirmation */
+  int pending() {
+    return unconfirmed.size();
+  }
+
+  /**
+   * Take back the messages still waiting for a confirmation, to publish them again on another
+   * channel when this one is lost
+   */
+  List<Message> drain() {
+    return confirmed(Long.MAX_VALUE, true);
+  }
+
+  @Override
+  public void handleAck(long deliveryTag, boolean multiple) {
+    confirmed(deliveryTag, multiple);
+  }
+
+  @Override
+  public void handleNack(long deliveryTag, boolean multiple) {
+    List<Message> refused = confirmed(deliveryTag, multiple);
+    if (!refused.isEmpty()) {
+      onNack.accept(refused);
+    }
+  }
+
+  private List<Message> confirmed(long deliveryTag, boolean multiple) {
+    List<Message> messages = new ArrayList<>();
+    if (multiple) {
+      Map<Long, Message> confirmed = unconfirmed.headMap(deliveryTag, true);
+      // Removing entry per entry, a concurrent confirmation may take some of them
+      for (Long sequence : new ArrayList<>(confirmed.keySet())) {
+        Message message = unconfirmed.remove(sequence);
+        if (message != null) {
+          messages.add(message);
+        }
+      }
+    } else {
+      Message message = unconfirmed.remove(deliveryTag);
+      if (message != null) {
+        messages.add(message);
+      }
+    }
+    permits.release(messages.size());
+    return messages;
+  }
+}
@@ -0,0 +1,52 @@
+package io.openaev.rest.helper.queue;
+
+import com.rabbitmq.client.Connection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * The RabbitMQ connection managed by the {@link BatchQueueService}, shared with the components
+ * needing their own channels without opening another connection. The listeners are called on every
+ * (re)connection to open their channels again.
+ */
+@Slf4j
+@Component
+public class SharedRabbitmqConnection {
+
+  private final List<Consumer<Connection>> listeners = new CopyOnWriteArrayList<>();
+  private volatile Connection connection;
+
+  /**
+   * Register a listener called on every connection, right away if already connected
+   *
+   * @param listener the listener opening its channels on the connection
+   */
+  public void onConnection(Consumer<Connection> listener) {
+    listeners.add(listener);
+    Connection current = connection;
+    if (current != null && current.isOpen()) {
+      notify(listener, current);
+    }
+  }
+
+  /**
+   * Share a new connection with the listeners
+   *
+   * @param connection the connection established
+   */
+  void connected(Connection connection) {
+    this.connection = connection;
+    listeners.forEach(listener -> notify(listener, connection));
+  }
+
+  private void notify(Consumer<Connection> listener, Connection connection) {
+    try {
+      listener.accept(connection);
+    } catch (Exception e) {
+      log.error("Error sharing the RabbitMQ connection: {}", e.getMessage(), e);
+    }
+  }
+}
@@ -1,8 +1,13 @@
 package io.openaev.rest.helper.queue.executor;
 
+import io.openaev.aop.lock.LockAspect;
+import io.openaev.aop.lock.LockResourceType;
+import io.openaev.rest.inject.form.InjectExecutionAction;
 import io.openaev.rest.inject.form.InjectExecutionCallback;
 import io.openaev.rest.inject.service.BatchingInjectStatusService;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -11,9 +16,34 @@ import org.springframework.stereotype.Component;
 public class BatchExecutionTraceExecutor {
 
   private final BatchingInjectStatusService batchingInjectStatusService;
+  private final LockAspect lockAspect;
 
+  /**
+   * Handle a batch of callbacks, holding the lock of each inject completed by the batch once for
+   * the whole batch, until its transaction is committed. Only a completion can change the status of
+   * the inject, the other traces of its agents are applied without waiting for its lock.
+   */
   public List<InjectExecutionCallback> handleInjectExecutionCallbackList(
       List<InjectExecutionCallback> injectExecutionCallbacks) {
-    return batchingInjectStatusService.handleInjectExecutionCallback(injectExecutionCallbacks);
+    List<String> injectIds =
+        injectExecutionCallbacks.stream()
+            .filter(
+                callback ->
+                    callback.getInjectExecutionInput() != null
+                        && InjectExecutionAction.complete.equals(
+                            callback.getInjectExecutionInput().getAction()))
+            .map(InjectExecutionCallback::getInjectId)
+            .distinct()
+            .toList();
+    List<Lock> acquired = new ArrayList<>();
+    try {
+      for (Lock lock : lockAspect.getLocks(LockResourceType.INJECT, injectIds)) {
+        lock.lock();
+        acquired.add(lock);
+      }
+      return batchingInjectStatusService.handleInjectExecutionCallback(injectExecutionCallbacks);
+    } finally {
+      acquired.forEach(Lock::unlock);
+    }
   }
 }
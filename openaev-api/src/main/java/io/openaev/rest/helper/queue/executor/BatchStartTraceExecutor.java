@@ -0,0 +1,19 @@
+package io.openaev.rest.helper.queue.executor;
+
+import io.openaev.rest.inject.form.InjectStartCallback;
+import io.openaev.rest.inject.service.BatchingInjectStatusService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class BatchStartTraceExecutor {
+
+  private final BatchingInjectStatusService batchingInjectStatusService;
+
+  public List<InjectStartCallback> handleInjectStartCallbackList(
+      List<InjectStartCallback> injectStartCallbacks) {
+    return batchingInjectStatusService.handleInjectStartCallback(injectStartCallbacks);
+  }
+}
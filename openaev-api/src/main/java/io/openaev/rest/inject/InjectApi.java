@@ -3,12 +3,12 @@ package io.openaev.rest.inject;
 import static io.openaev.config.SessionHelper.currentUser;
 import static io.openaev.helper.StreamHelper.fromIterable;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.openaev.aop.LogExecutionTime;
 import io.openaev.aop.RBAC;
-import io.openaev.aop.lock.Lock;
-import io.openaev.aop.lock.LockResourceType;
 import io.openaev.config.OpenAEVConfig;
 import io.openaev.config.RabbitMQSslConfiguration;
 import io.openaev.config.RabbitmqConfig;
@@ -27,6 +27,7 @@ import io.openaev.rest.exception.ElementNotFoundException;
 import io.openaev.rest.exercise.exports.ExportOptions;
 import io.openaev.rest.helper.RestBehavior;
 import io.openaev.rest.helper.queue.BatchQueueService;
+import io.openaev.rest.helper.queue.SharedRabbitmqConnection;
 import io.openaev.rest.helper.queue.executor.BatchExecutionTraceExecutor;
 import io.openaev.rest.inject.form.*;
 import io.openaev.rest.inject.service.ExecutableInjectService;
@@ -43,6 +44,8 @@ import io.openaev.utils.TargetType;
 import io.openaev.utils.mapper.PayloadMapper;
 import io.openaev.utils.pagination.SearchPaginationInput;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.annotation.PostConstruct;
@@ -97,6 +100,8 @@ public class InjectApi extends RestBehavior {
   private final RabbitMQSslConfiguration rabbitMQSslConfiguration;
 
   private final PreviewFeatureService previewFeatureService;
+  private final MeterRegistry meterRegistry;
+  private final SharedRabbitmqConnection sharedRabbitmqConnection;
 
   // For testing purpose, we add a setter
   @Setter private BatchQueueService<InjectExecutionCallback> injectTraceQueueService;
@@ -112,7 +117,9 @@ public class InjectApi extends RestBehavior {
               rabbitmqConfig,
               objectMapper,
               openAEVConfig.getQueueConfig().get("inject-trace"),
-              rabbitMQSslConfiguration);
+              rabbitMQSslConfiguration,
+              meterRegistry,
+              sharedRabbitmqConnection);
     }
   }
 
@@ -350,7 +357,6 @@ public class InjectApi extends RestBehavior {
       resourceId = "#injectId",
       actionPerformed = Action.WRITE,
       resourceType = ResourceType.INJECT)
-  @Lock(type = LockResourceType.INJECT, key = "#injectId")
   @Operation(
       summary = "Inject execution callback for implants",
       description =
@@ -365,6 +371,10 @@ public class InjectApi extends RestBehavior {
             responseCode = "409",
             description =
                 "The inject to update was not in a valid state in regards to the requested action. Retry in a few seconds."),
+        @ApiResponse(
+            responseCode = "429",
+            description =
+                "Too many execution callbacks are being ingested. Retry in a few seconds."),
       })
   public void injectExecutionCallback(
       @PathVariable
@@ -395,7 +405,10 @@ public class InjectApi extends RestBehavior {
       summary = "Get the payload ready to be executed",
       description =
           "This endpoint is invoked by implants to retrieve a payload command that's pre-configured and ready for execution.")
-  public Payload getExecutablePayloadInject(
+  @ApiResponse(
+      responseCode = "200",
+      content = @Content(schema = @Schema(implementation = Payload.class)))
+  public JsonNode getExecutablePayloadInject(
       @PathVariable @NotBlank final String injectId, @PathVariable @NotBlank final String agentId)
       throws Exception {
     return executableInjectService.getExecutablePayloadAndUpdateInjectStatus(injectId, agentId);
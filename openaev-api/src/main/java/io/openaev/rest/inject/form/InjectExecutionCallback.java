@@ -36,6 +36,7 @@ public class InjectExecutionCallback implements Queueable {
     return false;
   }
 
+  // The callbacks of an agent go to the same worker, to be applied in order
   @Override
   public String getUniqueElementKey() {
     return injectId + agentId;
@@ -0,0 +1,46 @@
+package io.openaev.rest.inject.form;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.openaev.rest.helper.queue.Queueable;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InjectStartCallback implements Queueable {
+
+  @Builder.Default private String id = UUID.randomUUID().toString();
+
+  @JsonProperty("agent_id")
+  private String agentId;
+
+  @JsonProperty("inject_id")
+  private String injectId;
+
+  @JsonProperty("execution_start_date")
+  private long startDate;
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof InjectStartCallback) {
+      return id != null && id.equals(((InjectStartCallback) o).getId());
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return id != null ? id.hashCode() : 0;
+  }
+
+  // The check-ins of an inject go to the same worker, to be written together
+  @Override
+  public String getUniqueElementKey() {
+    return injectId;
+  }
+}
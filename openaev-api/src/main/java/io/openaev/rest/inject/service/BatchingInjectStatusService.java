@@ -1,5 +1,8 @@
 package io.openaev.rest.inject.service;
 
+import static io.openaev.database.model.InjectExpectationSignature.EXPECTATION_SIGNATURE_TYPE_START_DATE;
+import static io.openaev.rest.inject.service.InjectStatusService.START_IMPLANT_EXECUTION_MESSAGE;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openaev.aop.LogExecutionTime;
 import io.openaev.database.model.*;
@@ -7,8 +10,10 @@ import io.openaev.database.repository.*;
 import io.openaev.rest.exception.ElementNotFoundException;
 import io.openaev.rest.inject.form.InjectExecutionAction;
 import io.openaev.rest.inject.form.InjectExecutionCallback;
+import io.openaev.rest.inject.form.InjectStartCallback;
 import jakarta.annotation.Resource;
 import jakarta.transaction.Transactional;
+import java.time.Instant;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -29,6 +34,9 @@ public class BatchingInjectStatusService {
   private final AgentRepository agentRepository;
   private final StructuredOutputUtils structuredOutputUtils;
   private final InjectExecutionService injectExecutionService;
+  private final InjectStatusRepository injectStatusRepository;
+  private final ExecutionTraceRepository executionTraceRepository;
+  private final InjectExpectationRepository injectExpectationRepository;
 
   @Resource protected ObjectMapper mapper;
 
@@ -147,4 +155,79 @@ public class BatchingInjectStatusService {
         });
     return successfullyProcessedCallbacks;
   }
+
+  /**
+   * Handle the list of implant check-ins, writing the start traces and the start date signatures of
+   * the expectations with one statement by inject
+   *
+   * @param injectStartCallbacks the implant check-ins
+   * @return the check-ins processed
+   */
+  @LogExecutionTime
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public List<InjectStartCallback> handleInjectStartCallback(
+      List<InjectStartCallback> injectStartCallbacks) {
+    List<InjectStartCallback> successfullyProcessedCallbacks = new ArrayList<>();
+
+    // Getting all the agents all at once
+    Map<String, Agent> mapAgentsById =
+        StreamSupport.stream(
+                agentRepository
+                    .findAllById(
+                        injectStartCallbacks.stream()
+                            .map(InjectStartCallback::getAgentId)
+                            .distinct()
+                            .toList())
+                    .spliterator(),
+                false)
+            .collect(Collectors.toMap(Agent::getId, Function.identity()));
+
+    Map<String, List<InjectStartCallback>> callbacksByInject =
+        injectStartCallbacks.stream()
+            .collect(Collectors.groupingBy(InjectStartCallback::getInjectId));
+    callbacksByInject.forEach(
+        (injectId, callbacks) -> {
+          try {
+            Optional<InjectStatus> injectStatus = injectStatusRepository.findByInjectId(injectId);
+            if (injectStatus.isEmpty()) {
+              log.warn("Received implant check-ins for inject {} without status", injectId);
+              successfullyProcessedCallbacks.addAll(callbacks);
+              return;
+            }
+            List<InjectStartCallback> knownAgentCallbacks =
+                callbacks.stream()
+                    .filter(callback -> mapAgentsById.containsKey(callback.getAgentId()))
+                    .toList();
+            executionTraceRepository.saveAll(
+                knownAgentCallbacks.stream()
+                    .map(
+                        callback ->
+                            new ExecutionTrace(
+                                injectStatus.get(),
+                                ExecutionTraceStatus.INFO,
+                                null,
+                                START_IMPLANT_EXECUTION_MESSAGE,
+                                ExecutionTraceAction.START,
+                                mapAgentsById.get(callback.getAgentId()),
+                                Instant.ofEpochMilli(callback.getStartDate())))
+                    .toList());
+            injectExpectationRepository.insertSignatures(
+                EXPECTATION_SIGNATURE_TYPE_START_DATE,
+                injectId,
+                knownAgentCallbacks.stream()
+                    .map(InjectStartCallback::getAgentId)
+                    .toArray(String[]::new),
+                knownAgentCallbacks.stream()
+                    .map(callback -> Instant.ofEpochMilli(callback.getStartDate()).toString())
+                    .toArray(String[]::new));
+            successfullyProcessedCallbacks.addAll(callbacks);
+          } catch (Exception e) {
+            log.warn(
+                "There was a problem processing the implant check-ins for the inject {}",
+                injectId,
+                e);
+          }
+        });
+    return successfullyProcessedCallbacks;
+  }
 }
@@ -2,31 +2,53 @@ package io.openaev.rest.inject.service;
 
 import static io.openaev.database.model.InjectorContract.CONTRACT_ELEMENT_CONTENT_KEY_TARGETED_ASSET_SEPARATOR;
 import static io.openaev.executors.Executor.CMD;
+import static io.openaev.rest.inject.service.InjectStatusService.START_IMPLANT_EXECUTION_MESSAGE;
 import static org.springframework.util.CollectionUtils.isEmpty;
 import static org.springframework.util.StringUtils.hasText;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Suppliers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.openaev.config.OpenAEVConfig;
+import io.openaev.config.RabbitMQSslConfiguration;
+import io.openaev.config.RabbitmqConfig;
 import io.openaev.database.model.*;
+import io.openaev.database.raw.RawExecutablePayloadVersion;
+import io.openaev.database.repository.InjectRepository;
 import io.openaev.injector_contract.fields.ContractFieldType;
 import io.openaev.injectors.openaev.model.OpenAEVImplantInjectContent;
 import io.openaev.injectors.openaev.util.OpenAEVObfuscationMap;
 import io.openaev.rest.document.DocumentService;
 import io.openaev.rest.exception.ElementNotFoundException;
+import io.openaev.rest.helper.queue.BatchQueueService;
+import io.openaev.rest.helper.queue.executor.BatchStartTraceExecutor;
+import io.openaev.rest.inject.form.InjectStartCallback;
 import io.openaev.rest.payload.service.PayloadService;
 import io.openaev.service.InjectExpectationService;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
+import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @RequiredArgsConstructor
@@ -39,9 +61,52 @@ public class ExecutableInjectService {
   private final InjectStatusService injectStatusService;
   private final InjectExpectationService injectExpectationService;
   private final PayloadService payloadService;
+  private final InjectRepository injectRepository;
+
+  private final BatchStartTraceExecutor batchStartTraceExecutor;
+  private final RabbitmqConfig rabbitmqConfig;
+  private final OpenAEVConfig openAEVConfig;
+  private final RabbitMQSslConfiguration rabbitMQSslConfiguration;
+  private final MeterRegistry meterRegistry;
 
   @Resource protected ObjectMapper mapper;
 
+  // For testing purpose, we add a setter
+  @Setter private BatchQueueService<InjectStartCallback> injectStartQueueService;
+
+  @Value("${openaev.executable-payload.cache-size:1000}")
+  private int cacheSize;
+
+  /**
+   * A payload rendered for an inject, identical for all its agents
+   *
+   * @param version the update dates of the inject, its contract and payload, and the versions of
+   *     the assets and documents it references, when rendered
+   * @param payload the payload, rendered once on first use and kept serialized
+   */
+  private record RenderedPayload(List<Object> version, Supplier<JsonNode> payload) {}
+
+  // Rendered payloads by inject, a payload being fetched by every agent targeted by the inject
+  private final Map<String, RenderedPayload> renderedPayloads = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() throws IOException, TimeoutException {
+    if (openAEVConfig.getQueueConfig().get("inject-start") != null) {
+      // Initializing the queue for batching the implant check-ins
+      injectStartQueueService =
+          new BatchQueueService<>(
+              InjectStartCallback.class,
+              batchStartTraceExecutor::handleInjectStartCallbackList,
+              rabbitmqConfig,
+              mapper,
+              openAEVConfig.getQueueConfig().get("inject-start"),
+              rabbitMQSslConfiguration,
+              meterRegistry,
+              // The connection is shared by the inject-trace queue, notified once per connection
+              null);
+    }
+  }
+
   private static final Pattern argumentsRegex = Pattern.compile("#\\{([^#{}]+)}");
   private static final Pattern cmdVariablesRegex = Pattern.compile("%(\\w+)%");
 
@@ -192,7 +257,7 @@ public class ExecutableInjectService {
     return Base64.getEncoder().encodeToString(computedCommand.getBytes());
   }
 
-  public Payload getExecutablePayloadAndUpdateInjectStatus(String injectId, String agentId)
+  public JsonNode getExecutablePayloadAndUpdateInjectStatus(String injectId, String agentId)
       throws Exception {
     // Need startTime to be defined before everything else to be the most accurate start time, as
     // this whole process is
@@ -201,14 +266,76 @@ public class ExecutableInjectService {
     // but it would require more changes in the implant code and change this endpoint from a get to
     // a post.
     Instant startTime = Instant.now();
-    Payload payloadToExecute = getExecutablePayloadInject(injectId);
-    this.injectStatusService.addStartImplantExecutionTraceByInject(
-        injectId, agentId, "Implant is up and starting execution", startTime);
-    this.injectExpectationService.addStartDateSignatureToInjectExpectationsByAgent(
-        injectId, agentId, startTime);
+    JsonNode payloadToExecute = getRenderedPayload(injectId);
+    if (injectStartQueueService != null) {
+      // Written later with the check-ins of the other agents of the inject
+      injectStartQueueService.publish(
+          InjectStartCallback.builder()
+              .injectId(injectId)
+              .agentId(agentId)
+              .startDate(startTime.toEpochMilli())
+              .build());
+    } else {
+      this.injectStatusService.addStartImplantExecutionTraceByInject(
+          injectId, agentId, START_IMPLANT_EXECUTION_MESSAGE, startTime);
+      this.injectExpectationService.addStartDateSignatureToInjectExpectationsByAgent(
+          injectId, agentId, startTime);
+    }
     return payloadToExecute;
   }
 
+  /**
+   * Get the payload of an inject, rendered once for all the agents it targets. Rendered again when
+   * the inject, its contract, its payload, or the assets and documents it references are updated.
+   *
+   * @param injectId the inject
+   * @return a copy of the rendered payload
+   */
+  private JsonNode getRenderedPayload(String injectId) throws Exception {
+    Optional<RawExecutablePayloadVersion> rawVersion =
+        injectRepository.findExecutablePayloadVersion(injectId);
+    if (rawVersion.isEmpty()) {
+      return mapper.valueToTree(getExecutablePayloadInject(injectId));
+    }
+    List<Object> version =
+        Arrays.asList(
+            rawVersion.get().getInject_updated_at(),
+            rawVersion.get().getInjector_contract_updated_at(),
+            rawVersion.get().getPayload_updated_at(),
+            rawVersion.get().getReferenced_assets_version(),
+            rawVersion.get().getReferenced_documents_version());
+    if (renderedPayloads.size() >= Math.max(1, cacheSize)
+        && !renderedPayloads.containsKey(injectId)) {
+      renderedPayloads.clear();
+    }
+    RenderedPayload rendered =
+        renderedPayloads.compute(
+            injectId,
+            (id, current) ->
+                current != null && Objects.equals(current.version(), version)
+                    ? current
+                    : new RenderedPayload(version, Suppliers.memoize(() -> render(id))));
+    try {
+      return rendered.payload().get().deepCopy();
+    } catch (CompletionException e) {
+      renderedPayloads.remove(injectId, rendered);
+      throw (Exception) e.getCause();
+    } catch (RuntimeException e) {
+      renderedPayloads.remove(injectId, rendered);
+      throw e;
+    }
+  }
+
+  private JsonNode render(String injectId) {
+    try {
+      return mapper.valueToTree(getExecutablePayloadInject(injectId));
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CompletionException(e);
+    }
+  }
+
   private Payload getExecutablePayloadInject(String injectId) throws Exception {
     Inject inject = injectService.inject(injectId);
     InjectorContract contract =
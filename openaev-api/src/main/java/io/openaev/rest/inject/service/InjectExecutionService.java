@@ -9,6 +9,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.annotations.VisibleForTesting;
+import io.openaev.aop.lock.Lock;
+import io.openaev.aop.lock.LockResourceType;
 import io.openaev.database.model.*;
 import io.openaev.database.repository.AgentRepository;
 import io.openaev.database.repository.InjectExpectationRepository;
@@ -45,6 +47,7 @@ public class InjectExecutionService {
 
   @Resource protected ObjectMapper mapper;
 
+  @Lock(type = LockResourceType.INJECT, key = "#injectId")
   @Transactional
   public void handleInjectExecutionCallback(
       String injectId, String agentId, InjectExecutionInput input) {
@@ -0,0 +1,26 @@
+package io.openaev.rest.stream;
+
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Single node transport, the events are only streamed to the clients of this node. */
+@Component
+@ConditionalOnProperty(
+    name = "openaev.stream.transport",
+    havingValue = "local",
+    matchIfMissing = true)
+public class LocalStreamEventTransport implements StreamEventTransport {
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  @Override
+  public String nodeId() {
+    return nodeId;
+  }
+
+  @Override
+  public void publish(StreamMessage message) {
+    // Nobody else to send to
+  }
+}
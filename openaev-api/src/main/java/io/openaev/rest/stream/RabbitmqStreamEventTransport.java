@@ -0,0 +1,120 @@
+package io.openaev.rest.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.*;
+import io.openaev.config.OpenAEVConfig;
+import io.openaev.config.RabbitmqConfig;
+import io.openaev.rest.helper.queue.SharedRabbitmqConnection;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cluster transport of the streamed events over the RabbitMQ connection of the batch queues. The
+ * connection being opened by the inject trace queue, the application does not start without it.
+ *
+ * <p>The events are published on a fanout exchange. Every node binds its own exclusive queue to it,
+ * so each event is delivered once to every node. The live stream being best effort, the events are
+ * neither persisted nor confirmed: a client missing some of them resumes from the replay buffer of
+ * its node thanks to the Last-Event-ID header, or reloads its data when connecting to another node.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "openaev.stream.transport", havingValue = "rabbitmq")
+@RequiredArgsConstructor
+public class RabbitmqStreamEventTransport implements StreamEventTransport {
+
+  public static final String EXCHANGE_KEY = "_amqp.stream.exchange";
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final OpenAEVConfig openAEVConfig;
+  private final RabbitmqConfig rabbitmqConfig;
+  private final SharedRabbitmqConnection sharedRabbitmqConnection;
+  private final ApplicationEventPublisher appPublisher;
+  private final ObjectMapper mapper;
+
+  private volatile Channel channel;
+
+  @PostConstruct
+  public void init() {
+    if (openAEVConfig.getQueueConfig() == null
+        || openAEVConfig.getQueueConfig().get("inject-trace") == null) {
+      throw new IllegalStateException(
+          "openaev.stream.transport=rabbitmq requires the inject-trace queue"
+              + " (openaev.queue-config.inject-trace), whose connection it shares");
+    }
+    sharedRabbitmqConnection.onConnection(this::openChannel);
+  }
+
+  @Override
+  public String nodeId() {
+    return nodeId;
+  }
+
+  private String exchangeName() {
+    return rabbitmqConfig.getPrefix() + EXCHANGE_KEY;
+  }
+
+  // Synchronized, a registration and a reconnection can both notify the same connection
+  private synchronized void openChannel(Connection connection) {
+    Channel previous = channel;
+    if (previous != null && previous.isOpen()) {
+      if (previous.getConnection() == connection) {
+        return;
+      }
+      // Closing the channel cancels its consumer and deletes its exclusive queue
+      try {
+        previous.close();
+      } catch (IOException | TimeoutException | ShutdownSignalException e) {
+        log.debug("Error closing the previous stream channel: {}", e.getMessage());
+      }
+    }
+    try {
+      Channel streamChannel = connection.createChannel();
+      streamChannel.exchangeDeclare(exchangeName(), BuiltinExchangeType.FANOUT, true);
+      // Server named, exclusive and auto deleted: the queue lives as long as this node
+      String queueName = streamChannel.queueDeclare().getQueue();
+      streamChannel.queueBind(queueName, exchangeName(), "");
+      DeliverCallback deliverCallback =
+          (consumerTag, delivery) -> {
+            try {
+              StreamMessage message = StreamMessageCodec.decode(delivery.getBody(), mapper);
+              if (!nodeId.equals(message.getOrigin())) {
+                appPublisher.publishEvent(message);
+              }
+            } catch (Exception e) {
+              log.warn("Stream message can't be read: {}", e.getMessage(), e);
+            }
+          };
+      streamChannel.basicConsume(queueName, true, deliverCallback, consumerTag -> {});
+      channel = streamChannel;
+      log.info("Stream events shared with the other nodes through {}", exchangeName());
+    } catch (IOException e) {
+      log.error("Error opening the stream channel: {}", e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public void publish(StreamMessage message) {
+    Channel current = channel;
+    if (current == null || !current.isOpen()) {
+      log.debug("Stream channel not available, event {} kept on this node", message.getId());
+      return;
+    }
+    try {
+      byte[] body = StreamMessageCodec.encode(message, mapper);
+      synchronized (current) {
+        current.basicPublish(exchangeName(), "", null, body);
+      }
+    } catch (IOException | AlreadyClosedException e) {
+      log.warn("Error publishing stream event {}: {}", message.getId(), e.getMessage());
+    }
+  }
+}
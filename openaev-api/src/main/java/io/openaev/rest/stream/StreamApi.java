@@ -7,12 +7,15 @@ import static java.time.Instant.now;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Suppliers;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.openaev.aop.RBAC;
 import io.openaev.config.OpenAEVPrincipal;
 import io.openaev.database.audit.BaseEvent;
-import io.openaev.database.model.Action;
-import io.openaev.database.model.ResourceType;
-import io.openaev.database.model.User;
+import io.openaev.database.audit.GrantEvent;
+import io.openaev.database.model.*;
 import io.openaev.rest.helper.RestBehavior;
 import io.openaev.service.PermissionService;
 import io.openaev.service.UserService;
@@ -20,12 +23,17 @@ import jakarta.transaction.Transactional;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -33,12 +41,11 @@ import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.RequestContextHolder;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
-import reactor.util.function.Tuple2;
-import reactor.util.function.Tuples;
+import reactor.core.publisher.Sinks;
 
 @RestController
 @Slf4j
@@ -47,108 +54,457 @@ public class StreamApi extends RestBehavior {
   public static final String EVENT_TYPE_MESSAGE = "message";
   public static final String EVENT_TYPE_PING = "ping";
   public static final String X_ACCEL_BUFFERING = "X-Accel-Buffering";
-  private final Map<String, Tuple2<OpenAEVPrincipal, FluxSink<Object>>> consumers = new HashMap<>();
+  public static final String LAST_EVENT_ID = "Last-Event-ID";
+  private static final int MAX_CACHED_PERMISSIONS_PER_USER = 10_000;
+  private static final int MAX_COALESCED_EVENTS = 10_000;
+
+  private final Map<String, StreamSubscriber> consumers = new ConcurrentHashMap<>();
+
+  // Read permissions already resolved, by user then by resource
+  private final Map<String, Map<String, CachedPermission>> readPermissions =
+      new ConcurrentHashMap<>();
+  // Bumped on every permission change, a permission resolved meanwhile is not cached
+  private final AtomicLong permissionsGeneration = new AtomicLong();
+
+  // Latest event waiting to be streamed, by entity, and the events waiting for their dispatch
+  private final Map<String, BaseEvent> latestEvents = new ConcurrentHashMap<>();
+  private final Set<BaseEvent> queuedEvents = ConcurrentHashMap.newKeySet();
+
+  // Last streamed events, for the clients resuming after a reconnection. Ordered by their sequence,
+  // the events of the other nodes being numbered again in the order this node streams them
+  private final Deque<StreamEntry> replay = new ArrayDeque<>();
+  private long sequence;
+
+  @Value("${openaev.stream.replay-size:1000}")
+  private int replaySize;
+
+  @Value("${openaev.stream.permission-ttl-seconds:30}")
+  private long permissionTtlSeconds;
+
+  @Value("${openaev.stream.subscriber.buffer-size:1000}")
+  private int subscriberBufferSize;
+
+  @Value("${openaev.stream.subscriber.overflow-policy:COALESCE}")
+  private StreamOverflowPolicy overflowPolicy;
 
   private final PermissionService permissionService;
   private final UserService userService;
+  private final StreamEventTransport streamEventTransport;
+  private final Map<StreamSubscriber.Overflow, Counter> overflowCounters =
+      new EnumMap<>(StreamSubscriber.Overflow.class);
 
   private Instant lastUpdate = Instant.now();
 
-  public StreamApi(PermissionService permissionService, UserService userService) {
+  public StreamApi(
+      PermissionService permissionService,
+      UserService userService,
+      StreamEventTransport streamEventTransport,
+      MeterRegistry meterRegistry) {
     this.permissionService = permissionService;
     this.userService = userService;
-  }
+    this.streamEventTransport = streamEventTransport;
 
-  private void sendStreamEvent(FluxSink<Object> flux, BaseEvent event) {
-    // Serialize the instance now for lazy session decoupling
-    event.setInstanceData(mapper.valueToTree(event.getInstance()));
-    ServerSentEvent<BaseEvent> message =
-        ServerSentEvent.builder(event).event(EVENT_TYPE_MESSAGE).build();
-    flux.next(message);
+    // Metrics of the subscribers
+    Gauge.builder("openaev.stream.subscribers", consumers, Map::size)
+        .description("Number of clients connected to the stream")
+        .register(meterRegistry);
+    Gauge.builder(
+            "openaev.stream.buffer.occupancy",
+            consumers,
+            subscribers ->
+                subscribers.values().stream().mapToInt(StreamSubscriber::occupancy).sum())
+        .description("Number of events buffered for the clients not keeping up")
+        .register(meterRegistry);
+    Gauge.builder(
+            "openaev.stream.subscriber.lag",
+            consumers,
+            subscribers ->
+                subscribers.values().stream().mapToLong(StreamSubscriber::lag).max().orElse(0))
+        .description("Time the oldest buffered event waits for the slowest client")
+        .baseUnit("milliseconds")
+        .register(meterRegistry);
+    for (StreamSubscriber.Overflow overflow : StreamSubscriber.Overflow.values()) {
+      overflowCounters.put(
+          overflow,
+          Counter.builder("openaev.stream.overflow")
+              .description("Number of events lost and clients evicted for a full buffer")
+              .tag("outcome", overflow.name().toLowerCase())
+              .register(meterRegistry));
+    }
   }
 
+  /**
+   * A streamed event, with what is needed to check the permission of the consumers
+   *
+   * @param id the id of the event in the stream of this node
+   * @param sequence the sequence of the event in the stream of this node
+   * @param resourceType the type of the changed resource
+   * @param resourceId the id of the changed resource
+   * @param parent the parent the resource inherits its permissions from, null if none
+   * @param message the event, for the consumers allowed to read the resource
+   * @param deleteMessage the event as a deletion, for the others. Null if it cannot be sent
+   */
+  private record StreamEntry(
+      String id,
+      long sequence,
+      ResourceType resourceType,
+      String resourceId,
+      String parent,
+      ServerSentEvent<?> message,
+      Supplier<ServerSentEvent<?>> deleteMessage) {}
+
+  /**
+   * A resolved read permission
+   *
+   * @param allowed whether the user can read the resource
+   * @param parent the parent of the resource when it was resolved
+   * @param expiresAt when the permission has to be resolved again, in epoch milliseconds
+   */
+  private record CachedPermission(boolean allowed, String parent, long expiresAt) {}
+
   private static final EnumSet<ResourceType> RESOURCES_STREAM_EXCLUSION =
       EnumSet.of(
           ResourceType.VULNERABILITY, ResourceType.PAYLOAD, ResourceType.CONNECTOR_INSTANCE_LOG);
 
+  private static boolean isStreamed(BaseEvent event) {
+    return !RESOURCES_STREAM_EXCLUSION.contains(event.getInstance().getResourceType())
+        && event.isListened();
+  }
+
+  private static String entityKey(BaseEvent event) {
+    return event.getInstance().getResourceType() + ":" + event.getInstance().getId();
+  }
+
+  /**
+   * Register a database update before its asynchronous dispatch, so the updates of a same entity
+   * still waiting for their dispatch collapse into the latest one. Also invalidates the cached
+   * permissions on a change of the users, teams, groups or roles.
+   */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener
+  public void registerDatabaseUpdate(BaseEvent event) {
+    Base instance = event.getInstance();
+    if (instance instanceof User user) {
+      invalidatePermissions(user.getId());
+    } else if (instance instanceof Team || instance instanceof Group || instance instanceof Role) {
+      invalidatePermissions(null);
+    }
+    if (!isStreamed(event)) {
+      return;
+    }
+    if (queuedEvents.size() >= MAX_COALESCED_EVENTS) {
+      // Events whose dispatch was discarded by the stream executor
+      queuedEvents.clear();
+      latestEvents.clear();
+    }
+    queuedEvents.add(event);
+    latestEvents.put(entityKey(event), event);
+  }
+
+  @TransactionalEventListener
+  public void listenGrantUpdate(GrantEvent event) {
+    invalidatePermissions(null);
+  }
+
+  /**
+   * Invalidate the cached read permissions
+   *
+   * @param userId the user whose permissions changed, null for every user
+   */
+  private void invalidatePermissions(String userId) {
+    permissionsGeneration.incrementAndGet();
+    if (userId == null) {
+      readPermissions.clear();
+    } else {
+      readPermissions.remove(userId);
+    }
+  }
+
+  /**
+   * Parent of a resource inheriting its read permission, an inject moved to another simulation or
+   * scenario having its permission resolved again
+   */
+  private static String parentOf(ResourceType resourceType, JsonNode instance) {
+    if (resourceType != ResourceType.INJECT || instance == null) {
+      return null;
+    }
+    return instance.path("inject_exercise").asText("")
+        + "/"
+        + instance.path("inject_scenario").asText("");
+  }
+
+  /**
+   * Whether a user can read a resource. The permissions are cached until a change of the grants,
+   * users, teams, groups or roles of this node, of the parent of the resource, or their expiration
+   * for the changes made on the other nodes.
+   */
+  private boolean canRead(String userId, StreamEntry entry, Map<String, User> users) {
+    Map<String, CachedPermission> permissions =
+        readPermissions.computeIfAbsent(userId, id -> new ConcurrentHashMap<>());
+    String resourceKey = entry.resourceType() + ":" + entry.resourceId();
+    long now = System.currentTimeMillis();
+    CachedPermission cached = permissions.get(resourceKey);
+    if (cached != null
+        && cached.expiresAt() > now
+        && Objects.equals(cached.parent(), entry.parent())) {
+      return cached.allowed();
+    }
+    long generation = permissionsGeneration.get();
+    User user = users.computeIfAbsent(userId, userService::user);
+    boolean permission =
+        permissionService.hasPermission(
+            user, Optional.empty(), entry.resourceId(), entry.resourceType(), Action.READ);
+    if (generation == permissionsGeneration.get()) {
+      if (permissions.size() >= MAX_CACHED_PERMISSIONS_PER_USER) {
+        permissions.clear();
+      }
+      permissions.put(
+          resourceKey,
+          new CachedPermission(permission, entry.parent(), now + permissionTtlSeconds * 1000));
+    }
+    return permission;
+  }
+
   @Async("streamExecutor")
   @Transactional
   @TransactionalEventListener
   public void listenDatabaseUpdate(BaseEvent event) {
-    if (RESOURCES_STREAM_EXCLUSION.contains(event.getInstance().getResourceType())
-        || !event.isListened()) {
+    if (!isStreamed(event)) {
       return;
     }
+    if (queuedEvents.remove(event)) {
+      // Stream the latest update of the entity, unless a previous dispatch already did
+      BaseEvent latest = latestEvents.remove(entityKey(event));
+      if (latest == null) {
+        return;
+      }
+      event = latest;
+    }
     if (lastUpdate.isBefore(Instant.now().minus(5, ChronoUnit.MINUTES))) {
       log.info(
           "There are currently {} users connected to the stream. The id of the users connected : {}",
           consumers.size(),
           consumers.values().stream()
-              .map(Tuple2::getT1)
+              .map(StreamSubscriber::getPrincipal)
               .map(OpenAEVPrincipal::getId)
               .collect(Collectors.joining(", ")));
 
       lastUpdate = Instant.now();
     }
+    // Serialize the instance now for lazy session decoupling, once for every consumer
+    event.setInstanceData(mapper.valueToTree(event.getInstance()));
+    String idProperty = idProperty(event.getInstance());
+    BaseEvent streamedEvent = event;
+    String id =
+        dispatch(
+            event.getInstance().getResourceType(),
+            event.getInstance().getId(),
+            parentOf(event.getInstance().getResourceType(), event.getInstanceData()),
+            event,
+            streamId -> deleteMessage(streamId, streamedEvent, idProperty));
+    // Then to the consumers of the other nodes
+    streamEventTransport.publish(StreamMessage.of(id, event, idProperty));
+  }
+
+  /** Stream an event changed on another node to the consumers of this one */
+  @Async("streamExecutor")
+  @EventListener
+  public void listenRemoteUpdate(StreamMessage message) {
+    if (!message.isListened() || RESOURCES_STREAM_EXCLUSION.contains(message.getResourceType())) {
+      return;
+    }
+    dispatch(
+        message.getResourceType(),
+        message.getResourceId(),
+        parentOf(message.getResourceType(), message.getInstanceData()),
+        message,
+        streamId -> deleteMessage(streamId, message));
+  }
+
+  private String idProperty(Base instance) {
+    try {
+      return instance.getClass().getDeclaredField("id").getAnnotation(JsonProperty.class).value();
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private ObjectNode deleteNode(String idProperty, String resourceId) {
+    ObjectNode deleteNode = mapper.createObjectNode();
+    deleteNode.set(idProperty, mapper.convertValue(resourceId, JsonNode.class));
+    return deleteNode;
+  }
+
+  // If user as no visibility, we can send a "delete" userEvent with only the internal id
+  // TODO -> rethink this logic -> do we need to send DELETE events
+  private ServerSentEvent<?> deleteMessage(String id, BaseEvent event, String idProperty) {
+    try {
+      ObjectNode deleteNode =
+          deleteNode(Objects.requireNonNull(idProperty), event.getInstance().getId());
+      BaseEvent userEvent = event.clone();
+      userEvent.setInstanceData(deleteNode);
+      userEvent.setType(DATA_DELETE);
+      return ServerSentEvent.builder(userEvent).id(id).event(EVENT_TYPE_MESSAGE).build();
+    } catch (Exception e) {
+      String simpleName = event.getInstance().getClass().getSimpleName();
+      log.warn(String.format("Class %s can't be streamed", simpleName), e);
+      return null;
+    }
+  }
 
-    consumers.forEach(
-        (key, tupleFlux) -> {
-          User user = userService.user(tupleFlux.getT1().getId());
-          // FIXME find a way to cache user
-          // -> close session when user se login
-
-          FluxSink<Object> fluxSink = tupleFlux.getT2();
-          if (!permissionService.hasPermission(
-              user,
-              Optional.empty(),
-              event.getInstance().getId(),
-              event.getInstance().getResourceType(),
-              Action.READ)) {
-            // If user as no visibility, we can send a "delete" userEvent with only the internal
-            // id
-            // TODO -> rethink this logic -> do we need to send DELETE events
-            try {
-              String propertyId =
-                  event
-                      .getInstance()
-                      .getClass()
-                      .getDeclaredField("id")
-                      .getAnnotation(JsonProperty.class)
-                      .value();
-              ObjectNode deleteNode = mapper.createObjectNode();
-              deleteNode.set(
-                  propertyId, mapper.convertValue(event.getInstance().getId(), JsonNode.class));
-              BaseEvent userEvent = event.clone();
-              userEvent.setInstanceData(deleteNode);
-              userEvent.setType(DATA_DELETE);
-              sendStreamEvent(fluxSink, userEvent);
-            } catch (Exception e) {
-              String simpleName = event.getInstance().getClass().getSimpleName();
-              log.warn(String.format("Class %s can't be streamed", simpleName), e);
-            }
-          } else {
-            sendStreamEvent(fluxSink, event);
-          }
-        });
+  private ServerSentEvent<?> deleteMessage(String id, StreamMessage message) {
+    if (message.getIdProperty() == null) {
+      return null;
+    }
+    StreamMessage userMessage = new StreamMessage();
+    userMessage.setId(message.getId());
+    userMessage.setResourceType(message.getResourceType());
+    userMessage.setResourceId(message.getResourceId());
+    userMessage.setAttributeId(message.getAttributeId());
+    userMessage.setSchema(message.getSchema());
+    userMessage.setListened(message.isListened());
+    userMessage.setInstanceData(deleteNode(message.getIdProperty(), message.getResourceId()));
+    userMessage.setType(DATA_DELETE);
+    return ServerSentEvent.builder(userMessage).id(id).event(EVENT_TYPE_MESSAGE).build();
+  }
+
+  /**
+   * Stream an event to the consumers of this node, numbered in the stream of this node
+   *
+   * @param data the event, for the consumers allowed to read the resource
+   * @param deleteMessage the event as a deletion for the others, from its id
+   * @return the id of the event in the stream of this node
+   */
+  private String dispatch(
+      ResourceType resourceType,
+      String resourceId,
+      String parent,
+      Object data,
+      Function<String, ServerSentEvent<?>> deleteMessage) {
+    StreamEntry entry;
+    synchronized (replay) {
+      long entrySequence = ++sequence;
+      String id = streamEventTransport.nodeId() + ":" + entrySequence;
+      entry =
+          new StreamEntry(
+              id,
+              entrySequence,
+              resourceType,
+              resourceId,
+              parent,
+              ServerSentEvent.builder(data).id(id).event(EVENT_TYPE_MESSAGE).build(),
+              Suppliers.memoize(() -> deleteMessage.apply(id)));
+      if (replaySize > 0) {
+        replay.addLast(entry);
+        while (replay.size() > replaySize) {
+          replay.removeFirst();
+        }
+      }
+    }
+    Map<String, User> users = new HashMap<>();
+    for (StreamSubscriber consumer : consumers.values()) {
+      send(entry, consumer, users);
+    }
+    return entry.id();
+  }
+
+  private void send(StreamEntry entry, StreamSubscriber consumer, Map<String, User> users) {
+    String entityKey = entry.resourceType() + ":" + entry.resourceId();
+    if (canRead(consumer.getPrincipal().getId(), entry, users)) {
+      consumer.offer(entry.id(), entityKey, entry.message());
+      return;
+    }
+    ServerSentEvent<?> deleteMessage = entry.deleteMessage().get();
+    if (deleteMessage != null) {
+      consumer.offer(entry.id(), entityKey, deleteMessage);
+    }
+  }
+
+  /**
+   * Events streamed since the one a client received last. The ids being numbered by node, an id of
+   * another node, or of this node before a restart, can not be resumed from.
+   *
+   * @param lastEventId the id of the last event received, null on a first connection
+   * @return the events to send again, empty if the id is unknown or too old
+   */
+  private Optional<List<StreamEntry>> missedSince(String lastEventId) {
+    if (lastEventId == null || lastEventId.isBlank()) {
+      return Optional.of(List.of());
+    }
+    String prefix = streamEventTransport.nodeId() + ":";
+    long lastSequence;
+    try {
+      lastSequence =
+          lastEventId.startsWith(prefix)
+              ? Long.parseLong(lastEventId.substring(prefix.length()))
+              : -1;
+    } catch (NumberFormatException e) {
+      lastSequence = -1;
+    }
+    if (lastSequence < 0 || lastSequence > sequence) {
+      return Optional.empty();
+    }
+    if (lastSequence == sequence) {
+      return Optional.of(List.of());
+    }
+    if (replay.isEmpty() || replay.peekFirst().sequence() > lastSequence + 1) {
+      return Optional.empty();
+    }
+    long after = lastSequence;
+    return Optional.of(replay.stream().filter(entry -> entry.sequence() > after).toList());
   }
 
   /** Create a flux for current user & session */
   @GetMapping(path = "/api/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
   @RBAC(skipRBAC = true) // TODO RBAC check must be done manually for every event in this method
-  public ResponseEntity<Flux<Object>> streamFlux() {
+  public ResponseEntity<Flux<Object>> streamFlux(
+      @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
     String sessionId = RequestContextHolder.currentRequestAttributes().getSessionId();
-    // Build the database event flux.
+    OpenAEVPrincipal principal = currentUser();
+    // Build the database event flux, resuming after the last event received by the client.
+    // Emitted on demand, the events waiting for a slow client being bounded by its subscriber.
+    Sinks.Empty<Void> terminated = Sinks.empty();
     Flux<Object> dataFlux =
         Flux.create(
-                fluxSinkConsumer ->
-                    consumers.put(sessionId, Tuples.of(currentUser(), fluxSinkConsumer)))
-            .doAfterTerminate(() -> consumers.remove(sessionId));
-    // Build the health check flux.
+                fluxSinkConsumer -> {
+                  StreamSubscriber consumer =
+                      new StreamSubscriber(
+                          principal,
+                          fluxSinkConsumer,
+                          subscriberBufferSize,
+                          overflowPolicy,
+                          overflow -> overflowCounters.get(overflow).increment());
+                  fluxSinkConsumer.onRequest(consumer::request);
+                  Optional<List<StreamEntry>> missed;
+                  synchronized (replay) {
+                    missed = missedSince(lastEventId);
+                    consumers.put(sessionId, consumer);
+                  }
+                  if (missed.isEmpty()) {
+                    // The events missed are not known here, the client has to reload its data
+                    consumer.resync();
+                  } else {
+                    Map<String, User> users = new HashMap<>();
+                    missed.get().forEach(entry -> send(entry, consumer, users));
+                  }
+                })
+            .doAfterTerminate(
+                () -> {
+                  consumers.remove(sessionId);
+                  // Forget the permissions of a user without any session left
+                  if (consumers.values().stream()
+                      .noneMatch(
+                          consumer -> consumer.getPrincipal().getId().equals(principal.getId()))) {
+                    readPermissions.remove(principal.getId());
+                  }
+                })
+            .doFinally(signal -> terminated.tryEmitEmpty());
+    // Build the health check flux, ending with the data flux on an eviction.
     Flux<Object> ping =
         Flux.interval(Duration.ofSeconds(1))
-            .map(
-                l ->
-                    ServerSentEvent.builder(now().getEpochSecond()).event(EVENT_TYPE_PING).build());
+            .<Object>map(
+                l -> ServerSentEvent.builder(now().getEpochSecond()).event(EVENT_TYPE_PING).build())
+            .takeUntilOther(terminated.asMono());
     // Merge the 2 flux to create the final one.
     return ResponseEntity.ok()
         .header(HttpHeaders.CACHE_CONTROL, "no-cache")
@@ -0,0 +1,21 @@
+package io.openaev.rest.stream;
+
+/**
+ * Transport of the streamed events between the API nodes of a cluster.
+ *
+ * <p>The events changed on a node are streamed to its own clients, then published to the other
+ * nodes. A received event is published as a Spring application event, to be streamed by {@link
+ * StreamApi} to the clients of the receiving node.
+ */
+public interface StreamEventTransport {
+
+  /** Id of this node, prefix of the ids of the events it streams */
+  String nodeId();
+
+  /**
+   * Send an event streamed by this node to the other nodes
+   *
+   * @param message the event
+   */
+  void publish(StreamMessage message);
+}
@@ -0,0 +1,73 @@
+package io.openaev.rest.stream;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.openaev.database.audit.BaseEvent;
+import io.openaev.database.model.ResourceType;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A database event streamed by another API node. Sent to the clients with the same attributes as a
+ * {@link BaseEvent}, the entity itself being only known by the node where it was changed.
+ */
+@Getter
+@Setter
+public class StreamMessage {
+
+  /** Id of the event in the stream, unique in the cluster. */
+  @JsonIgnore private String id;
+
+  /** Type of the changed resource, to check the permission of the clients. */
+  @JsonIgnore private ResourceType resourceType;
+
+  /** Id of the changed resource. */
+  @JsonIgnore private String resourceId;
+
+  /** The JSON property name of the entity's ID field, null if it cannot be streamed as deleted. */
+  @JsonIgnore private String idProperty;
+
+  @JsonProperty("event_type")
+  private String type;
+
+  @JsonProperty("attribute_id")
+  private String attributeId;
+
+  @JsonProperty("attribute_schema")
+  private String schema;
+
+  @JsonProperty("instance")
+  private JsonNode instanceData;
+
+  @JsonProperty("listened")
+  private boolean listened;
+
+  /**
+   * Build the message of a local event
+   *
+   * @param id the id of the event in the stream
+   * @param event the event, its instance already serialized
+   * @param idProperty the JSON property name of the entity's ID field
+   * @return the message to send to the other nodes
+   */
+  public static StreamMessage of(String id, BaseEvent event, String idProperty) {
+    StreamMessage message = new StreamMessage();
+    message.setId(id);
+    message.setResourceType(event.getInstance().getResourceType());
+    message.setResourceId(event.getInstance().getId());
+    message.setIdProperty(idProperty);
+    message.setType(event.getType());
+    message.setAttributeId(event.getAttributeId());
+    message.setSchema(event.getSchema());
+    message.setInstanceData(event.getInstanceData());
+    message.setListened(event.isListened());
+    return message;
+  }
+
+  /** The origin node of the message, the first part of its id */
+  @JsonIgnore
+  public String getOrigin() {
+    return id == null ? null : id.substring(0, Math.max(0, id.lastIndexOf(':')));
+  }
+}
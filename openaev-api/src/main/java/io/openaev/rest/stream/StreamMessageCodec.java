@@ -0,0 +1,135 @@
+package io.openaev.rest.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openaev.database.model.ResourceType;
+import java.io.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encoding of the {@link StreamMessage}s exchanged between the API nodes.
+ *
+ * <p>The attributes are written as length prefixed strings and the instance as JSON, deflated once
+ * bigger than {@link #COMPRESSION_THRESHOLD} bytes: most of the events are status updates of a few
+ * hundred bytes, the compression only pays off on the big entities.
+ */
+public final class StreamMessageCodec {
+
+  private static final byte VERSION = 1;
+  private static final int COMPRESSION_THRESHOLD = 512;
+  private static final byte RAW = 0;
+  private static final byte DEFLATED = 1;
+
+  private StreamMessageCodec() {}
+
+  public static byte[] encode(StreamMessage message, ObjectMapper mapper) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      writeString(out, message.getId());
+      writeString(out, message.getResourceType() == null ? null : message.getResourceType().name());
+      writeString(out, message.getResourceId());
+      writeString(out, message.getIdProperty());
+      writeString(out, message.getType());
+      writeString(out, message.getAttributeId());
+      writeString(out, message.getSchema());
+      out.writeBoolean(message.isListened());
+      byte[] instance =
+          message.getInstanceData() == null
+              ? new byte[0]
+              : mapper.writeValueAsBytes(message.getInstanceData());
+      if (instance.length > COMPRESSION_THRESHOLD) {
+        out.writeByte(DEFLATED);
+        out.writeInt(instance.length);
+        instance = deflate(instance);
+      } else {
+        out.writeByte(RAW);
+      }
+      out.writeInt(instance.length);
+      out.write(instance);
+    }
+    return bytes.toByteArray();
+  }
+
+  public static StreamMessage decode(byte[] body, ObjectMapper mapper) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+      byte version = in.readByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported stream message version " + version);
+      }
+      StreamMessage message = new StreamMessage();
+      message.setId(readString(in));
+      String resourceType = readString(in);
+      message.setResourceType(resourceType == null ? null : ResourceType.valueOf(resourceType));
+      message.setResourceId(readString(in));
+      message.setIdProperty(readString(in));
+      message.setType(readString(in));
+      message.setAttributeId(readString(in));
+      message.setSchema(readString(in));
+      message.setListened(in.readBoolean());
+      byte compression = in.readByte();
+      int inflatedLength = compression == DEFLATED ? in.readInt() : -1;
+      byte[] instance = new byte[in.readInt()];
+      in.readFully(instance);
+      if (compression == DEFLATED) {
+        instance = inflate(instance, inflatedLength);
+      }
+      if (instance.length > 0) {
+        message.setInstanceData(mapper.readTree(instance));
+      }
+      return message;
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] data, int length) throws IOException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      byte[] inflated = new byte[length];
+      int offset = 0;
+      while (offset < length && !inflater.finished()) {
+        int read = inflater.inflate(inflated, offset, length - offset);
+        if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        offset += read;
+      }
+      if (offset != length) {
+        throw new IOException("Truncated stream message instance");
+      }
+      return inflated;
+    } catch (DataFormatException e) {
+      throw new IOException("Invalid stream message instance", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
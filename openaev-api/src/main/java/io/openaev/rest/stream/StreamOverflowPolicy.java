@@ -0,0 +1,14 @@
+package io.openaev.rest.stream;
+
+/** What to do when the buffer of a stream subscriber is full */
+public enum StreamOverflowPolicy {
+  /** Drop the oldest buffered event */
+  DROP_OLDEST,
+  /**
+   * Keep only the latest buffered event of each entity, dropping the oldest event when the buffer
+   * is full of distinct entities
+   */
+  COALESCE,
+  /** Close the stream with a resync event, the client reloading its data when reconnecting */
+  DISCONNECT,
+}
@@ -0,0 +1,153 @@
+package io.openaev.rest.stream;
+
+import io.openaev.config.OpenAEVPrincipal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * A client of the live stream, with its own bounded buffer.
+ *
+ * <p>The events are only emitted on the demand of the client connection, the events produced
+ * meanwhile are buffered here. Once the buffer is full, the overflow policy decides between losing
+ * events and closing the stream, so a slow client cannot grow the memory of the API.
+ */
+class StreamSubscriber {
+
+  public static final String EVENT_TYPE_RESYNC = "resync";
+
+  /** What happened to the events of a subscriber not keeping up */
+  enum Overflow {
+    DROPPED,
+    COALESCED,
+    EVICTED,
+  }
+
+  private record Pending(ServerSentEvent<?> event, long bufferedAt) {}
+
+  private final OpenAEVPrincipal principal;
+  private final FluxSink<Object> sink;
+  private final int capacity;
+  private final StreamOverflowPolicy policy;
+  private final Consumer<Overflow> onOverflow;
+
+  // Events waiting for the demand of the client, oldest first
+  private final LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+  private long requested;
+  private boolean evicted;
+
+  /**
+   * @param principal the connected user
+   * @param sink the sink of the client connection
+   * @param capacity the maximum number of buffered events
+   * @param policy what to do when the buffer is full
+   * @param onOverflow notified of every event lost and of the eviction
+   */
+  StreamSubscriber(
+      OpenAEVPrincipal principal,
+      FluxSink<Object> sink,
+      int capacity,
+      StreamOverflowPolicy policy,
+      Consumer<Overflow> onOverflow) {
+    this.principal = principal;
+    this.sink = sink;
+    this.capacity = Math.max(1, capacity);
+    this.policy = policy == null ? StreamOverflowPolicy.COALESCE : policy;
+    this.onOverflow = onOverflow;
+  }
+
+  OpenAEVPrincipal getPrincipal() {
+    return principal;
+  }
+
+  /** Demand of the client connection, emitting the buffered events */
+  synchronized void request(long n) {
+    requested = Long.MAX_VALUE - requested < n ? Long.MAX_VALUE : requested + n;
+    drain();
+  }
+
+  /**
+   * Send an event, or buffer it until requested
+   *
+   * @param id the id of the event in the stream
+   * @param entityKey the changed entity, to coalesce its events
+   * @param event the event
+   */
+  synchronized void offer(String id, String entityKey, ServerSentEvent<?> event) {
+    if (evicted) {
+      return;
+    }
+    if (policy == StreamOverflowPolicy.COALESCE) {
+      if (pending.remove(entityKey) != null) {
+        // Re-inserted at the tail, the events keep the order of their ids
+        pending.put(entityKey, new Pending(event, System.currentTimeMillis()));
+        onOverflow.accept(Overflow.COALESCED);
+        return;
+      }
+    }
+    if (pending.size() >= capacity) {
+      if (policy == StreamOverflowPolicy.DISCONNECT) {
+        evict();
+        return;
+      }
+      Iterator<Map.Entry<String, Pending>> oldest = pending.entrySet().iterator();
+      oldest.next();
+      oldest.remove();
+      onOverflow.accept(Overflow.DROPPED);
+    }
+    pending.put(
+        policy == StreamOverflowPolicy.COALESCE ? entityKey : id,
+        new Pending(event, System.currentTimeMillis()));
+    drain();
+  }
+
+  /** Ask the client to reload its data, the events it missed being unknown */
+  synchronized void resync() {
+    offer(
+        EVENT_TYPE_RESYNC,
+        EVENT_TYPE_RESYNC,
+        ServerSentEvent.builder(System.currentTimeMillis() / 1000)
+            .event(EVENT_TYPE_RESYNC)
+            .build());
+  }
+
+  /** Number of buffered events */
+  synchronized int occupancy() {
+    return pending.size();
+  }
+
+  /** Time the oldest buffered event waits for the client, in milliseconds */
+  synchronized long lag() {
+    if (pending.isEmpty()) {
+      return 0;
+    }
+    return System.currentTimeMillis() - pending.values().iterator().next().bufferedAt();
+  }
+
+  private void drain() {
+    Iterator<Pending> events = pending.values().iterator();
+    while (requested > 0 && events.hasNext()) {
+      Pending next = events.next();
+      events.remove();
+      if (requested != Long.MAX_VALUE) {
+        requested--;
+      }
+      sink.next(next.event());
+    }
+  }
+
+  private void evict() {
+    evicted = true;
+    pending.clear();
+    onOverflow.accept(Overflow.EVICTED);
+    // Sent whatever the demand, the client reconnects and reloads its data
+    sink.next(
+        ServerSentEvent.builder(System.currentTimeMillis() / 1000)
+            .event(EVENT_TYPE_RESYNC)
+            .build());
+    sink.complete();
+  }
+}
@@ -0,0 +1,23 @@
+package io.openaev.runner;
+
+import io.openaev.schema.SchemaUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Build the schemas of the model at startup, so the classpath scan and the reflection they need do
+ * not slow down the first requests filtering or searching each model.
+ */
+@Slf4j
+@Component
+public class SchemaRegistryRunner implements CommandLineRunner {
+
+  @Override
+  public void run(String... args) {
+    long start = System.currentTimeMillis();
+    int classes = SchemaUtils.warmUp();
+    log.info(
+        "Schemas of {} model classes built in {} ms", classes, System.currentTimeMillis() - start);
+  }
+}
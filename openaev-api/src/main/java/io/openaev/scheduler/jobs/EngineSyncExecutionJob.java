@@ -1,33 +1,72 @@
 package io.openaev.scheduler.jobs;
 
+import io.openaev.config.EngineConfig;
 import io.openaev.engine.EngineContext;
 import io.openaev.engine.EngineService;
 import io.openaev.engine.EsModel;
 import io.openaev.engine.model.EsBase;
+import java.time.Duration;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 @DisallowConcurrentExecution
 public class EngineSyncExecutionJob implements Job {
 
   private final EngineService engineService;
   private final EngineContext engineContext;
+  private final EngineConfig engineConfig;
+  private final Executor indexingExecutor;
 
+  public EngineSyncExecutionJob(
+      EngineService engineService,
+      EngineContext engineContext,
+      EngineConfig engineConfig,
+      @Qualifier("indexingExecutor") Executor indexingExecutor) {
+    this.engineService = engineService;
+    this.engineContext = engineContext;
+    this.engineConfig = engineConfig;
+    this.indexingExecutor = indexingExecutor;
+  }
+
+  // No surrounding transaction: each indexing checkpoint must be committed as soon as its bulk
+  // succeeds so an interrupted run resumes from the last indexed chunk
   @Override
-  @Transactional(rollbackFor = Exception.class)
   public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
     List<EsModel<EsBase>> models = engineContext.getModels();
     log.info("Executing bulk parallel processing for {} models", models.size());
-    engineService.bulkProcessing(models.stream().parallel());
+    // The near real-time indexing moves the watermark past the rows of transactions still running,
+    // the periodic sync reads again a window before it to reconcile them
+    Duration overlap = Duration.ofMillis(engineConfig.getIndexingReconciliationOverlapMs());
+    // Each model is indexed on the dedicated indexing pool, bounding the number of models pushed
+    // concurrently to the engine
+    CompletableFuture.allOf(
+            models.stream()
+                .map(
+                    model ->
+                        CompletableFuture.runAsync(
+                                () -> engineService.bulkProcessing(Stream.of(model), overlap),
+                                indexingExecutor)
+                            .exceptionally(
+                                e -> {
+                                  log.error(
+                                      "Indexing failed for {}: {}",
+                                      model.getName(),
+                                      e.getMessage(),
+                                      e);
+                                  return null;
+                                }))
+                .toArray(CompletableFuture[]::new))
+        .join();
   }
 }
@@ -0,0 +1,112 @@
+package io.openaev.scheduler.jobs;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+import io.openaev.database.model.InjectDependency;
+import io.openaev.execution.ExecutableInject;
+import java.util.*;
+
+/**
+ * Execution plan of the injects to run in a same tick of the {@link InjectsExecutionJob}.
+ *
+ * <p>The dependencies of the whole batch are loaded once and indexed by child, so resolving the
+ * parents of an inject or detecting a parent of the same batch does not hit the database anymore.
+ * The runnable injects are ordered round-robin across exercises, a simulation with thousands of
+ * injects cannot delay the launch of the others.
+ */
+public class InjectExecutionPlan {
+
+  public static final String ATOMIC = "atomic";
+
+  private final Map<String, List<InjectDependency>> parentsByChild;
+  private final Map<String, List<ExecutableInject>> runnableByExercise;
+  private final List<ExecutableInject> deferred = new ArrayList<>();
+
+  public InjectExecutionPlan(List<ExecutableInject> injects, List<InjectDependency> dependencies) {
+    this.parentsByChild =
+        dependencies.stream()
+            .collect(groupingBy(d -> d.getCompositeId().getInjectChildren().getId()));
+    Set<String> batch = new HashSet<>();
+    injects.forEach(executableInject -> batch.add(injectId(executableInject)));
+    List<ExecutableInject> runnable = new ArrayList<>();
+    for (ExecutableInject executableInject : injects) {
+      // A child launched in the same batch as its parent would be evaluated against a parent still
+      // executing, it is left for the next batch. Do note that this is an edge case as it's not
+      // allowed to add a dependency less than a minute after a parent but can happen if the
+      // platform was restarted after some time out.
+      boolean parentInBatch =
+          parentsOf(injectId(executableInject)).stream()
+              .anyMatch(d -> batch.contains(d.getCompositeId().getInjectParent().getId()));
+      if (parentInBatch) {
+        deferred.add(executableInject);
+      } else {
+        runnable.add(executableInject);
+      }
+    }
+    this.runnableByExercise =
+        runnable.stream()
+            .collect(groupingBy(InjectExecutionPlan::exerciseKey, LinkedHashMap::new, toList()));
+  }
+
+  public static String injectId(ExecutableInject executableInject) {
+    return executableInject.getInjection().getInject().getId();
+  }
+
+  public static String exerciseKey(ExecutableInject executableInject) {
+    return executableInject.getInjection().getExercise() == null
+        ? ATOMIC
+        : executableInject.getInjection().getExercise().getId();
+  }
+
+  public List<InjectDependency> parentsOf(String injectId) {
+    return parentsByChild.getOrDefault(injectId, List.of());
+  }
+
+  /** Ids of the parents of the runnable injects, to prefetch their expectations */
+  public Set<String> parentIds() {
+    Set<String> parentIds = new HashSet<>();
+    runnableByExercise.values().stream()
+        .flatMap(List::stream)
+        .flatMap(executableInject -> parentsOf(injectId(executableInject)).stream())
+        .forEach(d -> parentIds.add(d.getCompositeId().getInjectParent().getId()));
+    return parentIds;
+  }
+
+  /** Ids of the exercises having runnable injects */
+  public Set<String> exerciseIds() {
+    Set<String> exerciseIds = new HashSet<>(runnableByExercise.keySet());
+    exerciseIds.remove(ATOMIC);
+    return exerciseIds;
+  }
+
+  /** Injects waiting for a parent of the same batch */
+  public List<ExecutableInject> deferred() {
+    return deferred;
+  }
+
+  public Map<String, List<ExecutableInject>> runnableByExercise() {
+    return runnableByExercise;
+  }
+
+  /**
+   * Runnable injects interleaved round-robin across exercises, keeping the execution order of the
+   * injects of each exercise.
+   */
+  public List<ExecutableInject> executionOrder() {
+    List<Iterator<ExecutableInject>> queues =
+        runnableByExercise.values().stream().map(List::iterator).collect(toList());
+    List<ExecutableInject> order = new ArrayList<>();
+    while (!queues.isEmpty()) {
+      Iterator<Iterator<ExecutableInject>> round = queues.iterator();
+      while (round.hasNext()) {
+        Iterator<ExecutableInject> queue = round.next();
+        order.add(queue.next());
+        if (!queue.hasNext()) {
+          round.remove();
+        }
+      }
+    }
+    return order;
+  }
+}
@@ -8,6 +8,7 @@ import static java.util.stream.Collectors.groupingBy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
 import io.openaev.aop.LogExecutionTime;
 import io.openaev.database.model.*;
 import io.openaev.database.repository.ExerciseRepository;
@@ -21,6 +22,8 @@ import io.openaev.rest.exception.ElementNotFoundException;
 import io.openaev.rest.inject.service.InjectService;
 import io.openaev.rest.inject.service.InjectStatusService;
 import io.openaev.scheduler.jobs.exception.ErrorMessagesPreExecutionException;
+import io.openaev.service.InjectDependencyConditionService;
+import io.openaev.service.InjectExecutionLeaseService;
 import io.openaev.service.NotificationEventService;
 import io.openaev.service.SecurityCoverageSendJobService;
 import io.openaev.telemetry.metric_collectors.ActionMetricCollector;
@@ -28,9 +31,15 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
@@ -42,13 +51,6 @@ import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.springframework.core.env.Environment;
-import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.EvaluationException;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.SpelParseException;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.SimpleEvaluationContext;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -58,10 +60,16 @@ import org.springframework.stereotype.Component;
 public class InjectsExecutionJob implements Job {
 
   public static final String DEFAULT_EXECUTION_THRESHOLD_TIME_IN_MINUTES = "10";
+  public static final String DEFAULT_EXECUTION_CONCURRENCY_PER_INJECTOR_TYPE = "10";
   private static final long delayForSimulationCompletedEvent = 3600L;
+  private static final int PREFETCH_PARTITION_SIZE = 1000;
 
   private final Environment env;
   private int injectExecutionThreshold;
+  private int injectExecutionConcurrency;
+
+  // Bound the injects launched at the same time for a same injector type, shared by all the ticks
+  private final Map<String, Semaphore> injectorTypePermits = new ConcurrentHashMap<>();
 
   private final InjectHelper injectHelper;
   private final InjectService injectService;
@@ -73,6 +81,8 @@ public class InjectsExecutionJob implements Job {
   private final ActionMetricCollector actionMetricCollector;
   private final NotificationEventService notificationEventService;
   private final SecurityCoverageSendJobService securityCoverageSendJobService;
+  private final InjectDependencyConditionService injectDependencyConditionService;
+  private final InjectExecutionLeaseService injectExecutionLeaseService;
 
   private final List<ExecutionStatus> executionStatusesNotReady =
       List.of(
@@ -86,6 +96,9 @@ public class InjectsExecutionJob implements Job {
 
   @Resource protected ObjectMapper mapper;
 
+  @Resource(name = "injectExecutionExecutor")
+  private ExecutorService injectExecutionExecutor;
+
   @PostConstruct
   private void init() {
     String threshold = env.getProperty("inject.execution.threshold.minutes");
@@ -93,6 +106,11 @@ public class InjectsExecutionJob implements Job {
       threshold = DEFAULT_EXECUTION_THRESHOLD_TIME_IN_MINUTES;
     }
     this.injectExecutionThreshold = Integer.parseInt(threshold);
+    String concurrency = env.getProperty("inject.execution.concurrency.per-injector-type");
+    if (concurrency == null || concurrency.isBlank()) {
+      concurrency = DEFAULT_EXECUTION_CONCURRENCY_PER_INJECTOR_TYPE;
+    }
+    this.injectExecutionConcurrency = Math.max(1, Integer.parseInt(concurrency));
   }
 
   public void handleAutoStartExercises() {
@@ -174,12 +192,16 @@ public class InjectsExecutionJob implements Job {
     injectStatusService.saveAll(updatedStatuses);
   }
 
-  private void executeInject(ExecutableInject executableInject) throws Exception {
+  private void executeInject(
+      ExecutableInject executableInject,
+      InjectExecutionPlan plan,
+      Map<String, List<InjectExpectation>> parentExpectations)
+      throws Exception {
     // Depending on injector type (internal or external) execution must be done differently
     Inject inject = executableInject.getInjection().getInject();
     // We are now checking if we depend on another inject and if it did not failed
     if (ofNullable(executableInject.getExerciseId()).isPresent()) {
-      checkErrorMessagesPreExecution(executableInject.getExerciseId(), inject);
+      checkErrorMessagesPreExecution(plan.parentsOf(inject.getId()), parentExpectations);
     }
     if (!inject.isReady()) {
       throw new UnsupportedOperationException(
@@ -200,6 +222,29 @@ public class InjectsExecutionJob implements Job {
       throws ErrorMessagesPreExecutionException {
     List<InjectDependency> injectDependencies =
         injectDependenciesRepository.findParents(List.of(inject.getId()));
+    if (injectDependencies.isEmpty()) {
+      return;
+    }
+    List<String> parentIds =
+        injectDependencies.stream().map(d -> d.getCompositeId().getInjectParent().getId()).toList();
+    checkErrorMessagesPreExecution(
+        injectDependencies,
+        injectExpectationRepository
+            .findAllForExercisesAndInjects(List.of(exerciseId), parentIds)
+            .stream()
+            .collect(groupingBy(e -> e.getInject().getId())));
+  }
+
+  /**
+   * Get error messages if pre execution conditions are not met
+   *
+   * @param injectDependencies the dependencies of the inject to check
+   * @param parentExpectations the expectations of the parents, by parent id
+   */
+  private void checkErrorMessagesPreExecution(
+      List<InjectDependency> injectDependencies,
+      Map<String, List<InjectExpectation>> parentExpectations)
+      throws ErrorMessagesPreExecutionException {
     if (!injectDependencies.isEmpty()) {
       List<Inject> parents =
           injectDependencies.stream()
@@ -207,7 +252,7 @@ public class InjectsExecutionJob implements Job {
               .toList();
 
       Map<String, Boolean> mapCondition =
-          getStringBooleanMap(parents, exerciseId, injectDependencies);
+          getStringBooleanMap(parents, parentExpectations, injectDependencies);
 
       List<String> errorMessages = new ArrayList<>();
 
@@ -239,25 +284,9 @@ public class InjectsExecutionJob implements Job {
 
         if (injectDependency.getInjectDependencyCondition().getConditions().stream()
             .allMatch(condition -> availableKeys.contains(condition.getKey().toLowerCase()))) {
-          String expressionToEvaluate = injectDependency.getInjectDependencyCondition().toString();
-          List<String> conditions =
-              injectDependency.getInjectDependencyCondition().getConditions().stream()
-                  .map(InjectDependencyConditions.Condition::toString)
-                  .toList();
-          for (String condition : conditions) {
-            expressionToEvaluate =
-                expressionToEvaluate.replaceAll(
-                    condition.split("==")[0].trim(),
-                    String.format("#this['%s']", condition.split("==")[0].trim()));
-          }
-
-          ExpressionParser parser = new SpelExpressionParser();
-
-          EvaluationContext context = SimpleEvaluationContext.forReadOnlyDataBinding().build();
           try {
-            Expression exp = parser.parseExpression(expressionToEvaluate);
             boolean canBeExecuted =
-                Boolean.TRUE.equals(exp.getValue(context, mapCondition, Boolean.class));
+                injectDependencyConditionService.isSatisfied(injectDependency, mapCondition);
             if (!canBeExecuted) {
               if (errorMessages.isEmpty()) {
                 errorMessages.add(
@@ -269,7 +298,7 @@ public class InjectsExecutionJob implements Job {
                       injectDependency.getInjectDependencyCondition()));
             }
 
-          } catch (EvaluationException | SpelParseException e) {
+          } catch (IllegalArgumentException e) {
             log.warn(e.getMessage(), e);
             errorMessages.add(
                 "There was an error during the evaluation of the condition of the inject");
@@ -289,12 +318,14 @@ public class InjectsExecutionJob implements Job {
    * Get a map containing the expectations and if they are met or not
    *
    * @param parents the parents injects
-   * @param exerciseId the id of the exercise
+   * @param parentExpectations the expectations of the parents, by parent id
    * @param injectDependencies the list of dependencies
    * @return a map of expectations and their value
    */
   private @NotNull Map<String, Boolean> getStringBooleanMap(
-      List<Inject> parents, String exerciseId, List<InjectDependency> injectDependencies) {
+      List<Inject> parents,
+      Map<String, List<InjectExpectation>> parentExpectations,
+      List<InjectDependency> injectDependencies) {
     Map<String, Boolean> mapCondition =
         injectDependencies.stream()
             .flatMap(
@@ -312,7 +343,7 @@ public class InjectsExecutionJob implements Job {
                   && !executionStatusesNotReady.contains(parent.getStatus().get().getName()));
 
           List<InjectExpectation> expectations =
-              injectExpectationRepository.findAllForExerciseAndInject(exerciseId, parent.getId());
+              parentExpectations.getOrDefault(parent.getId(), List.of());
           expectations.forEach(
               injectExpectation -> {
                 String name =
@@ -360,64 +391,47 @@ public class InjectsExecutionJob implements Job {
     try {
       // Handle starting exercises if needed.
       handleAutoStartExercises();
-      // Get all injects to execute grouped by exercise.
-      List<ExecutableInject> injects = injectHelper.getInjectsToRun();
-
-      // We're grouping the injects to run by exercises but also making sure no injects
-      // run in the same batch as it's parents
-      Map<String, List<ExecutableInject>> byExercises =
-          injects.stream()
-              .filter(
-                  executableInject ->
-                      // If we got dependencies, we check that the parents are not part of the
-                      // current batch of injects running. If so, we're filtering them out and
-                      // they'll be part of the next batch of launched injects. Do note that this is
-                      // an edge case as it's not allowed to add a dependency less than a minute
-                      // after a parent but can happen if the platform was restarted after some time
-                      // out. It'll then start the injects that were not started because the
-                      // platform was down.
-                      executableInject.getInjection().getInject().getDependsOn() == null
-                          || !intersect(
-                              injects.stream()
-                                  .map(execInject -> execInject.getInjection().getId())
-                                  .toList(),
-                              executableInject.getInjection().getInject().getDependsOn().stream()
-                                  .map(
-                                      injectDependency ->
-                                          injectDependency
-                                              .getCompositeId()
-                                              .getInjectParent()
-                                              .getInject()
-                                              .getId())
-                                  .toList()))
-              .collect(
-                  groupingBy(
-                      ex ->
-                          ex.getInjection().getExercise() == null
-                              ? "atomic"
-                              : ex.getInjection().getExercise().getId()));
-
-      // Execute injects in parallel for each exercise.
-      byExercises.entrySet().parallelStream()
-          .forEach(
-              (entry) -> {
-                // Execute each inject for the exercise in order.
-                entry.getValue().parallelStream()
-                    .forEach(
-                        executableInject -> {
-                          try {
-                            this.executeInject(executableInject);
-                          } catch (Exception e) {
-                            Inject inject = executableInject.getInjection().getInject();
-                            log.warn(e.getMessage(), e);
-                            injectStatusService.failInjectStatus(inject.getId(), e.getMessage());
-                          }
-                        });
-                // Update the exercise
-                if (!entry.getKey().equals("atomic")) {
-                  updateExercise(entry.getKey());
-                }
-              });
+      // Get the injects to execute by this node, with the dependencies and the expectations of
+      // their parents loaded once for the whole batch
+      List<ExecutableInject> injects =
+          injectExecutionLeaseService.claim(injectHelper.getInjectsToRun());
+      InjectExecutionPlan plan = new InjectExecutionPlan(injects, findParents(injects));
+      if (!plan.deferred().isEmpty()) {
+        log.info(
+            "{} injects deferred, their parents run in the same batch", plan.deferred().size());
+      }
+      Map<String, List<InjectExpectation>> parentExpectations = findParentExpectations(plan);
+
+      // Execute injects, round-robin across exercises and bounded by injector type
+      Map<String, List<CompletableFuture<Void>>> launchesByExercise = new LinkedHashMap<>();
+      for (ExecutableInject executableInject : plan.executionOrder()) {
+        launchesByExercise
+            .computeIfAbsent(
+                InjectExecutionPlan.exerciseKey(executableInject), k -> new ArrayList<>())
+            .add(
+                CompletableFuture.runAsync(
+                    () -> launchInject(executableInject, plan, parentExpectations),
+                    injectExecutionExecutor));
+      }
+      try {
+        CompletableFuture.allOf(
+                launchesByExercise.entrySet().stream()
+                    .map(
+                        entry ->
+                            CompletableFuture.allOf(
+                                    entry.getValue().toArray(CompletableFuture[]::new))
+                                .thenRun(
+                                    () -> {
+                                      // Update the exercise
+                                      if (!entry.getKey().equals(InjectExecutionPlan.ATOMIC)) {
+                                        updateExercise(entry.getKey());
+                                      }
+                                    }))
+                    .toArray(CompletableFuture[]::new))
+            .join();
+      } finally {
+        injectExecutionLeaseService.release(injects);
+      }
       // Change status of finished exercises.
       handleAutoClosingExercises();
       handlePendingInject();
@@ -428,6 +442,55 @@ public class InjectsExecutionJob implements Job {
     }
   }
 
+  private List<InjectDependency> findParents(List<ExecutableInject> injects) {
+    List<String> injectIds = injects.stream().map(InjectExecutionPlan::injectId).toList();
+    List<InjectDependency> dependencies = new ArrayList<>();
+    for (List<String> partition : Lists.partition(injectIds, PREFETCH_PARTITION_SIZE)) {
+      dependencies.addAll(injectDependenciesRepository.findParents(partition));
+    }
+    return dependencies;
+  }
+
+  private Map<String, List<InjectExpectation>> findParentExpectations(InjectExecutionPlan plan) {
+    Collection<String> exerciseIds = plan.exerciseIds();
+    List<String> parentIds = List.copyOf(plan.parentIds());
+    if (exerciseIds.isEmpty() || parentIds.isEmpty()) {
+      return Map.of();
+    }
+    List<InjectExpectation> expectations = new ArrayList<>();
+    for (List<String> partition : Lists.partition(parentIds, PREFETCH_PARTITION_SIZE)) {
+      expectations.addAll(
+          injectExpectationRepository.findAllForExercisesAndInjects(exerciseIds, partition));
+    }
+    return expectations.stream().collect(groupingBy(e -> e.getInject().getId()));
+  }
+
+  private void launchInject(
+      ExecutableInject executableInject,
+      InjectExecutionPlan plan,
+      Map<String, List<InjectExpectation>> parentExpectations) {
+    Inject inject = executableInject.getInjection().getInject();
+    String injectorType =
+        inject.getInjectorContract().map(c -> c.getInjector().getType()).orElse("unknown");
+    Semaphore permits =
+        injectorTypePermits.computeIfAbsent(
+            injectorType, type -> new Semaphore(injectExecutionConcurrency, true));
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    try {
+      this.executeInject(executableInject, plan, parentExpectations);
+    } catch (Exception e) {
+      log.warn(e.getMessage(), e);
+      injectStatusService.failInjectStatus(inject.getId(), e.getMessage());
+    } finally {
+      permits.release();
+    }
+  }
+
   private void handleInjectExpectationCollectStatus() {
     List<Inject> injects = injectService.getExecutedAndNotFinished();
     if (injects.isEmpty()) {
@@ -449,19 +512,4 @@ public class InjectsExecutionJob implements Job {
     }
     injectService.saveAll(fulfilled);
   }
-
-  /**
-   * Return true if some elements are in the two lists
-   *
-   * @param firstList the first list to test
-   * @param secondList the second list to test
-   * @return true if some elements are present in both the lists
-   */
-  private boolean intersect(List<String> firstList, List<String> secondList) {
-    return !firstList.stream()
-        .distinct()
-        .filter(secondList::contains)
-        .collect(Collectors.toSet())
-        .isEmpty();
-  }
 }
@@ -53,14 +53,7 @@ public class SchemaApi extends RestBehavior {
         .filter(
             model ->
                 classNames == null || classNames.isEmpty() || classNames.contains(model.getName()))
-        .flatMap(
-            model -> {
-              try {
-                return SchemaUtils.schemaWithSubtypes(model.getModel()).stream();
-              } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
-              }
-            })
+        .flatMap(model -> SchemaUtils.schemaWithSubtypes(model.getModel()).stream())
         .filter(PropertySchema::isFilterable)
         .map(PropertySchemaDTO::new)
         .collect(Collectors.toSet());
@@ -2,6 +2,7 @@ package io.openaev.search;
 
 import static io.openaev.utils.pagination.PaginationUtils.buildPaginationJPA;
 import static io.openaev.utils.pagination.SortUtilsRuntime.toSortRuntime;
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
 import static org.springframework.util.StringUtils.hasText;
 
 import io.openaev.database.model.*;
@@ -10,9 +11,17 @@ import io.openaev.database.specification.SpecificationUtils;
 import io.openaev.service.UserService;
 import io.openaev.utils.pagination.SearchPaginationInput;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import lombok.AllArgsConstructor;
@@ -39,6 +48,11 @@ public class FullTextSearchService<T extends Base> {
   private final ExerciseRepository exerciseRepository;
   private final UserService userService;
 
+  @Resource(name = "searchExecutor")
+  private Executor searchExecutor;
+
+  @PersistenceContext private EntityManager entityManager;
+
   private Map<Class<T>, JpaSpecificationExecutor<T>> repositoryMap;
 
   private Map<Class<T>, List<String>> searchListByClassMap;
@@ -157,10 +171,42 @@ public class FullTextSearchService<T extends Base> {
                     currentUser.getCapabilities().contains(capaForClass),
                     Grant.GRANT_TYPE.OBSERVER));
 
-    return buildPaginationJPA(repository::findAll, searchPaginationInput, clazzT, specs)
+    return buildPaginationJPA(
+            (specification, pageable) -> findPage(repository, clazzT, specification, pageable),
+            searchPaginationInput,
+            clazzT,
+            specs)
         .map(this::transform);
   }
 
+  /**
+   * Fetch a page of results, the total being counted concurrently on the search executor rather
+   * than after the page
+   */
+  private Page<T> findPage(
+      JpaSpecificationExecutor<T> repository,
+      Class<T> clazz,
+      Specification<T> specification,
+      Pageable pageable) {
+    CompletableFuture<Long> total =
+        CompletableFuture.supplyAsync(() -> repository.count(specification), searchExecutor);
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<T> query = cb.createQuery(clazz);
+    Root<T> root = query.from(clazz);
+    query.select(root).where(specification.toPredicate(root, query, cb));
+    // An explicit sort replaces the ordering by rank
+    if (pageable.getSort().isSorted()) {
+      query.orderBy(toOrders(pageable.getSort(), root, cb));
+    }
+    List<T> content =
+        entityManager
+            .createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+    return new PageImpl<>(content, pageable, total.join());
+  }
+
   private FullTextSearchResult transform(T element) {
     switch (element) {
       case Asset asset -> {
@@ -275,6 +321,8 @@ public class FullTextSearchService<T extends Base> {
       }
     }
 
+    // One count query per class, run concurrently so the latency is the one of the slowest class
+    Map<Class<T>, CompletableFuture<Long>> counts = new HashMap<>();
     classesToSearch.forEach(
         tClass -> {
           JpaSpecificationExecutor<T> repository = repositoryMap.get(tClass);
@@ -290,9 +338,13 @@ public class FullTextSearchService<T extends Base> {
                               .getCapabilities()
                               .contains(capaByClassMap.get(tClass).orElse(Capability.BYPASS)),
                           Grant.GRANT_TYPE.OBSERVER));
-          long count = repository.count(specs);
-          results.put(tClass, new FullTextSearchCountResult(tClass.getSimpleName(), count));
+          counts.put(
+              tClass, CompletableFuture.supplyAsync(() -> repository.count(specs), searchExecutor));
         });
+    counts.forEach(
+        (tClass, count) ->
+            results.put(
+                tClass, new FullTextSearchCountResult(tClass.getSimpleName(), count.join())));
 
     return results;
   }
@@ -0,0 +1,190 @@
+package io.openaev.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openaev.database.model.Agent;
+import io.openaev.database.repository.AgentRepository;
+import io.openaev.rest.asset.endpoint.form.EndpointRegisterInput;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Registry of the OpenAEV agents checking in on this node.
+ *
+ * <p>Once an agent went through the full registration, its next check-ins carrying the same
+ * attributes are only heartbeats, answered without reading the database: their last seen date is
+ * kept in memory and written with the ones of the other agents by a single UPDATE on an interval.
+ * The endpoint returned is the one of the registration. Any change of the agent attributes (IPs,
+ * hostname, version...) or an unknown agent takes the full registration path again, as well as
+ * every known agent from time to time to catch up with the changes made elsewhere.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AgentHeartbeatService {
+
+  private final AgentRepository agentRepository;
+  private final ObjectMapper mapper;
+
+  @Value("${openaev.agent.heartbeat.revalidate-interval:600000}")
+  private long revalidateInterval;
+
+  /**
+   * An agent gone through the full registration
+   *
+   * @param agentId the agent
+   * @param endpoint the endpoint of the agent, as returned by the registration
+   * @param attributes the registration attributes written for the agent and its endpoint
+   * @param registeredAt the date of the registration
+   */
+  private record KnownAgent(
+      String agentId, JsonNode endpoint, List<Object> attributes, Instant registeredAt) {}
+
+  // Registered agents by external reference and identity on the endpoint
+  private final Map<String, KnownAgent> knownAgents = new ConcurrentHashMap<>();
+
+  // Last seen dates not written yet, by agent
+  private final Map<String, Instant> pendingLastSeen = new ConcurrentHashMap<>();
+
+  /**
+   * Absorb a check-in of an agent when nothing but its last seen date changed since its
+   * registration
+   *
+   * @param input the registration sent by the agent
+   * @return the endpoint of the agent, empty if the check-in needs the full registration
+   */
+  public Optional<JsonNode> heartbeat(EndpointRegisterInput input) {
+    String key = key(input);
+    KnownAgent known = knownAgents.get(key);
+    if (known == null) {
+      return Optional.empty();
+    }
+    if (!known.attributes().equals(attributes(input))
+        || Duration.between(known.registeredAt(), Instant.now()).toMillis() > revalidateInterval) {
+      knownAgents.remove(key, known);
+      return Optional.empty();
+    }
+    pendingLastSeen.merge(known.agentId(), Instant.now(), this::latest);
+    return Optional.of(known.endpoint());
+  }
+
+  /**
+   * Refresh the last seen date of a registered agent polling its jobs
+   *
+   * @param input the registration sent by the agent
+   */
+  public void touch(EndpointRegisterInput input) {
+    KnownAgent known = knownAgents.get(key(input));
+    if (known != null) {
+      pendingLastSeen.merge(known.agentId(), Instant.now(), this::latest);
+    }
+  }
+
+  /**
+   * Remember an agent after its full registration, once committed, for its next check-ins to be
+   * heartbeats
+   *
+   * @param input the registration sent by the agent
+   * @param agent the registered agent, its endpoint being returned to its next check-ins
+   */
+  public void remember(EndpointRegisterInput input, Agent agent) {
+    String key = key(input);
+    KnownAgent known =
+        new KnownAgent(
+            agent.getId(), mapper.valueToTree(agent.getAsset()), attributes(input), Instant.now());
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              knownAgents.put(key, known);
+            }
+          });
+    } else {
+      knownAgents.put(key, known);
+    }
+  }
+
+  /** Write the last seen dates received since the previous flush */
+  @Scheduled(fixedDelayString = "${openaev.agent.heartbeat.flush-interval:10000}")
+  public void flush() {
+    if (pendingLastSeen.isEmpty()) {
+      return;
+    }
+    List<String> agentIds = new ArrayList<>();
+    List<Instant> lastSeens = new ArrayList<>();
+    for (String agentId : new ArrayList<>(pendingLastSeen.keySet())) {
+      Instant lastSeen = pendingLastSeen.remove(agentId);
+      if (lastSeen != null) {
+        agentIds.add(agentId);
+        lastSeens.add(lastSeen);
+      }
+    }
+    try {
+      List<String> found =
+          agentRepository.updateLastSeen(
+              agentIds.toArray(String[]::new),
+              lastSeens.stream().map(Instant::toString).toArray(String[]::new));
+      // Deleted agents go through the full registration again on their next check-in
+      Set<String> deleted = new HashSet<>(agentIds);
+      found.forEach(deleted::remove);
+      if (!deleted.isEmpty()) {
+        knownAgents.values().removeIf(known -> deleted.contains(known.agentId()));
+      }
+    } catch (DataAccessException e) {
+      log.error("Error writing the last seen date of {} agents", agentIds.size(), e);
+      // Kept for the next flush, unless a more recent date came in since
+      for (int i = 0; i < agentIds.size(); i++) {
+        pendingLastSeen.merge(agentIds.get(i), lastSeens.get(i), this::latest);
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  private Instant latest(Instant a, Instant b) {
+    return a.isAfter(b) ? a : b;
+  }
+
+  private static String key(EndpointRegisterInput input) {
+    return String.join(
+        "|",
+        input.getExternalReference(),
+        String.valueOf(input.getExecutedByUser()),
+        String.valueOf(input.isService()),
+        String.valueOf(input.isElevated()));
+  }
+
+  // Everything the full registration writes for the agent and its endpoint
+  private static List<Object> attributes(EndpointRegisterInput input) {
+    return Arrays.asList(
+        input.getName(),
+        input.getHostname(),
+        input.getPlatform(),
+        input.getArch(),
+        input.getAgentVersion(),
+        input.getSeenIp(),
+        input.getIps() == null ? null : Arrays.asList(input.getIps()),
+        input.getMacAddresses() == null ? null : Arrays.asList(input.getMacAddresses()));
+  }
+}
@@ -0,0 +1,183 @@
+package io.openaev.service;
+
+import static io.openaev.database.audit.ModelBaseListener.DATA_PERSIST;
+
+import io.openaev.database.audit.BaseEvent;
+import io.openaev.database.model.Agent;
+import io.openaev.database.model.AssetAgentJob;
+import io.openaev.database.raw.RawAgentJobTarget;
+import io.openaev.database.repository.AssetAgentJobRepository;
+import io.openaev.database.specification.AssetAgentJobSpecification;
+import io.openaev.rest.asset.endpoint.form.EndpointRegisterInput;
+import jakarta.annotation.Resource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Delivery of the jobs to the agents.
+ *
+ * <p>The agents having jobs are indexed in memory, by external reference and identity on the
+ * endpoint: the polls of the other agents, almost all of them, are answered without querying the
+ * database. The index is fed by the jobs created on this node as soon as they are committed, and
+ * refreshed from the database on an interval for the jobs created or deleted on the other nodes.
+ * The agents may also wait for their jobs on a long poll, answered as soon as a job is indexed.
+ */
+@Service
+@RequiredArgsConstructor
+public class AssetAgentJobService {
+
+  private final AssetAgentJobRepository assetAgentJobRepository;
+
+  @Resource(name = "agentJobExecutor")
+  private Executor agentJobExecutor;
+
+  // Agents having jobs, with the date they were indexed at
+  private final Map<String, Long> pendingAgents = new ConcurrentHashMap<>();
+
+  // Long polls waiting for a job, by agent
+  private final Map<String, Set<Runnable>> waiters = new ConcurrentHashMap<>();
+
+  // Until the first refresh, the index can't tell an agent has no job
+  private volatile boolean indexed = false;
+
+  /**
+   * Jobs of an agent
+   *
+   * @param input the agent, as sent on its registration
+   * @return the jobs of the agent, without querying the database when the agent has none
+   */
+  public List<AssetAgentJob> jobs(EndpointRegisterInput input) {
+    String key = key(input);
+    if (indexed && !pendingAgents.containsKey(key)) {
+      return List.of();
+    }
+    long queriedAt = System.currentTimeMillis();
+    List<AssetAgentJob> jobs =
+        assetAgentJobRepository.findAll(
+            AssetAgentJobSpecification.forEndpoint(
+                input.getExternalReference(),
+                input.isService()
+                    ? Agent.DEPLOYMENT_MODE.service.name()
+                    : Agent.DEPLOYMENT_MODE.session.name(),
+                input.isElevated() ? Agent.PRIVILEGE.admin.name() : Agent.PRIVILEGE.standard.name(),
+                input.getExecutedByUser()));
+    if (jobs.isEmpty()) {
+      // Done with its jobs, unless one was indexed meanwhile
+      pendingAgents.computeIfPresent(
+          key, (k, indexedAt) -> indexedAt < queriedAt ? null : indexedAt);
+    }
+    return jobs;
+  }
+
+  /**
+   * Wait for the jobs of an agent
+   *
+   * @param input the agent, as sent on its registration
+   * @param timeout the maximum time to wait, in milliseconds
+   * @return the jobs of the agent once there are some, empty after the timeout
+   */
+  public DeferredResult<List<AssetAgentJob>> awaitJobs(EndpointRegisterInput input, long timeout) {
+    String key = key(input);
+    DeferredResult<List<AssetAgentJob>> result = new DeferredResult<>(timeout, List.of());
+    Runnable waiter =
+        () -> {
+          try {
+            List<AssetAgentJob> jobs = jobs(input);
+            if (!jobs.isEmpty()) {
+              result.setResult(jobs);
+            }
+          } catch (DataAccessException e) {
+            result.setErrorResult(e);
+          }
+        };
+    Set<Runnable> agentWaiters = waiters.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+    agentWaiters.add(waiter);
+    result.onCompletion(
+        () -> waiters.computeIfPresent(key, (k, w) -> w.remove(waiter) && w.isEmpty() ? null : w));
+    // Registered before looking, a job indexed in between is not missed
+    List<AssetAgentJob> jobs = jobs(input);
+    if (!jobs.isEmpty()) {
+      result.setResult(jobs);
+    }
+    return result;
+  }
+
+  /** Index the agent of a job created on this node, once committed */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void listenJobCreation(BaseEvent event) {
+    if (DATA_PERSIST.equals(event.getType())
+        && event.getInstance() instanceof AssetAgentJob job
+        && job.getAgent() != null) {
+      Agent agent = job.getAgent();
+      index(
+          key(
+              agent.getExternalReference(),
+              agent.getDeploymentMode() != null ? agent.getDeploymentMode().name() : null,
+              agent.getPrivilege() != null ? agent.getPrivilege().name() : null,
+              agent.getExecutedByUser()),
+          System.currentTimeMillis());
+    }
+  }
+
+  /** Index the agents having jobs, the ones of the other nodes included */
+  @Scheduled(fixedDelayString = "${openaev.agent.jobs.refresh-interval:1000}")
+  public void refresh() {
+    long refreshedAt = System.currentTimeMillis();
+    Set<String> found = new HashSet<>();
+    for (RawAgentJobTarget target : assetAgentJobRepository.rawJobTargets()) {
+      String key =
+          key(
+              target.getAgent_external_reference(),
+              target.getAgent_deployment_mode(),
+              target.getAgent_privilege(),
+              target.getAgent_executed_by_user());
+      found.add(key);
+      if (!pendingAgents.containsKey(key)) {
+        index(key, refreshedAt);
+      }
+    }
+    // The jobs deleted meanwhile, keeping the agents indexed during the refresh
+    pendingAgents
+        .entrySet()
+        .removeIf(entry -> entry.getValue() < refreshedAt && !found.contains(entry.getKey()));
+    indexed = true;
+  }
+
+  private void index(String key, long indexedAt) {
+    pendingAgents.merge(key, indexedAt, Math::max);
+    Set<Runnable> agentWaiters = waiters.get(key);
+    if (agentWaiters != null) {
+      agentWaiters.forEach(agentJobExecutor::execute);
+    }
+  }
+
+  private static String key(EndpointRegisterInput input) {
+    return key(
+        input.getExternalReference(),
+        input.isService()
+            ? Agent.DEPLOYMENT_MODE.service.name()
+            : Agent.DEPLOYMENT_MODE.session.name(),
+        input.isElevated() ? Agent.PRIVILEGE.admin.name() : Agent.PRIVILEGE.standard.name(),
+        input.getExecutedByUser());
+  }
+
+  private static String key(
+      String externalReference, String deploymentMode, String privilege, String executedByUser) {
+    return String.join(
+        "|",
+        String.valueOf(externalReference),
+        String.valueOf(deploymentMode),
+        String.valueOf(privilege),
+        String.valueOf(executedByUser));
+  }
+}
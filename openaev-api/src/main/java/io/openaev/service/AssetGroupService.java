@@ -123,6 +123,10 @@ public class AssetGroupService {
     return this.assetGroupRepository.save(assetGroup);
   }
 
+  public void addAssetsWithoutDynamicAssets(String assetGroupId, List<String> assetIds) {
+    this.assetGroupRepository.addAssets(assetGroupId, assetIds.toArray(String[]::new));
+  }
+
   // -- ASSET --
 
   @Transactional(readOnly = true)
@@ -43,12 +43,16 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -113,6 +117,7 @@ public class EndpointService {
   private final TagRepository tagRepository;
   private final AgentService agentService;
   private final AssetService assetService;
+  private final AgentHeartbeatService agentHeartbeatService;
 
   // -- CRUD --
   public Endpoint createEndpoint(@NotNull final Endpoint endpoint) {
@@ -320,104 +325,172 @@ public class EndpointService {
 
   // -- INSTALLATION AGENT --
 
+  /**
+   * The agents of an executor, indexed by external reference and by endpoint. Built once per sync
+   * of the executor, the synced agents being added page after page.
+   */
+  public static class ExecutorAgents {
+
+    private final Map<String, Agent> agentsByExternalReference = new HashMap<>();
+    private final Set<String> endpointsWithAgent = new HashSet<>();
+
+    public ExecutorAgents(Collection<Agent> agents) {
+      agents.forEach(this::add);
+    }
+
+    public void add(Agent agent) {
+      agentsByExternalReference.put(agent.getExternalReference(), agent);
+      endpointsWithAgent.add(agent.getAsset().getId());
+    }
+
+    public int size() {
+      return agentsByExternalReference.size();
+    }
+  }
+
   /**
    * Get agents from SentinelOne, Crowdstrike API and register them into OpenAEV agents and
-   * endpoints
+   * endpoints. The inputs are matched against the agents of the executor by external reference,
+   * then the endpoints by MAC address, in a time proportional to the number of inputs.
    *
    * @param inputs from the API
-   * @param existingAgents in the database
+   * @param existingAgents the agents of the executor, completed with the synced ones
    * @return OpenAEV agents
    */
   public List<Agent> syncAgentsEndpoints(
-      List<AgentRegisterInput> inputs, List<Agent> existingAgents) {
+      List<AgentRegisterInput> inputs, ExecutorAgents existingAgents) {
     List<Agent> agentsToSave = new ArrayList<>();
     List<Asset> endpointsToSave = new ArrayList<>();
+    // An endpoint shared by several agents is saved once
+    Set<Asset> endpointsAdded = Collections.newSetFromMap(new IdentityHashMap<>());
     Endpoint endpointToSave;
     Agent agentToSave;
-    // Update agents/endpoints with external reference
-    Set<String> inputsExternalRefs =
-        inputs.stream().map(AgentRegisterInput::getExternalReference).collect(Collectors.toSet());
-    if (!inputsExternalRefs.isEmpty()) {
-      Set<Agent> agentsToUpdate =
-          existingAgents.stream()
-              .filter(agent -> inputsExternalRefs.contains(agent.getExternalReference()))
-              .collect(Collectors.toSet());
-      Map<String, AgentRegisterInput> inputsByExternalReference =
-          inputs.stream()
-              .collect(
-                  Collectors.toMap(AgentRegisterInput::getExternalReference, agent2 -> agent2));
-      for (Agent agentToUpdate : agentsToUpdate) {
-        final AgentRegisterInput inputToSave =
-            inputsByExternalReference.get(agentToUpdate.getExternalReference());
-        endpointToSave = (Endpoint) agentToUpdate.getAsset();
-        setUpdatedEndpointAttributes(endpointToSave, inputToSave);
-        agentToUpdate.setAsset(endpointToSave);
-        agentToUpdate.setLastSeen(inputToSave.getLastSeen());
-        // TODO: Making this function transactional is not helping to solve tags
-        // addSourceTagToEndpoint(endpointToSave, inputToSave);
+    // Update agents/endpoints with external reference, an agent being synced once whatever the
+    // number of inputs reporting it
+    Map<String, AgentRegisterInput> inputsByExternalReference = new LinkedHashMap<>();
+    for (AgentRegisterInput input : inputs) {
+      if (inputsByExternalReference.putIfAbsent(input.getExternalReference(), input) != null) {
+        log.warn(
+            "Agent {} reported several times by the sync, only the first one is kept",
+            input.getExternalReference());
+      }
+    }
+    Set<String> updatedExternalReferences = new HashSet<>();
+    for (AgentRegisterInput inputToSave : inputsByExternalReference.values()) {
+      Agent agentToUpdate =
+          existingAgents.agentsByExternalReference.get(inputToSave.getExternalReference());
+      if (agentToUpdate == null) {
+        continue;
+      }
+      endpointToSave = (Endpoint) agentToUpdate.getAsset();
+      setUpdatedEndpointAttributes(endpointToSave, inputToSave);
+      agentToUpdate.setAsset(endpointToSave);
+      agentToUpdate.setLastSeen(inputToSave.getLastSeen());
+      // TODO: Making this function transactional is not helping to solve tags
+      // addSourceTagToEndpoint(endpointToSave, inputToSave);
+      if (endpointsAdded.add(endpointToSave)) {
         endpointsToSave.add(endpointToSave);
-        agentsToSave.add(agentToUpdate);
-        inputs.removeIf(
-            input -> input.getExternalReference().equals(inputToSave.getExternalReference()));
       }
+      agentsToSave.add(agentToUpdate);
+      updatedExternalReferences.add(inputToSave.getExternalReference());
     }
+    List<AgentRegisterInput> remainingInputs =
+        inputsByExternalReference.values().stream()
+            .filter(input -> !updatedExternalReferences.contains(input.getExternalReference()))
+            .toList();
     // Update agents/endpoints with mac address
-    String[] inputsMacAddresses =
-        inputs.stream().map(AgentRegisterInput::getMacAddresses).toList().stream()
-            .flatMap(Arrays::stream)
-            .toArray(String[]::new);
-    if (inputsMacAddresses.length > 0) {
-      List<Endpoint> endpointsToUpdate = findEndpointsByMacAddresses(inputsMacAddresses);
-      Optional<AgentRegisterInput> optionalInputToSave;
+    boolean[] matchedInputs = new boolean[remainingInputs.size()];
+    Map<String, List<Integer>> inputsByMacAddress = new HashMap<>();
+    Map<List<String>, List<Integer>> inputsBySameMacAddresses = new HashMap<>();
+    for (int i = 0; i < remainingInputs.size(); i++) {
+      String[] macAddresses = remainingInputs.get(i).getMacAddresses();
+      if (macAddresses == null) {
+        continue;
+      }
+      for (String macAddress : macAddresses) {
+        inputsByMacAddress.computeIfAbsent(macAddress, k -> new ArrayList<>()).add(i);
+      }
+      inputsBySameMacAddresses
+          .computeIfAbsent(Arrays.asList(macAddresses), k -> new ArrayList<>())
+          .add(i);
+    }
+    if (!inputsByMacAddress.isEmpty()) {
+      List<Endpoint> endpointsToUpdate =
+          findEndpointsByMacAddresses(inputsByMacAddress.keySet().toArray(String[]::new));
       for (Endpoint endpointToUpdate : endpointsToUpdate) {
-        optionalInputToSave =
-            inputs.stream()
-                .filter(
-                    input ->
-                        Arrays.stream(endpointToUpdate.getMacAddresses())
-                            .anyMatch(
-                                macAddress ->
-                                    Arrays.asList(input.getMacAddresses()).contains(macAddress)))
-                .findFirst();
-        if (optionalInputToSave.isPresent()) {
-          // If no existing agent Crowdstrike/SentinelOne in this endpoint, add to it
-          if (existingAgents.stream()
-              .noneMatch(agent -> agent.getAsset().getId().equals(endpointToUpdate.getId()))) {
-            final AgentRegisterInput inputToSave = optionalInputToSave.get();
-            setUpdatedEndpointAttributes(endpointToUpdate, inputToSave);
-            agentToSave = new Agent();
-            setNewAgentAttributes(inputToSave, agentToSave);
-            setUpdatedAgentAttributes(agentToSave, inputToSave, endpointToUpdate);
-            // TODO: Making this function transactional is not helping to solve tags
-            // addSourceTagToEndpoint(endpointToUpdate, inputToSave);
-            endpointsToSave.add(endpointToUpdate);
-            agentsToSave.add(agentToSave);
-            inputs.removeIf(
-                input -> Arrays.equals(input.getMacAddresses(), inputToSave.getMacAddresses()));
-          }
+        // If no existing agent Crowdstrike/SentinelOne in this endpoint, add to it
+        if (existingAgents.endpointsWithAgent.contains(endpointToUpdate.getId())) {
+          continue;
+        }
+        int inputIndex =
+            firstUnmatchedInput(
+                endpointToUpdate.getMacAddresses(), inputsByMacAddress, matchedInputs);
+        if (inputIndex < 0) {
+          continue;
+        }
+        final AgentRegisterInput inputToSave = remainingInputs.get(inputIndex);
+        setUpdatedEndpointAttributes(endpointToUpdate, inputToSave);
+        agentToSave = new Agent();
+        setNewAgentAttributes(inputToSave, agentToSave);
+        setUpdatedAgentAttributes(agentToSave, inputToSave, endpointToUpdate);
+        // TODO: Making this function transactional is not helping to solve tags
+        // addSourceTagToEndpoint(endpointToUpdate, inputToSave);
+        if (endpointsAdded.add(endpointToUpdate)) {
+          endpointsToSave.add(endpointToUpdate);
+        }
+        agentsToSave.add(agentToSave);
+        for (int i : inputsBySameMacAddresses.get(Arrays.asList(inputToSave.getMacAddresses()))) {
+          matchedInputs[i] = true;
         }
       }
     }
     // Create new agents/endpoints
-    if (!inputs.isEmpty()) {
-      for (AgentRegisterInput inputToUpdate : inputs) {
-        endpointToSave = new Endpoint();
-        endpointToSave.setUpdateAttributes(inputToUpdate);
-        endpointToSave.setIps(inputToUpdate.getIps());
-        endpointToSave.setSeenIp(inputToUpdate.getSeenIp());
-        endpointToSave.setMacAddresses(inputToUpdate.getMacAddresses());
-        // TODO: Making this function transactional is not helping to solve tags
-        // addSourceTagToEndpoint(endpointToSave, inputToUpdate);
-        endpointsToSave.add(endpointToSave);
-        agentToSave = new Agent();
-        setNewAgentAttributes(inputToUpdate, agentToSave);
-        setUpdatedAgentAttributes(agentToSave, inputToUpdate, endpointToSave);
-        agentsToSave.add(agentToSave);
+    for (int i = 0; i < remainingInputs.size(); i++) {
+      if (matchedInputs[i]) {
+        continue;
       }
+      AgentRegisterInput inputToUpdate = remainingInputs.get(i);
+      endpointToSave = new Endpoint();
+      endpointToSave.setUpdateAttributes(inputToUpdate);
+      endpointToSave.setIps(inputToUpdate.getIps());
+      endpointToSave.setSeenIp(inputToUpdate.getSeenIp());
+      endpointToSave.setMacAddresses(inputToUpdate.getMacAddresses());
+      // TODO: Making this function transactional is not helping to solve tags
+      // addSourceTagToEndpoint(endpointToSave, inputToUpdate);
+      endpointsToSave.add(endpointToSave);
+      agentToSave = new Agent();
+      setNewAgentAttributes(inputToUpdate, agentToSave);
+      setUpdatedAgentAttributes(agentToSave, inputToUpdate, endpointToSave);
+      agentsToSave.add(agentToSave);
     }
     // Save all in database
     assetService.saveAllAssets(endpointsToSave);
-    return agentService.saveAllAgents(agentsToSave);
+    List<Agent> savedAgents = agentService.saveAllAgents(agentsToSave);
+    savedAgents.forEach(existingAgents::add);
+    return savedAgents;
+  }
+
+  /**
+   * First input, in the order of the sync, sharing a MAC address with an endpoint and not matched
+   * yet
+   *
+   * @return the index of the input, -1 if none
+   */
+  private static int firstUnmatchedInput(
+      String[] macAddresses, Map<String, List<Integer>> inputsByMacAddress, boolean[] matched) {
+    int first = -1;
+    if (macAddresses == null) {
+      return first;
+    }
+    for (String macAddress : macAddresses) {
+      for (int i : inputsByMacAddress.getOrDefault(macAddress, List.of())) {
+        if (!matched[i]) {
+          first = first < 0 ? i : Math.min(first, i);
+          break;
+        }
+      }
+    }
+    return first;
   }
 
   @Transactional
@@ -471,6 +544,9 @@ public class EndpointService {
               input.getServiceName()));
       assetAgentJob.setAgent(agent);
       assetAgentJobRepository.save(assetAgentJob);
+    } else {
+      // Up to date, the next check-ins of the agent are heartbeats until something changes
+      agentHeartbeatService.remember(input, agent);
     }
     return endpoint;
   }
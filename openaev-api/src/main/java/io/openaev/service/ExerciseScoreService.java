@@ -0,0 +1,34 @@
+package io.openaev.service;
+
+import io.openaev.database.repository.ExerciseRepository;
+import io.openaev.utils.ResultUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the stored global results of the simulations up to date.
+ *
+ * <p>A database trigger records every change of the expectations of a simulation, whatever the path
+ * writing them. Its results are computed again here on an interval, so reading the results never
+ * writes: until then, the reads compute the outdated results on the fly. Each node refreshes the
+ * simulations not locked by the others.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExerciseScoreService {
+
+  private final ResultUtils resultUtils;
+  private final ExerciseRepository exerciseRepository;
+
+  @Value("${openaev.exercise.scores.batch-size:100}")
+  private int batchSize;
+
+  /** Store the global results of the simulations whose expectations changed */
+  @Scheduled(fixedDelayString = "${openaev.exercise.scores.refresh-interval:5000}")
+  public void refresh() {
+    exerciseRepository.createChangedScores();
+    resultUtils.storeOutdatedExercisesGlobalResults(batchSize);
+  }
+}
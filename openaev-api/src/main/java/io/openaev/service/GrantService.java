@@ -1,5 +1,8 @@
 package io.openaev.service;
 
+import static io.openaev.database.audit.ModelBaseListener.DATA_UPDATE;
+
+import io.openaev.database.audit.GrantEvent;
 import io.openaev.database.model.*;
 import io.openaev.database.model.Grant;
 import io.openaev.database.model.User;
@@ -8,6 +11,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -20,6 +24,7 @@ public class GrantService {
   private final ScenarioRepository scenarioRepository;
   private final InjectRepository injectRepository;
   private final PayloadRepository payloadRepository;
+  private final ApplicationEventPublisher appPublisher;
 
   public boolean hasReadGrant(@NotBlank final String resourceId, @NotNull final User user) {
     return hasGrant(resourceId, user, Grant.GRANT_TYPE.OBSERVER);
@@ -70,5 +75,7 @@ public class GrantService {
       @NotBlank String newId,
       @NotBlank Grant.GRANT_RESOURCE_TYPE grantType) {
     grantRepository.updateGrantResourceIdAndType(currentId, newId, grantType);
+    // Bulk update, the grant listener is not called
+    appPublisher.publishEvent(new GrantEvent(DATA_UPDATE, null));
   }
 }
@@ -0,0 +1,67 @@
+package io.openaev.service;
+
+import io.openaev.database.model.InjectDependency;
+import io.openaev.database.model.InjectDependencyId;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evaluation of the inject dependency conditions.
+ *
+ * <p>Conditions are compiled once into predicates and cached by dependency, along with the update
+ * date of the dependency they were compiled from: an edited dependency is compiled again on its
+ * next evaluation.
+ */
+@Service
+public class InjectDependencyConditionService {
+
+  private static final int MAX_COMPILED_CONDITIONS = 10_000;
+
+  private record DependencyKey(String parentId, String childrenId) {}
+
+  private record CompiledCondition(Instant updatedAt, Predicate<Map<String, Boolean>> predicate) {}
+
+  private final Map<DependencyKey, CompiledCondition> compiledConditions =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Check if the condition of a dependency is satisfied
+   *
+   * @param dependency the dependency to check
+   * @param expectations the expectations of the parent by condition key, and whether they are met
+   * @return true if the child inject can be executed
+   * @throws IllegalArgumentException if the condition cannot be evaluated
+   */
+  public boolean isSatisfied(InjectDependency dependency, Map<String, Boolean> expectations) {
+    return compile(dependency).test(expectations);
+  }
+
+  private Predicate<Map<String, Boolean>> compile(InjectDependency dependency) {
+    InjectDependencyId id = dependency.getCompositeId();
+    if (id.getInjectParent() == null
+        || id.getInjectParent().getId() == null
+        || id.getInjectChildren() == null
+        || id.getInjectChildren().getId() == null) {
+      // Not persisted yet, nothing identifies it reliably
+      return dependency.getInjectDependencyCondition().toPredicate();
+    }
+    DependencyKey key =
+        new DependencyKey(id.getInjectParent().getId(), id.getInjectChildren().getId());
+    CompiledCondition compiled = compiledConditions.get(key);
+    if (compiled == null || !Objects.equals(compiled.updatedAt(), dependency.getUpdateDate())) {
+      compiled =
+          new CompiledCondition(
+              dependency.getUpdateDate(), dependency.getInjectDependencyCondition().toPredicate());
+      if (compiledConditions.size() >= MAX_COMPILED_CONDITIONS) {
+        // Dependencies of deleted injects are never evicted otherwise
+        compiledConditions.clear();
+      }
+      compiledConditions.put(key, compiled);
+    }
+    return compiled.predicate();
+  }
+}
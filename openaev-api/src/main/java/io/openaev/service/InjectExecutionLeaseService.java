@@ -0,0 +1,158 @@
+package io.openaev.service;
+
+import static io.openaev.scheduler.jobs.InjectExecutionPlan.exerciseKey;
+import static io.openaev.scheduler.jobs.InjectExecutionPlan.injectId;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import io.openaev.database.repository.InjectExecutionLeaseRepository;
+import io.openaev.execution.ExecutableInject;
+import io.openaev.scheduler.jobs.InjectExecutionPlan;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Share the launch of the injects between the API nodes of a cluster.
+ *
+ * <p>The runnable injects are split in shards by exercise, so the injects of a same simulation are
+ * launched by a same node. Each node leases its share of the shards, the shards being split evenly
+ * between the nodes seen alive, and keeps them from a tick to the next. A node only launches the
+ * injects of its shards, each of them leased in turn so an inject is never launched twice during a
+ * handover of its shard. The leases of a node dying expire to be claimed again by the others. A
+ * lease released after the launch can not be claimed again from a stale list of injects, the claim
+ * only takes the injects not launched yet.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InjectExecutionLeaseService {
+
+  private static final int CLAIM_PARTITION_SIZE = 1000;
+
+  private final InjectExecutionLeaseRepository injectExecutionLeaseRepository;
+
+  @Getter
+  @Value("${inject.execution.lease.enabled:false}")
+  private boolean enabled;
+
+  @Value("${inject.execution.lease.seconds:300}")
+  private long leaseSeconds;
+
+  @Value("${inject.execution.shards:16}")
+  private int shardCount;
+
+  @Getter private final String owner = ownerId();
+
+  private static String ownerId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      host = "unknown";
+    }
+    return host + "-" + UUID.randomUUID();
+  }
+
+  /**
+   * Lease the injects to launch by this node
+   *
+   * @param injects the runnable injects
+   * @return the injects leased to this node, all of them if the leases are disabled
+   */
+  public List<ExecutableInject> claim(List<ExecutableInject> injects) {
+    if (!enabled) {
+      return injects;
+    }
+    // Leased even without injects to run, so the nodes keep sharing the shards evenly
+    List<Integer> owned = claimShards();
+    if (injects.isEmpty()) {
+      return injects;
+    }
+    int purged = injectExecutionLeaseRepository.deleteExpired();
+    if (purged > 0) {
+      log.info("{} expired inject leases purged", purged);
+    }
+    List<List<ExecutableInject>> shards = shards(injects, shardCount);
+    List<ExecutableInject> claimed = new ArrayList<>();
+    for (int shardId : owned) {
+      List<ExecutableInject> shard = shards.get(shardId);
+      if (shard.isEmpty()) {
+        continue;
+      }
+      Set<String> leased = new HashSet<>();
+      for (List<ExecutableInject> partition : Lists.partition(shard, CLAIM_PARTITION_SIZE)) {
+        leased.addAll(
+            injectExecutionLeaseRepository.claim(
+                partition.stream().map(InjectExecutionPlan::injectId).toList(),
+                owner,
+                leaseSeconds));
+      }
+      shard.stream().filter(e -> leased.contains(injectId(e))).forEach(claimed::add);
+    }
+    log.debug("{} injects leased out of {}", claimed.size(), injects.size());
+    return claimed;
+  }
+
+  /**
+   * Lease the shards of this node, its share being the number of shards divided by the number of
+   * nodes alive. A node joining the cluster gets its share once the others freed their extra
+   * shards, on their next tick.
+   *
+   * @return the ids of the shards leased to this node
+   */
+  private List<Integer> claimShards() {
+    int count = Math.max(1, shardCount);
+    long nodes = injectExecutionLeaseRepository.heartbeat(owner, leaseSeconds);
+    int share = (int) ((count + nodes - 1) / Math.max(1, nodes));
+    injectExecutionLeaseRepository.createShards(count);
+    List<Integer> owned =
+        injectExecutionLeaseRepository.claimShards(owner, count, share, leaseSeconds);
+    log.debug("{} shards out of {} leased, {} nodes alive", owned.size(), count, nodes);
+    return owned;
+  }
+
+  /**
+   * Release the leases of launched injects, so a later launch of the same injects is not held until
+   * the expiration
+   *
+   * @param injects the injects leased by {@link #claim(List)}
+   */
+  public void release(List<ExecutableInject> injects) {
+    if (!enabled || injects.isEmpty()) {
+      return;
+    }
+    List<String> injectIds = injects.stream().map(InjectExecutionPlan::injectId).toList();
+    for (List<String> partition : Lists.partition(injectIds, CLAIM_PARTITION_SIZE)) {
+      injectExecutionLeaseRepository.release(partition, owner);
+    }
+  }
+
+  /**
+   * Split injects in shards by exercise, atomic testings being a group of their own
+   *
+   * @param injects the injects to split
+   * @param shardCount the number of shards
+   * @return the shards, keeping the order of the injects
+   */
+  @VisibleForTesting
+  public static List<List<ExecutableInject>> shards(
+      List<ExecutableInject> injects, int shardCount) {
+    int count = Math.max(1, shardCount);
+    List<List<ExecutableInject>> shards = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      shards.add(new ArrayList<>());
+    }
+    for (ExecutableInject executableInject : injects) {
+      shards
+          .get(Math.floorMod(exerciseKey(executableInject).hashCode(), count))
+          .add(executableInject);
+    }
+    return shards;
+  }
+}
@@ -20,8 +20,10 @@ import io.openaev.expectation.ExpectationType;
 import io.openaev.model.Expectation;
 import io.openaev.rest.atomic_testing.form.InjectExpectationAgentOutput;
 import io.openaev.rest.collector.service.CollectorService;
+import io.openaev.rest.exception.BadRequestException;
 import io.openaev.rest.exception.ElementNotFoundException;
 import io.openaev.rest.exercise.form.ExpectationUpdateInput;
+import io.openaev.rest.expectation.form.PendingExpectationOutput;
 import io.openaev.rest.inject.form.InjectExpectationUpdateInput;
 import io.openaev.utils.ExpectationUtils;
 import io.openaev.utils.TargetType;
@@ -30,6 +32,7 @@ import jakarta.annotation.Resource;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -370,6 +373,71 @@ public class InjectExpectationService {
         PageRequest.of(0, 10000, Sort.by(Sort.Direction.ASC, "createdAt")));
   }
 
+  // -- PENDING EXPECTATIONS POLLING --
+
+  public static final int PENDING_EXPECTATIONS_MAX_LIMIT = 5000;
+
+  /**
+   * Agent expectations of a type still waiting for a result of a source, in creation order.
+   *
+   * <p>Only the projection of the expectations is read, through the partial index on the agent
+   * expectations. An expectation is pending for a source while it has no result of this source,
+   * even once scored by the others.
+   *
+   * @param type the expectation type
+   * @param sourceId the id of the polling source
+   * @param since the cursor of the last expectation received, null to start from the oldest one
+   * @param limit the maximum number of expectations
+   * @return the pending expectations created after the cursor, read from a database cursor: to be
+   *     consumed and closed within a transaction
+   */
+  public Stream<PendingExpectationOutput> pendingExpectations(
+      @NotNull final InjectExpectation.EXPECTATION_TYPE type,
+      @NotBlank final String sourceId,
+      @Nullable final String since,
+      final int limit) {
+    Instant afterDate = Instant.EPOCH;
+    String afterId = "";
+    if (since != null && !since.isBlank()) {
+      try {
+        String position = new String(Base64.getUrlDecoder().decode(since), StandardCharsets.UTF_8);
+        int separator = position.indexOf('|');
+        afterDate = Instant.parse(position.substring(0, separator));
+        afterId = position.substring(separator + 1);
+      } catch (RuntimeException e) {
+        throw new BadRequestException("Invalid cursor: " + since);
+      }
+    }
+    return injectExpectationRepository
+        .rawPendingBySource(
+            type.name(),
+            sourceId,
+            afterDate,
+            afterId,
+            Math.clamp(limit, 1, PENDING_EXPECTATIONS_MAX_LIMIT))
+        .map(
+            raw ->
+                PendingExpectationOutput.builder()
+                    .id(raw.getInject_expectation_id())
+                    .type(raw.getInject_expectation_type())
+                    .createdAt(raw.getInject_expectation_created_at())
+                    .expirationTime(raw.getInject_expiration_time())
+                    .signatures(raw.getInject_expectation_signatures())
+                    .injectId(raw.getInject_id())
+                    .agentId(raw.getAgent_id())
+                    .assetId(raw.getAsset_id())
+                    .assetGroupId(raw.getAsset_group_id())
+                    .cursor(
+                        Base64.getUrlEncoder()
+                            .withoutPadding()
+                            .encodeToString(
+                                (raw.getInject_expectation_created_at()
+                                        + "|"
+                                        + raw.getInject_expectation_id())
+                                    .getBytes(StandardCharsets.UTF_8)))
+                    .build());
+  }
+
   // -- EXPECTATIONS BY TYPE --
 
   public List<InjectExpectation> expectationsNotFilledAndNotExpiredBySourceId(
@@ -2,21 +2,25 @@ package io.openaev.utils;
 
 import static java.util.Collections.emptyList;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openaev.database.model.*;
+import io.openaev.database.raw.RawExerciseScore;
 import io.openaev.database.raw.RawInjectExpectation;
+import io.openaev.database.repository.ExerciseRepository;
 import io.openaev.database.repository.InjectExpectationRepository;
 import io.openaev.rest.inject.form.InjectExpectationResultsByAttackPattern;
 import io.openaev.utils.InjectExpectationResultUtils.ExpectationResultsByType;
 import io.openaev.utils.mapper.InjectExpectationMapper;
 import jakarta.validation.constraints.NotNull;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Component for computing and aggregating expectation results across exercises and scenarios.
@@ -28,12 +32,15 @@ import org.springframework.stereotype.Component;
  * @see ExpectationResultsByType
  * @see InjectExpectationMapper
  */
+@Slf4j
 @RequiredArgsConstructor
 @Component
 public class ResultUtils {
 
   private final InjectExpectationRepository injectExpectationRepository;
   private final InjectExpectationMapper injectExpectationMapper;
+  private final ExerciseRepository exerciseRepository;
+  private final ObjectMapper mapper;
 
   /**
    * Computes global expectation results across all specified injects.
@@ -56,6 +63,156 @@ public class ResultUtils {
     return injectExpectationMapper.extractExpectationResultByTypesFromRaw(injectIds, expectations);
   }
 
+  /**
+   * Gets the global expectation results of an exercise.
+   *
+   * @param exerciseId the exercise id
+   * @return a list of aggregated results by expectation type
+   * @see #computeExercisesGlobalResults(Collection)
+   */
+  public List<ExpectationResultsByType> computeExerciseGlobalResults(String exerciseId) {
+    return computeExercisesGlobalResults(List.of(exerciseId)).getOrDefault(exerciseId, emptyList());
+  }
+
+  /**
+   * Gets the global expectation results of several exercises.
+   *
+   * <p>The results stored in the exercise scores table are returned while no change of the
+   * expectations, recorded by a database trigger, is pending. The exercises whose expectations
+   * changed since are computed again, all in one query, but not stored: {@link
+   * #storeOutdatedExercisesGlobalResults(int)} does it off the read path. Without expectation yet,
+   * the results of an exercise are built from the content of its injects.
+   *
+   * @param exerciseIds the exercise ids
+   * @return the aggregated results by expectation type by exercise id
+   */
+  public Map<String, List<ExpectationResultsByType>> computeExercisesGlobalResults(
+      Collection<String> exerciseIds) {
+    Set<String> ids = new HashSet<>(exerciseIds);
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+
+    Map<String, List<ExpectationResultsByType>> results = new HashMap<>();
+    for (RawExerciseScore score : exerciseRepository.rawScoresByExerciseIds(ids)) {
+      if (Objects.equals(
+          score.getExercise_score_computed_version(), score.getExercise_score_version())) {
+        List<ExpectationResultsByType> stored = readScore(score.getExercise_score_results());
+        if (stored != null) {
+          results.put(score.getExercise_id(), stored);
+        }
+      }
+    }
+    Set<String> outdated = new HashSet<>(ids);
+    outdated.removeAll(results.keySet());
+    if (!outdated.isEmpty()) {
+      results.putAll(computeFromExpectations(outdated));
+    }
+
+    // Without expectation yet, the results are built from the content of the injects
+    Set<String> withoutExpectation =
+        ids.stream()
+            .filter(id -> results.getOrDefault(id, emptyList()).isEmpty())
+            .collect(Collectors.toSet());
+    if (!withoutExpectation.isEmpty()) {
+      Map<String, Set<String>> injectIdsByExerciseIds =
+          exerciseRepository.findInjectIdsByExerciseIds(withoutExpectation).stream()
+              .collect(
+                  Collectors.groupingBy(
+                      row -> (String) row[0],
+                      Collectors.mapping(row -> (String) row[1], Collectors.toSet())));
+      for (String exerciseId : withoutExpectation) {
+        Set<String> injectIds = injectIdsByExerciseIds.getOrDefault(exerciseId, Set.of());
+        results.put(
+            exerciseId,
+            injectIds.isEmpty()
+                ? emptyList()
+                : injectExpectationMapper.extractExpectationResultByTypesFromRaw(
+                    injectIds, emptyList()));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Stores the global expectation results of the exercises whose expectations changed since their
+   * last computation, the ones changed first before.
+   *
+   * <p>The exercises are locked until the results are stored, the ones computed by another node
+   * being skipped. Their changes are consumed before the computation: the ones made meanwhile are
+   * left for the next run. On a failure, nothing is consumed and they are computed again.
+   *
+   * @param limit the maximum number of exercises to compute
+   * @return the number of exercises computed
+   */
+  @Transactional
+  public int storeOutdatedExercisesGlobalResults(int limit) {
+    // Version of the expectations of the exercises to compute
+    Map<String, Long> outdated = new TreeMap<>();
+    for (RawExerciseScore score : exerciseRepository.rawOutdatedScores(limit)) {
+      outdated.put(score.getExercise_id(), score.getExercise_score_version());
+    }
+    if (outdated.isEmpty()) {
+      return 0;
+    }
+    exerciseRepository.deleteScoreChanges(outdated.keySet());
+
+    Map<String, List<ExpectationResultsByType>> computed =
+        computeFromExpectations(outdated.keySet());
+    List<String> computedIds = new ArrayList<>();
+    List<Long> computedVersions = new ArrayList<>();
+    List<String> computedResults = new ArrayList<>();
+    outdated.forEach(
+        (exerciseId, version) -> {
+          try {
+            computedResults.add(mapper.writeValueAsString(computed.get(exerciseId)));
+            computedIds.add(exerciseId);
+            computedVersions.add(version);
+          } catch (JsonProcessingException e) {
+            log.warn("Results of exercise {} can't be stored: {}", exerciseId, e.getMessage());
+          }
+        });
+    exerciseRepository.saveScores(
+        computedIds.toArray(String[]::new),
+        computedVersions.toArray(Long[]::new),
+        computedResults.toArray(String[]::new));
+    return outdated.size();
+  }
+
+  /** The results of the expectations of exercises, an empty list for an exercise without any */
+  private Map<String, List<ExpectationResultsByType>> computeFromExpectations(
+      Set<String> exerciseIds) {
+    Map<String, List<RawInjectExpectation>> expectationsByExerciseIds =
+        injectExpectationRepository.rawForComputeGlobalByExerciseIds(exerciseIds).stream()
+            .collect(Collectors.groupingBy(RawInjectExpectation::getExercise_id));
+    Map<String, List<ExpectationResultsByType>> results = new HashMap<>();
+    for (String exerciseId : exerciseIds) {
+      List<RawInjectExpectation> expectations =
+          expectationsByExerciseIds.getOrDefault(exerciseId, emptyList());
+      results.put(
+          exerciseId,
+          expectations.isEmpty()
+              ? emptyList()
+              : injectExpectationMapper.extractExpectationResultByTypesFromRaw(
+                  expectations.stream()
+                      .map(RawInjectExpectation::getInject_id)
+                      .collect(Collectors.toSet()),
+                  expectations));
+    }
+    return results;
+  }
+
+  private List<ExpectationResultsByType> readScore(String results) {
+    if (results == null) {
+      return null;
+    }
+    try {
+      return mapper.readValue(results, new TypeReference<>() {});
+    } catch (JsonProcessingException e) {
+      return null;
+    }
+  }
+
   /**
    * Computes global expectation results filtered by a specific security platform.
    *
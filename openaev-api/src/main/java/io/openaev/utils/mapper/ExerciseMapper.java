@@ -7,14 +7,13 @@ import io.openaev.database.model.Exercise;
 import io.openaev.database.model.ExerciseStatus;
 import io.openaev.database.model.Inject;
 import io.openaev.database.raw.RawExerciseSimple;
-import io.openaev.database.raw.RawInjectExpectation;
 import io.openaev.database.repository.AssetGroupRepository;
 import io.openaev.database.repository.AssetRepository;
-import io.openaev.database.repository.InjectExpectationRepository;
 import io.openaev.database.repository.TeamRepository;
 import io.openaev.rest.atomic_testing.form.TargetSimple;
 import io.openaev.rest.document.form.RelatedEntityOutput;
 import io.openaev.rest.exercise.form.ExerciseSimple;
+import io.openaev.utils.InjectExpectationResultUtils.ExpectationResultsByType;
 import io.openaev.utils.ResultUtils;
 import io.openaev.utils.TargetType;
 import java.util.ArrayList;
@@ -42,11 +41,9 @@ public class ExerciseMapper {
   private final AssetRepository assetRepository;
   private final AssetGroupRepository assetGroupRepository;
   private final TeamRepository teamRepository;
-  private final InjectExpectationRepository injectExpectationRepository;
 
   private final ResultUtils resultUtils;
   private final InjectMapper injectMapper;
-  private final InjectExpectationMapper injectExpectationMapper;
 
   // -- EXERCISE SIMPLE --
 
@@ -66,7 +63,7 @@ public class ExerciseMapper {
     if (rawExercise.getInject_ids() != null) {
       // -- GLOBAL SCORE ---
       simple.setExpectationResultByTypes(
-          resultUtils.computeGlobalExpectationResults(rawExercise.getInject_ids()));
+          resultUtils.computeExerciseGlobalResults(rawExercise.getExercise_id()));
 
       // -- TARGETS --
       List<Object[]> teams =
@@ -117,9 +114,8 @@ public class ExerciseMapper {
         assetGroupRepository.assetGroupsByExerciseIds(exerciseIds).stream()
             .collect(Collectors.groupingBy(row -> (String) row[0]));
 
-    Map<String, List<RawInjectExpectation>> expectationMap =
-        injectExpectationRepository.rawForComputeGlobalByExerciseIds(exerciseIds).stream()
-            .collect(Collectors.groupingBy(RawInjectExpectation::getExercise_id));
+    Map<String, List<ExpectationResultsByType>> resultMap =
+        resultUtils.computeExercisesGlobalResults(exerciseIds);
 
     List<ExerciseSimple> exerciseSimples = new ArrayList<>();
 
@@ -130,7 +126,7 @@ public class ExerciseMapper {
               teamMap.getOrDefault(exercise.getExercise_id(), emptyList()),
               assetMap.getOrDefault(exercise.getExercise_id(), emptyList()),
               assetGroupMap.getOrDefault(exercise.getExercise_id(), emptyList()),
-              expectationMap.getOrDefault(exercise.getExercise_id(), emptyList()));
+              resultMap.getOrDefault(exercise.getExercise_id(), emptyList()));
       exerciseSimples.add(simple);
     }
 
@@ -142,15 +138,13 @@ public class ExerciseMapper {
       List<Object[]> teams,
       List<Object[]> assets,
       List<Object[]> assetGroups,
-      List<RawInjectExpectation> expectations) {
+      List<ExpectationResultsByType> results) {
 
     ExerciseSimple simple = fromRawExerciseSimple(rawExercise);
 
     if (rawExercise.getInject_ids() != null) {
       // -- GLOBAL SCORE ---
-      simple.setExpectationResultByTypes(
-          injectExpectationMapper.extractExpectationResultByTypesFromRaw(
-              rawExercise.getInject_ids(), expectations));
+      simple.setExpectationResultByTypes(results);
       // -- TARGETS --
       List<TargetSimple> allTargets =
           Stream.concat(
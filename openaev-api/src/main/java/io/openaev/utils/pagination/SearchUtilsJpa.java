@@ -1,6 +1,5 @@
 package io.openaev.utils.pagination;
 
-import static io.openaev.schema.SchemaUtils.getSearchableProperties;
 import static io.openaev.utils.JpaUtils.toPath;
 import static org.springframework.util.StringUtils.hasText;
 
@@ -31,14 +30,8 @@ public class SearchUtilsJpa {
     }
 
     return (root, query, cb) -> {
-      List<PropertySchema> propertySchemas;
-      try {
-        propertySchemas = SchemaUtils.schemaWithSubtypes(root.getJavaType());
-      } catch (ClassNotFoundException e) {
-        throw new RuntimeException("Error loading schema for search", e);
-      }
-
-      List<PropertySchema> searchableProperties = getSearchableProperties(propertySchemas);
+      List<PropertySchema> searchableProperties =
+          SchemaUtils.searchableSchemaWithSubtypes(root.getJavaType());
       List<Predicate> predicates = new ArrayList<>();
 
       for (PropertySchema propertySchema : searchableProperties) {
@@ -0,0 +1,69 @@
+package io.openaev.database.specification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.openaev.IntegrationTest;
+import io.openaev.database.model.Asset;
+import io.openaev.database.repository.AssetRepository;
+import io.openaev.utils.fixtures.AssetFixture;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@DisplayName("Full text search specification tests")
+class FullTextSearchSpecificationTest extends IntegrationTest {
+
+  private static final List<String> PROPERTIES = List.of("name", "id");
+
+  @Autowired private AssetRepository assetRepository;
+
+  private Asset once;
+  private Asset twice;
+  private Asset other;
+
+  @BeforeEach
+  void setUp() {
+    once = assetRepository.save(AssetFixture.createDefaultAsset("zyphoenix gateway"));
+    twice = assetRepository.save(AssetFixture.createDefaultAsset("zyphoenix zyphoenix relay"));
+    other = assetRepository.save(AssetFixture.createDefaultAsset("unrelated host"));
+    entityManager.flush();
+  }
+
+  private static Specification<Asset> search(String searchTerm) {
+    return SpecificationUtils.fullTextSearch(searchTerm, PROPERTIES);
+  }
+
+  @Test
+  @DisplayName("The search matches a prefix of the name")
+  void matchName() {
+    assertThat(assetRepository.findAll(search("(zyphoen:*)")))
+        .extracting(Asset::getId)
+        .containsExactlyInAnyOrder(once.getId(), twice.getId());
+  }
+
+  @Test
+  @DisplayName("The search matches the name or the id")
+  void matchNameOrId() {
+    String idPrefix = other.getId().split("-")[0];
+
+    assertThat(assetRepository.findAll(search("(" + idPrefix + ":*)")))
+        .extracting(Asset::getId)
+        .contains(other.getId())
+        .doesNotContain(once.getId(), twice.getId());
+    assertThat(assetRepository.count(search("(" + idPrefix + ":*)"))).isPositive();
+  }
+
+  @Test
+  @DisplayName("The results are ordered by rank, the counts are not ordered")
+  void orderedByRank() {
+    assertThat(assetRepository.findAll(search("(zyphoenix:*)")))
+        .extracting(Asset::getId)
+        .containsExactly(twice.getId(), once.getId());
+    assertThat(assetRepository.count(search("(zyphoenix:*)"))).isEqualTo(2);
+  }
+}
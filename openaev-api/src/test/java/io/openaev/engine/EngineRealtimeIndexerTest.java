@@ -0,0 +1,182 @@
+package io.openaev.engine;
+
+import static io.openaev.database.audit.ModelBaseListener.DATA_DELETE;
+import static io.openaev.database.audit.ModelBaseListener.DATA_UPDATE;
+import static io.openaev.utils.Constants.INDEXING_RECORD_SET_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.openaev.config.EngineConfig;
+import io.openaev.database.audit.BaseEvent;
+import io.openaev.database.model.Base;
+import io.openaev.database.model.Tag;
+import io.openaev.database.model.Team;
+import io.openaev.engine.model.EsBase;
+import io.openaev.engine.model.tag.EsTag;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("Near real-time indexing tests")
+class EngineRealtimeIndexerTest {
+
+  private EngineService engineService;
+  private EngineContext engineContext;
+  private EngineConfig engineConfig;
+  private EngineRealtimeIndexer indexer;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    engineService = mock(EngineService.class);
+    engineContext = mock(EngineContext.class);
+    engineConfig = new EngineConfig();
+    Handler<EsTag> tagHandler =
+        new Handler<>() {
+          @Override
+          public List<EsTag> fetch(Instant from, String afterId) {
+            return List.of();
+          }
+
+          @Override
+          public Set<Class<?>> sources() {
+            return Set.of(Tag.class);
+          }
+        };
+    EsModel<EsTag> tagModel = new EsModel<>(EsTag.class, tagHandler);
+    when(engineContext.getModels()).thenReturn((List) List.of(tagModel));
+
+    indexer = new EngineRealtimeIndexer();
+    indexer.setEngineService(engineService);
+    indexer.setEngineContext(engineContext);
+    indexer.setEngineConfig(engineConfig);
+  }
+
+  // The tags indexed by id, their documents being built from the tag entities
+  @SuppressWarnings("unchecked")
+  private void indexTagsById() {
+    Handler<EsTag> tagHandler =
+        new Handler<>() {
+          @Override
+          public List<EsTag> fetch(Instant from, String afterId) {
+            return List.of();
+          }
+
+          @Override
+          public Set<Class<?>> sources() {
+            return Set.of(Tag.class);
+          }
+
+          @Override
+          public Optional<Class<?>> entity() {
+            return Optional.of(Tag.class);
+          }
+        };
+    when(engineContext.getModels())
+        .thenReturn((List) List.of(new EsModel<>(EsTag.class, tagHandler)));
+  }
+
+  private static Tag tag(String id) {
+    Tag tag = new Tag();
+    tag.setId(id);
+    return tag;
+  }
+
+  private static BaseEvent event(String type, Base instance) {
+    BaseEvent event = mock(BaseEvent.class);
+    when(event.getType()).thenReturn(type);
+    when(event.getInstance()).thenReturn(instance);
+    return event;
+  }
+
+  @Test
+  @DisplayName("flush should index once the models touched by a burst of changes")
+  @SuppressWarnings("unchecked")
+  void flushShouldCoalesceChanges() {
+    indexer.listenDatabaseUpdate(event(DATA_UPDATE, new Tag()));
+    indexer.listenDatabaseUpdate(event(DATA_UPDATE, new Tag()));
+    indexer.listenDatabaseUpdate(event(DATA_UPDATE, new Team()));
+
+    indexer.flush();
+    indexer.flush();
+
+    ArgumentCaptor<Stream<EsModel<EsBase>>> captor = ArgumentCaptor.forClass(Stream.class);
+    verify(engineService, times(1)).bulkProcessing(captor.capture());
+    assertEquals(List.of("tag"), captor.getValue().map(EsModel::getName).toList());
+  }
+
+  @Test
+  @DisplayName("flush should ignore deletions and unrelated entities")
+  void flushShouldIgnoreDeletionsAndUnrelated() {
+    indexer.listenDatabaseUpdate(event(DATA_DELETE, new Tag()));
+    indexer.listenDatabaseUpdate(event(DATA_UPDATE, new Team()));
+
+    indexer.flush();
+
+    verify(engineService, never()).bulkProcessing(any());
+  }
+
+  @Test
+  @DisplayName("listen should do nothing when near real-time indexing is disabled")
+  void listenShouldDoNothingWhenDisabled() {
+    engineConfig.setIndexingRealtimeEnabled(false);
+    indexer.listenDatabaseUpdate(event(DATA_UPDATE, new Tag()));
+
+    indexer.flush();
+
+    verify(engineService, never()).bulkProcessing(any());
+  }
+
+  @Test
+  @DisplayName("flush should index by id the changed entities of the documents")
+  @SuppressWarnings("unchecked")
+  void flushShouldIndexChangedIds() {
+    indexTagsById();
+    indexer.listenDatabaseUpdate(event(DATA_UPDATE, tag("1")));
+    indexer.listenDatabaseUpdate(event(DATA_UPDATE, tag("2")));
+    indexer.listenDatabaseUpdate(event(DATA_UPDATE, tag("1")));
+
+    indexer.flush();
+    indexer.flush();
+
+    ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(engineService, times(1)).bulkProcessingByIds(any(), captor.capture());
+    assertEquals(Set.of("1", "2"), Set.copyOf(captor.getValue()));
+    verify(engineService, never()).bulkProcessing(any());
+  }
+
+  @Test
+  @DisplayName("flush should index incrementally a model with more changed ids than a page")
+  void flushShouldIndexModelOnBurst() {
+    indexTagsById();
+    IntStream.rangeClosed(0, INDEXING_RECORD_SET_SIZE)
+        .forEach(i -> indexer.listenDatabaseUpdate(event(DATA_UPDATE, tag(String.valueOf(i)))));
+
+    indexer.flush();
+
+    verify(engineService, times(1)).bulkProcessing(any());
+    verify(engineService, never()).bulkProcessingByIds(any(), any());
+  }
+
+  @Test
+  @DisplayName("start should not schedule the flush when near real-time indexing is disabled")
+  void startShouldNotScheduleWhenDisabled() {
+    engineConfig.setIndexingRealtimeEnabled(false);
+
+    indexer.start();
+
+    assertNull(ReflectionTestUtils.getField(indexer, "scheduler"));
+    indexer.shutdown();
+  }
+}
@@ -0,0 +1,35 @@
+package io.openaev.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openaev.engine.model.tag.EsTag;
+import io.openaev.engine.model.team.EsTeam;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Engine model mapping version tests")
+class EsModelTest {
+
+  @Test
+  @DisplayName("Mapping version is stable for a same model")
+  void mappingVersionIsStable() {
+    EsModel<EsTag> first = new EsModel<>(EsTag.class, (from, afterId) -> List.of());
+    EsModel<EsTag> second = new EsModel<>(EsTag.class, (from, afterId) -> List.of());
+
+    assertEquals(first.getMappingVersion("1.0"), second.getMappingVersion("1.0"));
+    assertTrue(first.getMappingVersion("1.0").startsWith("1.0-"));
+  }
+
+  @Test
+  @DisplayName("Mapping version changes with the fields or the global model version")
+  void mappingVersionChanges() {
+    EsModel<EsTag> tag = new EsModel<>(EsTag.class, (from, afterId) -> List.of());
+    EsModel<EsTeam> team = new EsModel<>(EsTeam.class, (from, afterId) -> List.of());
+
+    assertNotEquals(tag.getMappingVersion("1.0"), team.getMappingVersion("1.0"));
+    assertNotEquals(tag.getMappingVersion("1.0"), tag.getMappingVersion("2.0"));
+  }
+}
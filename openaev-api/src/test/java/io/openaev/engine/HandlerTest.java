@@ -0,0 +1,102 @@
+package io.openaev.engine;
+
+import static io.openaev.utils.Constants.INDEXING_RECORD_SET_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.openaev.engine.model.tag.EsTag;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Indexing handler streaming tests")
+class HandlerTest {
+
+  private static EsTag tag(String id, long epochSecond) {
+    EsTag tag = new EsTag();
+    tag.setBase_id(id);
+    tag.setBase_updated_at(Instant.ofEpochSecond(epochSecond));
+    return tag;
+  }
+
+  private static EsTag tag(long epochSecond) {
+    return tag(String.format("%06d", epochSecond), epochSecond);
+  }
+
+  /** Handler backed by an in-memory table, mimicking the findForIndexing queries. */
+  private static class InMemoryHandler implements Handler<EsTag> {
+    private final List<EsTag> table;
+    private final List<Instant> calls = new ArrayList<>();
+
+    InMemoryHandler(int size) {
+      this(IntStream.rangeClosed(1, size).mapToObj(HandlerTest::tag).toList());
+    }
+
+    InMemoryHandler(List<EsTag> table) {
+      this.table = table;
+    }
+
+    @Override
+    public List<EsTag> fetch(Instant from, String afterId) {
+      calls.add(from);
+      Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
+      return table.stream()
+          .filter(
+              t ->
+                  t.getBase_updated_at().isAfter(queryFrom)
+                      || (afterId != null
+                          && t.getBase_updated_at().equals(queryFrom)
+                          && t.getBase_id().compareTo(afterId) > 0))
+          .limit(INDEXING_RECORD_SET_SIZE)
+          .toList();
+    }
+  }
+
+  @Test
+  @DisplayName("stream should walk the whole delta page by page")
+  void streamShouldWalkWholeDelta() {
+    InMemoryHandler handler = new InMemoryHandler(INDEXING_RECORD_SET_SIZE * 2 + 10);
+
+    List<List<EsTag>> pages = handler.stream(null).toList();
+
+    assertEquals(3, pages.size());
+    assertEquals(INDEXING_RECORD_SET_SIZE * 2 + 10, pages.stream().mapToInt(List::size).sum());
+    assertEquals(3, handler.calls.size());
+  }
+
+  @Test
+  @DisplayName("stream should fetch the next page only when consumed")
+  void streamShouldBeLazy() {
+    InMemoryHandler handler = new InMemoryHandler(INDEXING_RECORD_SET_SIZE * 3);
+
+    handler.stream(null).findFirst();
+
+    assertEquals(1, handler.calls.size());
+  }
+
+  @Test
+  @DisplayName("stream should be empty when up to date")
+  void streamShouldBeEmptyWhenUpToDate() {
+    InMemoryHandler handler = new InMemoryHandler(10);
+
+    assertEquals(0, handler.stream(Instant.ofEpochSecond(10)).count());
+  }
+
+  @Test
+  @DisplayName("stream should not skip the documents sharing the updated_at of a page end")
+  void streamShouldWalkTiedDocuments() {
+    List<EsTag> table = new ArrayList<>();
+    IntStream.range(0, INDEXING_RECORD_SET_SIZE + 10)
+        .mapToObj(i -> tag(String.format("tie-%06d", i), 1))
+        .forEach(table::add);
+    table.add(tag(2));
+    InMemoryHandler handler = new InMemoryHandler(table);
+
+    List<EsTag> indexed = handler.stream(null).flatMap(List::stream).toList();
+
+    assertEquals(table, indexed);
+    assertEquals(2, handler.calls.size());
+  }
+}
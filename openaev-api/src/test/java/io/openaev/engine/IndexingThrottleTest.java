@@ -0,0 +1,68 @@
+package io.openaev.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openaev.config.EngineConfig;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Indexing throttle tests")
+class IndexingThrottleTest {
+
+  private IndexingThrottle indexingThrottle;
+
+  @BeforeEach
+  void setUp() {
+    EngineConfig engineConfig = new EngineConfig();
+    engineConfig.setIndexingMaxInFlightBytes(100);
+    indexingThrottle = new IndexingThrottle(engineConfig);
+  }
+
+  @Test
+  @DisplayName("acquire should cap a bulk bigger than the budget")
+  void acquireShouldCapOversizedBulk() throws InterruptedException {
+    long reserved = indexingThrottle.acquire(1000);
+
+    assertEquals(100, reserved);
+    assertEquals(100, indexingThrottle.getInFlightBytes());
+    indexingThrottle.release(reserved);
+    assertEquals(0, indexingThrottle.getInFlightBytes());
+  }
+
+  @Test
+  @DisplayName("acquire should wait for budget to be released")
+  void acquireShouldWaitForBudget() throws Exception {
+    long first = indexingThrottle.acquire(80);
+    CompletableFuture<Long> second =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return indexingThrottle.acquire(50);
+              } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+    indexingThrottle.release(first);
+    assertEquals(50, second.get(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("rejected should pause acquisitions until the backoff is over")
+  void rejectedShouldPause() throws InterruptedException {
+    indexingThrottle.rejected();
+    long start = System.nanoTime();
+
+    indexingThrottle.release(indexingThrottle.acquire(10));
+
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+    assertEquals(1, indexingThrottle.getConsecutiveRejections());
+    indexingThrottle.accepted();
+    assertEquals(0, indexingThrottle.getConsecutiveRejections());
+  }
+}
@@ -0,0 +1,78 @@
+package io.openaev.engine.model.inject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.openaev.IntegrationTest;
+import io.openaev.database.model.Inject;
+import io.openaev.utils.fixtures.InjectFixture;
+import io.openaev.utils.fixtures.composers.InjectComposer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@DisplayName("Inject indexing handler tests")
+class InjectHandlerTest extends IntegrationTest {
+
+  @Autowired private InjectHandler injectHandler;
+  @Autowired private InjectComposer injectComposer;
+
+  private Inject parent;
+  private Instant changed;
+
+  // A parent inject unchanged for a day, whose dependency on a child changed an hour ago
+  @BeforeEach
+  void setUp() {
+    parent = injectComposer.forInject(InjectFixture.getDefaultInject()).persist().get();
+    Inject child =
+        injectComposer
+            .forInject(InjectFixture.getDefaultInject())
+            .withDependsOn(parent)
+            .persist()
+            .get();
+    entityManager.flush();
+    changed = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+    entityManager
+        .createNativeQuery("UPDATE injects SET inject_updated_at = :old WHERE inject_id IN (:ids)")
+        .setParameter("old", Instant.now().minus(1, ChronoUnit.DAYS))
+        .setParameter("ids", List.of(parent.getId(), child.getId()))
+        .executeUpdate();
+    entityManager
+        .createNativeQuery(
+            "UPDATE injects_dependencies SET dependency_updated_at = :changed "
+                + "WHERE inject_parent_id = :parent")
+        .setParameter("changed", changed)
+        .setParameter("parent", parent.getId())
+        .executeUpdate();
+  }
+
+  @Test
+  @DisplayName("An inject whose children changed is ordered at the date of their change")
+  void childChangeOrdersTheInject() {
+    List<EsInject> page = injectHandler.fetch(changed.minusSeconds(60), null);
+
+    assertThat(page)
+        .filteredOn(inject -> inject.getBase_id().equals(parent.getId()))
+        .singleElement()
+        .extracting(EsInject::getBase_updated_at)
+        .isEqualTo(changed);
+  }
+
+  @Test
+  @DisplayName("A page starting after an inject whose children changed does not return it again")
+  void nextPageSkipsTheInject() {
+    assertThat(injectHandler.fetch(changed, parent.getId()))
+        .extracting(EsInject::getBase_id)
+        .doesNotContain(parent.getId());
+    assertThat(
+            injectHandler.stream(changed.minusSeconds(60))
+                .flatMap(List::stream)
+                .map(EsInject::getBase_id))
+        .containsOnlyOnce(parent.getId());
+  }
+}
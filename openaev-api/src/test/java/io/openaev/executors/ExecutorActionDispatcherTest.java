@@ -0,0 +1,153 @@
+package io.openaev.executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Executor action dispatcher tests")
+class ExecutorActionDispatcherTest {
+
+  private static final String EXECUTOR = "EDR";
+
+  private SimpleMeterRegistry meterRegistry;
+  private ExecutorActionDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    // A burst of 2 batches, then one every 10 seconds
+    dispatcher = new ExecutorActionDispatcher(meterRegistry, 0.1, 0.1, 2, 4, 100);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dispatcher.shutdown();
+  }
+
+  private static List<Runnable> batches(int count, AtomicInteger sent, CountDownLatch latch) {
+    return IntStream.range(0, count)
+        .<Runnable>mapToObj(
+            i ->
+                () -> {
+                  sent.incrementAndGet();
+                  latch.countDown();
+                })
+        .toList();
+  }
+
+  @Test
+  @DisplayName("A burst of batches is sent at once, the next ones at the rate of the executor")
+  void burstThenRate() throws InterruptedException {
+    AtomicInteger sent = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(2);
+
+    dispatcher.dispatch(EXECUTOR, "inject-id", batches(4, sent, latch));
+
+    assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    Thread.sleep(200);
+    assertThat(sent.get()).isEqualTo(2);
+    assertThat(meterRegistry.get("openaev.executor.dispatch.pending").gauge().value()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("An exhausted API quota holds the dispatch until its reset")
+  void exhaustedQuota() throws InterruptedException {
+    AtomicInteger sent = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(1);
+
+    dispatcher.onRateLimit(EXECUTOR, 100, 0, Instant.now().plusSeconds(60));
+    dispatcher.dispatch(EXECUTOR, "inject-id", batches(1, sent, latch));
+
+    assertThat(latch.await(500, TimeUnit.MILLISECONDS)).isFalse();
+    assertThat(sent.get()).isZero();
+  }
+
+  @Test
+  @DisplayName("Piling up implant callbacks hold the dispatch")
+  void callbackBacklog() throws InterruptedException {
+    AtomicInteger backlog = new AtomicInteger(1000);
+    Gauge.builder("openaev.queue.depth", backlog, AtomicInteger::get)
+        .tag("queue", "inject-trace")
+        .register(meterRegistry);
+    AtomicInteger sent = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(1);
+
+    dispatcher.dispatch(EXECUTOR, "inject-id", batches(1, sent, latch));
+
+    assertThat(latch.await(500, TimeUnit.MILLISECONDS)).isFalse();
+    backlog.set(0);
+    assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @DisplayName("The rate only grows over the configured one once the API reported its quota")
+  void rateGrowsWithReportedQuota() throws InterruptedException {
+    ExecutorActionDispatcher growing =
+        new ExecutorActionDispatcher(new SimpleMeterRegistry(), 1, 10, 5, 4, 100);
+    try {
+      CountDownLatch unreported = new CountDownLatch(5);
+      growing.dispatch(EXECUTOR, "inject-id", batches(5, new AtomicInteger(), unreported));
+      assertThat(unreported.await(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(growing.rate(EXECUTOR)).isEqualTo(1);
+
+      growing.onRateLimit(EXECUTOR, 100, 100, null);
+      CountDownLatch reported = new CountDownLatch(1);
+      growing.dispatch(EXECUTOR, "inject-id", batches(1, new AtomicInteger(), reported));
+      assertThat(reported.await(5, TimeUnit.SECONDS)).isTrue();
+      Thread.sleep(200);
+      assertThat(growing.rate(EXECUTOR)).isGreaterThan(1);
+    } finally {
+      growing.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("A batch is not sent while the previous ones are still in flight")
+  void boundedInFlight() throws InterruptedException {
+    ExecutorActionDispatcher bounded =
+        new ExecutorActionDispatcher(new SimpleMeterRegistry(), 0.1, 0.1, 2, 1, 100);
+    try {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch answered = new CountDownLatch(1);
+      AtomicInteger sent = new AtomicInteger();
+      CountDownLatch latch = new CountDownLatch(1);
+      Runnable slow =
+          () -> {
+            started.countDown();
+            try {
+              answered.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          };
+      bounded.dispatch(
+          EXECUTOR,
+          "inject-id",
+          List.of(
+              slow,
+              () -> {
+                sent.incrementAndGet();
+                latch.countDown();
+              }));
+
+      assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+      Thread.sleep(200);
+      assertThat(sent.get()).isZero();
+      answered.countDown();
+      assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      bounded.shutdown();
+    }
+  }
+}
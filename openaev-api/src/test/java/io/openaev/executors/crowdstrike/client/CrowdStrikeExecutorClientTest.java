@@ -0,0 +1,135 @@
+package io.openaev.executors.crowdstrike.client;
+
+import static io.openaev.integration.impl.executors.crowdstrike.CrowdStrikeExecutorIntegration.CROWDSTRIKE_EXECUTOR_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import io.openaev.authorisation.HttpClientFactory;
+import io.openaev.executors.ExecutorActionDispatcher;
+import io.openaev.executors.crowdstrike.config.CrowdStrikeExecutorConfig;
+import io.openaev.executors.crowdstrike.model.CrowdStrikeDevice;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.socket.PortFactory;
+
+@DisplayName("CrowdStrike executor client tests")
+class CrowdStrikeExecutorClientTest {
+
+  private static final String HOST_GROUP = "host-group";
+  private static final String DEVICES_PATH = "/devices/combined/host-group-members/v1";
+
+  private ClientAndServer mockServer;
+  private CrowdStrikeExecutorClient client;
+  private ExecutorActionDispatcher executorActionDispatcher;
+
+  private static String devicesPage(String... deviceIds) {
+    StringBuilder resources = new StringBuilder();
+    for (String deviceId : deviceIds) {
+      if (!resources.isEmpty()) {
+        resources.append(",");
+      }
+      resources
+          .append("{\"device_id\":\"")
+          .append(deviceId)
+          .append("\",\"hostname\":\"")
+          .append(deviceId)
+          .append("\"}");
+    }
+    return "{\"resources\":["
+        + resources
+        + "],\"meta\":{\"pagination\":{\"total\":3,\"limit\":2}},\"errors\":[]}";
+  }
+
+  @BeforeEach
+  void setUp() {
+    mockServer = new ClientAndServer(PortFactory.findFreePort());
+    CrowdStrikeExecutorConfig config = mock(CrowdStrikeExecutorConfig.class);
+    when(config.getApiUrl()).thenReturn("http://localhost:" + mockServer.getLocalPort());
+    when(config.getClientId()).thenReturn("client-id");
+    when(config.getClientSecret()).thenReturn("client-secret");
+    HttpClientFactory httpClientFactory = mock(HttpClientFactory.class);
+    when(httpClientFactory.httpClientCustom())
+        .thenAnswer(invocation -> HttpClients.createDefault());
+    executorActionDispatcher = mock(ExecutorActionDispatcher.class);
+    client = new CrowdStrikeExecutorClient(config, httpClientFactory, executorActionDispatcher);
+
+    mockServer
+        .when(request().withMethod("POST").withPath("/oauth2/token"))
+        .respond(response().withStatusCode(200).withBody("{\"access_token\":\"token\"}"));
+    mockServer
+        .when(
+            request()
+                .withMethod("GET")
+                .withPath(DEVICES_PATH)
+                .withQueryStringParameter("offset", "0"))
+        .respond(response().withStatusCode(200).withBody(devicesPage("device-1", "device-2")));
+    mockServer
+        .when(
+            request()
+                .withMethod("GET")
+                .withPath(DEVICES_PATH)
+                .withQueryStringParameter("offset", "2"))
+        .respond(
+            response()
+                .withStatusCode(200)
+                .withHeader("X-RateLimit-Limit", "6000")
+                .withHeader("X-RateLimit-Remaining", "0")
+                .withHeader("X-RateLimit-RetryAfter", "1735725600")
+                .withBody(devicesPage("device-3")));
+  }
+
+  @AfterEach
+  void tearDown() {
+    mockServer.stop();
+  }
+
+  @Test
+  @DisplayName("The devices of a host group are streamed page by page")
+  void devicesByPage() {
+    List<List<CrowdStrikeDevice>> pages = new ArrayList<>();
+
+    boolean succeeded = client.devices(HOST_GROUP, null, pages::add);
+
+    assertThat(succeeded).isTrue();
+    assertThat(pages).hasSize(2);
+    assertThat(pages.stream().flatMap(List::stream).map(CrowdStrikeDevice::getDevice_id))
+        .containsExactly("device-1", "device-2", "device-3");
+    assertThat(client.devices(HOST_GROUP)).hasSize(3);
+  }
+
+  @Test
+  @DisplayName("Only the devices modified since the previous sync are requested")
+  void devicesModifiedSince() {
+    List<List<CrowdStrikeDevice>> pages = new ArrayList<>();
+
+    client.devices(HOST_GROUP, Instant.parse("2025-01-01T10:00:00Z"), pages::add);
+
+    assertThat(
+            mockServer.retrieveRecordedRequests(
+                request()
+                    .withPath(DEVICES_PATH)
+                    .withQueryStringParameter(
+                        "filter", ".*modified_timestamp:>'2025-01-01T10:00:00Z'.*")))
+        .hasSize(2);
+  }
+
+  @Test
+  @DisplayName("The API quota reported by CrowdStrike paces the dispatch of the actions")
+  void rateLimitReported() {
+    client.devices(HOST_GROUP);
+
+    verify(executorActionDispatcher)
+        .onRateLimit(CROWDSTRIKE_EXECUTOR_NAME, 6000, 0, Instant.parse("2025-01-01T10:00:00Z"));
+  }
+}
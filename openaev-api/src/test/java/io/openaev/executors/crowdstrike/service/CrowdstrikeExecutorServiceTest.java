@@ -4,12 +4,16 @@ import static io.openaev.integration.impl.executors.crowdstrike.CrowdStrikeExecu
 import static io.openaev.integration.impl.executors.crowdstrike.CrowdStrikeExecutorIntegration.CROWDSTRIKE_EXECUTOR_TYPE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.crowdstrike.client.CrowdStrikeExecutorClient;
 import io.openaev.executors.crowdstrike.config.CrowdStrikeExecutorConfig;
@@ -22,13 +26,18 @@ import io.openaev.service.AgentService;
 import io.openaev.service.AssetGroupService;
 import io.openaev.service.EndpointService;
 import io.openaev.utils.fixtures.*;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +54,10 @@ public class CrowdstrikeExecutorServiceTest {
   @Mock private AgentService agentService;
   @Mock private ExecutorService executorService;
 
+  @Spy
+  private ExecutorActionDispatcher executorActionDispatcher =
+      new ExecutorActionDispatcher(new SimpleMeterRegistry(), 0.2, 5, 5, 4, 5000);
+
   @InjectMocks private CrowdStrikeExecutorService crowdStrikeExecutorService;
 
   @InjectMocks private CrowdStrikeExecutorContextService crowdStrikeExecutorContextService;
@@ -60,6 +73,11 @@ public class CrowdstrikeExecutorServiceTest {
     crowdstrikeExecutor.setType(CROWDSTRIKE_EXECUTOR_TYPE);
   }
 
+  @AfterEach
+  void tearDown() {
+    executorActionDispatcher.shutdown();
+  }
+
   @Test
   void test_run_crowdstrike() {
     // Init datas
@@ -70,7 +88,15 @@ public class CrowdstrikeExecutorServiceTest {
     resourcesGroups.setResources(List.of(crowdstrikeHostGroup));
     when(config.getHostGroup()).thenReturn(HOST_GROUP_CS);
     when(client.hostGroup(HOST_GROUP_CS)).thenReturn(resourcesGroups);
-    when(client.devices(HOST_GROUP_CS)).thenReturn(List.of(crowdstrikeAgent));
+    doAnswer(
+            invocation -> {
+              invocation
+                  .<Consumer<List<CrowdStrikeDevice>>>getArgument(2)
+                  .accept(List.of(crowdstrikeAgent));
+              return true;
+            })
+        .when(client)
+        .devices(eq(HOST_GROUP_CS), isNull(), any());
     // Run method to test
     crowdStrikeExecutorService.run();
     // Asserts
@@ -79,7 +105,8 @@ public class CrowdstrikeExecutorServiceTest {
     assertEquals(crowdstrikeExecutor.getType(), executorTypeCaptor.getValue());
 
     ArgumentCaptor<List<AgentRegisterInput>> inputsCaptor = ArgumentCaptor.forClass(List.class);
-    ArgumentCaptor<List<Agent>> agents = ArgumentCaptor.forClass(List.class);
+    ArgumentCaptor<EndpointService.ExecutorAgents> agents =
+        ArgumentCaptor.forClass(EndpointService.ExecutorAgents.class);
     verify(endpointService).syncAgentsEndpoints(inputsCaptor.capture(), agents.capture());
     assertEquals(1, inputsCaptor.getValue().size());
     assertEquals(0, agents.getValue().size());
@@ -90,6 +117,102 @@ public class CrowdstrikeExecutorServiceTest {
     assertEquals(HOST_GROUP_CS, assetGroupCaptor.getValue().getExternalReference());
   }
 
+  @Test
+  void test_run_crowdstrike_incremental() {
+    // Init datas
+    crowdstrikeExecutor.setId("executor-id");
+    CrowdStrikeExecutorService incrementalService =
+        new CrowdStrikeExecutorService(
+            crowdstrikeExecutor,
+            client,
+            config,
+            endpointService,
+            agentService,
+            assetGroupService,
+            executorService);
+    ResourcesGroups resourcesGroups = new ResourcesGroups();
+    CrowdStrikeHostGroup crowdstrikeHostGroup = new CrowdStrikeHostGroup();
+    crowdstrikeHostGroup.setId(HOST_GROUP_CS);
+    crowdstrikeHostGroup.setName("crowdstrike");
+    resourcesGroups.setResources(List.of(crowdstrikeHostGroup));
+    AssetGroup assetGroup = new AssetGroup();
+    assetGroup.setId("asset-group-id");
+    assetGroup.setExternalReference(HOST_GROUP_CS);
+    Endpoint endpoint = EndpointFixture.createEndpoint();
+    endpoint.setId("endpoint-id");
+    Instant lastSync = Instant.now().minus(Duration.ofMinutes(5));
+    when(config.getHostGroup()).thenReturn(HOST_GROUP_CS);
+    when(config.getApiFullSyncInterval()).thenReturn(24);
+    when(executorService.syncCursors("executor-id"))
+        .thenReturn(
+            Map.of(
+                "devices:" + HOST_GROUP_CS,
+                lastSync,
+                "devices-full:" + HOST_GROUP_CS,
+                lastSync.minus(Duration.ofHours(1))));
+    when(client.hostGroup(HOST_GROUP_CS)).thenReturn(resourcesGroups);
+    doAnswer(
+            invocation -> {
+              invocation
+                  .<Consumer<List<CrowdStrikeDevice>>>getArgument(2)
+                  .accept(List.of(crowdstrikeAgent));
+              return true;
+            })
+        .when(client)
+        .devices(eq(HOST_GROUP_CS), eq(lastSync), any());
+    when(endpointService.syncAgentsEndpoints(any(), any()))
+        .thenReturn(List.of(AgentFixture.createAgent(endpoint, "12345")));
+    when(assetGroupService.findByExternalReference(HOST_GROUP_CS))
+        .thenReturn(Optional.of(assetGroup));
+    // Run method to test
+    incrementalService.run();
+    // Asserts
+    verify(assetGroupService)
+        .addAssetsWithoutDynamicAssets("asset-group-id", List.of("endpoint-id"));
+    verify(executorService)
+        .saveSyncCursor(eq("executor-id"), eq("devices:" + HOST_GROUP_CS), any());
+    verify(executorService, never())
+        .saveSyncCursor(eq("executor-id"), eq("devices-full:" + HOST_GROUP_CS), any());
+  }
+
+  @Test
+  void test_run_crowdstrike_full_within_delete_ttl() {
+    // Init datas
+    crowdstrikeExecutor.setId("executor-id");
+    CrowdStrikeExecutorService incrementalService =
+        new CrowdStrikeExecutorService(
+            crowdstrikeExecutor,
+            client,
+            config,
+            endpointService,
+            agentService,
+            assetGroupService,
+            executorService);
+    ResourcesGroups resourcesGroups = new ResourcesGroups();
+    CrowdStrikeHostGroup crowdstrikeHostGroup = new CrowdStrikeHostGroup();
+    crowdstrikeHostGroup.setId(HOST_GROUP_CS);
+    crowdstrikeHostGroup.setName("crowdstrike");
+    resourcesGroups.setResources(List.of(crowdstrikeHostGroup));
+    Instant lastSync = Instant.now().minus(Duration.ofMinutes(5));
+    when(config.getHostGroup()).thenReturn(HOST_GROUP_CS);
+    when(config.getApiFullSyncInterval()).thenReturn(48);
+    when(executorService.syncCursors("executor-id"))
+        .thenReturn(
+            Map.of(
+                "devices:" + HOST_GROUP_CS,
+                lastSync,
+                "devices-full:" + HOST_GROUP_CS,
+                lastSync.minus(Duration.ofHours(25))));
+    when(client.hostGroup(HOST_GROUP_CS)).thenReturn(resourcesGroups);
+    when(client.devices(eq(HOST_GROUP_CS), isNull(), any())).thenReturn(true);
+    // Run method to test
+    incrementalService.run();
+    // Asserts
+    verify(client).devices(eq(HOST_GROUP_CS), isNull(), any());
+    verify(executorService)
+        .saveSyncCursor(eq("executor-id"), eq("devices-full:" + HOST_GROUP_CS), any());
+  }
+
   @Test
   void test_launchBatchExecutorSubprocess_crowdstrike()
       throws JsonProcessingException, InterruptedException {
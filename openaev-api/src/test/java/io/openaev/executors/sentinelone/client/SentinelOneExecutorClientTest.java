@@ -0,0 +1,72 @@
+package io.openaev.executors.sentinelone.client;
+
+import static io.openaev.integration.impl.executors.sentinelone.SentinelOneExecutorIntegration.SENTINELONE_EXECUTOR_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import io.openaev.authorisation.HttpClientFactory;
+import io.openaev.executors.ExecutorActionDispatcher;
+import io.openaev.executors.sentinelone.config.SentinelOneExecutorConfig;
+import java.time.Instant;
+import java.util.List;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.socket.PortFactory;
+
+@DisplayName("SentinelOne executor client tests")
+class SentinelOneExecutorClientTest {
+
+  private ClientAndServer mockServer;
+  private SentinelOneExecutorClient client;
+  private ExecutorActionDispatcher executorActionDispatcher;
+
+  @BeforeEach
+  void setUp() {
+    mockServer = new ClientAndServer(PortFactory.findFreePort());
+    SentinelOneExecutorConfig config = mock(SentinelOneExecutorConfig.class);
+    when(config.getApiUrl()).thenReturn("http://localhost:" + mockServer.getLocalPort() + "/");
+    when(config.getApiKey()).thenReturn("api-key");
+    HttpClientFactory httpClientFactory = mock(HttpClientFactory.class);
+    when(httpClientFactory.httpClientCustom())
+        .thenAnswer(invocation -> HttpClients.createDefault());
+    executorActionDispatcher = mock(ExecutorActionDispatcher.class);
+    client = new SentinelOneExecutorClient(config, httpClientFactory, executorActionDispatcher);
+
+    mockServer
+        .when(request().withMethod("POST").withPath("/remote-scripts/execute"))
+        .respond(
+            response()
+                .withStatusCode(429)
+                .withHeader("Retry-After", "30")
+                .withBody("{\"errors\":[]}"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    mockServer.stop();
+  }
+
+  @Test
+  @DisplayName("A call rejected by SentinelOne holds the dispatch of the actions")
+  void rejectionReported() {
+    Instant before = Instant.now();
+
+    client.executeScript(List.of("agent-1"), "script-id", "whoami");
+
+    ArgumentCaptor<Instant> resetAt = ArgumentCaptor.forClass(Instant.class);
+    verify(executorActionDispatcher).onRejected(SENTINELONE_EXECUTOR_NAME);
+    verify(executorActionDispatcher)
+        .onRateLimit(eq(SENTINELONE_EXECUTOR_NAME), eq(0L), eq(0L), resetAt.capture());
+    assertThat(resetAt.getValue()).isAfterOrEqualTo(before.plusSeconds(30));
+  }
+}
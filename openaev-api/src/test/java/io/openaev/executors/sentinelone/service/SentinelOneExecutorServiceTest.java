@@ -7,9 +7,11 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.model.AgentRegisterInput;
 import io.openaev.executors.sentinelone.client.SentinelOneExecutorClient;
@@ -21,12 +23,15 @@ import io.openaev.service.EndpointService;
 import io.openaev.utils.fixtures.*;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +46,10 @@ public class SentinelOneExecutorServiceTest {
   @Mock private AgentService agentService;
   @Mock private ExecutorService executorService;
 
+  @Spy
+  private ExecutorActionDispatcher executorActionDispatcher =
+      new ExecutorActionDispatcher(new SimpleMeterRegistry(), 0.2, 5, 5, 4, 5000);
+
   @InjectMocks private SentinelOneExecutorService sentinelOneExecutorService;
 
   @InjectMocks private SentinelOneExecutorContextService sentinelOneExecutorContextService;
@@ -56,10 +65,24 @@ public class SentinelOneExecutorServiceTest {
     sentinelOneExecutor.setType(SENTINELONE_EXECUTOR_TYPE);
   }
 
+  @AfterEach
+  void tearDown() {
+    executorActionDispatcher.shutdown();
+  }
+
   @Test
   void test_run_sentinelone() {
     // Init datas
-    when(client.agents()).thenReturn(Set.of(sentinelOneAgent));
+    when(client.filters()).thenReturn(List.of("&accountIds=account"));
+    doAnswer(
+            invocation -> {
+              invocation
+                  .<Consumer<List<SentinelOneAgent>>>getArgument(1)
+                  .accept(List.of(sentinelOneAgent));
+              return true;
+            })
+        .when(client)
+        .agents(eq("&accountIds=account"), any());
     // Run method to test
     sentinelOneExecutorService.run();
     // Asserts
@@ -68,7 +91,8 @@ public class SentinelOneExecutorServiceTest {
     assertEquals(sentinelOneExecutor.getType(), executorTypeCaptor.getValue());
 
     ArgumentCaptor<List<AgentRegisterInput>> inputsCaptor = ArgumentCaptor.forClass(List.class);
-    ArgumentCaptor<List<Agent>> agents = ArgumentCaptor.forClass(List.class);
+    ArgumentCaptor<EndpointService.ExecutorAgents> agents =
+        ArgumentCaptor.forClass(EndpointService.ExecutorAgents.class);
     verify(endpointService).syncAgentsEndpoints(inputsCaptor.capture(), agents.capture());
     assertEquals(1, inputsCaptor.getValue().size());
     assertEquals(0, agents.getValue().size());
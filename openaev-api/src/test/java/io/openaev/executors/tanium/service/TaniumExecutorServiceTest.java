@@ -5,9 +5,11 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.model.AgentRegisterInput;
 import io.openaev.executors.tanium.client.TaniumExecutorClient;
@@ -22,12 +24,15 @@ import io.openaev.service.EndpointService;
 import io.openaev.utils.fixtures.*;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +49,10 @@ public class TaniumExecutorServiceTest {
   @Mock private AgentService agentService;
   @Mock private ExecutorService executorService;
 
+  @Spy
+  private ExecutorActionDispatcher executorActionDispatcher =
+      new ExecutorActionDispatcher(new SimpleMeterRegistry(), 0.2, 5, 5, 4, 5000);
+
   @InjectMocks private TaniumExecutorService taniumExecutorService;
 
   @InjectMocks private TaniumExecutorContextService taniumExecutorContextService;
@@ -59,6 +68,11 @@ public class TaniumExecutorServiceTest {
     taniumExecutor.setType(TaniumExecutorIntegration.TANIUM_EXECUTOR_TYPE);
   }
 
+  @AfterEach
+  void tearDown() {
+    executorActionDispatcher.shutdown();
+  }
+
   @Test
   void test_run_tanium() {
     // Init datas
@@ -69,7 +83,15 @@ public class TaniumExecutorServiceTest {
     dataComputerGroup.setComputerGroup(computerGroup);
     when(config.getComputerGroupId()).thenReturn(HOST_GROUP_TANIUM);
     when(client.computerGroup(HOST_GROUP_TANIUM)).thenReturn(dataComputerGroup);
-    when(client.endpoints(HOST_GROUP_TANIUM)).thenReturn(List.of(taniumEndpoint));
+    doAnswer(
+            invocation -> {
+              invocation
+                  .<Consumer<List<NodeEndpoint>>>getArgument(1)
+                  .accept(List.of(taniumEndpoint));
+              return null;
+            })
+        .when(client)
+        .endpoints(eq(HOST_GROUP_TANIUM), any());
     // Run method to test
     taniumExecutorService.run();
     // Asserts
@@ -78,7 +100,8 @@ public class TaniumExecutorServiceTest {
     assertEquals(taniumExecutor.getType(), executorTypeCaptor.getValue());
 
     ArgumentCaptor<List<AgentRegisterInput>> inputsCaptor = ArgumentCaptor.forClass(List.class);
-    ArgumentCaptor<List<Agent>> agents = ArgumentCaptor.forClass(List.class);
+    ArgumentCaptor<EndpointService.ExecutorAgents> agents =
+        ArgumentCaptor.forClass(EndpointService.ExecutorAgents.class);
     verify(endpointService).syncAgentsEndpoints(inputsCaptor.capture(), agents.capture());
     assertEquals(1, inputsCaptor.getValue().size());
     assertEquals(0, agents.getValue().size());
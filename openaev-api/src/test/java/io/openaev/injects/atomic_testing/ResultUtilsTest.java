@@ -7,12 +7,15 @@ import static io.openaev.expectation.ExpectationType.VULNERABILITY;
 import static io.openaev.utils.fixtures.ExpectationResultByTypeFixture.createDefaultExpectationResultsByType;
 import static io.openaev.utils.fixtures.RawInjectExpectationFixture.createDefaultInjectExpectation;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openaev.IntegrationTest;
 import io.openaev.database.model.InjectExpectation;
+import io.openaev.database.raw.RawExerciseScore;
 import io.openaev.database.raw.RawInjectExpectation;
+import io.openaev.database.repository.ExerciseRepository;
 import io.openaev.database.repository.InjectExpectationRepository;
 import io.openaev.database.repository.InjectRepository;
 import io.openaev.utils.InjectExpectationResultUtils.ExpectationResultsByType;
@@ -35,6 +38,7 @@ class ResultUtilsTest extends IntegrationTest {
   @Mock private InjectRepository injectRepository;
   @Mock private ObjectMapper objectMapper;
   @Mock private InjectUtils injectUtils;
+  @Mock private ExerciseRepository exerciseRepository;
 
   private InjectExpectationMapper injectExpectationMapper;
   private ResultUtils resultUtils;
@@ -43,7 +47,9 @@ class ResultUtilsTest extends IntegrationTest {
   void before() {
     injectExpectationMapper =
         new InjectExpectationMapper(injectRepository, objectMapper, injectUtils);
-    resultUtils = new ResultUtils(injectExpectationRepository, injectExpectationMapper);
+    resultUtils =
+        new ResultUtils(
+            injectExpectationRepository, injectExpectationMapper, exerciseRepository, objectMapper);
   }
 
   @Test
@@ -107,4 +113,131 @@ class ResultUtilsTest extends IntegrationTest {
 
     assertEquals(expectedPreventionResult1, result);
   }
+
+  @Test
+  @DisplayName("Should read the stored global scores of an exercise when up to date")
+  void getStoredExerciseGlobalScores() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    ResultUtils storingResultUtils =
+        new ResultUtils(
+            injectExpectationRepository, injectExpectationMapper, exerciseRepository, mapper);
+    List<ExpectationResultsByType> stored =
+        List.of(
+            createDefaultExpectationResultsByType(
+                DETECTION, InjectExpectation.EXPECTATION_STATUS.SUCCESS, 3, 0, 0, 0));
+    RawExerciseScore score =
+        rawExerciseScore("exercise", 4L, 4L, mapper.writeValueAsString(stored));
+    when(exerciseRepository.rawScoresByExerciseIds(Set.of("exercise"))).thenReturn(List.of(score));
+
+    var result = storingResultUtils.computeExerciseGlobalResults("exercise");
+
+    assertEquals(stored, result);
+    verify(injectExpectationRepository, never()).rawForComputeGlobalByExerciseIds(any());
+    verify(exerciseRepository, never()).saveScores(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Should compute the global scores of the outdated exercises without storing them")
+  void computeOutdatedExerciseGlobalScores() {
+    ObjectMapper mapper = new ObjectMapper();
+    ResultUtils storingResultUtils =
+        new ResultUtils(
+            injectExpectationRepository, injectExpectationMapper, exerciseRepository, mapper);
+    // Exercise 1 changed since its last computation, exercise 2 never computed
+    RawExerciseScore score = rawExerciseScore("exercise1", 5L, 4L, "[]");
+    when(exerciseRepository.rawScoresByExerciseIds(Set.of("exercise1", "exercise2")))
+        .thenReturn(List.of(score));
+    when(injectExpectationRepository.rawForComputeGlobalByExerciseIds(
+            Set.of("exercise1", "exercise2")))
+        .thenReturn(
+            List.of(
+                createDefaultInjectExpectation(
+                    "exercise1",
+                    "inject1",
+                    InjectExpectation.EXPECTATION_TYPE.DETECTION.toString(),
+                    100.0,
+                    100.0)));
+
+    var result =
+        storingResultUtils.computeExercisesGlobalResults(List.of("exercise1", "exercise2"));
+
+    assertEquals(
+        List.of(
+            createDefaultExpectationResultsByType(
+                DETECTION, InjectExpectation.EXPECTATION_STATUS.SUCCESS, 1, 0, 0, 0)),
+        result.get("exercise1"));
+    // Without inject, nothing to build the results from
+    assertEquals(List.of(), result.get("exercise2"));
+    verify(exerciseRepository, never()).saveScores(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Should build the global scores of an exercise without expectation from its injects")
+  void buildExerciseGlobalScoresFromInjects() {
+    ObjectMapper mapper = new ObjectMapper();
+    InjectExpectationMapper contentMapper =
+        new InjectExpectationMapper(injectRepository, mapper, injectUtils);
+    ResultUtils storingResultUtils =
+        new ResultUtils(injectExpectationRepository, contentMapper, exerciseRepository, mapper);
+    RawExerciseScore score = rawExerciseScore("exercise", 2L, 2L, "[]");
+    when(exerciseRepository.rawScoresByExerciseIds(Set.of("exercise"))).thenReturn(List.of(score));
+    when(exerciseRepository.findInjectIdsByExerciseIds(Set.of("exercise")))
+        .thenReturn(List.<Object[]>of(new Object[] {"exercise", "inject"}));
+    when(injectRepository.findContentsByInjectIds(Set.of("inject")))
+        .thenReturn(List.of("{\"expectations\":[{\"expectation_type\":\"DETECTION\"}]}"));
+
+    var result = storingResultUtils.computeExerciseGlobalResults("exercise");
+
+    assertEquals(1, result.size());
+    assertEquals(DETECTION, result.getFirst().type());
+  }
+
+  @Test
+  @DisplayName("Should store the global scores of the outdated exercises for their read version")
+  void storeOutdatedExerciseGlobalScores() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    ResultUtils storingResultUtils =
+        new ResultUtils(
+            injectExpectationRepository, injectExpectationMapper, exerciseRepository, mapper);
+    // Exercise 1 changed since its last computation, exercise 2 never computed
+    List<RawExerciseScore> outdated =
+        List.of(
+            rawExerciseScore("exercise1", 5L, 4L, null),
+            rawExerciseScore("exercise2", 1L, 0L, null));
+    when(exerciseRepository.rawOutdatedScores(10)).thenReturn(outdated);
+    when(injectExpectationRepository.rawForComputeGlobalByExerciseIds(
+            Set.of("exercise1", "exercise2")))
+        .thenReturn(
+            List.of(
+                createDefaultInjectExpectation(
+                    "exercise1",
+                    "inject1",
+                    InjectExpectation.EXPECTATION_TYPE.DETECTION.toString(),
+                    100.0,
+                    100.0)));
+
+    int computed = storingResultUtils.storeOutdatedExercisesGlobalResults(10);
+
+    List<ExpectationResultsByType> expected =
+        List.of(
+            createDefaultExpectationResultsByType(
+                DETECTION, InjectExpectation.EXPECTATION_STATUS.SUCCESS, 1, 0, 0, 0));
+    assertEquals(2, computed);
+    verify(exerciseRepository).deleteScoreChanges(Set.of("exercise1", "exercise2"));
+    verify(exerciseRepository)
+        .saveScores(
+            new String[] {"exercise1", "exercise2"},
+            new Long[] {5L, 1L},
+            new String[] {mapper.writeValueAsString(expected), "[]"});
+  }
+
+  private static RawExerciseScore rawExerciseScore(
+      String exerciseId, Long version, Long computedVersion, String results) {
+    RawExerciseScore score = mock(RawExerciseScore.class);
+    lenient().when(score.getExercise_id()).thenReturn(exerciseId);
+    lenient().when(score.getExercise_score_version()).thenReturn(version);
+    lenient().when(score.getExercise_score_computed_version()).thenReturn(computedVersion);
+    lenient().when(score.getExercise_score_results()).thenReturn(results);
+    return score;
+  }
 }
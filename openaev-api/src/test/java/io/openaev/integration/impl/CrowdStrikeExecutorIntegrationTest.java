@@ -9,6 +9,7 @@ import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.database.repository.CatalogConnectorRepository;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorContextService;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.crowdstrike.client.CrowdStrikeExecutorClient;
@@ -62,6 +63,7 @@ public class CrowdStrikeExecutorIntegrationTest {
   @Autowired private CrowdStrikeExecutorConfig crowdStrikeExecutorConfig;
   @Autowired private EncryptionFactory encryptionFactory;
   @Autowired private HttpClientFactory httpClientFactory;
+  @Autowired private ExecutorActionDispatcher executorActionDispatcher;
   @Autowired private BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder;
 
   @Autowired
@@ -84,7 +86,8 @@ public class CrowdStrikeExecutorIntegrationTest {
         crowdStrikeExecutorConfigurationMigration,
         fileService,
         baseIntegrationConfigurationBuilder,
-        httpClientFactory);
+        httpClientFactory,
+        executorActionDispatcher);
   }
 
   @Test
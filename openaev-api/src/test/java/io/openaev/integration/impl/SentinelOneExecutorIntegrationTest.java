@@ -9,6 +9,7 @@ import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.database.repository.CatalogConnectorRepository;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorContextService;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.sentinelone.client.SentinelOneExecutorClient;
@@ -62,6 +63,7 @@ public class SentinelOneExecutorIntegrationTest {
   @Autowired private SentinelOneExecutorConfig sentinelOneExecutorConfig;
   @Autowired private EncryptionFactory encryptionFactory;
   @Autowired private HttpClientFactory httpClientFactory;
+  @Autowired private ExecutorActionDispatcher executorActionDispatcher;
   @Autowired private BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder;
 
   @Autowired
@@ -84,7 +86,8 @@ public class SentinelOneExecutorIntegrationTest {
         taskScheduler,
         fileService,
         baseIntegrationConfigurationBuilder,
-        httpClientFactory);
+        httpClientFactory,
+        executorActionDispatcher);
   }
 
   @Test
@@ -9,6 +9,7 @@ import io.openaev.config.cache.LicenseCacheManager;
 import io.openaev.database.model.*;
 import io.openaev.database.repository.CatalogConnectorRepository;
 import io.openaev.ee.Ee;
+import io.openaev.executors.ExecutorActionDispatcher;
 import io.openaev.executors.ExecutorContextService;
 import io.openaev.executors.ExecutorService;
 import io.openaev.executors.tanium.client.TaniumExecutorClient;
@@ -63,6 +64,7 @@ public class TaniumExecutorIntegrationTest {
   @Autowired private EncryptionFactory encryptionFactory;
   @Autowired private BaseIntegrationConfigurationBuilder baseIntegrationConfigurationBuilder;
   @Autowired private HttpClientFactory httpClientFactory;
+  @Autowired private ExecutorActionDispatcher executorActionDispatcher;
 
   @Autowired private TaniumExecutorConfigurationMigration taniumExecutorConfigurationMigration;
 
@@ -83,7 +85,8 @@ public class TaniumExecutorIntegrationTest {
         taskScheduler,
         fileService,
         baseIntegrationConfigurationBuilder,
-        httpClientFactory);
+        httpClientFactory,
+        executorActionDispatcher);
   }
 
   @Test
@@ -49,6 +49,7 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 @TestInstance(PER_CLASS)
 class ExpectationApiTest extends IntegrationTest {
@@ -609,6 +610,101 @@ class ExpectationApiTest extends IntegrationTest {
       assertEquals(savedAgent1.getId(), JsonPath.read(response, "$.[0].inject_expectation_agent"));
     }
 
+    /**
+     * Polls the pending DETECTION expectations of a source one page at a time, resuming from the
+     * cursor of the last line until no expectation is left.
+     */
+    @Test
+    @DisplayName("Poll pending Detection Inject Expectations for a Specific Source")
+    void pollPendingInjectDetectionExpectationsForSource() throws Exception {
+      // -- PREPARE --
+      ExecutableInject executableInject =
+          new ExecutableInject(
+              false,
+              true,
+              savedInject,
+              emptyList(),
+              List.of(savedEndpoint),
+              emptyList(),
+              emptyList());
+      List<Expectation> detectionExpectations =
+          createDetectionExpectations(
+              List.of(savedAgent1, savedAgent2),
+              savedEndpoint,
+              savedAssetGroup,
+              DEFAULT_TECHNICAL_EXPECTATION_EXPIRATION_TIME);
+
+      injectExpectationService.buildAndSaveInjectExpectations(
+          executableInject, detectionExpectations);
+
+      // -- EXECUTE --
+      String firstPage = pollPendingDetections(null);
+      String secondPage = pollPendingDetections(JsonPath.read(firstPage.strip(), "$.cursor"));
+      String lastPage = pollPendingDetections(JsonPath.read(secondPage.strip(), "$.cursor"));
+
+      // -- ASSERT --
+      assertEquals(1, firstPage.lines().count());
+      assertEquals(1, secondPage.lines().count());
+      assertTrue(lastPage.isBlank());
+      List<String> agents =
+          List.of(
+              JsonPath.read(firstPage.strip(), "$.inject_expectation_agent"),
+              JsonPath.read(secondPage.strip(), "$.inject_expectation_agent"));
+      assertTrue(agents.containsAll(List.of(savedAgent1.getId(), savedAgent2.getId())));
+      assertEquals(DETECTION.name(), JsonPath.read(firstPage.strip(), "$.inject_expectation_type"));
+    }
+
+    @Test
+    @DisplayName("Poll the Detection Inject Expectations scored by another collector")
+    void pollPendingInjectDetectionExpectationsScoredByAnotherCollector() throws Exception {
+      // -- PREPARE --
+      ExecutableInject executableInject = newExecutableInjectWithTargets(true);
+      List<Expectation> detectionExpectations =
+          createDetectionExpectations(
+              List.of(savedAgent1),
+              savedEndpoint,
+              savedAssetGroup,
+              DEFAULT_TECHNICAL_EXPECTATION_EXPIRATION_TIME);
+      injectExpectationService.buildAndSaveInjectExpectations(
+          executableInject, detectionExpectations);
+      InjectExpectation agentExpectation =
+          injectExpectationRepository
+              .findAllByInjectAndAgent(savedInject.getId(), savedAgent1.getId())
+              .getFirst();
+
+      // -- EXECUTE --
+      callUpdateInjectExpectation(
+          agentExpectation,
+          getInjectExpectationUpdateInput(savedCollector2.getId(), DETECTION.successLabel, true));
+
+      // -- ASSERT --
+      // Still pending for the collector without result, no longer for the one which scored it
+      String pending = pollPendingDetections(savedCollector, null);
+      assertEquals(1, pending.lines().count());
+      assertEquals(
+          agentExpectation.getId(), JsonPath.read(pending.strip(), "$.inject_expectation_id"));
+      assertTrue(pollPendingDetections(savedCollector2, null).isBlank());
+    }
+
+    private String pollPendingDetections(String since) throws Exception {
+      return pollPendingDetections(savedCollector, since);
+    }
+
+    private String pollPendingDetections(Collector collector, String since) throws Exception {
+      MockHttpServletRequestBuilder request =
+          get(INJECTS_EXPECTATIONS_URI + "/detection/" + collector.getId() + "/pending")
+              .param("limit", "1")
+              .accept(MediaType.APPLICATION_NDJSON);
+      if (since != null) {
+        request.param("since", since);
+      }
+      return mvc.perform(request)
+          .andExpect(status().is2xxSuccessful())
+          .andReturn()
+          .getResponse()
+          .getContentAsString();
+    }
+
     /**
      * Verifies propagation rules with two agents: - Do not update endpoint/asset-group levels until
      * all agent-level expectations are filled. - Once a failure exists for another agent,
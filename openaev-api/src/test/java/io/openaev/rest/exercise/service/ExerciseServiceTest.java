@@ -72,7 +72,6 @@ class ExerciseServiceTest extends IntegrationTest {
 
   @Mock private AssetRepository assetRepository;
   @Mock private AssetGroupRepository assetGroupRepository;
-  @Mock private InjectExpectationRepository injectExpectationRepository;
   @Mock private ArticleRepository articleRepository;
   @Mock private ExerciseRepository exerciseRepository;
   @Mock private TeamRepository teamRepository;
@@ -112,7 +111,6 @@ class ExerciseServiceTest extends IntegrationTest {
             licenseCacheManager,
             assetRepository,
             assetGroupRepository,
-            injectExpectationRepository,
             articleRepository,
             exerciseRepository,
             teamRepository,
@@ -133,21 +131,11 @@ class ExerciseServiceTest extends IntegrationTest {
     String exerciseId1 = "3e95b1ea-8957-4452-b0f7-edf4003eaa98";
     String exerciseId2 = "c740797e-e34c-4066-a16c-a8baad9058f9";
 
-    String injectId1 = "103da74a-055b-40e2-a934-9605cd3e4191";
-    String injectId2 = "1838c23d-3bbe-4d8e-ba40-aa8b5fd1614d";
-    String injectId3 = "0f728b68-ec1f-4a5d-a2e5-53d897c7a7fd";
-    String injectId4 = "bf05a17a-af6b-4238-9c3e-296db7f07d00";
-
-    Set<String> exercise1InjectIds = Set.of(injectId1, injectId2, injectId3);
-    Set<String> exercise2InjectIds = Set.of(injectId4);
-
-    when(exerciseRepository.findInjectsByExercise(exerciseId1)).thenReturn(exercise1InjectIds);
-    when(exerciseRepository.findInjectsByExercise(exerciseId2)).thenReturn(exercise2InjectIds);
-
-    when(resultUtils.computeGlobalExpectationResults(exercise1InjectIds))
-        .thenReturn(ExpectationResultsByTypeFixture.exercise1GlobalScores);
-    when(resultUtils.computeGlobalExpectationResults(exercise2InjectIds))
-        .thenReturn(ExpectationResultsByTypeFixture.exercise2GlobalScores);
+    when(resultUtils.computeExercisesGlobalResults(List.of(exerciseId1, exerciseId2)))
+        .thenReturn(
+            Map.of(
+                exerciseId1, ExpectationResultsByTypeFixture.exercise1GlobalScores,
+                exerciseId2, ExpectationResultsByTypeFixture.exercise2GlobalScores));
 
     var results =
         mockedExerciseService.getExercisesGlobalScores(
@@ -0,0 +1,62 @@
+package io.openaev.rest.helper.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Adaptive batch sizer tests")
+class AdaptiveBatchSizerTest {
+
+  @Test
+  @DisplayName("Idle workers flush every element immediately")
+  void flushImmediatelyWhenIdle() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1, 200, 1000, 10000);
+
+    sizer.onFlush(1, 5, 5);
+    sizer.onFlush(1, 5, 5);
+
+    assertThat(sizer.threshold()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("The threshold grows under load up to the max size")
+  void growUnderLoad() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1, 200, 1000, 10000);
+
+    for (int i = 0; i < 20; i++) {
+      sizer.onFlush(200, 100, 50);
+    }
+
+    assertThat(sizer.threshold()).isEqualTo(200);
+  }
+
+  @Test
+  @DisplayName("The threshold shrinks when the load drops or the latency goes over target")
+  void shrinkOnLatencyOrLowLoad() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1, 200, 1000, 10000);
+    for (int i = 0; i < 20; i++) {
+      sizer.onFlush(200, 100, 50);
+    }
+
+    sizer.onFlush(200, 1500, 50);
+    assertThat(sizer.threshold()).isEqualTo(100);
+
+    for (int i = 0; i < 10; i++) {
+      sizer.onFlush(2, 100, 5);
+    }
+    assertThat(sizer.threshold()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("The linger time leaves the time to process the batch within the target")
+  void lingerWithinTarget() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1, 200, 1000, 500);
+    assertThat(sizer.linger()).isEqualTo(500);
+
+    for (int i = 0; i < 50; i++) {
+      sizer.onFlush(1, 900, 800);
+    }
+    assertThat(sizer.linger()).isBetween(190L, 210L);
+  }
+}
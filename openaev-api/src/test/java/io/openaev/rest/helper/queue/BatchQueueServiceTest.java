@@ -0,0 +1,35 @@
+package io.openaev.rest.helper.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.openaev.config.QueueConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Batch queue service tests")
+class BatchQueueServiceTest {
+
+  private static QueueConfig config(int consumers, int qos, int bufferCapacity) {
+    QueueConfig config = new QueueConfig();
+    config.setConsumerNumber(consumers);
+    config.setConsumerQos(qos);
+    config.setBufferCapacity(bufferCapacity);
+    config.setMaxSize(100);
+    return config;
+  }
+
+  @Test
+  @DisplayName("The configured prefetch is kept when the buffers can hold it")
+  void keepConfiguredPrefetch() {
+    assertThat(BatchQueueService.consumerPrefetch(config(2, 1000, 10000))).isEqualTo(1000);
+  }
+
+  @Test
+  @DisplayName("The consumers together never prefetch more than a buffer holds")
+  void capPrefetchToBuffer() {
+    assertThat(BatchQueueService.consumerPrefetch(config(4, 1000, 2000))).isEqualTo(500);
+    // The buffer always holds a full batch
+    assertThat(BatchQueueService.consumerPrefetch(config(1, 1000, 10))).isEqualTo(101);
+    assertThat(BatchQueueService.consumerPrefetch(config(500, 1000, 10))).isEqualTo(1);
+  }
+}
@@ -0,0 +1,89 @@
+package io.openaev.rest.helper.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.rabbitmq.client.Channel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Confirmed publisher tests")
+class ConfirmedPublisherTest {
+
+  private Channel channel;
+  private final List<ConfirmedPublisher.Message> refused = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    channel = mock(Channel.class);
+    AtomicLong sequence = new AtomicLong(1);
+    when(channel.getNextPublishSeqNo()).thenAnswer(invocation -> sequence.getAndIncrement());
+    refused.clear();
+  }
+
+  @Test
+  @DisplayName("Publishes are rejected once too many wait for a confirmation")
+  void boundUnconfirmed() throws Exception {
+    ConfirmedPublisher publisher = new ConfirmedPublisher(channel, 2, refused::addAll);
+
+    assertThat(publisher.publish("exchange", "key", new byte[] {1}, 0)).isTrue();
+    assertThat(publisher.publish("exchange", "key", new byte[] {2}, 0)).isTrue();
+    assertThat(publisher.publish("exchange", "key", new byte[] {3}, 0)).isFalse();
+    assertThat(publisher.pending()).isEqualTo(2);
+    verify(channel).confirmSelect();
+    verify(channel, times(2)).basicPublish(anyString(), anyString(), any(), any(byte[].class));
+
+    publisher.handleAck(1, false);
+    assertThat(publisher.publish("exchange", "key", new byte[] {3}, 0)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Multiple acknowledgements confirm every previous publish")
+  void batchedAcknowledgement() throws Exception {
+    ConfirmedPublisher publisher = new ConfirmedPublisher(channel, 10, refused::addAll);
+    for (byte i = 0; i < 5; i++) {
+      publisher.publish("exchange", "key", new byte[] {i}, 0);
+    }
+
+    publisher.handleAck(3, true);
+    assertThat(publisher.pending()).isEqualTo(2);
+
+    publisher.handleNack(5, true);
+    assertThat(publisher.pending()).isZero();
+    assertThat(refused).hasSize(2);
+    assertThat(refused.getFirst().body()).containsExactly(3);
+    assertThat(refused.getFirst().attempts()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Unconfirmed publishes are taken back on a lost channel")
+  void drainUnconfirmed() throws Exception {
+    ConfirmedPublisher publisher = new ConfirmedPublisher(channel, 10, refused::addAll);
+    publisher.publish("exchange", "key", new byte[] {1}, 0);
+    publisher.publish("exchange", "key", new byte[] {2}, 0);
+
+    assertThat(publisher.drain()).hasSize(2);
+    assertThat(publisher.pending()).isZero();
+    assertThat(refused).isEmpty();
+  }
+
+  @Test
+  @DisplayName("A message published again is refused with its number of attempts")
+  void refusedAttempts() throws Exception {
+    ConfirmedPublisher publisher = new ConfirmedPublisher(channel, 10, refused::addAll);
+    publisher.publish("exchange", "key", new ConfirmedPublisher.Message(new byte[] {1}, 2), 0);
+
+    publisher.handleNack(1, false);
+
+    assertThat(refused)
+        .singleElement()
+        .extracting(ConfirmedPublisher.Message::attempts)
+        .isEqualTo(2);
+  }
+}
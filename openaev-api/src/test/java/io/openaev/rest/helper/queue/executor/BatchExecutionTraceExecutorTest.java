@@ -0,0 +1,108 @@
+package io.openaev.rest.helper.queue.executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import io.openaev.aop.lock.LockAspect;
+import io.openaev.aop.lock.LockResourceType;
+import io.openaev.rest.inject.form.InjectExecutionAction;
+import io.openaev.rest.inject.form.InjectExecutionCallback;
+import io.openaev.rest.inject.form.InjectExecutionInput;
+import io.openaev.rest.inject.service.BatchingInjectStatusService;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BatchExecutionTraceExecutorTest {
+
+  private final BatchingInjectStatusService batchingInjectStatusService =
+      mock(BatchingInjectStatusService.class);
+  private final LockAspect lockAspect = new LockAspect();
+  private final BatchExecutionTraceExecutor executor =
+      new BatchExecutionTraceExecutor(batchingInjectStatusService, lockAspect);
+
+  private static InjectExecutionCallback callback(String injectId, String agentId) {
+    return callback(injectId, agentId, InjectExecutionAction.complete);
+  }
+
+  private static InjectExecutionCallback callback(
+      String injectId, String agentId, InjectExecutionAction action) {
+    InjectExecutionInput input = new InjectExecutionInput();
+    input.setAction(action);
+    return InjectExecutionCallback.builder()
+        .injectId(injectId)
+        .agentId(agentId)
+        .injectExecutionInput(input)
+        .build();
+  }
+
+  private boolean lockedByAnotherThread(String injectId) {
+    return !CompletableFuture.supplyAsync(
+            () -> {
+              Lock lock =
+                  lockAspect.getLocks(LockResourceType.INJECT, List.of(injectId)).iterator().next();
+              boolean acquired = lock.tryLock();
+              if (acquired) {
+                lock.unlock();
+              }
+              return acquired;
+            })
+        .join();
+  }
+
+  @Test
+  @DisplayName("The injects of a batch are locked while it is handled, then released")
+  void injectsLockedDuringTheBatch() {
+    List<InjectExecutionCallback> callbacks =
+        List.of(
+            callback("inject-1", "agent-1"),
+            callback("inject-1", "agent-2"),
+            callback("inject-2", "agent-1"));
+    when(batchingInjectStatusService.handleInjectExecutionCallback(anyList()))
+        .thenAnswer(
+            invocation -> {
+              assertTrue(lockedByAnotherThread("inject-1"));
+              assertTrue(lockedByAnotherThread("inject-2"));
+              return invocation.getArgument(0);
+            });
+
+    assertEquals(callbacks, executor.handleInjectExecutionCallbackList(callbacks));
+
+    verify(batchingInjectStatusService).handleInjectExecutionCallback(callbacks);
+    assertFalse(lockedByAnotherThread("inject-1"));
+    assertFalse(lockedByAnotherThread("inject-2"));
+  }
+
+  @Test
+  @DisplayName("The injects of a batch without completion are not locked")
+  void tracesHandledWithoutLock() {
+    List<InjectExecutionCallback> callbacks =
+        List.of(
+            callback("inject-1", "agent-1", InjectExecutionAction.command_execution),
+            callback("inject-2", "agent-1"));
+    when(batchingInjectStatusService.handleInjectExecutionCallback(anyList()))
+        .thenAnswer(
+            invocation -> {
+              assertFalse(lockedByAnotherThread("inject-1"));
+              assertTrue(lockedByAnotherThread("inject-2"));
+              return invocation.getArgument(0);
+            });
+
+    assertEquals(callbacks, executor.handleInjectExecutionCallbackList(callbacks));
+  }
+
+  @Test
+  @DisplayName("The callbacks of an inject are spread over the workers by agent")
+  void callbacksKeyedByAgent() {
+    assertEquals(
+        callback("inject-1", "agent-1").getUniqueElementKey(),
+        callback("inject-1", "agent-1", InjectExecutionAction.command_execution)
+            .getUniqueElementKey());
+    assertNotEquals(
+        callback("inject-1", "agent-1").getUniqueElementKey(),
+        callback("inject-1", "agent-2").getUniqueElementKey());
+  }
+}
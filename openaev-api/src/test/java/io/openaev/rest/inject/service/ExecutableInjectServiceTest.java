@@ -0,0 +1,167 @@
+package io.openaev.rest.inject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openaev.database.model.*;
+import io.openaev.database.raw.RawExecutablePayloadVersion;
+import io.openaev.database.repository.InjectRepository;
+import io.openaev.injectors.openaev.model.OpenAEVImplantInjectContent;
+import io.openaev.rest.document.DocumentService;
+import io.openaev.rest.helper.queue.BatchQueueService;
+import io.openaev.rest.inject.form.InjectStartCallback;
+import io.openaev.rest.payload.service.PayloadService;
+import io.openaev.service.InjectExpectationService;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class ExecutableInjectServiceTest {
+
+  private static final String INJECT_ID = "inject-id";
+
+  private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+  @Mock private InjectService injectService;
+  @Mock private DocumentService documentService;
+  @Mock private InjectStatusService injectStatusService;
+  @Mock private InjectExpectationService injectExpectationService;
+  @Mock private PayloadService payloadService;
+  @Mock private InjectRepository injectRepository;
+
+  @InjectMocks private ExecutableInjectService executableInjectService;
+
+  private Inject inject;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    ReflectionTestUtils.setField(executableInjectService, "mapper", mapper);
+    DnsResolution dnsResolution =
+        new DnsResolution("payload-id", DnsResolution.DNS_RESOLUTION_TYPE, "DNS resolution");
+    dnsResolution.setHostname("#{domain}");
+    InjectorContract contract = new InjectorContract();
+    contract.setPayload(dnsResolution);
+    ObjectNode convertedContent = mapper.createObjectNode();
+    convertedContent.putArray("fields");
+    contract.setConvertedContent(convertedContent);
+    inject = new Inject();
+    inject.setId(INJECT_ID);
+    inject.setInjectorContract(contract);
+    inject.setContent(mapper.createObjectNode().put("domain", "openaev.io"));
+
+    when(injectService.inject(INJECT_ID)).thenReturn(inject);
+    when(injectService.convertInjectContent(inject, OpenAEVImplantInjectContent.class))
+        .thenReturn(new OpenAEVImplantInjectContent());
+    when(payloadService.generateDuplicatedPayload(dnsResolution))
+        .thenAnswer(
+            invocation -> {
+              DnsResolution duplicate =
+                  new DnsResolution(null, DnsResolution.DNS_RESOLUTION_TYPE, "DNS resolution");
+              duplicate.setHostname(dnsResolution.getHostname());
+              return duplicate;
+            });
+  }
+
+  private static RawExecutablePayloadVersion version(Instant injectUpdatedAt) {
+    RawExecutablePayloadVersion version = mock(RawExecutablePayloadVersion.class);
+    when(version.getInject_updated_at()).thenReturn(injectUpdatedAt);
+    when(version.getInjector_contract_updated_at()).thenReturn(Instant.EPOCH);
+    when(version.getPayload_updated_at()).thenReturn(Instant.EPOCH);
+    return version;
+  }
+
+  private static RawExecutablePayloadVersion version(String referencedAssets) {
+    RawExecutablePayloadVersion version = version(Instant.EPOCH);
+    when(version.getReferenced_assets_version()).thenReturn(referencedAssets);
+    return version;
+  }
+
+  @Test
+  public void givenSeveralAgents_whenGettingPayload_thenRenderedOnceAndTracedPerAgent()
+      throws Exception {
+    RawExecutablePayloadVersion version = version(Instant.EPOCH);
+    when(injectRepository.findExecutablePayloadVersion(INJECT_ID)).thenReturn(Optional.of(version));
+
+    JsonNode first =
+        executableInjectService.getExecutablePayloadAndUpdateInjectStatus(INJECT_ID, "agent-1");
+    JsonNode second =
+        executableInjectService.getExecutablePayloadAndUpdateInjectStatus(INJECT_ID, "agent-2");
+
+    // A copy for every agent, a request cannot alter the payload of the others
+    assertNotSame(first, second);
+    assertEquals(first, second);
+    assertEquals("openaev.io", first.get("dns_resolution_hostname").asText());
+    verify(injectService, times(1)).inject(INJECT_ID);
+    verify(injectStatusService)
+        .addStartImplantExecutionTraceByInject(eq(INJECT_ID), eq("agent-1"), any(), any());
+    verify(injectStatusService)
+        .addStartImplantExecutionTraceByInject(eq(INJECT_ID), eq("agent-2"), any(), any());
+    verify(injectExpectationService)
+        .addStartDateSignatureToInjectExpectationsByAgent(eq(INJECT_ID), eq("agent-1"), any());
+    verify(injectExpectationService)
+        .addStartDateSignatureToInjectExpectationsByAgent(eq(INJECT_ID), eq("agent-2"), any());
+  }
+
+  @Test
+  public void givenInjectUpdated_whenGettingPayload_thenRenderedAgain() throws Exception {
+    RawExecutablePayloadVersion before = version(Instant.EPOCH);
+    RawExecutablePayloadVersion after = version(Instant.EPOCH.plusSeconds(1));
+    when(injectRepository.findExecutablePayloadVersion(INJECT_ID))
+        .thenReturn(Optional.of(before), Optional.of(after));
+
+    executableInjectService.getExecutablePayloadAndUpdateInjectStatus(INJECT_ID, "agent-1");
+    inject.setContent(mapper.createObjectNode().put("domain", "filigran.io"));
+    JsonNode updated =
+        executableInjectService.getExecutablePayloadAndUpdateInjectStatus(INJECT_ID, "agent-2");
+
+    assertEquals("filigran.io", updated.get("dns_resolution_hostname").asText());
+    verify(injectService, times(2)).inject(INJECT_ID);
+  }
+
+  @Test
+  public void givenReferencedAssetUpdated_whenGettingPayload_thenRenderedAgain() throws Exception {
+    RawExecutablePayloadVersion before = version("asset@2024-01-01T00:00:00Z");
+    RawExecutablePayloadVersion after = version("asset@2024-01-02T00:00:00Z");
+    when(injectRepository.findExecutablePayloadVersion(INJECT_ID))
+        .thenReturn(Optional.of(before), Optional.of(before), Optional.of(after));
+
+    executableInjectService.getExecutablePayloadAndUpdateInjectStatus(INJECT_ID, "agent-1");
+    executableInjectService.getExecutablePayloadAndUpdateInjectStatus(INJECT_ID, "agent-2");
+    executableInjectService.getExecutablePayloadAndUpdateInjectStatus(INJECT_ID, "agent-3");
+
+    verify(injectService, times(2)).inject(INJECT_ID);
+  }
+
+  @Test
+  public void givenStartQueue_whenGettingPayload_thenCheckInPublishedForBatchedWrites()
+      throws Exception {
+    @SuppressWarnings("unchecked")
+    BatchQueueService<InjectStartCallback> injectStartQueueService = mock(BatchQueueService.class);
+    executableInjectService.setInjectStartQueueService(injectStartQueueService);
+    RawExecutablePayloadVersion version = version(Instant.EPOCH);
+    when(injectRepository.findExecutablePayloadVersion(INJECT_ID)).thenReturn(Optional.of(version));
+
+    executableInjectService.getExecutablePayloadAndUpdateInjectStatus(INJECT_ID, "agent-1");
+
+    ArgumentCaptor<InjectStartCallback> captor = ArgumentCaptor.forClass(InjectStartCallback.class);
+    verify(injectStartQueueService).publish(captor.capture());
+    assertEquals(INJECT_ID, captor.getValue().getInjectId());
+    assertEquals("agent-1", captor.getValue().getAgentId());
+    assertEquals(INJECT_ID, captor.getValue().getUniqueElementKey());
+    verifyNoInteractions(injectStatusService, injectExpectationService);
+  }
+}
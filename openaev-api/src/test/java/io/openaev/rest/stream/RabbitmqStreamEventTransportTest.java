@@ -0,0 +1,111 @@
+package io.openaev.rest.stream;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.BuiltinExchangeType;
+import com.rabbitmq.client.CancelCallback;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.DeliverCallback;
+import io.openaev.config.OpenAEVConfig;
+import io.openaev.config.QueueConfig;
+import io.openaev.config.RabbitmqConfig;
+import io.openaev.rest.helper.queue.SharedRabbitmqConnection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+class RabbitmqStreamEventTransportTest {
+
+  private Consumer<Connection> listener;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    SharedRabbitmqConnection sharedConnection = mock(SharedRabbitmqConnection.class);
+    RabbitmqStreamEventTransport transport =
+        new RabbitmqStreamEventTransport(
+            openAEVConfig(new QueueConfig()),
+            new RabbitmqConfig(),
+            sharedConnection,
+            mock(ApplicationEventPublisher.class),
+            new ObjectMapper());
+    transport.init();
+    ArgumentCaptor<Consumer<Connection>> captor = ArgumentCaptor.forClass(Consumer.class);
+    verify(sharedConnection).onConnection(captor.capture());
+    listener = captor.getValue();
+  }
+
+  private static OpenAEVConfig openAEVConfig(QueueConfig injectTrace) {
+    OpenAEVConfig config = new OpenAEVConfig();
+    Map<String, QueueConfig> queues = new HashMap<>();
+    queues.put("inject-trace", injectTrace);
+    config.setQueueConfig(queues);
+    return config;
+  }
+
+  private static Connection connection(Channel channel) throws Exception {
+    Connection connection = mock(Connection.class);
+    when(connection.createChannel()).thenReturn(channel);
+    when(channel.getConnection()).thenReturn(connection);
+    when(channel.isOpen()).thenReturn(true);
+    AMQP.Queue.DeclareOk declareOk = mock(AMQP.Queue.DeclareOk.class);
+    when(declareOk.getQueue()).thenReturn("queue");
+    when(channel.queueDeclare()).thenReturn(declareOk);
+    return connection;
+  }
+
+  @Test
+  @DisplayName("A connection notified twice opens a single stream channel")
+  void sameConnectionOpensOneChannel() throws Exception {
+    Channel channel = mock(Channel.class);
+    Connection connection = connection(channel);
+
+    listener.accept(connection);
+    listener.accept(connection);
+
+    verify(connection, times(1)).createChannel();
+    verify(channel, times(1))
+        .basicConsume(anyString(), eq(true), any(DeliverCallback.class), any(CancelCallback.class));
+  }
+
+  @Test
+  @DisplayName("A reconnection closes the previous stream channel")
+  void reconnectionClosesPreviousChannel() throws Exception {
+    Channel previous = mock(Channel.class);
+    Channel next = mock(Channel.class);
+    Connection first = connection(previous);
+    Connection second = connection(next);
+
+    listener.accept(first);
+    listener.accept(second);
+
+    verify(previous).close();
+    verify(next).exchangeDeclare(anyString(), eq(BuiltinExchangeType.FANOUT), eq(true));
+  }
+
+  @Test
+  @DisplayName("The transport does not start without the queue opening its connection")
+  void failWithoutInjectTraceQueue() {
+    SharedRabbitmqConnection sharedConnection = mock(SharedRabbitmqConnection.class);
+    RabbitmqStreamEventTransport transport =
+        new RabbitmqStreamEventTransport(
+            openAEVConfig(null),
+            new RabbitmqConfig(),
+            sharedConnection,
+            mock(ApplicationEventPublisher.class),
+            new ObjectMapper());
+
+    assertThatThrownBy(transport::init).isInstanceOf(IllegalStateException.class);
+    verifyNoInteractions(sharedConnection);
+  }
+}
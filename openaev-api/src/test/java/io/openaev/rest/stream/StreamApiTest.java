@@ -3,20 +3,24 @@ package io.openaev.rest.stream;
 import static io.openaev.database.audit.ModelBaseListener.DATA_DELETE;
 import static io.openaev.database.audit.ModelBaseListener.DATA_UPDATE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.openaev.config.OpenAEVPrincipal;
 import io.openaev.database.audit.BaseEvent;
+import io.openaev.database.audit.GrantEvent;
 import io.openaev.database.model.*;
 import io.openaev.rest.helper.RestBehavior;
 import io.openaev.service.PermissionService;
 import io.openaev.service.UserService;
 import io.openaev.utils.fixtures.ScenarioFixture;
 import java.lang.reflect.Field;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,9 +33,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.FluxSink;
-import reactor.util.function.Tuple2;
-import reactor.util.function.Tuples;
 
 @MockitoSettings(strictness = Strictness.LENIENT) // class-wide
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +54,10 @@ public class StreamApiTest {
 
   @Mock private ObjectMapper mapper;
 
+  @Mock private StreamEventTransport streamEventTransport;
+
+  @Mock private MeterRegistry meterRegistry;
+
   @InjectMocks private StreamApi streamApi;
 
   @BeforeEach
@@ -59,6 +66,7 @@ public class StreamApiTest {
     OpenAEVPrincipal mockPrincipal = mock(OpenAEVPrincipal.class);
     when(mockPrincipal.getId()).thenReturn(USER_ID);
     when(userService.user(USER_ID)).thenReturn(mockUser);
+    when(streamEventTransport.nodeId()).thenReturn("node");
 
     // mock objectmapper using reflection
     Field mapperField = RestBehavior.class.getDeclaredField("mapper");
@@ -68,9 +76,27 @@ public class StreamApiTest {
     // inject into consumers using reflection
     Field consumersField = StreamApi.class.getDeclaredField("consumers");
     consumersField.setAccessible(true);
-    Map<String, Tuple2<OpenAEVPrincipal, FluxSink<Object>>> consumers =
-        (Map<String, Tuple2<OpenAEVPrincipal, FluxSink<Object>>>) consumersField.get(streamApi);
-    consumers.put(SESSION_ID, Tuples.of(mockPrincipal, mockSink));
+    Map<String, StreamSubscriber> consumers =
+        (Map<String, StreamSubscriber>) consumersField.get(streamApi);
+    StreamSubscriber subscriber =
+        new StreamSubscriber(
+            mockPrincipal, mockSink, 1000, StreamOverflowPolicy.COALESCE, overflow -> {});
+    subscriber.request(Long.MAX_VALUE);
+    consumers.put(SESSION_ID, subscriber);
+
+    ReflectionTestUtils.setField(streamApi, "permissionTtlSeconds", 30L);
+  }
+
+  private void allowScenario(boolean allowed) {
+    when(permissionService.hasPermission(
+            mockUser, Optional.empty(), RESOURCE_ID, ResourceType.SCENARIO, Action.READ))
+        .thenReturn(allowed);
+  }
+
+  private List<String> sentTypes() {
+    ArgumentCaptor<ServerSentEvent> captor = ArgumentCaptor.forClass(ServerSentEvent.class);
+    verify(mockSink, atLeastOnce()).next(captor.capture());
+    return captor.getAllValues().stream().map(sent -> ((BaseEvent) sent.data()).getType()).toList();
   }
 
   @Test
@@ -136,4 +162,206 @@ public class StreamApiTest {
 
     verify(mockSink, never()).next(any());
   }
+
+  @Test
+  public void test_listenDatabaseUpdate_WHEN_permission_resolved_THEN_cached_until_grant_change() {
+    when(permissionService.hasPermission(
+            mockUser, Optional.empty(), RESOURCE_ID, ResourceType.SCENARIO, Action.READ))
+        .thenReturn(true);
+    Scenario scenario = ScenarioFixture.getScenario();
+    scenario.setId(RESOURCE_ID);
+
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+
+    verify(mockSink, times(2)).next(any());
+    verify(userService, times(1)).user(USER_ID);
+    verify(permissionService, times(1))
+        .hasPermission(mockUser, Optional.empty(), RESOURCE_ID, ResourceType.SCENARIO, Action.READ);
+
+    streamApi.listenGrantUpdate(new GrantEvent(DATA_UPDATE, "grant"));
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+
+    verify(permissionService, times(2))
+        .hasPermission(mockUser, Optional.empty(), RESOURCE_ID, ResourceType.SCENARIO, Action.READ);
+  }
+
+  @Test
+  public void test_listenDatabaseUpdate_WHEN_burst_on_same_entity_THEN_latest_streamed_once() {
+    when(permissionService.hasPermission(
+            mockUser, Optional.empty(), RESOURCE_ID, ResourceType.SCENARIO, Action.READ))
+        .thenReturn(true);
+    Scenario scenario = ScenarioFixture.getScenario();
+    scenario.setId(RESOURCE_ID);
+    BaseEvent first = new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class));
+    BaseEvent second = new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class));
+    BaseEvent third = new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class));
+    streamApi.registerDatabaseUpdate(first);
+    streamApi.registerDatabaseUpdate(second);
+    streamApi.registerDatabaseUpdate(third);
+
+    streamApi.listenDatabaseUpdate(first);
+    streamApi.listenDatabaseUpdate(second);
+    streamApi.listenDatabaseUpdate(third);
+
+    ArgumentCaptor<ServerSentEvent> captor = ArgumentCaptor.forClass(ServerSentEvent.class);
+    verify(mockSink, times(1)).next(captor.capture());
+    assertSame(third, captor.getValue().data());
+  }
+
+  @Test
+  public void test_listenDatabaseUpdate_WHEN_streamed_THEN_shared_with_other_nodes() {
+    when(permissionService.hasPermission(
+            mockUser, Optional.empty(), RESOURCE_ID, ResourceType.SCENARIO, Action.READ))
+        .thenReturn(true);
+    Scenario scenario = ScenarioFixture.getScenario();
+    scenario.setId(RESOURCE_ID);
+
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+
+    ArgumentCaptor<ServerSentEvent> sent = ArgumentCaptor.forClass(ServerSentEvent.class);
+    verify(mockSink).next(sent.capture());
+    ArgumentCaptor<StreamMessage> published = ArgumentCaptor.forClass(StreamMessage.class);
+    verify(streamEventTransport).publish(published.capture());
+    assertEquals("node:1", sent.getValue().id());
+    assertEquals("node:1", published.getValue().getId());
+    assertEquals(ResourceType.SCENARIO, published.getValue().getResourceType());
+    assertEquals(RESOURCE_ID, published.getValue().getResourceId());
+  }
+
+  @Test
+  public void test_listenRemoteUpdate_WHEN_user_has_permission_THEN_message_streamed() {
+    when(permissionService.hasPermission(
+            mockUser, Optional.empty(), RESOURCE_ID, ResourceType.SCENARIO, Action.READ))
+        .thenReturn(true);
+    StreamMessage message = new StreamMessage();
+    message.setId("other:7");
+    message.setResourceType(ResourceType.SCENARIO);
+    message.setResourceId(RESOURCE_ID);
+    message.setType(DATA_UPDATE);
+    message.setListened(true);
+
+    streamApi.listenRemoteUpdate(message);
+
+    ArgumentCaptor<ServerSentEvent> captor = ArgumentCaptor.forClass(ServerSentEvent.class);
+    verify(mockSink).next(captor.capture());
+    // Numbered again in the stream of this node
+    assertEquals("node:1", captor.getValue().id());
+    assertSame(message, captor.getValue().data());
+    verify(streamEventTransport, never()).publish(any());
+  }
+
+  @Test
+  public void test_listenDatabaseUpdate_WHEN_grant_revoked_THEN_only_deletion_streamed() {
+    when(mapper.createObjectNode()).thenReturn(mock(ObjectNode.class));
+    Scenario scenario = ScenarioFixture.getScenario();
+    scenario.setId(RESOURCE_ID);
+    allowScenario(true);
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+
+    allowScenario(false);
+    streamApi.listenGrantUpdate(new GrantEvent(DATA_DELETE, "grant"));
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+
+    assertEquals(List.of(DATA_UPDATE, DATA_DELETE), sentTypes());
+  }
+
+  @Test
+  public void test_listenDatabaseUpdate_WHEN_team_changed_THEN_permission_resolved_again() {
+    when(mapper.createObjectNode()).thenReturn(mock(ObjectNode.class));
+    Scenario scenario = ScenarioFixture.getScenario();
+    scenario.setId(RESOURCE_ID);
+    allowScenario(true);
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+
+    // The user left the team giving access to the scenario
+    allowScenario(false);
+    Team team = new Team();
+    team.setId("team");
+    streamApi.registerDatabaseUpdate(new BaseEvent(DATA_UPDATE, team, mock(ObjectMapper.class)));
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+
+    assertEquals(List.of(DATA_UPDATE, DATA_DELETE), sentTypes());
+  }
+
+  @Test
+  public void test_listenDatabaseUpdate_WHEN_inject_moved_THEN_permission_resolved_again() {
+    when(mapper.createObjectNode()).thenReturn(mock(ObjectNode.class));
+    ObjectMapper json = new ObjectMapper();
+    when(mapper.valueToTree(any()))
+        .thenReturn(
+            json.createObjectNode().put("inject_exercise", "readable"),
+            json.createObjectNode().put("inject_exercise", "readable"),
+            json.createObjectNode().put("inject_exercise", "hidden"));
+    when(permissionService.hasPermission(
+            mockUser, Optional.empty(), RESOURCE_ID, ResourceType.INJECT, Action.READ))
+        .thenReturn(true, false);
+    Inject inject = new Inject();
+    inject.setId(RESOURCE_ID);
+
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, inject, mock(ObjectMapper.class)));
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, inject, mock(ObjectMapper.class)));
+    streamApi.listenDatabaseUpdate(new BaseEvent(DATA_UPDATE, inject, mock(ObjectMapper.class)));
+
+    assertEquals(List.of(DATA_UPDATE, DATA_UPDATE, DATA_DELETE), sentTypes());
+    verify(permissionService, times(2))
+        .hasPermission(mockUser, Optional.empty(), RESOURCE_ID, ResourceType.INJECT, Action.READ);
+  }
+
+  @Test
+  public void test_listenRemoteUpdate_WHEN_permission_expired_THEN_resolved_again() {
+    ReflectionTestUtils.setField(streamApi, "permissionTtlSeconds", 0L);
+    allowScenario(true);
+    StreamMessage message = new StreamMessage();
+    message.setId("other:7");
+    message.setResourceType(ResourceType.SCENARIO);
+    message.setResourceId(RESOURCE_ID);
+    message.setType(DATA_UPDATE);
+    message.setListened(true);
+
+    // A grant revoked on another node is not seen by this one, only the expiration applies it
+    streamApi.listenRemoteUpdate(message);
+    streamApi.listenRemoteUpdate(message);
+
+    verify(permissionService, times(2))
+        .hasPermission(mockUser, Optional.empty(), RESOURCE_ID, ResourceType.SCENARIO, Action.READ);
+  }
+
+  private Optional<List<?>> missedSince(String lastEventId) {
+    return ReflectionTestUtils.invokeMethod(streamApi, "missedSince", lastEventId);
+  }
+
+  @Test
+  public void test_missedSince_WHEN_id_of_this_node_THEN_following_events_replayed() {
+    ReflectionTestUtils.setField(streamApi, "replaySize", 2);
+    allowScenario(true);
+    Scenario scenario = ScenarioFixture.getScenario();
+    scenario.setId(RESOURCE_ID);
+    for (int i = 0; i < 3; i++) {
+      streamApi.listenDatabaseUpdate(
+          new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+    }
+
+    assertEquals(1, missedSince("node:2").orElseThrow().size());
+    assertEquals(2, missedSince("node:1").orElseThrow().size());
+    assertTrue(missedSince("node:3").orElseThrow().isEmpty());
+    assertTrue(missedSince(null).orElseThrow().isEmpty());
+  }
+
+  @Test
+  public void test_missedSince_WHEN_id_unknown_THEN_resync() {
+    ReflectionTestUtils.setField(streamApi, "replaySize", 2);
+    allowScenario(true);
+    Scenario scenario = ScenarioFixture.getScenario();
+    scenario.setId(RESOURCE_ID);
+    for (int i = 0; i < 3; i++) {
+      streamApi.listenDatabaseUpdate(
+          new BaseEvent(DATA_UPDATE, scenario, mock(ObjectMapper.class)));
+    }
+
+    // Streamed by another node, before a restart, or out of the replay buffer
+    assertTrue(missedSince("other:2").isEmpty());
+    assertTrue(missedSince("node:9").isEmpty());
+    assertTrue(missedSince("node:0").isEmpty());
+  }
 }
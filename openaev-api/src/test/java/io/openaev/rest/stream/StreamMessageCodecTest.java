@@ -0,0 +1,74 @@
+package io.openaev.rest.stream;
+
+import static io.openaev.database.audit.ModelBaseListener.DATA_UPDATE;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openaev.database.model.ResourceType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StreamMessageCodecTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private StreamMessage message(ObjectNode instance) {
+    StreamMessage message = new StreamMessage();
+    message.setId("node:42");
+    message.setResourceType(ResourceType.SCENARIO);
+    message.setResourceId("scenario-id");
+    message.setIdProperty("scenario_id");
+    message.setType(DATA_UPDATE);
+    message.setAttributeId("scenario_id");
+    message.setSchema("scenarios");
+    message.setInstanceData(instance);
+    message.setListened(true);
+    return message;
+  }
+
+  private void assertRoundTrip(StreamMessage expected) throws Exception {
+    StreamMessage decoded =
+        StreamMessageCodec.decode(StreamMessageCodec.encode(expected, mapper), mapper);
+
+    assertEquals(expected.getId(), decoded.getId());
+    assertEquals("node", decoded.getOrigin());
+    assertEquals(expected.getResourceType(), decoded.getResourceType());
+    assertEquals(expected.getResourceId(), decoded.getResourceId());
+    assertEquals(expected.getIdProperty(), decoded.getIdProperty());
+    assertEquals(expected.getType(), decoded.getType());
+    assertEquals(expected.getAttributeId(), decoded.getAttributeId());
+    assertEquals(expected.getSchema(), decoded.getSchema());
+    assertEquals(expected.getInstanceData(), decoded.getInstanceData());
+    assertEquals(expected.isListened(), decoded.isListened());
+  }
+
+  @Test
+  @DisplayName("A small message is decoded as encoded")
+  void smallMessageRoundTrip() throws Exception {
+    ObjectNode instance = mapper.createObjectNode().put("scenario_id", "scenario-id");
+    assertRoundTrip(message(instance));
+  }
+
+  @Test
+  @DisplayName("A big message is compressed and decoded as encoded")
+  void bigMessageRoundTrip() throws Exception {
+    ObjectNode instance = mapper.createObjectNode().put("scenario_id", "scenario-id");
+    instance.put("scenario_description", "A long description. ".repeat(200));
+    StreamMessage message = message(instance);
+
+    byte[] encoded = StreamMessageCodec.encode(message, mapper);
+
+    assertTrue(encoded.length < mapper.writeValueAsBytes(instance).length);
+    assertRoundTrip(message);
+  }
+
+  @Test
+  @DisplayName("Missing attributes are decoded as null")
+  void nullAttributesRoundTrip() throws Exception {
+    StreamMessage message = message(null);
+    message.setIdProperty(null);
+    message.setAttributeId(null);
+    assertRoundTrip(message);
+  }
+}
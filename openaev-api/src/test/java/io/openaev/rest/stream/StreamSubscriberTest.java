@@ -0,0 +1,108 @@
+package io.openaev.rest.stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.openaev.config.OpenAEVPrincipal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.FluxSink;
+
+class StreamSubscriberTest {
+
+  @SuppressWarnings("unchecked")
+  private final FluxSink<Object> sink = mock(FluxSink.class);
+
+  private final List<StreamSubscriber.Overflow> overflows = new ArrayList<>();
+
+  private StreamSubscriber subscriber(StreamOverflowPolicy policy) {
+    return new StreamSubscriber(mock(OpenAEVPrincipal.class), sink, 2, policy, overflows::add);
+  }
+
+  private static ServerSentEvent<String> event(String data) {
+    return ServerSentEvent.builder(data).id(data).build();
+  }
+
+  private List<Object> sent() {
+    ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+    verify(sink, atLeast(0)).next(captor.capture());
+    return captor.getAllValues().stream()
+        .<Object>map(e -> ((ServerSentEvent<?>) e).data())
+        .toList();
+  }
+
+  @Test
+  @DisplayName("Events are only sent on the demand of the client")
+  void eventsSentOnDemand() {
+    StreamSubscriber subscriber = subscriber(StreamOverflowPolicy.DROP_OLDEST);
+
+    subscriber.offer("1", "a", event("1"));
+    subscriber.offer("2", "b", event("2"));
+    assertEquals(List.of(), sent());
+    assertEquals(2, subscriber.occupancy());
+
+    subscriber.request(1);
+    assertEquals(List.of("1"), sent());
+    subscriber.request(5);
+    subscriber.offer("3", "c", event("3"));
+
+    assertEquals(List.of("1", "2", "3"), sent());
+    assertEquals(0, subscriber.occupancy());
+    assertEquals(0, subscriber.lag());
+  }
+
+  @Test
+  @DisplayName("The oldest event is dropped from a full buffer")
+  void dropOldest() {
+    StreamSubscriber subscriber = subscriber(StreamOverflowPolicy.DROP_OLDEST);
+
+    subscriber.offer("1", "a", event("1"));
+    subscriber.offer("2", "a", event("2"));
+    subscriber.offer("3", "b", event("3"));
+    subscriber.request(Long.MAX_VALUE);
+
+    assertEquals(List.of("2", "3"), sent());
+    assertEquals(List.of(StreamSubscriber.Overflow.DROPPED), overflows);
+  }
+
+  @Test
+  @DisplayName("The buffered events of an entity collapse into the latest one")
+  void coalesce() {
+    StreamSubscriber subscriber = subscriber(StreamOverflowPolicy.COALESCE);
+
+    subscriber.offer("1", "a", event("1"));
+    subscriber.offer("2", "b", event("2"));
+    subscriber.offer("3", "a", event("3"));
+    subscriber.offer("4", "c", event("4"));
+    subscriber.request(Long.MAX_VALUE);
+
+    // The latest event of a moved behind b, then b was dropped for c, the ids stay in order
+    assertEquals(List.of("3", "4"), sent());
+    assertEquals(
+        List.of(StreamSubscriber.Overflow.COALESCED, StreamSubscriber.Overflow.DROPPED), overflows);
+  }
+
+  @Test
+  @DisplayName("A client not keeping up is disconnected with a resync event")
+  void disconnect() {
+    StreamSubscriber subscriber = subscriber(StreamOverflowPolicy.DISCONNECT);
+
+    subscriber.offer("1", "a", event("1"));
+    subscriber.offer("2", "b", event("2"));
+    subscriber.offer("3", "c", event("3"));
+    subscriber.request(Long.MAX_VALUE);
+    subscriber.offer("4", "d", event("4"));
+
+    ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+    verify(sink).next(captor.capture());
+    assertEquals(
+        StreamSubscriber.EVENT_TYPE_RESYNC, ((ServerSentEvent<?>) captor.getValue()).event());
+    verify(sink).complete();
+    assertEquals(0, subscriber.occupancy());
+    assertEquals(List.of(StreamSubscriber.Overflow.EVICTED), overflows);
+  }
+}
@@ -0,0 +1,71 @@
+package io.openaev.scheduler.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.openaev.database.model.Exercise;
+import io.openaev.database.model.Inject;
+import io.openaev.database.model.InjectDependency;
+import io.openaev.execution.ExecutableInject;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Inject execution plan tests")
+class InjectExecutionPlanTest {
+
+  private static ExecutableInject executable(String id, String exerciseId) {
+    Inject inject = new Inject();
+    inject.setId(id);
+    if (exerciseId != null) {
+      Exercise exercise = new Exercise();
+      exercise.setId(exerciseId);
+      inject.setExercise(exercise);
+    }
+    return new ExecutableInject(false, false, inject, List.of());
+  }
+
+  private static InjectDependency dependency(ExecutableInject parent, ExecutableInject child) {
+    InjectDependency dependency = new InjectDependency();
+    dependency.getCompositeId().setInjectParent(parent.getInjection().getInject());
+    dependency.getCompositeId().setInjectChildren(child.getInjection().getInject());
+    return dependency;
+  }
+
+  @Test
+  @DisplayName("Children of an inject of the same batch are deferred")
+  void deferChildrenOfBatch() {
+    ExecutableInject parent = executable("parent", "exercise");
+    ExecutableInject child = executable("child", "exercise");
+    ExecutableInject other = executable("other", "exercise");
+    Inject outside = new Inject();
+    outside.setId("outside");
+    InjectDependency outsideDependency = new InjectDependency();
+    outsideDependency.getCompositeId().setInjectParent(outside);
+    outsideDependency.getCompositeId().setInjectChildren(other.getInjection().getInject());
+
+    InjectExecutionPlan plan =
+        new InjectExecutionPlan(
+            List.of(parent, child, other), List.of(dependency(parent, child), outsideDependency));
+
+    assertThat(plan.deferred()).containsExactly(child);
+    assertThat(plan.executionOrder()).containsExactly(parent, other);
+    assertThat(plan.parentsOf("other")).containsExactly(outsideDependency);
+    assertThat(plan.parentIds()).containsExactly("outside");
+    assertThat(plan.exerciseIds()).containsExactly("exercise");
+  }
+
+  @Test
+  @DisplayName("Injects are interleaved across exercises in their execution order")
+  void interleaveExercises() {
+    ExecutableInject a1 = executable("a1", "a");
+    ExecutableInject a2 = executable("a2", "a");
+    ExecutableInject a3 = executable("a3", "a");
+    ExecutableInject b1 = executable("b1", "b");
+    ExecutableInject atomic = executable("atomic", null);
+
+    InjectExecutionPlan plan = new InjectExecutionPlan(List.of(a1, a2, a3, b1, atomic), List.of());
+
+    assertThat(plan.executionOrder()).containsExactly(a1, b1, atomic, a2, a3);
+    assertThat(plan.exerciseIds()).containsExactlyInAnyOrder("a", "b");
+  }
+}
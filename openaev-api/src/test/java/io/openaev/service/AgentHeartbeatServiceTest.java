@@ -0,0 +1,113 @@
+package io.openaev.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openaev.database.model.Agent;
+import io.openaev.database.model.Endpoint;
+import io.openaev.database.repository.AgentRepository;
+import io.openaev.rest.asset.endpoint.form.EndpointRegisterInput;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("Agent heartbeat tests")
+class AgentHeartbeatServiceTest {
+
+  private AgentRepository agentRepository;
+  private AgentHeartbeatService agentHeartbeatService;
+  private Endpoint endpoint;
+  private Agent agent;
+
+  private static EndpointRegisterInput input(String hostname) {
+    EndpointRegisterInput input = new EndpointRegisterInput();
+    input.setExternalReference("external-ref");
+    input.setHostname(hostname);
+    input.setAgentVersion("1.0.0");
+    input.setIps(new String[] {"10.0.0.1"});
+    input.setSeenIp("10.0.0.1");
+    return input;
+  }
+
+  @BeforeEach
+  void setUp() {
+    agentRepository = mock(AgentRepository.class);
+    agentHeartbeatService =
+        new AgentHeartbeatService(agentRepository, new ObjectMapper().findAndRegisterModules());
+    ReflectionTestUtils.setField(agentHeartbeatService, "revalidateInterval", 600000L);
+    endpoint = new Endpoint();
+    endpoint.setId("endpoint-id");
+    agent = new Agent();
+    agent.setId("agent-id");
+    agent.setAsset(endpoint);
+  }
+
+  @Test
+  @DisplayName("An unknown agent goes through the full registration")
+  void unknownAgent() {
+    assertThat(agentHeartbeatService.heartbeat(input("host"))).isEmpty();
+
+    agentHeartbeatService.flush();
+    verifyNoInteractions(agentRepository);
+  }
+
+  private static String endpointId(JsonNode endpoint) {
+    return endpoint.get("asset_id").asText();
+  }
+
+  @Test
+  @DisplayName("The check-ins of a registered agent are written in one batch")
+  void knownAgentHeartbeats() {
+    when(agentRepository.updateLastSeen(any(), any())).thenReturn(List.of("agent-id"));
+    agentHeartbeatService.remember(input("host"), agent);
+
+    assertThat(agentHeartbeatService.heartbeat(input("host")))
+        .map(AgentHeartbeatServiceTest::endpointId)
+        .contains("endpoint-id");
+    assertThat(agentHeartbeatService.heartbeat(input("host")))
+        .map(AgentHeartbeatServiceTest::endpointId)
+        .contains("endpoint-id");
+    agentHeartbeatService.flush();
+    agentHeartbeatService.flush();
+
+    ArgumentCaptor<String[]> agentIds = ArgumentCaptor.forClass(String[].class);
+    verify(agentRepository, times(1)).updateLastSeen(agentIds.capture(), any());
+    assertThat(agentIds.getValue()).containsExactly("agent-id");
+  }
+
+  @Test
+  @DisplayName("A deleted agent goes through the full registration again")
+  void deletedAgent() {
+    when(agentRepository.updateLastSeen(any(), any())).thenReturn(List.of());
+    agentHeartbeatService.remember(input("host"), agent);
+
+    assertThat(agentHeartbeatService.heartbeat(input("host"))).isPresent();
+    agentHeartbeatService.flush();
+
+    assertThat(agentHeartbeatService.heartbeat(input("host"))).isEmpty();
+  }
+
+  @Test
+  @DisplayName("A changed agent goes through the full registration again")
+  void changedAgent() {
+    agentHeartbeatService.remember(input("host"), agent);
+
+    assertThat(agentHeartbeatService.heartbeat(input("renamed-host"))).isEmpty();
+    assertThat(agentHeartbeatService.heartbeat(input("host"))).isEmpty();
+  }
+
+  @Test
+  @DisplayName("A registered agent is revalidated after the interval")
+  void revalidatedAgent() {
+    ReflectionTestUtils.setField(agentHeartbeatService, "revalidateInterval", -1L);
+    agentHeartbeatService.remember(input("host"), agent);
+
+    assertThat(agentHeartbeatService.heartbeat(input("host"))).isEmpty();
+  }
+}
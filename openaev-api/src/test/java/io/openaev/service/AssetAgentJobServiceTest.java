@@ -0,0 +1,95 @@
+package io.openaev.service;
+
+import static io.openaev.database.audit.ModelBaseListener.DATA_PERSIST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.openaev.database.audit.BaseEvent;
+import io.openaev.database.model.Agent;
+import io.openaev.database.model.AssetAgentJob;
+import io.openaev.database.repository.AssetAgentJobRepository;
+import io.openaev.rest.asset.endpoint.form.EndpointRegisterInput;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@DisplayName("Asset agent job delivery tests")
+class AssetAgentJobServiceTest {
+
+  private AssetAgentJobRepository assetAgentJobRepository;
+  private AssetAgentJobService assetAgentJobService;
+  private AssetAgentJob job;
+
+  private static EndpointRegisterInput input() {
+    EndpointRegisterInput input = new EndpointRegisterInput();
+    input.setExternalReference("external-ref");
+    return input;
+  }
+
+  private static BaseEvent creation(AssetAgentJob job) {
+    BaseEvent event = mock(BaseEvent.class);
+    when(event.getType()).thenReturn(DATA_PERSIST);
+    when(event.getInstance()).thenReturn(job);
+    return event;
+  }
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    assetAgentJobRepository = mock(AssetAgentJobRepository.class);
+    assetAgentJobService = new AssetAgentJobService(assetAgentJobRepository);
+    ReflectionTestUtils.setField(
+        assetAgentJobService, "agentJobExecutor", (Executor) Runnable::run);
+    Agent agent = new Agent();
+    agent.setExternalReference("external-ref");
+    agent.setDeploymentMode(Agent.DEPLOYMENT_MODE.service);
+    agent.setPrivilege(Agent.PRIVILEGE.admin);
+    agent.setExecutedByUser(Agent.ADMIN_SYSTEM_WINDOWS);
+    job = new AssetAgentJob();
+    job.setId("job-id");
+    job.setAgent(agent);
+    when(assetAgentJobRepository.findAll(any(Specification.class))).thenReturn(List.of());
+    when(assetAgentJobRepository.rawJobTargets()).thenReturn(List.of());
+  }
+
+  @Test
+  @DisplayName("The agents without job are answered without querying their jobs")
+  @SuppressWarnings("unchecked")
+  void idleAgent() {
+    assetAgentJobService.refresh();
+
+    assertThat(assetAgentJobService.jobs(input())).isEmpty();
+    verify(assetAgentJobRepository, never()).findAll(any(Specification.class));
+  }
+
+  @Test
+  @DisplayName("The jobs created on this node are fetched on the next poll")
+  @SuppressWarnings("unchecked")
+  void createdJob() {
+    assetAgentJobService.refresh();
+    assetAgentJobService.listenJobCreation(creation(job));
+    when(assetAgentJobRepository.findAll(any(Specification.class))).thenReturn(List.of(job));
+
+    assertThat(assetAgentJobService.jobs(input())).containsExactly(job);
+  }
+
+  @Test
+  @DisplayName("A waiting agent gets its job as soon as it is created")
+  @SuppressWarnings("unchecked")
+  void waitingAgent() {
+    assetAgentJobService.refresh();
+    DeferredResult<List<AssetAgentJob>> result = assetAgentJobService.awaitJobs(input(), 30000);
+    assertThat(result.hasResult()).isFalse();
+
+    when(assetAgentJobRepository.findAll(any(Specification.class))).thenReturn(List.of(job));
+    assetAgentJobService.listenJobCreation(creation(job));
+
+    assertThat(result.getResult()).isEqualTo(List.of(job));
+  }
+}
@@ -0,0 +1,170 @@
+package io.openaev.service;
+
+import static io.openaev.integration.impl.executors.crowdstrike.CrowdStrikeExecutorIntegration.CROWDSTRIKE_EXECUTOR_TYPE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.openaev.database.model.Agent;
+import io.openaev.database.model.Asset;
+import io.openaev.database.model.Endpoint;
+import io.openaev.database.model.Executor;
+import io.openaev.database.repository.EndpointRepository;
+import io.openaev.executors.model.AgentRegisterInput;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EDR agents and endpoints sync tests")
+class EndpointServiceSyncTest {
+
+  @Mock private EndpointRepository endpointRepository;
+  @Mock private AssetService assetService;
+  @Mock private AgentService agentService;
+
+  @InjectMocks private EndpointService endpointService;
+
+  private Executor executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = new Executor();
+    executor.setType(CROWDSTRIKE_EXECUTOR_TYPE);
+    when(agentService.saveAllAgents(any())).thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  private AgentRegisterInput input(String externalReference, String... macAddresses) {
+    AgentRegisterInput input = new AgentRegisterInput();
+    input.setExecutor(executor);
+    input.setExternalReference(externalReference);
+    input.setHostname(externalReference);
+    input.setPlatform(Endpoint.PLATFORM_TYPE.Linux);
+    input.setArch(Endpoint.PLATFORM_ARCH.x86_64);
+    input.setIps(new String[] {"10.0.0.1"});
+    input.setMacAddresses(macAddresses);
+    input.setLastSeen(Instant.now());
+    return input;
+  }
+
+  private static Endpoint endpoint(String id, String... macAddresses) {
+    Endpoint endpoint = new Endpoint();
+    endpoint.setId(id);
+    endpoint.setMacAddresses(macAddresses);
+    return endpoint;
+  }
+
+  private static Agent agent(String externalReference, Endpoint endpoint) {
+    Agent agent = new Agent();
+    agent.setId(externalReference);
+    agent.setExternalReference(externalReference);
+    agent.setAsset(endpoint);
+    return agent;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Asset> savedEndpoints() {
+    ArgumentCaptor<List<Asset>> endpoints = ArgumentCaptor.forClass(List.class);
+    verify(assetService).saveAllAssets(endpoints.capture());
+    return endpoints.getValue();
+  }
+
+  @Test
+  @DisplayName("The known agents are updated, their shared endpoint saved once")
+  void updateByExternalReference() {
+    Endpoint endpoint = endpoint("endpoint", "aa");
+    List<Agent> existingAgents = List.of(agent("ref-1", endpoint), agent("ref-2", endpoint));
+    AgentRegisterInput first = input("ref-1", "aa");
+    AgentRegisterInput second = input("ref-2", "aa");
+
+    List<Agent> agents =
+        endpointService.syncAgentsEndpoints(
+            new ArrayList<>(List.of(first, second)),
+            new EndpointService.ExecutorAgents(existingAgents));
+
+    assertThat(agents).containsExactlyElementsOf(existingAgents);
+    assertThat(agents.get(1).getLastSeen()).isEqualTo(second.getLastSeen());
+    assertThat(savedEndpoints()).containsExactly(endpoint);
+    verifyNoInteractions(endpointRepository);
+  }
+
+  @Test
+  @DisplayName("The new agents join the endpoints sharing their MAC addresses")
+  void matchByMacAddress() {
+    Endpoint known = endpoint("known", "bb", "cc");
+    when(endpointRepository.findByAtleastOneMacAddress(any())).thenReturn(List.of(known));
+
+    List<Agent> agents =
+        endpointService.syncAgentsEndpoints(
+            new ArrayList<>(
+                List.of(
+                    input("ref-1", "cc", "bb"), input("ref-2", "cc", "bb"), input("ref-3", "dd"))),
+            new EndpointService.ExecutorAgents(List.of()));
+
+    assertThat(agents).hasSize(2);
+    assertThat(agents.get(0).getExternalReference()).isEqualTo("ref-1");
+    assertThat(agents.get(0).getAsset()).isSameAs(known);
+    assertThat(agents.get(1).getExternalReference()).isEqualTo("ref-3");
+    assertThat(agents.get(1).getAsset()).isNotSameAs(known);
+    assertThat(savedEndpoints()).hasSize(2).contains(known);
+  }
+
+  @Test
+  @DisplayName("An endpoint already having an agent of the executor gets no new one")
+  void endpointWithAgent() {
+    Endpoint known = endpoint("known", "bb");
+    when(endpointRepository.findByAtleastOneMacAddress(any())).thenReturn(List.of(known));
+
+    List<Agent> agents =
+        endpointService.syncAgentsEndpoints(
+            new ArrayList<>(List.of(input("ref-new", "bb"))),
+            new EndpointService.ExecutorAgents(List.of(agent("ref-old", known))));
+
+    assertThat(agents).hasSize(1);
+    assertThat(agents.getFirst().getAsset()).isNotSameAs(known);
+  }
+
+  @Test
+  @DisplayName("The inputs sharing an external reference create a single agent")
+  void duplicatedExternalReference() {
+    AgentRegisterInput first = input("ref-1", "ee");
+    AgentRegisterInput duplicate = input("ref-1", "ff");
+
+    List<Agent> agents =
+        endpointService.syncAgentsEndpoints(
+            new ArrayList<>(List.of(first, duplicate)),
+            new EndpointService.ExecutorAgents(List.of()));
+
+    assertThat(agents).singleElement().extracting(Agent::getExternalReference).isEqualTo("ref-1");
+    assertThat(savedEndpoints())
+        .singleElement()
+        .extracting(endpoint -> ((Endpoint) endpoint).getMacAddresses())
+        .isEqualTo(new String[] {"ee"});
+  }
+
+  @Test
+  @DisplayName("The agents created by a page are updated by the next pages")
+  void syncedAgentsIndexed() {
+    EndpointService.ExecutorAgents knownAgents = new EndpointService.ExecutorAgents(List.of());
+    AgentRegisterInput next = input("ref-1", "ee");
+
+    Agent created =
+        endpointService
+            .syncAgentsEndpoints(new ArrayList<>(List.of(input("ref-1", "ee"))), knownAgents)
+            .getFirst();
+    List<Agent> agents =
+        endpointService.syncAgentsEndpoints(new ArrayList<>(List.of(next)), knownAgents);
+
+    assertThat(knownAgents.size()).isEqualTo(1);
+    assertThat(agents).singleElement().isSameAs(created);
+    assertThat(created.getLastSeen()).isEqualTo(next.getLastSeen());
+  }
+}
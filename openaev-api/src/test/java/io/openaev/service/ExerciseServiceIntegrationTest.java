@@ -102,7 +102,6 @@ class ExerciseServiceIntegrationTest extends IntegrationTest {
             licenseCacheManager,
             assetRepository,
             assetGroupRepository,
-            injectExpectationRepository,
             articleRepository,
             exerciseRepository,
             teamRepository,
@@ -0,0 +1,124 @@
+package io.openaev.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openaev.config.EngineConfig;
+import io.openaev.database.model.IndexingRetry;
+import io.openaev.database.repository.IndexingRetryRepository;
+import io.openaev.engine.model.tag.EsTag;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class IndexingRetryServiceTest {
+
+  private static final String TYPE = "tag";
+
+  private IndexingRetryRepository indexingRetryRepository;
+  private IndexingRetryService indexingRetryService;
+
+  @BeforeEach
+  void setUp() {
+    indexingRetryRepository = mock(IndexingRetryRepository.class);
+    EngineConfig engineConfig = new EngineConfig();
+    engineConfig.setIndexingRetryMaxAttempts(3);
+    engineConfig.setIndexingRetryBackoffSeconds(60);
+    indexingRetryService =
+        new IndexingRetryService(indexingRetryRepository, engineConfig, new ObjectMapper());
+  }
+
+  private static EsTag tag(String id) {
+    EsTag tag = new EsTag();
+    tag.setBase_id(id);
+    return tag;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<IndexingRetry> savedRetries() {
+    ArgumentCaptor<List<IndexingRetry>> captor = ArgumentCaptor.forClass(List.class);
+    verify(indexingRetryRepository).saveAll(captor.capture());
+    return captor.getValue();
+  }
+
+  @Test
+  void track_shouldClearSucceededAndScheduleFailed() {
+    when(indexingRetryRepository.findByTypeAndDocumentIdIn(eq(TYPE), any())).thenReturn(List.of());
+
+    indexingRetryService.track(TYPE, List.of(tag("ok"), tag("ko")), Map.of("ko", "mapping"));
+
+    verify(indexingRetryRepository).deleteByTypeAndDocumentIds(TYPE, List.of("ok"));
+    List<IndexingRetry> retries = savedRetries();
+    assertEquals(1, retries.size());
+    IndexingRetry retry = retries.getFirst();
+    assertEquals("ko", retry.getDocumentId());
+    assertEquals(1, retry.getAttempts());
+    assertEquals(IndexingRetry.Status.PENDING, retry.getStatus());
+    assertEquals("mapping", retry.getLastError());
+    assertTrue(retry.getNextAttemptAt().isAfter(Instant.now().plusSeconds(50)));
+  }
+
+  @Test
+  void track_shouldBackoffExponentially() {
+    IndexingRetry existing = new IndexingRetry();
+    existing.setType(TYPE);
+    existing.setDocumentId("ko");
+    existing.setAttempts(1);
+    when(indexingRetryRepository.findByTypeAndDocumentIdIn(eq(TYPE), any()))
+        .thenReturn(List.of(existing));
+
+    indexingRetryService.track(TYPE, List.of(tag("ko")), Map.of("ko", "mapping"));
+
+    IndexingRetry retry = savedRetries().getFirst();
+    assertEquals(2, retry.getAttempts());
+    assertTrue(retry.getNextAttemptAt().isAfter(Instant.now().plusSeconds(110)));
+    verify(indexingRetryRepository, never()).deleteByTypeAndDocumentIds(any(), any());
+  }
+
+  @Test
+  void track_shouldMoveToDeadLetterAfterMaxAttempts() {
+    IndexingRetry existing = new IndexingRetry();
+    existing.setType(TYPE);
+    existing.setDocumentId("ko");
+    existing.setAttempts(2);
+    when(indexingRetryRepository.findByTypeAndDocumentIdIn(eq(TYPE), any()))
+        .thenReturn(List.of(existing));
+
+    indexingRetryService.track(TYPE, List.of(tag("ko")), Map.of("ko", "mapping"));
+
+    IndexingRetry retry = savedRetries().getFirst();
+    assertEquals(IndexingRetry.Status.DEAD, retry.getStatus());
+    assertNull(retry.getNextAttemptAt());
+  }
+
+  @Test
+  void track_shouldRequeueDeadLetterOnNewWrite() {
+    IndexingRetry existing = new IndexingRetry();
+    existing.setType(TYPE);
+    existing.setDocumentId("ko");
+    existing.setAttempts(3);
+    existing.setStatus(IndexingRetry.Status.DEAD);
+    when(indexingRetryRepository.findByTypeAndDocumentIdIn(eq(TYPE), any()))
+        .thenReturn(List.of(existing));
+
+    indexingRetryService.track(TYPE, List.of(tag("ko")), Map.of("ko", "mapping"));
+
+    IndexingRetry retry = savedRetries().getFirst();
+    assertEquals(IndexingRetry.Status.PENDING, retry.getStatus());
+    assertEquals(1, retry.getAttempts());
+    assertNotNull(retry.getNextAttemptAt());
+  }
+
+  @Test
+  void track_shouldNotTouchRetriesWhenNothingFailed() {
+    indexingRetryService.track(TYPE, List.of(tag("ok")), Map.of());
+
+    verify(indexingRetryRepository).deleteByTypeAndDocumentIds(TYPE, List.of("ok"));
+    verify(indexingRetryRepository, never()).saveAll(any());
+  }
+}
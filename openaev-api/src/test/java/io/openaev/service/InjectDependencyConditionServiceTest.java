@@ -0,0 +1,189 @@
+package io.openaev.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openaev.database.model.Inject;
+import io.openaev.database.model.InjectDependency;
+import io.openaev.database.model.InjectDependencyConditions;
+import io.openaev.database.model.InjectDependencyConditions.DependencyMode;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+
+@Slf4j
+class InjectDependencyConditionServiceTest {
+
+  private InjectDependencyConditionService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new InjectDependencyConditionService();
+  }
+
+  private static InjectDependencyConditions.Condition condition(String key, boolean value) {
+    InjectDependencyConditions.Condition condition = new InjectDependencyConditions.Condition();
+    condition.setKey(key);
+    condition.setValue(value);
+    condition.setOperator(InjectDependencyConditions.DependencyOperator.eq);
+    return condition;
+  }
+
+  private static InjectDependency dependency(
+      DependencyMode mode, InjectDependencyConditions.Condition... conditions) {
+    Inject parent = new Inject();
+    parent.setId("parent");
+    Inject children = new Inject();
+    children.setId("children");
+    InjectDependency dependency = new InjectDependency();
+    dependency.getCompositeId().setInjectParent(parent);
+    dependency.getCompositeId().setInjectChildren(children);
+    dependency.setUpdateDate(Instant.parse("2024-01-01T00:00:00Z"));
+    InjectDependencyConditions.InjectDependencyCondition condition =
+        new InjectDependencyConditions.InjectDependencyCondition();
+    condition.setMode(mode);
+    condition.setConditions(List.of(conditions));
+    dependency.setInjectDependencyCondition(condition);
+    return dependency;
+  }
+
+  /** Evaluation as done before the conditions were compiled, kept as the reference. */
+  private static boolean evaluateWithSpel(
+      InjectDependency dependency, Map<String, Boolean> expectations) {
+    String expression = dependency.getInjectDependencyCondition().toString();
+    for (InjectDependencyConditions.Condition condition :
+        dependency.getInjectDependencyCondition().getConditions()) {
+      String key = condition.toString().split("==")[0].trim();
+      expression = expression.replaceAll(key, String.format("#this['%s']", key));
+    }
+    EvaluationContext context = SimpleEvaluationContext.forReadOnlyDataBinding().build();
+    return Boolean.TRUE.equals(
+        new SpelExpressionParser()
+            .parseExpression(expression)
+            .getValue(context, expectations, Boolean.class));
+  }
+
+  @Test
+  @DisplayName("And conditions need every expectation as expected")
+  void andConditions() {
+    InjectDependency dependency =
+        dependency(DependencyMode.and, condition("Execution", true), condition("Manual", false));
+
+    assertTrue(service.isSatisfied(dependency, Map.of("Execution", true, "Manual", false)));
+    assertFalse(service.isSatisfied(dependency, Map.of("Execution", true, "Manual", true)));
+    assertFalse(service.isSatisfied(dependency, Map.of("Execution", true)));
+  }
+
+  @Test
+  @DisplayName("Or conditions need one expectation as expected")
+  void orConditions() {
+    InjectDependency dependency =
+        dependency(DependencyMode.or, condition("Execution", true), condition("Manual", true));
+
+    assertTrue(service.isSatisfied(dependency, Map.of("Execution", false, "Manual", true)));
+    assertFalse(service.isSatisfied(dependency, Map.of("Execution", false, "Manual", false)));
+  }
+
+  @Test
+  @DisplayName("An edited dependency is compiled again")
+  void recompileOnEdit() {
+    InjectDependency dependency = dependency(DependencyMode.and, condition("Execution", true));
+    Map<String, Boolean> expectations = Map.of("Execution", true);
+    assertTrue(service.isSatisfied(dependency, expectations));
+
+    dependency.getInjectDependencyCondition().setConditions(List.of(condition("Execution", false)));
+    assertTrue(service.isSatisfied(dependency, expectations), "served from the cache");
+
+    dependency.setUpdateDate(Instant.parse("2024-01-02T00:00:00Z"));
+    assertFalse(service.isSatisfied(dependency, expectations));
+  }
+
+  @Test
+  @DisplayName("A condition key that cannot be evaluated is rejected")
+  void rejectInvalidKey() {
+    InjectDependency dependency =
+        dependency(
+            DependencyMode.and,
+            condition("T(java.lang.Runtime).getRuntime().exec('gedit');", true));
+
+    assertThrows(IllegalArgumentException.class, () -> service.isSatisfied(dependency, Map.of()));
+  }
+
+  @Test
+  @DisplayName("The compiled predicate agrees with the SpEL evaluation of the conditions")
+  void agreeWithSpel() {
+    InjectDependency and =
+        dependency(
+            DependencyMode.and,
+            condition("Execution", true),
+            condition("Prevention", true),
+            condition("Detection", false));
+    InjectDependency or =
+        dependency(
+            DependencyMode.or,
+            condition("Execution", true),
+            condition("Prevention", true),
+            condition("Detection", false));
+    // Another version of the same dependency, not to be served the cached and predicate
+    or.setUpdateDate(Instant.parse("2024-01-02T00:00:00Z"));
+    for (boolean execution : List.of(true, false)) {
+      for (boolean prevention : List.of(true, false)) {
+        for (boolean detection : List.of(true, false)) {
+          Map<String, Boolean> state =
+              Map.of("Execution", execution, "Prevention", prevention, "Detection", detection);
+          assertEquals(evaluateWithSpel(and, state), service.isSatisfied(and, state));
+          assertEquals(evaluateWithSpel(or, state), service.isSatisfied(or, state));
+        }
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Microbenchmark of the evaluation cost per dependency")
+  void benchmark() {
+    InjectDependency dependency =
+        dependency(
+            DependencyMode.and,
+            condition("Execution", true),
+            condition("Prevention", true),
+            condition("Detection", false));
+    List<Map<String, Boolean>> states =
+        List.of(
+            Map.of("Execution", true, "Prevention", true, "Detection", false),
+            Map.of("Execution", true, "Prevention", false, "Detection", false),
+            Map.of("Execution", false, "Prevention", true, "Detection", true));
+    int iterations = 20_000;
+
+    // Warm up and check both evaluations agree
+    for (int i = 0; i < iterations; i++) {
+      Map<String, Boolean> state = states.get(i % states.size());
+      assertEquals(evaluateWithSpel(dependency, state), service.isSatisfied(dependency, state));
+    }
+
+    // Best of several rounds, the first ones still run partly interpreted
+    long spelNanos = Long.MAX_VALUE;
+    long compiledNanos = Long.MAX_VALUE;
+    for (int round = 0; round < 5; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        evaluateWithSpel(dependency, states.get(i % states.size()));
+      }
+      spelNanos = Math.min(spelNanos, (System.nanoTime() - start) / iterations);
+
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        service.isSatisfied(dependency, states.get(i % states.size()));
+      }
+      compiledNanos = Math.min(compiledNanos, (System.nanoTime() - start) / iterations);
+    }
+
+    log.info(
+        "Dependency condition evaluation: SpEL {} ns, compiled {} ns", spelNanos, compiledNanos);
+  }
+}
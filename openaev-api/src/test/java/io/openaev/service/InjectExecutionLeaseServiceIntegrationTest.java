@@ -0,0 +1,118 @@
+package io.openaev.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.openaev.IntegrationTest;
+import io.openaev.database.model.Inject;
+import io.openaev.database.model.InjectStatus;
+import io.openaev.database.repository.InjectExecutionLeaseRepository;
+import io.openaev.database.repository.InjectStatusRepository;
+import io.openaev.execution.ExecutableInject;
+import io.openaev.utils.fixtures.InjectFixture;
+import io.openaev.utils.fixtures.InjectStatusFixture;
+import io.openaev.utils.fixtures.composers.InjectComposer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("Inject execution lease between nodes tests")
+class InjectExecutionLeaseServiceIntegrationTest extends IntegrationTest {
+
+  @Autowired private InjectExecutionLeaseRepository injectExecutionLeaseRepository;
+  @Autowired private InjectStatusRepository injectStatusRepository;
+  @Autowired private InjectComposer injectComposer;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private final List<InjectComposer.Composer> injectWrappers = new ArrayList<>();
+
+  // The claims commit in their own transaction, no test transaction can hold the injects
+  @AfterEach
+  void afterEach() {
+    injectWrappers.forEach(InjectComposer.Composer::delete);
+    injectWrappers.clear();
+    injectComposer.reset();
+    jdbcTemplate.execute("DELETE FROM injects_execution_shards");
+    jdbcTemplate.execute("DELETE FROM injects_execution_nodes");
+  }
+
+  private InjectExecutionLeaseService node(int shardCount) {
+    InjectExecutionLeaseService node =
+        new InjectExecutionLeaseService(injectExecutionLeaseRepository);
+    ReflectionTestUtils.setField(node, "enabled", true);
+    ReflectionTestUtils.setField(node, "leaseSeconds", 300L);
+    ReflectionTestUtils.setField(node, "shardCount", shardCount);
+    return node;
+  }
+
+  private Inject persistInject() {
+    InjectComposer.Composer wrapper =
+        injectComposer.forInject(InjectFixture.getDefaultInject()).persist();
+    injectWrappers.add(wrapper);
+    return wrapper.get();
+  }
+
+  // As if the node holding the shards died
+  private void expireShards() {
+    jdbcTemplate.execute(
+        "UPDATE injects_execution_shards SET shard_expires_at = now() - interval '1 second'");
+  }
+
+  @Test
+  @DisplayName("An inject launched by a node is not claimed again by another after the release")
+  void claimAfterRelease() {
+    InjectExecutionLeaseService first = node(1);
+    InjectExecutionLeaseService second = node(1);
+    Inject inject = persistInject();
+    // Both nodes listed the inject as runnable before its launch
+    List<ExecutableInject> listed = List.of(new ExecutableInject(false, false, inject, List.of()));
+
+    List<ExecutableInject> claimed = first.claim(listed);
+    assertThat(claimed).hasSize(1);
+    assertThat(second.claim(listed)).isEmpty();
+
+    InjectStatus launched = InjectStatusFixture.createPendingInjectStatus();
+    launched.setInject(inject);
+    inject.setStatus(injectStatusRepository.save(launched));
+    first.release(claimed);
+    expireShards();
+
+    assertThat(second.claim(listed)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("An inject released before its launch is claimed by the node taking over its shard")
+  void claimAfterReleaseWithoutLaunch() {
+    InjectExecutionLeaseService first = node(1);
+    InjectExecutionLeaseService second = node(1);
+    Inject inject = persistInject();
+    List<ExecutableInject> listed = List.of(new ExecutableInject(false, false, inject, List.of()));
+
+    first.release(first.claim(listed));
+    expireShards();
+
+    assertThat(second.claim(listed)).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("Two nodes lease disjoint halves of the shards")
+  void splitShards() {
+    InjectExecutionLeaseService first = node(16);
+    InjectExecutionLeaseService second = node(16);
+
+    // The first node leases every shard until it sees the second one, then frees half of them
+    first.claim(List.of());
+    second.claim(List.of());
+    first.claim(List.of());
+    second.claim(List.of());
+
+    List<Integer> firstShards =
+        injectExecutionLeaseRepository.claimShards(first.getOwner(), 16, 8, 300);
+    List<Integer> secondShards =
+        injectExecutionLeaseRepository.claimShards(second.getOwner(), 16, 8, 300);
+    assertThat(firstShards).hasSize(8).doesNotContainAnyElementsOf(secondShards);
+    assertThat(secondShards).hasSize(8);
+  }
+}
@@ -0,0 +1,125 @@
+package io.openaev.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import io.openaev.database.model.Exercise;
+import io.openaev.database.model.Inject;
+import io.openaev.database.repository.InjectExecutionLeaseRepository;
+import io.openaev.execution.ExecutableInject;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("Inject execution lease tests")
+class InjectExecutionLeaseServiceTest {
+
+  private static ExecutableInject executable(String id, String exerciseId) {
+    Inject inject = new Inject();
+    inject.setId(id);
+    if (exerciseId != null) {
+      Exercise exercise = new Exercise();
+      exercise.setId(exerciseId);
+      inject.setExercise(exercise);
+    }
+    return new ExecutableInject(false, false, inject, List.of());
+  }
+
+  @Test
+  @DisplayName("Injects of a same exercise land in the same shard")
+  void shardByExercise() {
+    List<ExecutableInject> injects =
+        List.of(
+            executable("a1", "a"),
+            executable("b1", "b"),
+            executable("a2", "a"),
+            executable("t1", null),
+            executable("t2", null));
+
+    List<List<ExecutableInject>> shards = InjectExecutionLeaseService.shards(injects, 4);
+
+    assertThat(shards).hasSize(4);
+    assertThat(shards.stream().mapToInt(List::size).sum()).isEqualTo(injects.size());
+    assertThat(shards)
+        .anySatisfy(
+            shard ->
+                assertThat(shard)
+                    .contains(injects.get(0), injects.get(2))
+                    .containsSubsequence(injects.get(0), injects.get(2)));
+    assertThat(shards)
+        .anySatisfy(shard -> assertThat(shard).contains(injects.get(3), injects.get(4)));
+  }
+
+  @Test
+  @DisplayName("Only the leased injects are launched")
+  @SuppressWarnings("unchecked")
+  void launchLeasedOnly() {
+    InjectExecutionLeaseRepository repository = mock(InjectExecutionLeaseRepository.class);
+    when(repository.claim(any(Collection.class), anyString(), anyLong()))
+        .thenAnswer(
+            invocation ->
+                ((Collection<String>) invocation.getArgument(0))
+                    .stream().filter(id -> id.endsWith("1")).toList());
+    when(repository.heartbeat(anyString(), anyLong())).thenReturn(1L);
+    when(repository.claimShards(anyString(), eq(16), eq(16), anyLong()))
+        .thenReturn(IntStream.range(0, 16).boxed().toList());
+    InjectExecutionLeaseService service = new InjectExecutionLeaseService(repository);
+    List<ExecutableInject> injects =
+        List.of(executable("a1", "a"), executable("a2", "a"), executable("b1", "b"));
+
+    assertThat(service.claim(injects)).containsExactlyElementsOf(injects);
+    verifyNoInteractions(repository);
+
+    ReflectionTestUtils.setField(service, "enabled", true);
+    ReflectionTestUtils.setField(service, "shardCount", 16);
+    assertThat(service.claim(injects)).containsExactlyInAnyOrder(injects.get(0), injects.get(2));
+    verify(repository).deleteExpired();
+  }
+
+  @Test
+  @DisplayName("Only the injects of the shards leased by the node are claimed")
+  @SuppressWarnings("unchecked")
+  void claimOwnShardsOnly() {
+    InjectExecutionLeaseRepository repository = mock(InjectExecutionLeaseRepository.class);
+    List<ExecutableInject> injects =
+        List.of(executable("a1", "a"), executable("a2", "a"), executable("b1", "b"));
+    int shardOfA = Math.floorMod("a".hashCode(), 4);
+    int shardOfB = Math.floorMod("b".hashCode(), 4);
+    assertThat(shardOfA).isNotEqualTo(shardOfB);
+    // Two nodes alive, each one leasing half of the shards
+    when(repository.heartbeat(anyString(), anyLong())).thenReturn(2L);
+    when(repository.claimShards(anyString(), eq(4), eq(2), anyLong()))
+        .thenReturn(List.of(shardOfA));
+    when(repository.claim(any(Collection.class), anyString(), anyLong()))
+        .thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+    InjectExecutionLeaseService service = new InjectExecutionLeaseService(repository);
+    ReflectionTestUtils.setField(service, "enabled", true);
+    ReflectionTestUtils.setField(service, "shardCount", 4);
+
+    assertThat(service.claim(injects)).containsExactly(injects.get(0), injects.get(1));
+    verify(repository).claim(eq(List.of("a1", "a2")), anyString(), anyLong());
+    verify(repository, never()).claim(eq(List.of("b1")), anyString(), anyLong());
+  }
+
+  @Test
+  @DisplayName("The shards are leased even without injects to run")
+  void claimShardsWhenIdle() {
+    InjectExecutionLeaseRepository repository = mock(InjectExecutionLeaseRepository.class);
+    when(repository.heartbeat(anyString(), anyLong())).thenReturn(3L);
+    InjectExecutionLeaseService service = new InjectExecutionLeaseService(repository);
+    ReflectionTestUtils.setField(service, "enabled", true);
+    ReflectionTestUtils.setField(service, "shardCount", 16);
+
+    assertThat(service.claim(List.of())).isEmpty();
+    verify(repository).createShards(16);
+    verify(repository).claimShards(anyString(), eq(16), eq(6), anyLong());
+    verify(repository, never()).deleteExpired();
+  }
+}
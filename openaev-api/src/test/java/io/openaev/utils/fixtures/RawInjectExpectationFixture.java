@@ -182,4 +182,37 @@ public class RawInjectExpectationFixture {
         null,
         null);
   }
+
+  public static RawInjectExpectation createDefaultInjectExpectation(
+      String exerciseId,
+      String injectId,
+      String expectationType,
+      Double expectationScore,
+      Double expectationExpectedScore) {
+    return new TestableRawInjectExpectation(
+        null,
+        null,
+        null,
+        null,
+        expectationType,
+        null,
+        expectationScore,
+        expectationExpectedScore,
+        null,
+        false,
+        null,
+        null,
+        exerciseId,
+        injectId,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null);
+  }
 }
@@ -5,6 +5,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import io.openaev.IntegrationTest;
 import io.openaev.annotation.Queryable;
 import io.openaev.database.model.Filters;
+import io.openaev.database.model.Payload;
 import io.openaev.schema.PropertySchema;
 import io.openaev.schema.SchemaUtils;
 import jakarta.transaction.Transactional;
@@ -142,4 +143,25 @@ public class SchemaUtilsTest extends IntegrationTest {
         propertySchemas.stream().filter(ps -> ps.getName().equals("getOptions")).findFirst().get();
     assertThat(stringAttribute.getAvailableValues()).isEqualTo(expectedAvailableValues);
   }
+
+  @Test
+  @DisplayName("Schema with subtypes includes the properties of the subclasses, computed once")
+  public void schemaWithSubtypesIncludesSubclassPropertiesAndIsCached() {
+    List<PropertySchema> propertySchemas = SchemaUtils.schemaWithSubtypes(Payload.class);
+
+    assertThat(propertySchemas.stream().anyMatch(ps -> ps.getName().equals("hostname"))).isTrue();
+    assertThat(SchemaUtils.schemaWithSubtypes(Payload.class)).isSameAs(propertySchemas);
+  }
+
+  @Test
+  @DisplayName("Searchable schema with subtypes only holds searchable properties, computed once")
+  public void searchableSchemaWithSubtypesOnlyHoldsSearchableProperties() {
+    List<PropertySchema> searchableProperties =
+        SchemaUtils.searchableSchemaWithSubtypes(Payload.class);
+
+    assertThat(searchableProperties.isEmpty()).isFalse();
+    assertThat(searchableProperties.stream().allMatch(PropertySchema::isSearchable)).isTrue();
+    assertThat(SchemaUtils.searchableSchemaWithSubtypes(Payload.class))
+        .isSameAs(searchableProperties);
+  }
 }
@@ -13,6 +13,7 @@ import lombok.Data;
  *   <li>Worker configuration for background processing
  *   <li>Quality of Service (QoS) settings for flow control
  *   <li>Queue sizing parameters
+ *   <li>Publisher confirmation and buffering limits for backpressure
  * </ul>
  */
 @Data
@@ -30,7 +31,10 @@ public class QueueConfig {
   @JsonProperty("worker-number")
   private int workerNumber = 1;
 
-  /** Worker polling frequency in milliseconds (default: 10000). */
+  /**
+   * Longest time a message waits for its batch to fill, in milliseconds (default: 10000). The
+   * batches are flushed earlier to meet the target latency.
+   */
   @JsonProperty("worker-frequency")
   private int workerFrequency = 10000;
 
@@ -42,11 +46,46 @@ public class QueueConfig {
   @JsonProperty("max-size")
   private int maxSize = 100;
 
-  /** Consumer prefetch count for flow control (default: 30). */
+  /**
+   * Smallest number of messages triggering a batch, the batch size growing up to max-size under
+   * load (default: 1, an immediate flush when idle).
+   */
+  @JsonProperty("min-size")
+  private int minSize = 1;
+
+  /**
+   * Latency between the consumption of a message and the end of its batch to stay under, in
+   * milliseconds (default: 1000).
+   */
+  @JsonProperty("target-latency")
+  private int targetLatency = 1000;
+
+  /**
+   * Consumer prefetch count for flow control, capped to the buffer capacity shared by the consumers
+   * (default: 30).
+   */
   @JsonProperty("consumer-qos")
   private int consumerQos = 30;
 
   /** Publisher confirmation batch size (default: 30). */
   @JsonProperty("publisher-qos")
   private int publisherQos = 30;
+
+  /**
+   * Maximum number of published messages waiting for a broker confirmation, per publisher channel
+   * (default: 1000).
+   */
+  @JsonProperty("publisher-max-unconfirmed")
+  private int publisherMaxUnconfirmed = 1000;
+
+  /**
+   * Time a publish waits for a confirmation slot before being rejected, in milliseconds (default:
+   * 1000).
+   */
+  @JsonProperty("publisher-timeout")
+  private int publisherTimeout = 1000;
+
+  /** Maximum number of consumed messages buffered per worker (default: 10000). */
+  @JsonProperty("buffer-capacity")
+  private int bufferCapacity = 10000;
 }
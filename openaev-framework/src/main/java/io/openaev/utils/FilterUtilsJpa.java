@@ -145,12 +145,7 @@ public final class FilterUtilsJpa {
     String filterKey = filter.getKey();
 
     return (root, query, cb) -> {
-      List<PropertySchema> propertySchemas;
-      try {
-        propertySchemas = SchemaUtils.schemaWithSubtypes(root.getJavaType());
-      } catch (ClassNotFoundException e) {
-        throw new RuntimeException(e);
-      }
+      List<PropertySchema> propertySchemas = SchemaUtils.schemaWithSubtypes(root.getJavaType());
       List<PropertySchema> filterableProperties = getFilterableProperties(propertySchemas);
       PropertySchema filterableProperty = retrieveProperty(filterableProperties, filterKey);
 
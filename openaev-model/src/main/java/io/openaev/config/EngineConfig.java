@@ -81,6 +81,33 @@ public class EngineConfig {
 
     /** Default SSL certificate verification setting. */
     public static final boolean REJECT_UNAUTHORIZED = true;
+
+    /** Default maximum number of documents sent in a single indexing bulk request. */
+    public static final int INDEXING_BULK_SIZE = 100;
+
+    /** Default number of attempts before a refused document is moved to dead-letter. */
+    public static final int INDEXING_RETRY_MAX_ATTEMPTS = 5;
+
+    /** Default delay in seconds before the first retry of a refused document. */
+    public static final long INDEXING_RETRY_BACKOFF_SECONDS = 60;
+
+    /** Default number of models indexed concurrently. */
+    public static final int INDEXING_MAX_CONCURRENT_MODELS = 2;
+
+    /** Default maximum size of the bulks in flight to the engine at the same time (20MB). */
+    public static final long INDEXING_MAX_IN_FLIGHT_BYTES = 20L * 1024 * 1024;
+
+    /** Default near real-time indexing on entity changes (enabled). */
+    public static final boolean INDEXING_REALTIME_ENABLED = true;
+
+    /** Default delay in milliseconds to coalesce entity changes before indexing them. */
+    public static final long INDEXING_REALTIME_DELAY_MS = 1000;
+
+    /** Default window in milliseconds read again before the watermark by the periodic sync. */
+    public static final long INDEXING_RECONCILIATION_OVERLAP_MS = 60000;
+
+    /** Default maximum number of documents per second written by a background index rebuild. */
+    public static final long INDEXING_REBUILD_MAX_DOCS_PER_SECOND = 1000;
   }
 
   private String engineSelector = Defaults.ENGINE_SELECTOR;
@@ -116,4 +143,22 @@ public class EngineConfig {
   private String password;
 
   private boolean rejectUnauthorized = Defaults.REJECT_UNAUTHORIZED;
+
+  private int indexingBulkSize = Defaults.INDEXING_BULK_SIZE;
+
+  private int indexingRetryMaxAttempts = Defaults.INDEXING_RETRY_MAX_ATTEMPTS;
+
+  private long indexingRetryBackoffSeconds = Defaults.INDEXING_RETRY_BACKOFF_SECONDS;
+
+  private int indexingMaxConcurrentModels = Defaults.INDEXING_MAX_CONCURRENT_MODELS;
+
+  private long indexingMaxInFlightBytes = Defaults.INDEXING_MAX_IN_FLIGHT_BYTES;
+
+  private boolean indexingRealtimeEnabled = Defaults.INDEXING_REALTIME_ENABLED;
+
+  private long indexingRealtimeDelayMs = Defaults.INDEXING_REALTIME_DELAY_MS;
+
+  private long indexingReconciliationOverlapMs = Defaults.INDEXING_RECONCILIATION_OVERLAP_MS;
+
+  private long indexingRebuildMaxDocsPerSecond = Defaults.INDEXING_REBUILD_MAX_DOCS_PER_SECOND;
 }
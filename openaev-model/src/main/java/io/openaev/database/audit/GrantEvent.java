@@ -0,0 +1,35 @@
+package io.openaev.database.audit;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+/**
+ * Event object representing a change of a grant.
+ *
+ * <p>Grants are not streamed to the clients, this lightweight event only informs the components
+ * caching permissions that the ones computed so far may be outdated.
+ *
+ * @see GrantListener
+ */
+@Getter
+public class GrantEvent {
+
+  /** The ID of the grant affected. */
+  @JsonProperty("event_id")
+  private String id;
+
+  /** The type of operation (e.g., DATA_DELETE_SUCCESS). */
+  @JsonProperty("event_type")
+  private String type;
+
+  /**
+   * Constructs a new grant event.
+   *
+   * @param type the type of operation
+   * @param id the ID of the affected grant
+   */
+  public GrantEvent(String type, String id) {
+    this.type = type;
+    this.id = id;
+  }
+}
@@ -0,0 +1,41 @@
+package io.openaev.database.audit;
+
+import static io.openaev.database.audit.ModelBaseListener.DATA_DELETE;
+import static io.openaev.database.audit.ModelBaseListener.DATA_PERSIST;
+import static io.openaev.database.audit.ModelBaseListener.DATA_UPDATE;
+
+import io.openaev.database.model.Grant;
+import jakarta.persistence.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that publishes a {@link GrantEvent} for every change of a {@link Grant}, so
+ * the permissions cached from the grants can be invalidated.
+ */
+@Component
+public class GrantListener {
+
+  private ApplicationEventPublisher appPublisher;
+
+  @Autowired
+  public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+    this.appPublisher = applicationEventPublisher;
+  }
+
+  @PostPersist
+  void postPersist(Grant grant) {
+    appPublisher.publishEvent(new GrantEvent(DATA_PERSIST, grant.getId()));
+  }
+
+  @PostUpdate
+  void postUpdate(Grant grant) {
+    appPublisher.publishEvent(new GrantEvent(DATA_UPDATE, grant.getId()));
+  }
+
+  @PostRemove
+  void postRemove(Grant grant) {
+    appPublisher.publishEvent(new GrantEvent(DATA_DELETE, grant.getId()));
+  }
+}
@@ -0,0 +1,40 @@
+package io.openaev.database.function;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Full text search functions of the criteria queries.
+ *
+ * <p>The match is rendered with the {@code @@} operator on the exact {@code to_tsvector('simple',
+ * column)} expression of the GIN indexes, a function call or a rank threshold never being able to
+ * use them.
+ */
+public class FullTextSearchFunctionContributor implements FunctionContributor {
+
+  /** {@code fts_match(column, query)}: true if the column matches the text search query */
+  public static final String FTS_MATCH = "fts_match";
+
+  /** {@code fts_rank(column, query)}: relevance of the column for the text search query */
+  public static final String FTS_RANK = "fts_rank";
+
+  @Override
+  public void contributeFunctions(FunctionContributions functionContributions) {
+    BasicTypeRegistry typeRegistry =
+        functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+    functionContributions
+        .getFunctionRegistry()
+        .registerPattern(
+            FTS_MATCH,
+            "(to_tsvector('simple', ?1) @@ to_tsquery('simple', ?2))",
+            typeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+    functionContributions
+        .getFunctionRegistry()
+        .registerPattern(
+            FTS_RANK,
+            "ts_rank(to_tsvector('simple', ?1), to_tsquery('simple', ?2))",
+            typeRegistry.resolve(StandardBasicTypes.DOUBLE));
+  }
+}
@@ -0,0 +1,72 @@
+package io.openaev.database.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.hypersistence.utils.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import lombok.Data;
+import org.hibernate.annotations.Type;
+import org.hibernate.annotations.UuidGenerator;
+
+/**
+ * A document the analytics engine refused during a bulk indexing, kept aside to be re-sent with an
+ * exponential backoff instead of blocking the indexing of the whole model.
+ */
+@Data
+@Entity
+@Table(name = "indexing_retries")
+public class IndexingRetry {
+
+  public enum Status {
+    PENDING,
+    DEAD,
+  }
+
+  @Id
+  @GeneratedValue(generator = "UUID")
+  @UuidGenerator
+  @Column(name = "indexing_retry_id", nullable = false)
+  @JsonProperty("indexing_retry_id")
+  @NotBlank
+  private String id;
+
+  @Column(name = "indexing_retry_type", nullable = false)
+  @JsonProperty("indexing_retry_type")
+  @NotBlank
+  private String type;
+
+  @Column(name = "indexing_retry_document_id", nullable = false)
+  @JsonProperty("indexing_retry_document_id")
+  @NotBlank
+  private String documentId;
+
+  @Column(name = "indexing_retry_document", columnDefinition = "jsonb")
+  @Type(JsonType.class)
+  @JsonProperty("indexing_retry_document")
+  private JsonNode document;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "indexing_retry_status", nullable = false)
+  @JsonProperty("indexing_retry_status")
+  @NotNull
+  private Status status = Status.PENDING;
+
+  @Column(name = "indexing_retry_attempts", nullable = false)
+  @JsonProperty("indexing_retry_attempts")
+  private int attempts;
+
+  @Column(name = "indexing_retry_next_attempt_at")
+  @JsonProperty("indexing_retry_next_attempt_at")
+  private Instant nextAttemptAt;
+
+  @Column(name = "indexing_retry_last_error")
+  @JsonProperty("indexing_retry_last_error")
+  private String lastError;
+
+  @Column(name = "indexing_retry_updated_at")
+  @JsonProperty("indexing_retry_updated_at")
+  private Instant updatedAt = Instant.now();
+}
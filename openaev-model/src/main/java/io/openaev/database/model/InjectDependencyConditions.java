@@ -2,6 +2,8 @@ package io.openaev.database.model;
 
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 import lombok.Data;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
@@ -50,6 +52,35 @@ public class InjectDependencyConditions {
       }
       return result.toString().trim();
     }
+
+    /**
+     * Compile the condition into a predicate over the state of the parent expectations, to evaluate
+     * it without parsing it again.
+     *
+     * @return a predicate taking the expectations by condition key and whether they are met
+     * @throws IllegalArgumentException if a condition cannot be evaluated
+     */
+    public Predicate<Map<String, Boolean>> toPredicate() {
+      if (conditions == null || conditions.isEmpty()) {
+        // An empty condition has never been satisfied
+        return expectations -> false;
+      }
+      @SuppressWarnings("unchecked")
+      Predicate<Map<String, Boolean>>[] predicates =
+          conditions.stream().map(Condition::toPredicate).toArray(Predicate[]::new);
+      if (predicates.length == 1) {
+        return predicates[0];
+      }
+      boolean any = mode == DependencyMode.or;
+      return expectations -> {
+        for (Predicate<Map<String, Boolean>> predicate : predicates) {
+          if (predicate.test(expectations) == any) {
+            return any;
+          }
+        }
+        return !any;
+      };
+    }
   }
 
   @Data
@@ -63,5 +94,21 @@ public class InjectDependencyConditions {
     public String toString() {
       return String.format("%s %s %s", key, operator.getEvaluationValue(), value);
     }
+
+    private Predicate<Map<String, Boolean>> toPredicate() {
+      // Keys with quotes never were valid in the evaluated expressions, keep rejecting them
+      if (StringUtils.isBlank(key) || key.indexOf('\'') >= 0 || operator == null) {
+        throw new IllegalArgumentException("Invalid dependency condition: " + key);
+      }
+      String expectationKey = key;
+      boolean expected = value;
+      return switch (operator) {
+        case eq ->
+            expectations -> {
+              Boolean actual = expectations.get(expectationKey);
+              return actual != null && actual == expected;
+            };
+      };
+    }
   }
 }
@@ -0,0 +1,34 @@
+package io.openaev.database.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * Claim of an API node on an inject to launch. A node only launches the injects it holds a lease
+ * on, the lease expiring if the node dies before releasing it.
+ */
+@Data
+@Entity
+@Table(name = "injects_execution_leases")
+public class InjectExecutionLease {
+
+  @Id
+  @Column(name = "lease_inject_id", nullable = false)
+  @JsonProperty("lease_inject_id")
+  @NotBlank
+  private String injectId;
+
+  @Column(name = "lease_owner", nullable = false)
+  @JsonProperty("lease_owner")
+  @NotBlank
+  private String owner;
+
+  @Column(name = "lease_expires_at", nullable = false)
+  @JsonProperty("lease_expires_at")
+  @NotNull
+  private Instant expiresAt;
+}
@@ -0,0 +1,40 @@
+package io.openaev.database.raw;
+
+/**
+ * Spring Data projection interface for the agents having jobs to fetch.
+ *
+ * <p>Identifies an agent the way it polls its jobs: by the external reference of its endpoint and
+ * its identity on this endpoint.
+ *
+ * @see io.openaev.database.model.AssetAgentJob
+ */
+public interface RawAgentJobTarget {
+
+  /**
+   * Returns the external reference of the agent.
+   *
+   * @return the agent external reference
+   */
+  String getAgent_external_reference();
+
+  /**
+   * Returns the deployment mode of the agent.
+   *
+   * @return the deployment mode (e.g., "service", "session")
+   */
+  String getAgent_deployment_mode();
+
+  /**
+   * Returns the privilege of the agent.
+   *
+   * @return the privilege (e.g., "admin", "standard")
+   */
+  String getAgent_privilege();
+
+  /**
+   * Returns the identifier of the user context under which the agent is executed.
+   *
+   * @return the executed-by user identifier
+   */
+  String getAgent_executed_by_user();
+}
@@ -0,0 +1,18 @@
+package io.openaev.database.raw;
+
+import java.time.Instant;
+
+public interface RawExecutablePayloadVersion {
+
+  Instant getInject_updated_at();
+
+  Instant getInjector_contract_updated_at();
+
+  Instant getPayload_updated_at();
+
+  /** The assets referenced by the content of the inject, with their update dates */
+  String getReferenced_assets_version();
+
+  /** The documents referenced by the content of the inject, with their names */
+  String getReferenced_documents_version();
+}
@@ -0,0 +1,26 @@
+package io.openaev.database.raw;
+
+import java.time.Instant;
+
+/**
+ * Spring Data projection interface for the sync cursors of an executor.
+ *
+ * <p>A cursor is the date of the last devices sync of an executor for a synced scope, such as an
+ * EDR host group.
+ */
+public interface RawExecutorSyncCursor {
+
+  /**
+   * Returns the synced scope.
+   *
+   * @return the cursor key
+   */
+  String getExecutor_sync_cursor_key();
+
+  /**
+   * Returns the date of the last sync of the scope.
+   *
+   * @return the cursor value
+   */
+  Instant getExecutor_sync_cursor_value();
+}
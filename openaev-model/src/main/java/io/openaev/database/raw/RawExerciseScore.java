@@ -0,0 +1,12 @@
+package io.openaev.database.raw;
+
+public interface RawExerciseScore {
+
+  String getExercise_id();
+
+  Long getExercise_score_version();
+
+  Long getExercise_score_computed_version();
+
+  String getExercise_score_results();
+}
@@ -19,6 +19,9 @@ public interface RawInjectIndexing {
 
   Instant getTracking_sent_date();
 
+  // Last change of the inject, of its contract, of its dependencies or of their contracts
+  Instant getInject_indexing_updated_at();
+
   Set<String> getInject_platforms();
 
   Set<String> getInject_attack_patterns();
@@ -0,0 +1,24 @@
+package io.openaev.database.raw;
+
+import java.time.Instant;
+
+public interface RawPendingExpectation {
+
+  String getInject_expectation_id();
+
+  String getInject_expectation_type();
+
+  Instant getInject_expectation_created_at();
+
+  Long getInject_expiration_time();
+
+  String getInject_expectation_signatures();
+
+  String getInject_id();
+
+  String getAgent_id();
+
+  String getAsset_id();
+
+  String getAsset_group_id();
+}
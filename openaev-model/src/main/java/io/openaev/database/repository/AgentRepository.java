@@ -56,6 +56,27 @@ public interface AgentRepository
   @Transactional
   void deleteByAgentId(String agentId);
 
+  /**
+   * Write the last seen dates of several agents at once, never moving a date backward
+   *
+   * @param agentIds the agents
+   * @param lastSeens the ISO-8601 last seen dates, in the order of the agents
+   * @return the ids of the agents found, the other ones having been deleted
+   */
+  @Query(
+      value =
+          """
+          UPDATE agents a SET agent_last_seen = GREATEST(a.agent_last_seen, s.last_seen)
+          FROM unnest(cast(:agentIds as text[]), cast(cast(:lastSeens as text[]) as timestamptz[]))
+              AS s(agent_id, last_seen)
+          WHERE a.agent_id = s.agent_id
+          RETURNING a.agent_id
+          """,
+      nativeQuery = true)
+  @Transactional
+  List<String> updateLastSeen(
+      @Param("agentIds") String[] agentIds, @Param("lastSeens") String[] lastSeens);
+
   @Query(
       value =
           "SELECT ag.agent_id, "
@@ -1,8 +1,10 @@
 package io.openaev.database.repository;
 
 import io.openaev.database.model.AssetAgentJob;
+import io.openaev.database.raw.RawAgentJobTarget;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -23,4 +25,12 @@ public interface AssetAgentJobRepository
       value = "DELETE FROM asset_agent_jobs j WHERE j.asset_agent_id = :assetAgentJobId",
       nativeQuery = true)
   void deleteById(@Param("assetAgentJobId") @NotBlank String assetAgentJobId);
+
+  @Query(
+      value =
+          "SELECT DISTINCT a.agent_external_reference, a.agent_deployment_mode, a.agent_privilege, "
+              + "a.agent_executed_by_user FROM asset_agent_jobs j "
+              + "JOIN agents a ON a.agent_id = j.asset_agent_agent",
+      nativeQuery = true)
+  List<RawAgentJobTarget> rawJobTargets();
 }
@@ -15,10 +15,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface AssetGroupRepository
@@ -228,9 +230,31 @@ public interface AssetGroupRepository
       value =
           "SELECT ag.asset_group_id, ag.asset_group_name, ag.asset_group_updated_at, ag.asset_group_created_at "
               + "FROM asset_groups ag "
-              + "WHERE ag.asset_group_updated_at > :from ORDER BY ag.asset_group_updated_at LIMIT "
+              + "WHERE (ag.asset_group_updated_at, ag.asset_group_id) > (:from, :afterId) ORDER BY ag.asset_group_updated_at, ag.asset_group_id LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawAssetGroupIndexing> findForIndexing(@Param("from") Instant from);
+  List<RawAssetGroupIndexing> findForIndexing(
+      @Param("from") Instant from, @Param("afterId") String afterId);
+
+  /**
+   * Add assets to an asset group, keeping the ones already in it
+   *
+   * @param assetGroupId the asset group
+   * @param assetIds the assets to add
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO asset_groups_assets (asset_group_id, asset_id)
+          SELECT DISTINCT :assetGroupId, a.asset_id FROM unnest(cast(:assetIds as text[])) AS a(asset_id)
+          WHERE NOT EXISTS (
+              SELECT 1 FROM asset_groups_assets aga
+              WHERE aga.asset_group_id = :assetGroupId AND aga.asset_id = a.asset_id
+          )
+          """,
+      nativeQuery = true)
+  @Transactional
+  void addAssets(@Param("assetGroupId") String assetGroupId, @Param("assetIds") String[] assetIds);
 }
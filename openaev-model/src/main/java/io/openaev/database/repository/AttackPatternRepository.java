@@ -44,9 +44,10 @@ public interface AttackPatternRepository
               + " ap.attack_pattern_created_at, ap.attack_pattern_updated_at, ap.attack_pattern_parent, apkcp.phase_id AS attack_pattern_kill_chain_phases "
               + "FROM attack_patterns ap "
               + "LEFT JOIN attack_patterns_kill_chain_phases apkcp ON apkcp.attack_pattern_id = ap.attack_pattern_id "
-              + "WHERE ap.attack_pattern_updated_at > :from ORDER BY ap.attack_pattern_updated_at LIMIT "
+              + "WHERE (ap.attack_pattern_updated_at, ap.attack_pattern_id) > (:from, :afterId) ORDER BY ap.attack_pattern_updated_at, ap.attack_pattern_id LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawAttackPattern> findForIndexing(@Param("from") Instant from);
+  List<RawAttackPattern> findForIndexing(
+      @Param("from") Instant from, @Param("afterId") String afterId);
 }
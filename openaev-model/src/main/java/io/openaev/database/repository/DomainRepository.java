@@ -32,9 +32,9 @@ public interface DomainRepository
           "SELECT d.domain_id, d.domain_name, d.domain_color, "
               + "d.domain_created_at, d.domain_updated_at "
               + "FROM domains d "
-              + "WHERE d.domain_updated_at > :from ORDER BY d.domain_updated_at LIMIT "
+              + "WHERE (d.domain_updated_at, d.domain_id) > (:from, :afterId) ORDER BY d.domain_updated_at, d.domain_id LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawDomain> findForIndexing(@Param("from") Instant from);
+  List<RawDomain> findForIndexing(@Param("from") Instant from, @Param("afterId") String afterId);
 }
@@ -150,12 +150,12 @@ public interface EndpointRepository
               + "GROUP BY a.asset_id"
               + ") "
               + "SELECT * FROM endpoint_data ed "
-              + "WHERE ed.endpoint_updated_at > :from "
-              + "ORDER BY ed.endpoint_updated_at ASC LIMIT "
+              + "WHERE (ed.endpoint_updated_at, ed.asset_id) > (:from, :afterId) "
+              + "ORDER BY ed.endpoint_updated_at ASC, ed.asset_id ASC LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawEndpoint> findForIndexing(@Param("from") Instant from);
+  List<RawEndpoint> findForIndexing(@Param("from") Instant from, @Param("afterId") String afterId);
 
   // For testing purposes only
 
@@ -1,10 +1,17 @@
 package io.openaev.database.repository;
 
 import io.openaev.database.model.Executor;
+import io.openaev.database.raw.RawExecutorSyncCursor;
 import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface ExecutorRepository extends CrudRepository<Executor, String> {
@@ -14,4 +21,27 @@ public interface ExecutorRepository extends CrudRepository<Executor, String> {
 
   @NotNull
   Optional<Executor> findByType(@NotNull String type);
+
+  @Query(
+      value =
+          "SELECT c.executor_sync_cursor_key, c.executor_sync_cursor_value "
+              + "FROM executor_sync_cursors c WHERE c.executor_id = :executorId",
+      nativeQuery = true)
+  List<RawExecutorSyncCursor> rawSyncCursors(@Param("executorId") String executorId);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO executor_sync_cursors (executor_id, executor_sync_cursor_key, executor_sync_cursor_value)
+          VALUES (:executorId, :key, :value)
+          ON CONFLICT (executor_id, executor_sync_cursor_key)
+          DO UPDATE SET executor_sync_cursor_value = EXCLUDED.executor_sync_cursor_value
+          """,
+      nativeQuery = true)
+  @Transactional
+  void saveSyncCursor(
+      @Param("executorId") String executorId,
+      @Param("key") String key,
+      @Param("value") Instant value);
 }
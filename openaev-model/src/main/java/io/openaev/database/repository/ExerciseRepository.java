@@ -219,6 +219,87 @@ public interface ExerciseRepository
       nativeQuery = true)
   Set<String> findInjectsByExercise(@Param("exerciseId") String exerciseId);
 
+  @Query(
+      value =
+          "SELECT i.inject_exercise, i.inject_id "
+              + "FROM injects i "
+              + "WHERE i.inject_exercise IN (:exerciseIds) ;",
+      nativeQuery = true)
+  List<Object[]> findInjectIdsByExerciseIds(@Param("exerciseIds") Set<String> exerciseIds);
+
+  // -- SCORES --
+
+  /** The scores of exercises, up to date while no change of their expectations is pending */
+  @Query(
+      value =
+          "SELECT es.exercise_id, "
+              + "COALESCE((SELECT max(c.exercise_score_change_id) FROM exercise_score_changes c "
+              + "WHERE c.exercise_id = es.exercise_id), es.exercise_score_computed_version) "
+              + "AS exercise_score_version, "
+              + "es.exercise_score_computed_version, "
+              + "es.exercise_score_results::text AS exercise_score_results "
+              + "FROM exercise_scores es "
+              + "WHERE es.exercise_id IN (:exerciseIds) ;",
+      nativeQuery = true)
+  List<RawExerciseScore> rawScoresByExerciseIds(@Param("exerciseIds") Set<String> exerciseIds);
+
+  /** Create the scores of the exercises changed for the first time, to be locked on refresh */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO exercise_scores (exercise_id) "
+              + "SELECT DISTINCT c.exercise_id FROM exercise_score_changes c "
+              + "ON CONFLICT (exercise_id) DO NOTHING ;",
+      nativeQuery = true)
+  @Transactional
+  void createChangedScores();
+
+  /**
+   * The scores of the exercises whose expectations changed since their last computation, the ones
+   * changed first before, locked until the end of the transaction. The scores locked by another
+   * refresh are skipped.
+   */
+  @Query(
+      value =
+          "SELECT es.exercise_id, c.exercise_score_version, es.exercise_score_computed_version, "
+              + "NULL AS exercise_score_results "
+              + "FROM exercise_scores es "
+              + "JOIN (SELECT exercise_id, "
+              + "min(exercise_score_change_id) AS exercise_score_first_change, "
+              + "max(exercise_score_change_id) AS exercise_score_version "
+              + "FROM exercise_score_changes GROUP BY exercise_id) c "
+              + "ON c.exercise_id = es.exercise_id "
+              + "ORDER BY c.exercise_score_first_change "
+              + "LIMIT :limit "
+              + "FOR UPDATE OF es SKIP LOCKED ;",
+      nativeQuery = true)
+  List<RawExerciseScore> rawOutdatedScores(@Param("limit") int limit);
+
+  /** Consume the changes of the expectations of exercises, before computing their scores */
+  @Modifying
+  @Query(
+      value = "DELETE FROM exercise_score_changes WHERE exercise_id IN (:exerciseIds) ;",
+      nativeQuery = true)
+  void deleteScoreChanges(@Param("exerciseIds") Set<String> exerciseIds);
+
+  /** Store the global results of exercises, computed for the last change of their expectations */
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE exercise_scores es
+          SET exercise_score_computed_version = s.score_version,
+              exercise_score_results = cast(s.score_results as jsonb)
+          FROM unnest(cast(:exerciseIds as text[]), cast(:versions as bigint[]), cast(:results as text[]))
+              AS s(exercise_id, score_version, score_results)
+          WHERE es.exercise_id = s.exercise_id
+          """,
+      nativeQuery = true)
+  void saveScores(
+      @Param("exerciseIds") String[] exerciseIds,
+      @Param("versions") Long[] versions,
+      @Param("results") String[] results);
+
   @Query(
       value =
           " SELECT ex.exercise_id, "
@@ -321,10 +402,11 @@ public interface ExerciseRepository
               + "GROUP BY ex.exercise_id, ex.exercise_name, ex.exercise_created_at, ex.exercise_updated_at"
               + ") "
               + "SELECT * FROM exercise_data ed "
-              + "WHERE ed.exercise_injects_updated_at > :from "
-              + "ORDER BY ed.exercise_injects_updated_at ASC LIMIT "
+              + "WHERE (ed.exercise_injects_updated_at, ed.exercise_id) > (:from, :afterId) "
+              + "ORDER BY ed.exercise_injects_updated_at ASC, ed.exercise_id ASC LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawSimulation> findForIndexing(@Param("from") Instant from);
+  List<RawSimulation> findForIndexing(
+      @Param("from") Instant from, @Param("afterId") String afterId);
 }
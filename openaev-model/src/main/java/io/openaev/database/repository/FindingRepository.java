@@ -6,6 +6,7 @@ import io.openaev.database.raw.RawFinding;
 import io.openaev.utils.Constants;
 import jakarta.validation.constraints.NotBlank;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.jetbrains.annotations.NotNull;
@@ -34,19 +35,26 @@ public interface FindingRepository
 
   // -- INDEXING --
 
+  // Documents of the findings, completed by a WHERE clause
+  String INDEXING_SELECT =
+      "SELECT f.finding_id, f.finding_value, f.finding_type, f.finding_field,"
+          + " f.finding_inject_id, i.inject_exercise, se.scenario_id, fa.asset_id, f.finding_created_at, f.finding_updated_at "
+          + "FROM findings f "
+          + "LEFT JOIN injects i ON i.inject_id = f.finding_inject_id "
+          + "LEFT JOIN scenarios_exercises se ON i.inject_exercise = se.exercise_id "
+          + "LEFT JOIN findings_assets fa ON f.finding_id = fa.finding_id ";
+
   @Query(
       value =
-          "SELECT f.finding_id, f.finding_value, f.finding_type, f.finding_field,"
-              + " f.finding_inject_id, i.inject_exercise, se.scenario_id, fa.asset_id, f.finding_created_at, f.finding_updated_at "
-              + "FROM findings f "
-              + "LEFT JOIN injects i ON i.inject_id = f.finding_inject_id "
-              + "LEFT JOIN scenarios_exercises se ON i.inject_exercise = se.exercise_id "
-              + "LEFT JOIN findings_assets fa ON f.finding_id = fa.finding_id "
-              + "WHERE f.finding_updated_at > :from ORDER BY f.finding_updated_at LIMIT "
+          INDEXING_SELECT
+              + "WHERE (f.finding_updated_at, f.finding_id) > (:from, :afterId) ORDER BY f.finding_updated_at, f.finding_id LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawFinding> findForIndexing(@Param("from") Instant from);
+  List<RawFinding> findForIndexing(@Param("from") Instant from, @Param("afterId") String afterId);
+
+  @Query(value = INDEXING_SELECT + "WHERE f.finding_id IN (:ids);", nativeQuery = true)
+  List<RawFinding> findForIndexingByIds(@Param("ids") Collection<String> ids);
 
   @Query(
       value =
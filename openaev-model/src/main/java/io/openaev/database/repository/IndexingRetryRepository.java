@@ -0,0 +1,43 @@
+package io.openaev.database.repository;
+
+import io.openaev.database.model.IndexingRetry;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface IndexingRetryRepository extends CrudRepository<IndexingRetry, String> {
+
+  List<IndexingRetry> findByTypeAndDocumentIdIn(
+      @NotNull String type, @NotNull Collection<String> documentIds);
+
+  @Query(
+      "SELECT r FROM IndexingRetry r WHERE r.type = :type AND r.status = :status "
+          + "AND r.nextAttemptAt <= :now ORDER BY r.nextAttemptAt ASC")
+  List<IndexingRetry> findDue(
+      @Param("type") String type,
+      @Param("status") IndexingRetry.Status status,
+      @Param("now") Instant now,
+      Pageable pageable);
+
+  long countByStatus(@NotNull IndexingRetry.Status status);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM IndexingRetry r WHERE r.type = :type AND r.documentId IN :documentIds")
+  void deleteByTypeAndDocumentIds(
+      @Param("type") String type, @Param("documentIds") Collection<String> documentIds);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM IndexingRetry r WHERE r.documentId IN :documentIds")
+  void deleteByDocumentIds(@Param("documentIds") Collection<String> documentIds);
+}
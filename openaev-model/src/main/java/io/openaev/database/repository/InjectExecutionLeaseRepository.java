@@ -0,0 +1,133 @@
+package io.openaev.database.repository;
+
+import io.openaev.database.model.InjectExecutionLease;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface InjectExecutionLeaseRepository
+    extends CrudRepository<InjectExecutionLease, String> {
+
+  /**
+   * Lease the given injects not leased yet, or whose lease has expired, to an owner. Injects locked
+   * by a concurrent claim are skipped instead of waited for, they belong to another node. Injects
+   * launched since they were listed, by a node which released their lease, are skipped as well:
+   * only the injects without status or queued can be leased.
+   *
+   * @return the ids of the injects leased to the owner
+   */
+  @Query(
+      value =
+          """
+        WITH candidates AS (
+          SELECT i.inject_id FROM injects i
+          LEFT JOIN injects_execution_leases l ON l.lease_inject_id = i.inject_id
+          LEFT JOIN injects_statuses s ON s.status_inject = i.inject_id
+          WHERE i.inject_id IN (:injectIds)
+            AND (l.lease_expires_at IS NULL OR l.lease_expires_at < now())
+            AND (s.status_name IS NULL OR s.status_name = 'QUEUING')
+          FOR UPDATE OF i SKIP LOCKED
+        )
+        INSERT INTO injects_execution_leases (lease_inject_id, lease_owner, lease_expires_at)
+        SELECT inject_id, :owner, now() + :seconds * interval '1 second' FROM candidates
+        ON CONFLICT (lease_inject_id) DO UPDATE
+          SET lease_owner = excluded.lease_owner, lease_expires_at = excluded.lease_expires_at
+          WHERE injects_execution_leases.lease_expires_at < now()
+        RETURNING lease_inject_id
+        """,
+      nativeQuery = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  List<String> claim(
+      @Param("injectIds") Collection<String> injectIds,
+      @Param("owner") String owner,
+      @Param("seconds") long seconds);
+
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "DELETE FROM injects_execution_leases "
+              + "WHERE lease_owner = :owner AND lease_inject_id IN (:injectIds)",
+      nativeQuery = true)
+  void release(@Param("injectIds") Collection<String> injectIds, @Param("owner") String owner);
+
+  @Modifying
+  @Transactional
+  @Query(
+      value = "DELETE FROM injects_execution_leases WHERE lease_expires_at < now()",
+      nativeQuery = true)
+  int deleteExpired();
+
+  /**
+   * Record a node as alive and forget the nodes not seen for the given number of seconds.
+   *
+   * @return the number of nodes alive, the given one included
+   */
+  @Query(
+      value =
+          """
+        WITH seen AS (
+          INSERT INTO injects_execution_nodes (node_id, node_seen_at) VALUES (:owner, now())
+          ON CONFLICT (node_id) DO UPDATE SET node_seen_at = excluded.node_seen_at
+        ), forgotten AS (
+          DELETE FROM injects_execution_nodes
+          WHERE node_seen_at < now() - :seconds * interval '1 second'
+          RETURNING node_id
+        )
+        SELECT count(*) + 1 FROM injects_execution_nodes
+        WHERE node_id <> :owner AND node_id NOT IN (SELECT node_id FROM forgotten)
+        """,
+      nativeQuery = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  long heartbeat(@Param("owner") String owner, @Param("seconds") long seconds);
+
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "INSERT INTO injects_execution_shards (shard_id) "
+              + "SELECT generate_series(0, :count - 1) ON CONFLICT (shard_id) DO NOTHING",
+      nativeQuery = true)
+  void createShards(@Param("count") int count);
+
+  /**
+   * Lease up to a number of shards to an owner, the ones it already holds first, then the ones free
+   * or whose lease has expired. Shards locked by a concurrent claim are skipped. The shards held by
+   * the owner beyond the number are freed for the other nodes.
+   *
+   * @return the ids of the shards leased to the owner
+   */
+  @Query(
+      value =
+          """
+        WITH candidates AS (
+          SELECT shard_id FROM injects_execution_shards
+          WHERE shard_id < :count
+            AND (shard_owner = :owner OR shard_owner IS NULL OR shard_expires_at < now())
+          ORDER BY shard_owner IS NOT DISTINCT FROM :owner DESC, shard_id
+          LIMIT :limit
+          FOR UPDATE SKIP LOCKED
+        ), freed AS (
+          UPDATE injects_execution_shards SET shard_owner = NULL, shard_expires_at = NULL
+          WHERE shard_owner = :owner AND shard_id NOT IN (SELECT shard_id FROM candidates)
+        )
+        UPDATE injects_execution_shards s
+        SET shard_owner = :owner, shard_expires_at = now() + :seconds * interval '1 second'
+        FROM candidates c WHERE s.shard_id = c.shard_id
+        RETURNING s.shard_id
+        """,
+      nativeQuery = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  List<Integer> claimShards(
+      @Param("owner") String owner,
+      @Param("count") int count,
+      @Param("limit") int limit,
+      @Param("seconds") long seconds);
+}
@@ -2,15 +2,22 @@ package io.openaev.database.repository;
 
 import io.openaev.database.model.InjectExpectation;
 import io.openaev.database.raw.RawInjectExpectation;
+import io.openaev.database.raw.RawPendingExpectation;
+import io.openaev.utils.Constants;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -32,6 +39,13 @@ public interface InjectExpectationRepository
       @Param("exerciseId") @NotBlank final String exerciseId,
       @Param("injectId") @NotBlank final String injectId);
 
+  @Query(
+      value =
+          "select i from InjectExpectation i where i.exercise.id in :exerciseIds and i.inject.id in :injectIds")
+  List<InjectExpectation> findAllForExercisesAndInjects(
+      @Param("exerciseIds") @NotNull final Collection<String> exerciseIds,
+      @Param("injectIds") @NotNull final Collection<String> injectIds);
+
   @Query(
       value =
           "select i from InjectExpectation i where i.exercise.id = :exerciseId "
@@ -223,11 +237,62 @@ public interface InjectExpectationRepository
       @Param("injectId") String injectId,
       @Param("agentId") String agentId);
 
-  // -- INDEXING --
+  @Modifying
+  @Query(
+      value =
+          """
+                UPDATE injects_expectations ie
+                SET inject_expectation_signatures =
+                    COALESCE(ie.inject_expectation_signatures, '[]'::jsonb) ||
+                    jsonb_build_array(jsonb_build_object('type', :sigType, 'value', s.sig_value))
+                FROM unnest(cast(:agentIds as text[]), cast(:sigValues as text[])) AS s(agent_id, sig_value)
+                WHERE ie.inject_id = :injectId AND ie.agent_id = s.agent_id
+                """,
+      nativeQuery = true)
+  void insertSignatures(
+      @Param("sigType") String sigType,
+      @Param("injectId") String injectId,
+      @Param("agentIds") String[] agentIds,
+      @Param("sigValues") String[] sigValues);
 
+  /**
+   * Agent expectations of a type without result from a source, in creation order after a position,
+   * whatever the results of the other sources. Served by the partial index on the agent
+   * expectations and read with a cursor, to be consumed within a transaction.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
   @Query(
       value =
           """
+          SELECT ie.inject_expectation_id, ie.inject_expectation_type,
+              ie.inject_expectation_created_at, ie.inject_expiration_time,
+              cast(ie.inject_expectation_signatures as text) AS inject_expectation_signatures,
+              ie.inject_id, ie.agent_id, ie.asset_id, ie.asset_group_id
+          FROM injects_expectations ie
+          WHERE ie.inject_expectation_type = :type
+              AND ie.agent_id IS NOT NULL
+              AND (ie.inject_expectation_created_at, ie.inject_expectation_id) > (:afterDate, :afterId)
+              AND NOT EXISTS (
+                  SELECT 1
+                  FROM json_array_elements(coalesce(ie.inject_expectation_results, cast('[]' as json))) AS r(elem)
+                  WHERE r.elem->>'sourceId' = :sourceId AND btrim(coalesce(r.elem->>'result', '')) <> ''
+              )
+          ORDER BY ie.inject_expectation_created_at, ie.inject_expectation_id
+          LIMIT :limit
+          """,
+      nativeQuery = true)
+  Stream<RawPendingExpectation> rawPendingBySource(
+      @Param("type") String type,
+      @Param("sourceId") String sourceId,
+      @Param("afterDate") Instant afterDate,
+      @Param("afterId") String afterId,
+      @Param("limit") int limit);
+
+  // -- INDEXING --
+
+  // Documents of the expectations, completed by a WHERE clause on ied
+  String INDEXING_SELECT =
+      """
     WITH inject_expectation_data AS (
       SELECT
       ie.inject_expectation_id,
@@ -278,10 +343,28 @@ public interface InjectExpectationRepository
       i.inject_title
     )
     SELECT * FROM inject_expectation_data ied
-    WHERE ied.inject_expectation_updated_at > :from AND ied.agent_id IS NULL
-    ORDER BY ied.inject_expectation_updated_at ASC
-    LIMIT 500
+    """;
+
+  @Query(
+      value =
+          INDEXING_SELECT
+              + """
+    WHERE (ied.inject_expectation_updated_at, ied.inject_expectation_id) > (:from, :afterId)
+    AND ied.agent_id IS NULL
+    ORDER BY ied.inject_expectation_updated_at ASC, ied.inject_expectation_id ASC
+    LIMIT """
+              + Constants.INDEXING_RECORD_SET_SIZE,
+      nativeQuery = true)
+  List<RawInjectExpectation> findForIndexing(
+      @Param("from") Instant from, @Param("afterId") String afterId);
+
+  @Query(
+      value =
+          INDEXING_SELECT
+              + """
+    WHERE ied.inject_expectation_id IN (:ids)
+    AND ied.agent_id IS NULL
     """,
       nativeQuery = true)
-  List<RawInjectExpectation> findForIndexing(@Param("from") Instant from);
+  List<RawInjectExpectation> findForIndexingByIds(@Param("ids") Collection<String> ids);
 }
@@ -3,6 +3,7 @@ package io.openaev.database.repository;
 import static io.openaev.database.model.DnsResolution.DNS_RESOLUTION_TYPE;
 
 import io.openaev.database.model.Inject;
+import io.openaev.database.raw.RawExecutablePayloadVersion;
 import io.openaev.database.raw.RawInject;
 import io.openaev.database.raw.RawInjectIndexing;
 import io.openaev.utils.Constants;
@@ -53,56 +54,100 @@ public interface InjectRepository
   @NotNull
   Optional<Inject> findWithStatusById(@NotNull String id);
 
+  // Documents of the injects, completed by a WHERE clause then INDEXING_GROUP_BY
+  String INDEXING_SELECT =
+      "SELECT f.inject_id, f.inject_title, f.inject_scenario, f.inject_exercise, f.inject_created_at, f.inject_updated_at, f.inject_injector_contract, ic.injector_contract_updated_at, ins.tracking_sent_date, "
+          // The last change of the inject or of its children, the cursor of the indexing
+          + "GREATEST(f.inject_updated_at, ic.injector_contract_updated_at, MAX(idp.dependency_updated_at), MAX(ic_children.injector_contract_updated_at)) as inject_indexing_updated_at, "
+          + "array_union_agg(ic.injector_contract_platforms) FILTER ( WHERE ic.injector_contract_platforms IS NOT NULL ) as inject_platforms, "
+          + "array_agg(icap.attack_pattern_id) FILTER ( WHERE icap.attack_pattern_id IS NOT NULL ) as inject_attack_patterns, "
+          + "array_agg(ap.phase_id) FILTER ( WHERE ap.phase_id IS NOT NULL ) as inject_kill_chain_phases, "
+          + "array_agg(idp.inject_children_id) FILTER ( WHERE idp.inject_children_id IS NOT NULL ) as inject_children, "
+          + "array_agg(idp.inject_children_id) FILTER ( WHERE idp.inject_children_id IS NOT NULL ) as attack_pattern_children, "
+          + "array_agg(icap_children.attack_pattern_id) FILTER (WHERE icap_children.attack_pattern_id IS NOT NULL) AS attack_patterns_children,"
+          + "MAX(ins.status_name) as inject_status_name, "
+          + "array_agg(it.tag_id) FILTER ( WHERE it.tag_id IS NOT NULL ) as inject_tags, "
+          + "array_agg(ia.asset_id) FILTER ( WHERE ia.asset_id IS NOT NULL ) as inject_assets, "
+          + "array_agg(iag.asset_group_id) FILTER ( WHERE iag.asset_group_id IS NOT NULL ) as inject_asset_groups, "
+          + "array_agg(ite.team_id) FILTER ( WHERE ite.team_id IS NOT NULL ) || "
+          + "array_agg(et.team_id) FILTER ( WHERE et.team_id IS NOT NULL ) || "
+          + "array_agg(st.team_id) FILTER ( WHERE st.team_id IS NOT NULL ) as inject_teams " // The
+          // deduplication is not done here but in the Set<String> of RawInjectIndexing
+          + "FROM injects f "
+          + "LEFT JOIN injects_statuses ins ON ins.status_inject = f.inject_id "
+          + "LEFT JOIN injectors_contracts ic ON ic.injector_contract_id = f.inject_injector_contract "
+          + "LEFT JOIN injectors_contracts_attack_patterns icap ON icap.injector_contract_id = ic.injector_contract_id "
+          + "LEFT JOIN attack_patterns_kill_chain_phases ap ON ap.attack_pattern_id = icap.attack_pattern_id "
+          + "LEFT JOIN injects_dependencies idp ON idp.inject_parent_id = f.inject_id "
+          + "LEFT JOIN injects inject_children ON inject_children.inject_id = idp.inject_children_id "
+          + "LEFT JOIN injectors_contracts ic_children ON ic_children.injector_contract_id = inject_children.inject_injector_contract "
+          + "LEFT JOIN injectors_contracts_attack_patterns icap_children ON icap_children.injector_contract_id = ic_children.injector_contract_id "
+          + "LEFT JOIN injects_tags it ON it.inject_id = f.inject_id "
+          + "LEFT JOIN injects_assets ia ON ia.inject_id = f.inject_id "
+          + "LEFT JOIN injects_asset_groups iag ON iag.inject_id = f.inject_id "
+          + "LEFT JOIN injects_teams ite ON ite.inject_id = f.inject_id "
+          + "LEFT JOIN exercises_teams et ON et.exercise_id = f.inject_exercise AND f.inject_all_teams "
+          + "LEFT JOIN scenarios_teams st ON st.scenario_id = f.inject_scenario AND f.inject_all_teams ";
+
+  String INDEXING_GROUP_BY =
+      "GROUP BY f.inject_id, f.inject_updated_at, ic.injector_contract_updated_at, ins.tracking_sent_date ";
+
   @Query(
       value =
-          "SELECT f.inject_id, f.inject_title, f.inject_scenario, f.inject_exercise, f.inject_created_at, f.inject_updated_at, f.inject_injector_contract, ic.injector_contract_updated_at, ins.tracking_sent_date, "
-              + "array_union_agg(ic.injector_contract_platforms) FILTER ( WHERE ic.injector_contract_platforms IS NOT NULL ) as inject_platforms, "
-              + "array_agg(icap.attack_pattern_id) FILTER ( WHERE icap.attack_pattern_id IS NOT NULL ) as inject_attack_patterns, "
-              + "array_agg(ap.phase_id) FILTER ( WHERE ap.phase_id IS NOT NULL ) as inject_kill_chain_phases, "
-              + "array_agg(idp.inject_children_id) FILTER ( WHERE idp.inject_children_id IS NOT NULL ) as inject_children, "
-              + "array_agg(idp.inject_children_id) FILTER ( WHERE idp.inject_children_id IS NOT NULL ) as attack_pattern_children, "
-              + "array_agg(icap_children.attack_pattern_id) FILTER (WHERE icap_children.attack_pattern_id IS NOT NULL) AS attack_patterns_children,"
-              + "MAX(ins.status_name) as inject_status_name, "
-              + "array_agg(it.tag_id) FILTER ( WHERE it.tag_id IS NOT NULL ) as inject_tags, "
-              + "array_agg(ia.asset_id) FILTER ( WHERE ia.asset_id IS NOT NULL ) as inject_assets, "
-              + "array_agg(iag.asset_group_id) FILTER ( WHERE iag.asset_group_id IS NOT NULL ) as inject_asset_groups, "
-              + "array_agg(ite.team_id) FILTER ( WHERE ite.team_id IS NOT NULL ) || "
-              + "array_agg(et.team_id) FILTER ( WHERE et.team_id IS NOT NULL ) || "
-              + "array_agg(st.team_id) FILTER ( WHERE st.team_id IS NOT NULL ) as inject_teams " // The deduplication is not done here but in the Set<String> of RawInjectIndexing
-              + "FROM injects f "
-              + "LEFT JOIN injects_statuses ins ON ins.status_inject = f.inject_id "
-              + "LEFT JOIN injectors_contracts ic ON ic.injector_contract_id = f.inject_injector_contract "
-              + "LEFT JOIN injectors_contracts_attack_patterns icap ON icap.injector_contract_id = ic.injector_contract_id "
-              + "LEFT JOIN attack_patterns_kill_chain_phases ap ON ap.attack_pattern_id = icap.attack_pattern_id "
-              + "LEFT JOIN injects_dependencies idp ON idp.inject_parent_id = f.inject_id "
-              + "LEFT JOIN injects inject_children ON inject_children.inject_id = idp.inject_children_id "
-              + "LEFT JOIN injectors_contracts ic_children ON ic_children.injector_contract_id = inject_children.inject_injector_contract "
-              + "LEFT JOIN injectors_contracts_attack_patterns icap_children ON icap_children.injector_contract_id = ic_children.injector_contract_id "
-              + "LEFT JOIN injects_tags it ON it.inject_id = f.inject_id "
-              + "LEFT JOIN injects_assets ia ON ia.inject_id = f.inject_id "
-              + "LEFT JOIN injects_asset_groups iag ON iag.inject_id = f.inject_id "
-              + "LEFT JOIN injects_teams ite ON ite.inject_id = f.inject_id "
-              + "LEFT JOIN exercises_teams et ON et.exercise_id = f.inject_exercise AND f.inject_all_teams "
-              + "LEFT JOIN scenarios_teams st ON st.scenario_id = f.inject_scenario AND f.inject_all_teams "
-              + "WHERE f.inject_updated_at > :from "
-              + "OR ic.injector_contract_updated_at > :from  "
+          INDEXING_SELECT
+              // Every inject changed since the date, the keyset is applied on the whole group below
+              + "WHERE f.inject_updated_at >= :from "
+              + "OR ic.injector_contract_updated_at >= :from "
               + "OR EXISTS ("
               + "    SELECT 1 "
               + "    FROM injects_dependencies sub_idp "
               + "    WHERE sub_idp.inject_parent_id = f.inject_id "
-              + "      AND sub_idp.dependency_updated_at > :from"
+              + "      AND sub_idp.dependency_updated_at >= :from"
               + ")"
               + "OR EXISTS ("
               + "    SELECT 1 "
-              + "    FROM injectors_contracts sub_ic "
-              + "    WHERE sub_ic.injector_contract_id = inject_children.inject_injector_contract "
-              + "      AND sub_ic.injector_contract_updated_at > :from "
+              + "    FROM injects_dependencies sub_idp "
+              + "    JOIN injects sub_children ON sub_children.inject_id = sub_idp.inject_children_id "
+              + "    JOIN injectors_contracts sub_ic ON sub_ic.injector_contract_id = sub_children.inject_injector_contract "
+              + "    WHERE sub_idp.inject_parent_id = f.inject_id "
+              + "      AND sub_ic.injector_contract_updated_at >= :from "
               + ")"
-              + "GROUP BY f.inject_id, f.inject_updated_at, ic.injector_contract_updated_at, ins.tracking_sent_date ORDER BY GREATEST(f.inject_updated_at, ic.injector_contract_updated_at) ASC LIMIT "
+              + INDEXING_GROUP_BY
+              + "HAVING (GREATEST(f.inject_updated_at, ic.injector_contract_updated_at, MAX(idp.dependency_updated_at), MAX(ic_children.injector_contract_updated_at)), f.inject_id) > (:from, :afterId) "
+              + "ORDER BY inject_indexing_updated_at ASC, f.inject_id ASC LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawInjectIndexing> findForIndexing(@Param("from") Instant from);
+  List<RawInjectIndexing> findForIndexing(
+      @Param("from") Instant from, @Param("afterId") String afterId);
+
+  @Query(
+      value = INDEXING_SELECT + "WHERE f.inject_id IN (:ids) " + INDEXING_GROUP_BY + ";",
+      nativeQuery = true)
+  List<RawInjectIndexing> findForIndexingByIds(@Param("ids") Collection<String> ids);
+
+  // Every value of the content of an inject, among them the ids of the assets and documents it uses
+  String CONTENT_VALUES =
+      "SELECT v #>> '{}' FROM jsonb_path_query(CAST(i.inject_content AS jsonb), '$.**') AS v";
+
+  @Query(
+      value =
+          "SELECT i.inject_updated_at, ic.injector_contract_updated_at, p.payload_updated_at, "
+              + "(SELECT string_agg(a.asset_id || '@' || a.asset_updated_at, ',' ORDER BY a.asset_id) "
+              + "FROM assets a WHERE a.asset_id IN ("
+              + CONTENT_VALUES
+              + ")) AS referenced_assets_version, "
+              + "(SELECT string_agg(d.document_id || '@' || d.document_name, ',' ORDER BY d.document_id) "
+              + "FROM documents d WHERE d.document_id IN ("
+              + CONTENT_VALUES
+              + ")) AS referenced_documents_version "
+              + "FROM injects i "
+              + "LEFT JOIN injectors_contracts ic ON ic.injector_contract_id = i.inject_injector_contract "
+              + "LEFT JOIN payloads p ON p.payload_id = ic.injector_contract_payload "
+              + "WHERE i.inject_id = :injectId",
+      nativeQuery = true)
+  Optional<RawExecutablePayloadVersion> findExecutablePayloadVersion(
+      @Param("injectId") String injectId);
 
   @Query(
       value =
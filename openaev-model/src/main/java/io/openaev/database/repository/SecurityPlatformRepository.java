@@ -47,15 +47,15 @@ public interface SecurityPlatformRepository
       value =
           "SELECT a.asset_id, a.asset_name, a.asset_created_at, a.asset_updated_at "
               + "FROM assets a "
-              + "WHERE a.asset_updated_at > :from AND a.asset_type = '"
+              + "WHERE (a.asset_updated_at, a.asset_id) > (:from, :afterId) AND a.asset_type = '"
               + AssetType.Values.SECURITY_PLATFORM_TYPE
               + "' "
               + "GROUP BY a.asset_id, a.asset_updated_at "
-              + "ORDER BY a.asset_updated_at LIMIT "
+              + "ORDER BY a.asset_updated_at, a.asset_id LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawAsset> findForIndexing(@Param("from") Instant from);
+  List<RawAsset> findForIndexing(@Param("from") Instant from, @Param("afterId") String afterId);
 
   @Query(
       "SELECT DISTINCT a FROM Asset a "
@@ -30,9 +30,9 @@ public interface TagRepository extends CrudRepository<Tag, String>, JpaSpecifica
           "SELECT t.tag_id, t.tag_name, t.tag_color, "
               + "t.tag_created_at, t.tag_updated_at "
               + "FROM tags t "
-              + "WHERE t.tag_updated_at > :from ORDER BY t.tag_updated_at LIMIT "
+              + "WHERE (t.tag_updated_at, t.tag_id) > (:from, :afterId) ORDER BY t.tag_updated_at, t.tag_id LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawTag> findForIndexing(@Param("from") Instant from);
+  List<RawTag> findForIndexing(@Param("from") Instant from, @Param("afterId") String afterId);
 }
@@ -58,15 +58,18 @@ public interface VulnerableEndpointRepository extends JpaRepository<Endpoint, St
               + "JOIN injects i ON i.inject_id = f.finding_inject_id "
               + "JOIN exercises e ON i.inject_exercise = e.exercise_id "
               + "LEFT JOIN scenarios_exercises se ON se.exercise_id = e.exercise_id "
-              + "WHERE (e.exercise_updated_at > :from OR a.asset_updated_at > :from) "
+              + "WHERE (CASE WHEN e.exercise_updated_at > a.asset_updated_at "
+              + "  THEN e.exercise_updated_at ELSE a.asset_updated_at END, "
+              + "  CONCAT(a.asset_id, '_', i.inject_exercise)) > (:from, :afterId) "
               + "AND f.finding_type = 'CVE' "
               + "AND a.asset_type = '"
               + AssetType.Values.ENDPOINT_TYPE
               + "' "
               + "GROUP BY a.asset_id, i.inject_exercise, e.exercise_updated_at, e.exercise_created_at, ag.agent_ids, ag.agent_last_seen, ag.agent_privs "
-              + "ORDER BY e.exercise_updated_at LIMIT "
+              + "ORDER BY vulnerable_endpoint_updated_at, base_id LIMIT "
               + Constants.INDEXING_RECORD_SET_SIZE
               + ";",
       nativeQuery = true)
-  List<RawVulnerableEndpoint> findForIndexing(@Param("from") Instant from);
+  List<RawVulnerableEndpoint> findForIndexing(
+      @Param("from") Instant from, @Param("afterId") String afterId);
 }
@@ -1,5 +1,8 @@
 package io.openaev.database.specification;
 
+import static io.openaev.database.function.FullTextSearchFunctionContributor.FTS_MATCH;
+import static io.openaev.database.function.FullTextSearchFunctionContributor.FTS_RANK;
+
 import io.openaev.database.model.*;
 import jakarta.persistence.criteria.*;
 import jakarta.validation.constraints.NotBlank;
@@ -37,25 +40,29 @@ public class SpecificationUtils {
   }
 
   /**
-   * Full Text Search with several properties instead of just one
+   * Full Text Search with several properties instead of just one. An entity matches if any of the
+   * properties matches, and the results are ordered by the sum of the ranks of the properties.
    *
-   * @param searchTerm the search term
+   * @param searchTerm the search term, as a text search query
    * @param properties the properties to check
    */
   public static <T extends Base> Specification<T> fullTextSearch(
       @NotBlank final String searchTerm, @NotBlank final List<String> properties) {
     return (root, query, cb) -> {
       List<Predicate> listOfPredicates = new ArrayList<>();
+      Expression<Double> rank = null;
       for (String property : properties) {
-        Expression<Double> tsVector =
-            cb.function("to_tsvector", Double.class, cb.literal("simple"), root.get(property));
-        Expression<Double> tsQuery =
-            cb.function("to_tsquery", Double.class, cb.literal("simple"), cb.literal(searchTerm));
-        Expression<Double> rank = cb.function("ts_rank", Double.class, tsVector, tsQuery);
+        Expression<String> value = root.get(property);
+        listOfPredicates.add(
+            cb.isTrue(cb.function(FTS_MATCH, Boolean.class, value, cb.literal(searchTerm))));
+        Expression<Double> propertyRank =
+            cb.function(FTS_RANK, Double.class, value, cb.literal(searchTerm));
+        rank = rank == null ? propertyRank : cb.sum(rank, propertyRank);
+      }
+      // No ordering for the count queries
+      if (rank != null && !Long.class.equals(query.getResultType())) {
         query.orderBy(cb.desc(rank));
-        listOfPredicates.add(cb.greaterThan(rank, 0.01));
       }
-
       return cb.or(listOfPredicates.toArray(new Predicate[0]));
     };
   }
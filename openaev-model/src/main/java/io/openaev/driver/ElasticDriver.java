@@ -29,6 +29,8 @@ import java.lang.reflect.ParameterizedType;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import javax.net.ssl.SSLContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -57,6 +59,9 @@ public class ElasticDriver {
   private final EngineConfig config;
   private final IndexingStatusRepository indexingStatusRepository;
 
+  // Models whose index must be rebuilt in background, detected when the client is created
+  private final Set<String> outdatedIndices = ConcurrentHashMap.newKeySet();
+
   @Autowired
   public void setSearchEngine(EngineContext searchEngine) {
     this.searchEngine = searchEngine;
@@ -154,7 +159,6 @@ public class ElasticDriver {
     client.cluster().putComponentTemplate(coreSettings.build());
   }
 
-  @SuppressWarnings("SameParameterValue")
   private void createIndex(
       ElasticsearchClient client, String name, String version, Map<String, Property> mappings)
       throws IOException {
@@ -167,13 +171,7 @@ public class ElasticDriver {
     mapping.meta("version", JsonData.of(version));
     mapping.indexPatterns(indexName + "*");
     mapping.composedOf(coreSettings);
-    TypeMapping indexMapping =
-        new TypeMapping.Builder()
-            .dynamic(DynamicMapping.Strict)
-            .dateDetection(false)
-            .numericDetection(false)
-            .properties(mappings)
-            .build();
+    TypeMapping indexMapping = indexMapping(version, mappings);
     mapping.template(
         new IndexTemplateMapping.Builder()
             .settings(
@@ -198,24 +196,80 @@ public class ElasticDriver {
     } catch (Exception e) {
       throw new IOException(e);
     }
-    // Create index
-    try {
-      client.indices().get(new GetIndexRequest.Builder().index(indexName).build());
-    } catch (ElasticsearchException e) {
+    // Create index, or flag it to be rebuilt in background if it no longer matches the model
+    if (aliasIndices(client, indexName).isEmpty()) {
       try {
         client
             .indices()
             .create(
                 new CreateIndexRequest.Builder()
-                    .index(indexName + config.getIndexSuffix())
-                    .aliases(indexName, new Alias.Builder().build())
+                    .index(physicalIndexName(indexName))
+                    .aliases(indexName, new Alias.Builder().isWriteIndex(true).build())
                     .build());
         Optional<IndexingStatus> status = indexingStatusRepository.findByType(name);
         status.ifPresent(indexingStatusRepository::delete);
-      } catch (ElasticsearchException e2) {
-        log.error("cannot create index", e2);
+      } catch (ElasticsearchException e) {
+        log.error("cannot create index", e);
       }
+    } else if (indexingStatusRepository.findByType(name).isEmpty()
+        || isOutdated(client, indexName, mappings)) {
+      log.info("Index {} is outdated and will be rebuilt in background", indexName);
+      try {
+        // Keep the live index writable with the new fields until the rebuilt one replaces it
+        client.indices().putMapping(m -> m.index(indexName).properties(mappings));
+      } catch (ElasticsearchException e) {
+        log.warn("Cannot update in place the mapping of {}: {}", indexName, e.getMessage());
+      }
+      outdatedIndices.add(name);
+    } else {
+      // Same fields, the index only has to carry the version of the model
+      client.indices().putMapping(m -> m.index(indexName).meta("version", JsonData.of(version)));
+    }
+  }
+
+  private TypeMapping indexMapping(String version, Map<String, Property> mappings) {
+    return new TypeMapping.Builder()
+        .dynamic(DynamicMapping.Strict)
+        .dateDetection(false)
+        .numericDetection(false)
+        .meta("version", JsonData.of(version))
+        .properties(mappings)
+        .build();
+  }
+
+  /**
+   * Name of a new physical index. Readers and writers only use the alias of the model, the physical
+   * index behind it can be replaced without them noticing.
+   */
+  private String physicalIndexName(String indexName) {
+    return indexName + "-" + Instant.now().toEpochMilli() + config.getIndexSuffix();
+  }
+
+  private Set<String> aliasIndices(ElasticsearchClient client, String alias) throws IOException {
+    if (!client.indices().existsAlias(e -> e.name(alias)).value()) {
+      return Set.of();
     }
+    return client.indices().getAlias(a -> a.name(alias)).result().keySet();
+  }
+
+  /**
+   * An index is outdated when its fields, or their types, differ from the ones of the model. The
+   * version stored with the index is not compared, so the indices created before it was stored are
+   * only rebuilt if their mapping really changed.
+   */
+  private boolean isOutdated(
+      ElasticsearchClient client, String indexName, Map<String, Property> mappings)
+      throws IOException {
+    String expected = mappingSignature(mappings);
+    return client.indices().getMapping(m -> m.index(indexName)).result().values().stream()
+        .anyMatch(record -> !expected.equals(mappingSignature(record.mappings().properties())));
+  }
+
+  private static String mappingSignature(Map<String, Property> properties) {
+    return properties.entrySet().stream()
+        .map(property -> property.getKey() + ":" + property.getValue()._kind().jsonValue())
+        .sorted()
+        .collect(Collectors.joining(","));
   }
 
   private Map<String, Property> mappingGeneratorForClass(EsModel<?> esModel) {
@@ -287,12 +341,8 @@ public class ElasticDriver {
     // Initialize elastic if needed.
     createRolloverPolicy(elasticClient);
     createCoreSettings(elasticClient);
-    // TODO Fetch the current model versions
-    // | type     | last_updated_at      | version db | elastic version
-    // | findings | 2024-12-04T12:00:00Z | 2.0        | 1.0
-    // If version of the model stored in elastic is different from the db version
-    // Index + template must be removed and recreated
-    // last_updated_at for the type must be reset to reindex the full data.
+    // The mapping version of each model is stored in its index, an index whose version differs
+    // from the model (or whose indexing status was reset) is kept online and rebuilt in background
     List<EsModel<T>> models = this.searchEngine.getModels();
     models.stream()
         .parallel()
@@ -300,13 +350,12 @@ public class ElasticDriver {
             esModel -> {
               Map<String, Property> mappings = mappingGeneratorForClass(esModel);
               try {
-                // Cleanup old index
-                if (indexingStatusRepository.findByType(esModel.getName()).isEmpty()) {
-                  log.info("Cleanup old Index {}", esModel.getName());
-                  cleanUpIndex(esModel.getName(), elasticClient);
-                }
                 log.info("Creating Index " + esModel.getName());
-                createIndex(elasticClient, esModel.getName(), ES_MODEL_VERSION, mappings);
+                createIndex(
+                    elasticClient,
+                    esModel.getName(),
+                    esModel.getMappingVersion(ES_MODEL_VERSION),
+                    mappings);
               } catch (IOException e) {
                 throw new RuntimeException(e);
               }
@@ -314,13 +363,84 @@ public class ElasticDriver {
     return elasticClient;
   }
 
+  /**
+   * Models whose index has been detected outdated and must be rebuilt
+   *
+   * @return the names of the models
+   */
+  public Set<String> getOutdatedIndices() {
+    return Set.copyOf(outdatedIndices);
+  }
+
+  /**
+   * Create a new physical index to rebuild a model, with the mappings of the model. The index is
+   * hidden and not attached to the alias of the model, so searches keep reading the live index
+   * until {@link #swapIndex} is called.
+   *
+   * @param client the client to use
+   * @param model the model, giving the name and the mappings of the index
+   * @return the name of the physical index created
+   * @throws IOException in case of issue communicating with the analytics engine
+   */
+  public String createRebuildIndex(ElasticsearchClient client, EsModel<?> model)
+      throws IOException {
+    String rebuildIndex = physicalIndexName(config.getIndexPrefix() + "_" + model.getName());
+    // The rollover check of the lifecycle policy fails, and is retried, until the alias is swapped
+    client
+        .indices()
+        .create(
+            c ->
+                c.index(rebuildIndex)
+                    .settings(s -> s.hidden(true))
+                    .mappings(
+                        indexMapping(
+                            model.getMappingVersion(ES_MODEL_VERSION),
+                            mappingGeneratorForClass(model))));
+    return rebuildIndex;
+  }
+
+  /**
+   * Atomically point the alias of a model to a rebuilt index and delete the indices it replaces.
+   *
+   * @param client the client to use
+   * @param indexName the name of the model
+   * @param rebuildIndex the physical index created by {@link #createRebuildIndex}
+   * @throws IOException in case of issue communicating with the analytics engine
+   */
+  public void swapIndex(ElasticsearchClient client, String indexName, String rebuildIndex)
+      throws IOException {
+    String fullIndexName = config.getIndexPrefix() + "_" + indexName;
+    Set<String> previousIndices = aliasIndices(client, fullIndexName);
+    client.indices().putSettings(p -> p.index(rebuildIndex).settings(s -> s.hidden(false)));
+    UpdateAliasesRequest.Builder update = new UpdateAliasesRequest.Builder();
+    update.actions(
+        a -> a.add(add -> add.index(rebuildIndex).alias(fullIndexName).isWriteIndex(true)));
+    previousIndices.forEach(previous -> update.actions(a -> a.removeIndex(r -> r.index(previous))));
+    client.indices().updateAliases(update.build());
+    outdatedIndices.remove(indexName);
+    log.info("Index {} swapped to {}, removed {}", fullIndexName, rebuildIndex, previousIndices);
+  }
+
+  /**
+   * Delete a physical index created by {@link #createRebuildIndex} whose rebuild failed.
+   *
+   * @param client the client to use
+   * @param rebuildIndex the physical index to delete
+   */
+  public void deleteRebuildIndex(ElasticsearchClient client, String rebuildIndex) {
+    try {
+      client.indices().delete(d -> d.index(rebuildIndex));
+    } catch (IOException | ElasticsearchException e) {
+      log.warn("Cannot delete index {}: {}", rebuildIndex, e.getMessage());
+    }
+  }
+
   public void cleanUpIndex(String indexName, ElasticsearchClient client) throws IOException {
     try {
       String fullIndexName = config.getIndexPrefix() + "_" + indexName;
-      String fullIndexWithSuffix = fullIndexName + config.getIndexSuffix();
 
-      // 1. Delete index and alias if they exist
-      for (String name : List.of(fullIndexName, fullIndexWithSuffix)) {
+      // 1. Delete the indices behind the alias, and the alias with them
+      for (String name : aliasIndices(client, fullIndexName)) {
         try {
           client.indices().delete(d -> d.index(name));
           log.info("Deleted index: {}", name);
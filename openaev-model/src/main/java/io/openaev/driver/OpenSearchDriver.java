@@ -18,6 +18,8 @@ import java.net.URISyntaxException;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import javax.net.ssl.SSLContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -68,6 +70,9 @@ public class OpenSearchDriver {
   private final EngineConfig config;
   private final IndexingStatusRepository indexingStatusRepository;
 
+  // Models whose index must be rebuilt in background, detected when the client is created
+  private final Set<String> outdatedIndices = ConcurrentHashMap.newKeySet();
+
   /**
    * Initializing the standard client
    *
@@ -248,11 +253,10 @@ public class OpenSearchDriver {
    *
    * @param client the client to use
    * @param name the name of the index
-   * @param version the version
+   * @param version the mapping version of the model
    * @param mappings the mappings of the data
    * @throws IOException in case of error during the call to opensearch
    */
-  @SuppressWarnings("SameParameterValue")
   private void createIndex(
       OpenSearchClient client, String name, String version, Map<String, Property> mappings)
       throws IOException {
@@ -264,13 +268,7 @@ public class OpenSearchDriver {
     template.meta("version", JsonData.of(version));
     template.indexPatterns(indexName + "*");
     template.composedOf(coreSettings);
-    TypeMapping indexMapping =
-        new TypeMapping.Builder()
-            .dynamic(DynamicMapping.Strict)
-            .dateDetection(false)
-            .numericDetection(false)
-            .properties(mappings)
-            .build();
+    TypeMapping indexMapping = indexMapping(version, mappings);
     template.template(
         new IndexTemplateMapping.Builder()
             .settings(
@@ -302,20 +300,76 @@ public class OpenSearchDriver {
     } catch (Exception e) {
       throw new IOException(e);
     }
-    // Create index
-    try {
-      client.indices().get(new GetIndexRequest.Builder().index(indexName).build());
-    } catch (OpenSearchException e) {
+    // Create index, or flag it to be rebuilt in background if it no longer matches the model
+    if (aliasIndices(client, indexName).isEmpty()) {
       client
           .indices()
           .create(
               new CreateIndexRequest.Builder()
-                  .index(indexName + config.getIndexSuffix())
-                  .aliases(indexName, new Alias.Builder().build())
+                  .index(physicalIndexName(indexName))
+                  .aliases(indexName, new Alias.Builder().isWriteIndex(true).build())
                   .build());
       Optional<IndexingStatus> status = indexingStatusRepository.findByType(name);
       status.ifPresent(indexingStatusRepository::delete);
+    } else if (indexingStatusRepository.findByType(name).isEmpty()
+        || isOutdated(client, indexName, mappings)) {
+      log.info("Index {} is outdated and will be rebuilt in background", indexName);
+      try {
+        // Keep the live index writable with the new fields until the rebuilt one replaces it
+        client.indices().putMapping(m -> m.index(indexName).properties(mappings));
+      } catch (OpenSearchException e) {
+        log.warn("Cannot update in place the mapping of {}: {}", indexName, e.getMessage());
+      }
+      outdatedIndices.add(name);
+    } else {
+      // Same fields, the index only has to carry the version of the model
+      client.indices().putMapping(m -> m.index(indexName).meta("version", JsonData.of(version)));
+    }
+  }
+
+  private TypeMapping indexMapping(String version, Map<String, Property> mappings) {
+    return new TypeMapping.Builder()
+        .dynamic(DynamicMapping.Strict)
+        .dateDetection(false)
+        .numericDetection(false)
+        .meta("version", JsonData.of(version))
+        .properties(mappings)
+        .build();
+  }
+
+  /**
+   * Name of a new physical index. Readers and writers only use the alias of the model, the physical
+   * index behind it can be replaced without them noticing.
+   */
+  private String physicalIndexName(String indexName) {
+    return indexName + "-" + Instant.now().toEpochMilli() + config.getIndexSuffix();
+  }
+
+  private Set<String> aliasIndices(OpenSearchClient client, String alias) throws IOException {
+    if (!client.indices().existsAlias(e -> e.name(alias)).value()) {
+      return Set.of();
     }
+    return client.indices().getAlias(a -> a.name(alias)).result().keySet();
+  }
+
+  /**
+   * An index is outdated when its fields, or their types, differ from the ones of the model. The
+   * version stored with the index is not compared, so the indices created before it was stored are
+   * only rebuilt if their mapping really changed.
+   */
+  private boolean isOutdated(
+      OpenSearchClient client, String indexName, Map<String, Property> mappings)
+      throws IOException {
+    String expected = mappingSignature(mappings);
+    return client.indices().getMapping(m -> m.index(indexName)).result().values().stream()
+        .anyMatch(record -> !expected.equals(mappingSignature(record.mappings().properties())));
+  }
+
+  private static String mappingSignature(Map<String, Property> properties) {
+    return properties.entrySet().stream()
+        .map(property -> property.getKey() + ":" + property.getValue()._kind().jsonValue())
+        .sorted()
+        .collect(Collectors.joining(","));
   }
 
   /**
@@ -396,12 +450,8 @@ public class OpenSearchDriver {
     // Initialize opensearch if needed.
     createRolloverPolicy(openClient);
     createCoreSettings(openClient);
-    // TODO Fetch the current model versions
-    // | type     | last_updated_at      | version db | search version
-    // | findings | 2024-12-04T12:00:00Z | 2.0        | 1.0
-    // If version of the model stored in opensearch is different from the db version
-    // Index + template must be removed and recreated
-    // last_updated_at for the type must be reset to reindex the full data.
+    // The mapping version of each model is stored in its index, an index whose version differs
+    // from the model (or whose indexing status was reset) is kept online and rebuilt in background
     List<EsModel<T>> models = this.searchEngine.getModels();
     models.stream()
         .parallel()
@@ -409,13 +459,12 @@ public class OpenSearchDriver {
             esModel -> {
               Map<String, Property> mappings = mappingGeneratorForClass(esModel);
               try {
-                // Cleanup old index
-                if (indexingStatusRepository.findByType(esModel.getName()).isEmpty()) {
-                  log.info("Cleanup old Index {}", esModel.getName());
-                  cleanUpIndex(esModel.getName(), openClient);
-                }
                 log.info("Creating Index {}", esModel.getName());
-                createIndex(openClient, esModel.getName(), ES_MODEL_VERSION, mappings);
+                createIndex(
+                    openClient,
+                    esModel.getName(),
+                    esModel.getMappingVersion(ES_MODEL_VERSION),
+                    mappings);
               } catch (IOException e) {
                 throw new AnalyticsEngineException(
                     "Error while cleanup of indexes with Opensearch - " + e);
@@ -431,13 +480,82 @@ public class OpenSearchDriver {
    * @param client the client to use
    * @throws IOException in case of an exception during the call to opensearch
    */
+  /**
+   * Models whose index has been detected outdated and must be rebuilt
+   *
+   * @return the names of the models
+   */
+  public Set<String> getOutdatedIndices() {
+    return Set.copyOf(outdatedIndices);
+  }
+
+  /**
+   * Create a new physical index to rebuild a model, with the mappings of the model. The index is
+   * hidden and not attached to the alias of the model, so searches keep reading the live index
+   * until {@link #swapIndex} is called.
+   *
+   * @param client the client to use
+   * @param model the model, giving the name and the mappings of the index
+   * @return the name of the physical index created
+   * @throws IOException in case of issue communicating with the analytics engine
+   */
+  public String createRebuildIndex(OpenSearchClient client, EsModel<?> model) throws IOException {
+    String rebuildIndex = physicalIndexName(config.getIndexPrefix() + "_" + model.getName());
+    client
+        .indices()
+        .create(
+            c ->
+                c.index(rebuildIndex)
+                    .settings(s -> s.hidden(true))
+                    .mappings(
+                        indexMapping(
+                            model.getMappingVersion(ES_MODEL_VERSION),
+                            mappingGeneratorForClass(model))));
+    return rebuildIndex;
+  }
+
+  /**
+   * Atomically point the alias of a model to a rebuilt index and delete the indices it replaces.
+   *
+   * @param client the client to use
+   * @param indexName the name of the model
+   * @param rebuildIndex the physical index created by {@link #createRebuildIndex}
+   * @throws IOException in case of issue communicating with the analytics engine
+   */
+  public void swapIndex(OpenSearchClient client, String indexName, String rebuildIndex)
+      throws IOException {
+    String fullIndexName = config.getIndexPrefix() + "_" + indexName;
+    Set<String> previousIndices = aliasIndices(client, fullIndexName);
+    client.indices().putSettings(p -> p.index(rebuildIndex).settings(s -> s.hidden(false)));
+    UpdateAliasesRequest.Builder update = new UpdateAliasesRequest.Builder();
+    update.actions(
+        a -> a.add(add -> add.index(rebuildIndex).alias(fullIndexName).isWriteIndex(true)));
+    previousIndices.forEach(previous -> update.actions(a -> a.removeIndex(r -> r.index(previous))));
+    client.indices().updateAliases(update.build());
+    outdatedIndices.remove(indexName);
+    log.info("Index {} swapped to {}, removed {}", fullIndexName, rebuildIndex, previousIndices);
+  }
+
+  /**
+   * Delete a physical index created by {@link #createRebuildIndex} whose rebuild failed.
+   *
+   * @param client the client to use
+   * @param rebuildIndex the physical index to delete
+   */
+  public void deleteRebuildIndex(OpenSearchClient client, String rebuildIndex) {
+    try {
+      client.indices().delete(d -> d.index(rebuildIndex));
+    } catch (IOException | OpenSearchException e) {
+      log.warn("Cannot delete index {}: {}", rebuildIndex, e.getMessage());
+    }
+  }
+
   public void cleanUpIndex(String indexName, OpenSearchClient client) throws IOException {
     try {
       String fullIndexName = config.getIndexPrefix() + "_" + indexName;
-      String fullIndexWithSuffix = fullIndexName + config.getIndexSuffix();
 
-      // 1. Delete index and alias if they exist
-      for (String name : List.of(fullIndexName, fullIndexWithSuffix)) {
+      // 1. Delete the indices behind the alias, and the alias with them
+      for (String name : aliasIndices(client, fullIndexName)) {
         try {
           client.indices().delete(d -> d.index(name));
           log.info("Deleted index: {}", name);
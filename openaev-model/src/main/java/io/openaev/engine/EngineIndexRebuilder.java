@@ -0,0 +1,37 @@
+package io.openaev.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background rebuild of the indices whose mapping no longer matches their model.
+ *
+ * <p>The drivers only flag the outdated indices when the engine starts and keep serving them. Once
+ * the application is ready, they are rebuilt one after the other on the indexing pool and swapped
+ * behind their alias, so dashboards never read a partially filled index.
+ */
+@Slf4j
+@Component
+public class EngineIndexRebuilder {
+
+  private EngineService engineService;
+
+  @Autowired
+  public void setEngineService(EngineService engineService) {
+    this.engineService = engineService;
+  }
+
+  @Async("indexingExecutor")
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildOutdatedIndices() {
+    try {
+      engineService.rebuildOutdatedIndices();
+    } catch (Exception e) {
+      log.error("Rebuild of the outdated indices failed: {}", e.getMessage(), e);
+    }
+  }
+}
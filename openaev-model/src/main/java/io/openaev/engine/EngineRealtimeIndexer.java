@@ -0,0 +1,153 @@
+package io.openaev.engine;
+
+import static io.openaev.database.audit.ModelBaseListener.DATA_DELETE;
+import static io.openaev.utils.Constants.INDEXING_RECORD_SET_SIZE;
+
+import io.openaev.config.EngineConfig;
+import io.openaev.database.audit.BaseEvent;
+import io.openaev.engine.model.EsBase;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Near real-time indexing driven by the entity change events.
+ *
+ * <p>Every committed change of the {@link Handler#entity()} of a model records the id of the
+ * changed entity, the documents of these ids only are read and indexed. The changes of the other
+ * {@link Handler#sources()} of a model, or a burst of more ids than a page, mark the whole model as
+ * dirty for an incremental indexing. Both are coalesced and indexed every {@code
+ * engine.indexing-realtime-delay-ms}. The periodic {@code EngineSyncExecutionJob} stays the
+ * reconciliation fallback for changes not published as events (native queries, bulk updates) and
+ * for the rows of transactions committed after a flush moved the watermark past them.
+ *
+ * <p>The flush runs on its own thread, so a long indexing never delays the other scheduled tasks.
+ */
+@Slf4j
+@Component
+public class EngineRealtimeIndexer {
+
+  private final Set<String> dirtyModels = ConcurrentHashMap.newKeySet();
+  // Changed ids by model, only mutated inside the atomic compute of the map
+  private final Map<String, Set<String>> dirtyIds = new ConcurrentHashMap<>();
+  private ScheduledExecutorService scheduler;
+
+  private EngineService engineService;
+  private EngineContext engineContext;
+  private EngineConfig engineConfig;
+  private volatile List<EsModel<EsBase>> models;
+
+  @Autowired
+  public void setEngineService(EngineService engineService) {
+    this.engineService = engineService;
+  }
+
+  @Autowired
+  public void setEngineContext(EngineContext engineContext) {
+    this.engineContext = engineContext;
+  }
+
+  @Autowired
+  public void setEngineConfig(EngineConfig engineConfig) {
+    this.engineConfig = engineConfig;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (engineConfig.isIndexingRealtimeEnabled()) {
+      long delay = Math.max(1, engineConfig.getIndexingRealtimeDelayMs());
+      scheduler =
+          Executors.newSingleThreadScheduledExecutor(
+              Thread.ofPlatform().name("EngineRealtimeIndexer").daemon().factory());
+      scheduler.scheduleWithFixedDelay(this::flush, delay, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void listenDatabaseUpdate(BaseEvent event) {
+    // Deletions are propagated immediately by the EngineListener
+    if (!engineConfig.isIndexingRealtimeEnabled() || DATA_DELETE.equals(event.getType())) {
+      return;
+    }
+    Class<?> changed = event.getInstance().getClass();
+    String id = event.getInstance().getId();
+    for (EsModel<EsBase> model : getModels()) {
+      Handler<EsBase> handler = model.getHandler();
+      if (id != null && handler.entity().filter(e -> e.isAssignableFrom(changed)).isPresent()) {
+        dirtyIds.compute(
+            model.getName(),
+            (name, ids) -> {
+              Set<String> changedIds = ids != null ? ids : new HashSet<>();
+              changedIds.add(id);
+              if (changedIds.size() <= INDEXING_RECORD_SET_SIZE) {
+                return changedIds;
+              }
+              // A single incremental indexing is cheaper than reading that many ids
+              dirtyModels.add(name);
+              return null;
+            });
+      } else if (handler.sources().stream().anyMatch(s -> s.isAssignableFrom(changed))) {
+        dirtyModels.add(model.getName());
+      }
+    }
+  }
+
+  public void flush() {
+    if (dirtyModels.isEmpty() && dirtyIds.isEmpty()) {
+      return;
+    }
+    Set<String> toIndex = new HashSet<>();
+    for (String name : dirtyModels) {
+      if (dirtyModels.remove(name)) {
+        toIndex.add(name);
+      }
+    }
+    Map<String, Set<String>> idsToIndex = new HashMap<>();
+    for (String name : dirtyIds.keySet()) {
+      Set<String> ids = dirtyIds.remove(name);
+      // The incremental indexing of the model already covers its changed ids
+      if (ids != null && !toIndex.contains(name)) {
+        idsToIndex.put(name, ids);
+      }
+    }
+    log.debug("Near real-time indexing of {} and of the ids of {}", toIndex, idsToIndex.keySet());
+    try {
+      if (!toIndex.isEmpty()) {
+        engineService.bulkProcessing(
+            getModels().stream().filter(model -> toIndex.contains(model.getName())));
+      }
+      getModels().stream()
+          .filter(model -> idsToIndex.containsKey(model.getName()))
+          .forEach(
+              model -> engineService.bulkProcessingByIds(model, idsToIndex.get(model.getName())));
+    } catch (Exception e) {
+      log.error("Near real-time indexing failed: {}", e.getMessage(), e);
+    }
+  }
+
+  private List<EsModel<EsBase>> getModels() {
+    if (models == null) {
+      models = engineContext.getModels();
+    }
+    return models;
+  }
+}
@@ -10,6 +10,8 @@ import io.openaev.engine.query.EsAvgs;
 import io.openaev.engine.query.EsCountInterval;
 import io.openaev.engine.query.EsSeries;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -24,7 +26,43 @@ public interface EngineService {
    * @param models the models to insert
    * @param <T> the type of the models
    */
-  <T extends EsBase> void bulkProcessing(Stream<EsModel<T>> models);
+  default <T extends EsBase> void bulkProcessing(Stream<EsModel<T>> models) {
+    bulkProcessing(models, Duration.ZERO);
+  }
+
+  /**
+   * Process models in bulk, re-reading the changes of a window before their last indexing. The rows
+   * committed late by a long transaction, with an updated_at older than the documents already
+   * indexed, are caught up by this overlap.
+   *
+   * @param models the models to insert
+   * @param overlap the window before the last indexing to read again
+   * @param <T> the type of the models
+   */
+  <T extends EsBase> void bulkProcessing(Stream<EsModel<T>> models, Duration overlap);
+
+  /**
+   * Index the documents of some entities of a model, read by id through {@link
+   * Handler#fetchByIds(Collection)}. The indexing watermark of the model does not move.
+   *
+   * @param model the model to index
+   * @param ids the ids of the changed entities
+   * @param <T> the type of the model
+   */
+  <T extends EsBase> void bulkProcessingByIds(EsModel<T> model, Collection<String> ids);
+
+  /** Rebuild the indices detected as outdated when the engine started, one model after the other */
+  void rebuildOutdatedIndices();
+
+  /**
+   * Rebuild the index of a model into a new physical index, then atomically swap the alias of the
+   * model to it. Searches keep reading the current index during the whole rebuild.
+   *
+   * @param model the model to rebuild
+   * @param <T> the type of the model
+   * @return true if the rebuilt index replaced the current one
+   */
+  <T extends EsBase> boolean rebuildIndex(EsModel<T> model);
 
   /**
    * Clean up the index
@@ -3,8 +3,13 @@ package io.openaev.engine;
 import io.openaev.annotation.Indexable;
 import io.openaev.config.EngineConfig;
 import io.openaev.engine.model.EsBase;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.util.DigestUtils;
 
 @Getter
 @Setter
@@ -24,4 +29,24 @@ public class EsModel<T extends EsBase> {
   public String getIndex(EngineConfig engineConfig) {
     return engineConfig.getIndexPrefix() + "_" + this.name;
   }
+
+  /**
+   * Version of the index mapping of this model, derived from its indexed fields. It changes as soon
+   * as a field is added, removed or retyped, and is stored in the mapping of the physical index to
+   * detect the indices to rebuild.
+   *
+   * @param modelVersion the global version of the engine models
+   * @return the mapping version
+   */
+  public String getMappingVersion(String modelVersion) {
+    String fields =
+        Stream.concat(
+                Arrays.stream(this.model.getDeclaredFields()),
+                Arrays.stream(this.model.getSuperclass().getDeclaredFields()))
+            .map(field -> field.getName() + ":" + field.getGenericType().getTypeName())
+            .sorted()
+            .collect(Collectors.joining(","));
+    String hash = DigestUtils.md5DigestAsHex(fields.getBytes(StandardCharsets.UTF_8));
+    return modelVersion + "-" + hash.substring(0, 8);
+  }
 }
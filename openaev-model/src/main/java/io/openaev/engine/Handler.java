@@ -1,8 +1,18 @@
 package io.openaev.engine;
 
+import static io.openaev.utils.Constants.INDEXING_RECORD_SET_SIZE;
+
 import io.openaev.engine.model.EsBase;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface Handler<T extends EsBase> {
 
@@ -14,10 +24,107 @@ public interface Handler<T extends EsBase> {
    * inform that there is no value anymore in the attribute (null for String, List.of() or Set.of()
    * for List or Set)
    *
+   * <p>The "findForIndexing" query must take the rows after the (updated_at, id) couple, be ordered
+   * by updated_at then id ascending and be limited to {@link
+   * io.openaev.utils.Constants#INDEXING_RECORD_SET_SIZE} rows, {@link #stream(Instant)} relies on
+   * it to walk the whole delta page by page, even when more rows than a page share an updated_at.
+   *
    * @param from date used to determine which data to take (updated_at attribute from table). For
    *     each attribute added, it is important to check that the updated at for the document is
    *     relevant when you delete/update/add this attribute in this document
+   * @param afterId id of the last document taken at the from date, null to take only the documents
+   *     updated after the date
+   * @return list data to index
+   */
+  List<T> fetch(Instant from, String afterId);
+
+  /**
+   * Documents to index updated since a date, see {@link #fetch(Instant, String)}
+   *
+   * @param from date used to determine which data to take
    * @return list data to index
    */
-  List<T> fetch(Instant from);
+  default List<T> fetch(Instant from) {
+    return fetch(from, null);
+  }
+
+  /**
+   * Entities whose changes can alter the documents of this handler. A committed change on one of
+   * them triggers a near real-time indexing of this handler, without waiting for the periodic sync.
+   *
+   * @return the source entity classes, empty to rely only on the periodic sync
+   */
+  default Set<Class<?>> sources() {
+    return Set.of();
+  }
+
+  /**
+   * Entity the documents of this handler are built from, each document having the id of its entity.
+   * The committed changes of this entity are indexed by id through {@link #fetchByIds(Collection)},
+   * the changes of the other {@link #sources()} through an incremental indexing of the whole model.
+   *
+   * @return the entity class, empty to index every change incrementally
+   */
+  default Optional<Class<?>> entity() {
+    return Optional.empty();
+  }
+
+  /**
+   * Documents to index among some ids, whatever their updated_at, see {@link #entity()}
+   *
+   * @param ids the ids of the changed entities, at most {@link
+   *     io.openaev.utils.Constants#INDEXING_RECORD_SET_SIZE}
+   * @return list data to index, for the ids still having a document
+   */
+  default List<T> fetchByIds(Collection<String> ids) {
+    throw new UnsupportedOperationException(
+        getClass().getSimpleName() + " does not index by id, see entity()");
+  }
+
+  /**
+   * Walk every document to index since a date, one {@link #fetch(Instant, String)} page at a time.
+   *
+   * <p>Pages are fetched lazily: the next page is only queried once the previous one has been
+   * consumed, starting after the updated_at and the id of its last document. Only one page is held
+   * in memory at a time, whatever the size of the delta. The walk stops on an empty or partial
+   * page, or if the (updated_at, id) cursor does not move forward anymore.
+   *
+   * @param from date used to determine which data to take, null to take everything
+   * @return a lazy and ordered stream of pages to index
+   */
+  default Stream<List<T>> stream(Instant from) {
+    return StreamSupport.stream(
+        new Spliterators.AbstractSpliterator<List<T>>(
+            Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+          private Instant cursor = from;
+          private String cursorId = null;
+          private boolean exhausted = false;
+
+          @Override
+          public boolean tryAdvance(Consumer<? super List<T>> action) {
+            if (exhausted) {
+              return false;
+            }
+            List<T> page = fetch(cursor, cursorId);
+            if (page.isEmpty()) {
+              exhausted = true;
+              return false;
+            }
+            Instant last = page.getLast().getBase_updated_at();
+            String lastId = page.getLast().getBase_id();
+            exhausted =
+                page.size() < INDEXING_RECORD_SET_SIZE
+                    || last == null
+                    || lastId == null
+                    || (cursor != null
+                        && (last.isBefore(cursor)
+                            || (last.equals(cursor) && lastId.equals(cursorId))));
+            cursor = last;
+            cursorId = lastId;
+            action.accept(page);
+            return true;
+          }
+        },
+        false);
+  }
 }
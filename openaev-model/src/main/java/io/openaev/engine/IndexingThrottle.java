@@ -0,0 +1,98 @@
+package io.openaev.engine;
+
+import io.openaev.config.EngineConfig;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backpressure shared by every indexing worker.
+ *
+ * <p>Bulks reserve the size of their serialized documents from an in-flight budget ({@link
+ * EngineConfig#getIndexingMaxInFlightBytes()}) before being sent, so concurrent models never push
+ * more than this amount of data at the same time to the analytics engine. When the engine answers
+ * with a rejection (HTTP 429), every worker is paused with an exponential backoff until a bulk goes
+ * through again.
+ */
+@Slf4j
+@Component
+public class IndexingThrottle {
+
+  private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+  private final long maxInFlightBytes;
+  private final AtomicInteger rejections = new AtomicInteger();
+
+  // Guarded by this
+  private long inFlightBytes = 0;
+  private Instant pausedUntil = Instant.EPOCH;
+
+  public IndexingThrottle(EngineConfig engineConfig) {
+    this.maxInFlightBytes = Math.max(1, engineConfig.getIndexingMaxInFlightBytes());
+  }
+
+  /**
+   * Wait for the end of any rejection pause and for enough in-flight budget. A bulk bigger than the
+   * whole budget is sent alone.
+   *
+   * @param bytes the size of the serialized bulk
+   * @return the reservation to give back to {@link #release(long)}
+   * @throws InterruptedException if the worker is interrupted while waiting
+   */
+  public synchronized long acquire(long bytes) throws InterruptedException {
+    long reserved = Math.min(Math.max(bytes, 0), maxInFlightBytes);
+    while (true) {
+      long pause = Duration.between(Instant.now(), pausedUntil).toMillis();
+      if (pause > 0) {
+        wait(pause);
+      } else if (inFlightBytes + reserved > maxInFlightBytes) {
+        wait();
+      } else {
+        inFlightBytes += reserved;
+        return reserved;
+      }
+    }
+  }
+
+  /**
+   * Give back a reservation once the bulk is acknowledged.
+   *
+   * @param reserved the reservation returned by {@link #acquire(long)}
+   */
+  public synchronized void release(long reserved) {
+    inFlightBytes -= reserved;
+    notifyAll();
+  }
+
+  /** The engine rejected a bulk: pause every worker, longer at each consecutive rejection. */
+  public void rejected() {
+    int count = rejections.incrementAndGet();
+    Duration backoff = INITIAL_BACKOFF.multipliedBy(1L << Math.min(count - 1, 10));
+    if (backoff.compareTo(MAX_BACKOFF) > 0) {
+      backoff = MAX_BACKOFF;
+    }
+    log.warn("Analytics engine rejected indexing ({} in a row), pausing {}", count, backoff);
+    synchronized (this) {
+      Instant until = Instant.now().plus(backoff);
+      if (until.isAfter(pausedUntil)) {
+        pausedUntil = until;
+      }
+    }
+  }
+
+  /** The engine accepted a bulk: reset the backoff. */
+  public void accepted() {
+    rejections.set(0);
+  }
+
+  public synchronized long getInFlightBytes() {
+    return inFlightBytes;
+  }
+
+  public int getConsecutiveRejections() {
+    return rejections.get();
+  }
+}
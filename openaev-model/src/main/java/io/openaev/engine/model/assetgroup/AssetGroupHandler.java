@@ -2,11 +2,13 @@ package io.openaev.engine.model.assetgroup;
 
 import static io.openaev.engine.EsUtils.buildRestrictions;
 
+import io.openaev.database.model.AssetGroup;
 import io.openaev.database.raw.RawAssetGroupIndexing;
 import io.openaev.database.repository.AssetGroupRepository;
 import io.openaev.engine.Handler;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -17,9 +19,15 @@ public class AssetGroupHandler implements Handler<EsAssetGroup> {
   private final AssetGroupRepository assetGroupRepository;
 
   @Override
-  public List<EsAssetGroup> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(AssetGroup.class);
+  }
+
+  @Override
+  public List<EsAssetGroup> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawAssetGroupIndexing> forIndexing = assetGroupRepository.findForIndexing(queryFrom);
+    List<RawAssetGroupIndexing> forIndexing =
+        assetGroupRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             assetGroup -> {
@@ -3,6 +3,7 @@ package io.openaev.engine.model.attackpattern;
 import static org.springframework.util.CollectionUtils.isEmpty;
 import static org.springframework.util.StringUtils.hasText;
 
+import io.openaev.database.model.AttackPattern;
 import io.openaev.database.raw.RawAttackPattern;
 import io.openaev.database.repository.AttackPatternRepository;
 import io.openaev.engine.Handler;
@@ -19,9 +20,15 @@ public class AttackPatternHandler implements Handler<EsAttackPattern> {
   private final AttackPatternRepository attackPatternRepository;
 
   @Override
-  public List<EsAttackPattern> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(AttackPattern.class);
+  }
+
+  @Override
+  public List<EsAttackPattern> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawAttackPattern> forIndexing = attackPatternRepository.findForIndexing(queryFrom);
+    List<RawAttackPattern> forIndexing =
+        attackPatternRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             attackPattern -> {
@@ -2,6 +2,9 @@ package io.openaev.engine.model.endpoint;
 
 import static io.openaev.engine.EsUtils.buildRestrictions;
 
+import io.openaev.database.model.Endpoint;
+import io.openaev.database.model.Finding;
+import io.openaev.database.model.Inject;
 import io.openaev.database.raw.RawEndpoint;
 import io.openaev.database.repository.EndpointRepository;
 import io.openaev.engine.Handler;
@@ -22,9 +25,14 @@ public class EndpointHandler implements Handler<EsEndpoint> {
   }
 
   @Override
-  public List<EsEndpoint> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(Endpoint.class, Finding.class, Inject.class);
+  }
+
+  @Override
+  public List<EsEndpoint> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawEndpoint> forIndexing = endpointRepository.findForIndexing(queryFrom);
+    List<RawEndpoint> forIndexing = endpointRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             endpoint -> {
@@ -3,12 +3,16 @@ package io.openaev.engine.model.finding;
 import static io.openaev.engine.EsUtils.buildRestrictions;
 import static org.springframework.util.StringUtils.hasText;
 
+import io.openaev.database.model.Finding;
 import io.openaev.database.raw.RawFinding;
 import io.openaev.database.repository.FindingRepository;
 import io.openaev.engine.Handler;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -23,9 +27,27 @@ public class FindingHandler implements Handler<EsFinding> {
   }
 
   @Override
-  public List<EsFinding> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(Finding.class);
+  }
+
+  @Override
+  public Optional<Class<?>> entity() {
+    return Optional.of(Finding.class);
+  }
+
+  @Override
+  public List<EsFinding> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawFinding> forIndexing = findingRepository.findForIndexing(queryFrom);
+    return toDocuments(findingRepository.findForIndexing(queryFrom, afterId));
+  }
+
+  @Override
+  public List<EsFinding> fetchByIds(Collection<String> ids) {
+    return toDocuments(findingRepository.findForIndexingByIds(ids));
+  }
+
+  private List<EsFinding> toDocuments(List<RawFinding> forIndexing) {
     return forIndexing.stream()
         .map(
             finding -> {
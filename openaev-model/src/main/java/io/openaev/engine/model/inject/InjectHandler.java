@@ -5,12 +5,16 @@ import static org.springframework.util.CollectionUtils.isEmpty;
 import static org.springframework.util.StringUtils.hasText;
 
 import io.openaev.database.model.ExecutionStatus;
+import io.openaev.database.model.Inject;
+import io.openaev.database.model.InjectorContract;
 import io.openaev.database.raw.RawInjectIndexing;
 import io.openaev.database.repository.InjectRepository;
 import io.openaev.engine.Handler;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,9 +32,27 @@ public class InjectHandler implements Handler<EsInject> {
   }
 
   @Override
-  public List<EsInject> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(Inject.class, InjectorContract.class);
+  }
+
+  @Override
+  public Optional<Class<?>> entity() {
+    return Optional.of(Inject.class);
+  }
+
+  @Override
+  public List<EsInject> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawInjectIndexing> forIndexing = injectRepository.findForIndexing(queryFrom);
+    return toDocuments(injectRepository.findForIndexing(queryFrom, afterId));
+  }
+
+  @Override
+  public List<EsInject> fetchByIds(Collection<String> ids) {
+    return toDocuments(injectRepository.findForIndexingByIds(ids));
+  }
+
+  private List<EsInject> toDocuments(List<RawInjectIndexing> forIndexing) {
     return forIndexing.stream()
         .map(
             inject -> {
@@ -40,14 +62,8 @@ public class InjectHandler implements Handler<EsInject> {
               esInject.setBase_representative(inject.getInject_title());
               esInject.setBase_created_at(inject.getInject_created_at());
 
-              if (inject.getInjector_contract_updated_at() != null
-                  && inject
-                      .getInjector_contract_updated_at()
-                      .isAfter(inject.getInject_updated_at())) {
-                esInject.setBase_updated_at(inject.getInjector_contract_updated_at());
-              } else {
-                esInject.setBase_updated_at(inject.getInject_updated_at());
-              }
+              // The cursor of the query, so a page starts after the children changes too
+              esInject.setBase_updated_at(inject.getInject_indexing_updated_at());
               esInject.setBase_restrictions(
                   buildRestrictions(inject.getInject_scenario(), inject.getInject_Exercise()));
               // Specific
@@ -6,12 +6,15 @@ import static java.lang.String.valueOf;
 import static org.springframework.util.CollectionUtils.isEmpty;
 import static org.springframework.util.StringUtils.hasText;
 
+import io.openaev.database.model.InjectExpectation;
 import io.openaev.database.raw.RawInjectExpectation;
 import io.openaev.database.repository.InjectExpectationRepository;
 import io.openaev.engine.Handler;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -23,10 +26,27 @@ public class InjectExpectationHandler implements Handler<EsInjectExpectation> {
   private final InjectExpectationRepository injectExpectationRepository;
 
   @Override
-  public List<EsInjectExpectation> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(InjectExpectation.class);
+  }
+
+  @Override
+  public Optional<Class<?>> entity() {
+    return Optional.of(InjectExpectation.class);
+  }
+
+  @Override
+  public List<EsInjectExpectation> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawInjectExpectation> forIndexing =
-        this.injectExpectationRepository.findForIndexing(queryFrom);
+    return toDocuments(this.injectExpectationRepository.findForIndexing(queryFrom, afterId));
+  }
+
+  @Override
+  public List<EsInjectExpectation> fetchByIds(Collection<String> ids) {
+    return toDocuments(this.injectExpectationRepository.findForIndexingByIds(ids));
+  }
+
+  private List<EsInjectExpectation> toDocuments(List<RawInjectExpectation> forIndexing) {
     return forIndexing.stream()
         .map(
             injectExpectation -> {
@@ -3,6 +3,7 @@ package io.openaev.engine.model.scenario;
 import static io.openaev.engine.EsUtils.buildRestrictions;
 import static org.springframework.util.CollectionUtils.isEmpty;
 
+import io.openaev.database.model.Inject;
 import io.openaev.database.model.Scenario;
 import io.openaev.database.raw.RawScenarioSimple;
 import io.openaev.database.repository.ScenarioRepository;
@@ -24,9 +25,14 @@ public class ScenarioHandler implements Handler<EsScenario> {
   }
 
   @Override
-  public List<EsScenario> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(Scenario.class, Inject.class);
+  }
+
+  @Override
+  public List<EsScenario> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawScenarioSimple> forIndexing = scenarioRepository.findForIndexing(queryFrom);
+    List<RawScenarioSimple> forIndexing = scenarioRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             scenario -> {
@@ -2,11 +2,13 @@ package io.openaev.engine.model.securitydomain;
 
 import static io.openaev.engine.EsUtils.buildRestrictions;
 
+import io.openaev.database.model.Domain;
 import io.openaev.database.raw.RawDomain;
 import io.openaev.database.repository.DomainRepository;
 import io.openaev.engine.Handler;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -21,9 +23,14 @@ public class SecurityDomainHandler implements Handler<EsSecurityDomain> {
   }
 
   @Override
-  public List<EsSecurityDomain> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(Domain.class);
+  }
+
+  @Override
+  public List<EsSecurityDomain> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawDomain> forIndexing = domainRepository.findForIndexing(queryFrom);
+    List<RawDomain> forIndexing = domainRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             domain -> {
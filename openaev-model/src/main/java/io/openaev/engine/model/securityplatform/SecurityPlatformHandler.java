@@ -2,11 +2,13 @@ package io.openaev.engine.model.securityplatform;
 
 import static io.openaev.engine.EsUtils.buildRestrictions;
 
+import io.openaev.database.model.SecurityPlatform;
 import io.openaev.database.raw.RawAsset;
 import io.openaev.database.repository.SecurityPlatformRepository;
 import io.openaev.engine.Handler;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -17,9 +19,14 @@ public class SecurityPlatformHandler implements Handler<EsSecurityPlatform> {
   private final SecurityPlatformRepository securityPlatformRepository;
 
   @Override
-  public List<EsSecurityPlatform> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(SecurityPlatform.class);
+  }
+
+  @Override
+  public List<EsSecurityPlatform> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawAsset> forIndexing = securityPlatformRepository.findForIndexing(queryFrom);
+    List<RawAsset> forIndexing = securityPlatformRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             securityPlatform -> {
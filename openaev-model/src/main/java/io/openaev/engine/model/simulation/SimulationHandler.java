@@ -4,6 +4,8 @@ import static io.openaev.engine.EsUtils.buildRestrictions;
 import static org.springframework.util.CollectionUtils.isEmpty;
 import static org.springframework.util.StringUtils.hasText;
 
+import io.openaev.database.model.Exercise;
+import io.openaev.database.model.Inject;
 import io.openaev.database.raw.RawSimulation;
 import io.openaev.database.repository.ExerciseRepository;
 import io.openaev.engine.Handler;
@@ -20,9 +22,14 @@ public class SimulationHandler implements Handler<EsSimulation> {
   private final ExerciseRepository simulationRepository;
 
   @Override
-  public List<EsSimulation> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(Exercise.class, Inject.class);
+  }
+
+  @Override
+  public List<EsSimulation> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawSimulation> forIndexing = simulationRepository.findForIndexing(queryFrom);
+    List<RawSimulation> forIndexing = simulationRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             simulation -> {
@@ -2,11 +2,13 @@ package io.openaev.engine.model.tag;
 
 import static io.openaev.engine.EsUtils.buildRestrictions;
 
+import io.openaev.database.model.Tag;
 import io.openaev.database.raw.RawTag;
 import io.openaev.database.repository.TagRepository;
 import io.openaev.engine.Handler;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -21,9 +23,14 @@ public class TagHandler implements Handler<EsTag> {
   }
 
   @Override
-  public List<EsTag> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(Tag.class);
+  }
+
+  @Override
+  public List<EsTag> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawTag> forIndexing = tagRepository.findForIndexing(queryFrom);
+    List<RawTag> forIndexing = tagRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             tag -> {
@@ -2,11 +2,13 @@ package io.openaev.engine.model.team;
 
 import static io.openaev.engine.EsUtils.buildRestrictions;
 
+import io.openaev.database.model.Team;
 import io.openaev.database.raw.RawTeam;
 import io.openaev.database.repository.TeamRepository;
 import io.openaev.engine.Handler;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -17,9 +19,14 @@ public class TeamHandler implements Handler<EsTeam> {
   private final TeamRepository teamRepository;
 
   @Override
-  public List<EsTeam> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(Team.class);
+  }
+
+  @Override
+  public List<EsTeam> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawTeam> forIndexing = teamRepository.findForIndexing(queryFrom);
+    List<RawTeam> forIndexing = teamRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             team -> {
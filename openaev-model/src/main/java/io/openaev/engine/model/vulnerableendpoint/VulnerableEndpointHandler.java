@@ -2,6 +2,8 @@ package io.openaev.engine.model.vulnerableendpoint;
 
 import static io.openaev.engine.EsUtils.buildRestrictions;
 
+import io.openaev.database.model.Endpoint;
+import io.openaev.database.model.Exercise;
 import io.openaev.database.model.Finding;
 import io.openaev.database.raw.RawVulnerableEndpoint;
 import io.openaev.database.repository.FindingRepository;
@@ -26,10 +28,15 @@ public class VulnerableEndpointHandler implements Handler<EsVulnerableEndpoint>
   private final FindingRepository findingRepository;
 
   @Override
-  public List<EsVulnerableEndpoint> fetch(Instant from) {
+  public Set<Class<?>> sources() {
+    return Set.of(Endpoint.class, Exercise.class, Finding.class);
+  }
+
+  @Override
+  public List<EsVulnerableEndpoint> fetch(Instant from, String afterId) {
     Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
     List<RawVulnerableEndpoint> forIndexing =
-        this.vulnerableEndpointRepository.findForIndexing(queryFrom);
+        this.vulnerableEndpointRepository.findForIndexing(queryFrom, afterId);
     return forIndexing.stream()
         .map(
             endpoint -> {
@@ -33,13 +33,41 @@ public class SchemaUtils {
   private static final ConcurrentHashMap<Class<?>, List<PropertySchema>> cacheMap =
       new ConcurrentHashMap<>();
 
+  private static final ConcurrentHashMap<Class<?>, List<PropertySchema>> subtypesCacheMap =
+      new ConcurrentHashMap<>();
+
+  private static final ConcurrentHashMap<Class<?>, List<PropertySchema>> searchableCacheMap =
+      new ConcurrentHashMap<>();
+
+  /** The model classes, scanned once from the classpath on first use */
+  private static final class ModelClasses {
+    private static final Set<Class<?>> CLASSES =
+        Set.copyOf(SubclassScanner.getClasses(BASE_CLASS_PACKAGE));
+  }
+
   // -- SCHEMA --
-  public static List<PropertySchema> schemaWithSubtypes(@NotNull Class<?> clazz)
-      throws ClassNotFoundException {
+
+  /**
+   * Compute the schemas of all the model classes with their subtypes, so no request has to. Called
+   * at startup.
+   *
+   * @return the number of model classes
+   */
+  public static int warmUp() {
+    ModelClasses.CLASSES.forEach(SchemaUtils::schemaWithSubtypes);
+    return ModelClasses.CLASSES.size();
+  }
+
+  public static List<PropertySchema> schemaWithSubtypes(@NotNull Class<?> clazz) {
+    return subtypesCacheMap.computeIfAbsent(clazz, SchemaUtils::computeSchemaWithSubtypes);
+  }
+
+  private static List<PropertySchema> computeSchemaWithSubtypes(Class<?> clazz) {
     List<List<PropertySchema>> propertySchemasAll = new ArrayList<>();
     propertySchemasAll.add(schema(clazz));
     propertySchemasAll.addAll(
-        SubclassScanner.getSubclasses(BASE_CLASS_PACKAGE, clazz).stream()
+        ModelClasses.CLASSES.stream()
+            .filter(clazz::isAssignableFrom)
             .map(SchemaUtils::schema)
             .toList());
 
@@ -55,8 +83,14 @@ public class SchemaUtils {
         .toList();
   }
 
+  /** The searchable properties of a class and its subtypes */
+  public static List<PropertySchema> searchableSchemaWithSubtypes(@NotNull Class<?> clazz) {
+    return searchableCacheMap.computeIfAbsent(
+        clazz, c -> List.copyOf(getSearchableProperties(schemaWithSubtypes(c))));
+  }
+
   public static List<PropertySchema> schema(@NotNull Class<?> clazz) {
-    return cacheMap.computeIfAbsent(clazz, SchemaUtils::computeSchema);
+    return cacheMap.computeIfAbsent(clazz, c -> List.copyOf(computeSchema(c)));
   }
 
   private static List<PropertySchema> computeSchema(Class<?> clazz) {
@@ -4,6 +4,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.core.type.filter.TypeFilter;
 
 /**
  * Utility class for scanning and finding subclasses of a given class at runtime.
@@ -32,9 +33,25 @@ public class SubclassScanner {
    * @return a set of all found subclasses, may contain nulls if class loading fails
    */
   public static Set<Class<?>> getSubclasses(String basePackage, Class<?> clazz) {
+    return scan(basePackage, new AssignableTypeFilter(clazz));
+  }
+
+  /**
+   * Finds all the concrete classes of a package, in a single scan.
+   *
+   * @param basePackage the package to scan (e.g., "io.openaev.database.model")
+   * @return a set of all the classes found and loaded
+   */
+  public static Set<Class<?>> getClasses(String basePackage) {
+    Set<Class<?>> classes = scan(basePackage, (metadataReader, metadataReaderFactory) -> true);
+    classes.remove(null);
+    return classes;
+  }
+
+  private static Set<Class<?>> scan(String basePackage, TypeFilter filter) {
     ClassPathScanningCandidateComponentProvider provider =
         new ClassPathScanningCandidateComponentProvider(false);
-    provider.addIncludeFilter(new AssignableTypeFilter(clazz));
+    provider.addIncludeFilter(filter);
     return provider.findCandidateComponents(basePackage).stream()
         .map(
             beanDefinition -> {
@@ -44,14 +44,7 @@ public class CommonSearchService {
     }
     Set<PropertySchema> properties =
         searchEngine.getModels().stream()
-            .flatMap(
-                model -> {
-                  try {
-                    return SchemaUtils.schemaWithSubtypes(model.getModel()).stream();
-                  } catch (ClassNotFoundException e) {
-                    throw new RuntimeException(e);
-                  }
-                })
+            .flatMap(model -> SchemaUtils.schemaWithSubtypes(model.getModel()).stream())
             .filter(PropertySchema::isFilterable)
             .collect(Collectors.toSet());
     properties.forEach(p -> cacheMap.putIfAbsent(p.getName(), p));
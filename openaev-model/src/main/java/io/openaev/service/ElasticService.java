@@ -1,5 +1,6 @@
 package io.openaev.service;
 
+import static io.openaev.utils.Constants.INDEXING_RECORD_SET_SIZE;
 import static io.openaev.utils.CustomDashboardQueryUtils.*;
 import static io.openaev.utils.ElasticUtils.*;
 import static java.util.Optional.ofNullable;
@@ -13,6 +14,8 @@ import co.elastic.clients.elasticsearch.core.*;
 import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.json.JsonData;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.util.BinaryData;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openaev.config.EngineConfig;
 import io.openaev.database.model.CustomDashboardParameters;
@@ -25,7 +28,7 @@ import io.openaev.driver.ElasticDriver;
 import io.openaev.engine.EngineContext;
 import io.openaev.engine.EngineService;
 import io.openaev.engine.EsModel;
-import io.openaev.engine.Handler;
+import io.openaev.engine.IndexingThrottle;
 import io.openaev.engine.api.*;
 import io.openaev.engine.api.WidgetConfiguration.Series;
 import io.openaev.engine.model.EsBase;
@@ -41,6 +44,8 @@ import java.lang.reflect.ParameterizedType;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -49,12 +54,22 @@ import org.apache.logging.log4j.util.Strings;
 @Slf4j
 public class ElasticService implements EngineService {
 
+  private static final int TOO_MANY_REQUESTS = 429;
+  private static final int MAX_REJECTED_ATTEMPTS = 5;
+
   private final ElasticDriver driver;
   private final EngineContext searchEngine;
   private final ElasticsearchClient elasticClient;
   private final IndexingStatusRepository indexingStatusRepository;
   private final EngineConfig engineConfig;
   private final CommonSearchService commonSearchService;
+  private final IndexingRetryService indexingRetryService;
+  private final IndexingThrottle indexingThrottle;
+
+  // Serialize the periodic sync and the near real-time indexing of a same model
+  private final Map<String, ReentrantLock> modelLocks = new ConcurrentHashMap<>();
+  // Indices being rebuilt by model, the live writes reach them too until the swap
+  private final Map<String, String> rebuildIndices = new ConcurrentHashMap<>();
 
   @Resource protected ObjectMapper mapper;
 
@@ -63,7 +78,9 @@ public class ElasticService implements EngineService {
       ElasticDriver driver,
       IndexingStatusRepository indexingStatusRepository,
       EngineConfig engineConfig,
-      CommonSearchService commonSearchService)
+      CommonSearchService commonSearchService,
+      IndexingRetryService indexingRetryService,
+      IndexingThrottle indexingThrottle)
       throws Exception {
     this.driver = driver;
     this.elasticClient = driver.elasticClient();
@@ -71,6 +88,8 @@ public class ElasticService implements EngineService {
     this.indexingStatusRepository = indexingStatusRepository;
     this.engineConfig = engineConfig;
     this.commonSearchService = commonSearchService;
+    this.indexingRetryService = indexingRetryService;
+    this.indexingThrottle = indexingThrottle;
   }
 
   private FieldValue toVal(String field, String value, Map<String, String> parameters) {
@@ -312,67 +331,318 @@ public class ElasticService implements EngineService {
   // endregion
 
   // region indexing
-  public <T extends EsBase> void bulkProcessing(Stream<EsModel<T>> models) {
-    List<IndexingStatus> statuses =
-        models
-            .map(
-                model -> {
-                  Optional<IndexingStatus> indexingStatus =
-                      indexingStatusRepository.findByType(model.getName());
-                  Handler<? extends EsBase> handler = model.getHandler();
-                  String index = model.getIndex(engineConfig);
-                  Instant fetchInstant =
-                      indexingStatus.map(IndexingStatus::getLastIndexing).orElse(null);
-                  List<? extends EsBase> results = handler.fetch(fetchInstant);
-                  if (!results.isEmpty()) {
-                    // Create bulk for the data
-                    BulkRequest.Builder br = new BulkRequest.Builder();
-                    for (EsBase result : results) {
-                      br.operations(
-                          op ->
-                              op.index(
-                                  idx ->
-                                      idx.index(index).id(result.getBase_id()).document(result)));
-                    }
-                    // Execute the bulk
-                    try {
-                      log.info("Indexing ({}) in progress for {}", results.size(), model.getName());
-                      BulkRequest bulkRequest = br.build();
-                      BulkResponse result = elasticClient.bulk(bulkRequest);
-                      // Log errors, if any
-                      if (result.errors()) {
-                        for (BulkResponseItem item : result.items()) {
-                          if (item.error() != null) {
-                            log.error(item.error().reason());
-                          }
-                        }
-                      } else {
-                        // Update the status for the next round
-                        if (indexingStatus.isPresent()) {
-                          IndexingStatus status = indexingStatus.get();
-                          status.setLastIndexing(results.getLast().getBase_updated_at());
-                          return status;
-                        } else {
-                          IndexingStatus status = new IndexingStatus();
-                          status.setType(model.getName());
-                          status.setLastIndexing(results.getLast().getBase_updated_at());
-                          return status;
-                        }
-                      }
-                    } catch (IOException e) {
-                      log.error(
-                          String.format("bulkParallelProcessing exception: %s", e.getMessage()), e);
-                    }
-                  } else {
-                    log.info("Indexing <up to date> for {}", model.getName());
-                  }
-                  return null;
-                })
-            .filter(Objects::nonNull)
-            .toList();
-    if (!statuses.isEmpty()) {
-      indexingStatusRepository.saveAll(statuses);
+  public <T extends EsBase> void bulkProcessing(Stream<EsModel<T>> models, Duration overlap) {
+    models.forEach(model -> indexModel(model, overlap));
+  }
+
+  /**
+   * Index the delta of a model in fixed-size bulks, checkpointing the indexing status after each
+   * successful bulk so a failure only replays the documents that were not indexed yet.
+   *
+   * @param model the model to index
+   * @param overlap the window before the last indexing to read again
+   * @param <T> the type of the model
+   */
+  private <T extends EsBase> void indexModel(EsModel<T> model, Duration overlap) {
+    ReentrantLock lock = modelLocks.computeIfAbsent(model.getName(), name -> new ReentrantLock());
+    lock.lock();
+    try {
+      indexModelDelta(model, overlap);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public <T extends EsBase> void bulkProcessingByIds(EsModel<T> model, Collection<String> ids) {
+    ReentrantLock lock = modelLocks.computeIfAbsent(model.getName(), name -> new ReentrantLock());
+    lock.lock();
+    try {
+      int bulkSize = Math.max(1, engineConfig.getIndexingBulkSize());
+      List<String> toIndex = List.copyOf(ids);
+      for (int page = 0; page < toIndex.size(); page += INDEXING_RECORD_SET_SIZE) {
+        List<T> documents =
+            model
+                .getHandler()
+                .fetchByIds(
+                    toIndex.subList(
+                        page, Math.min(page + INDEXING_RECORD_SET_SIZE, toIndex.size())));
+        for (int from = 0; from < documents.size(); from += bulkSize) {
+          List<T> chunk = documents.subList(from, Math.min(from + bulkSize, documents.size()));
+          // Left to the periodic sync, reading the watermark this indexing does not move
+          if (!bulkIndexLive(model, chunk)) {
+            log.warn("Indexing by id interrupted for {}", model.getName());
+            return;
+          }
+        }
+      }
+      log.debug("Indexing by id ({}) done for {}", toIndex.size(), model.getName());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private <T extends EsBase> void indexModelDelta(EsModel<T> model, Duration overlap) {
+    int bulkSize = Math.max(1, engineConfig.getIndexingBulkSize());
+    // Re-send first the documents previously refused by the engine and due for a new attempt
+    List<T> retries = indexingRetryService.dueDocuments(model, INDEXING_RECORD_SET_SIZE);
+    for (int from = 0; from < retries.size(); from += bulkSize) {
+      List<T> chunk = retries.subList(from, Math.min(from + bulkSize, retries.size()));
+      if (!bulkIndexLive(model, chunk)) {
+        return;
+      }
+    }
+    IndexingStatus status =
+        indexingStatusRepository
+            .findByType(model.getName())
+            .orElseGet(
+                () -> {
+                  IndexingStatus newStatus = new IndexingStatus();
+                  newStatus.setType(model.getName());
+                  return newStatus;
+                });
+    long indexed = 0;
+    Instant lastIndexing = status.getLastIndexing();
+    Instant start = lastIndexing != null ? lastIndexing.minus(overlap) : null;
+    Iterator<List<T>> pages = model.getHandler().stream(start).iterator();
+    while (pages.hasNext()) {
+      List<T> page = pages.next();
+      for (int from = 0; from < page.size(); from += bulkSize) {
+        int to = Math.min(from + bulkSize, page.size());
+        List<T> chunk = page.subList(from, to);
+        if (!bulkIndexLive(model, chunk)) {
+          log.warn(
+              "Indexing interrupted for {} after {} documents, will resume on next run",
+              model.getName(),
+              indexed);
+          return;
+        }
+        indexed += chunk.size();
+        // Only move the watermark past a date when no document left behind shares it, the next
+        // page of a full one can still hold documents of its last date
+        Instant checkpoint = chunk.getLast().getBase_updated_at();
+        boolean pageEnd = to == page.size();
+        // The overlap replays documents older than the watermark, which never goes back
+        if (checkpoint != null
+            && (lastIndexing == null || checkpoint.isAfter(lastIndexing))
+            && (pageEnd
+                ? page.size() < INDEXING_RECORD_SET_SIZE
+                : checkpoint.isBefore(page.get(to).getBase_updated_at()))) {
+          status.setLastIndexing(checkpoint);
+          indexingStatusRepository.save(status);
+        }
+      }
+    }
+    if (indexed == 0) {
+      log.info("Indexing <up to date> for {}", model.getName());
+    } else {
+      log.info("Indexing ({}) done for {}", indexed, model.getName());
+    }
+  }
+
+  /**
+   * Send a bulk of documents to the engine. Documents refused individually are handed to the {@link
+   * IndexingRetryService} and do not fail the bulk, documents rejected because the engine is
+   * overloaded are re-sent once the {@link IndexingThrottle} backoff is over.
+   *
+   * @return false if the bulk could not be executed
+   */
+  private <T extends EsBase> boolean bulkIndex(EsModel<T> model, String index, List<T> documents) {
+    return bulkIndex(model, index, documents, true);
+  }
+
+  /**
+   * Send a bulk of live changes to the index of a model. While the model is rebuilt, they are sent
+   * to the rebuilt index too: it serves the model after the swap, so the documents it refuses are
+   * the ones tracked for a retry, the live index possibly refusing them for its outdated mapping.
+   *
+   * @return false if the bulk could not be executed
+   */
+  private <T extends EsBase> boolean bulkIndexLive(EsModel<T> model, List<T> documents) {
+    String rebuildIndex = rebuildIndices.get(model.getName());
+    if (rebuildIndex == null) {
+      return bulkIndex(model, model.getIndex(engineConfig), documents, true);
+    }
+    if (!bulkIndex(model, rebuildIndex, documents, true)) {
+      return false;
+    }
+    bulkIndex(model, model.getIndex(engineConfig), documents, false);
+    return true;
+  }
+
+  /**
+   * @param track whether the refused documents are handed to the {@link IndexingRetryService}
+   */
+  private <T extends EsBase> boolean bulkIndex(
+      EsModel<T> model, String index, List<T> documents, boolean track) {
+    Map<String, String> failures = new HashMap<>();
+    List<T> pending = documents;
+    try {
+      for (int attempt = 1; !pending.isEmpty(); attempt++) {
+        log.debug("Indexing ({}) in progress for {}", pending.size(), model.getName());
+        Set<String> rejected = new HashSet<>();
+        try {
+          BulkResponse result = sendBulk(index, pending);
+          if (result.errors()) {
+            for (BulkResponseItem item : result.items()) {
+              if (item.error() == null) {
+                continue;
+              }
+              if (item.status() == TOO_MANY_REQUESTS) {
+                rejected.add(item.id());
+              } else {
+                failures.put(item.id(), item.error().reason());
+              }
+            }
+          }
+        } catch (ElasticsearchException e) {
+          if (e.status() != TOO_MANY_REQUESTS) {
+            throw e;
+          }
+          pending.forEach(document -> rejected.add(document.getBase_id()));
+        }
+        if (rejected.isEmpty()) {
+          indexingThrottle.accepted();
+          break;
+        }
+        indexingThrottle.rejected();
+        if (attempt >= MAX_REJECTED_ATTEMPTS) {
+          log.warn("Indexing of {} still rejected by the engine, giving up", model.getName());
+          return false;
+        }
+        pending = pending.stream().filter(d -> rejected.contains(d.getBase_id())).toList();
+      }
+    } catch (IOException | ElasticsearchException e) {
+      log.error(String.format("bulkProcessing exception: %s", e.getMessage()), e);
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    if (track) {
+      indexingRetryService.track(model.getName(), documents, failures);
+    } else if (!failures.isEmpty()) {
+      log.debug("{} documents refused by the live index of {}", failures.size(), model.getName());
+    }
+    return true;
+  }
+
+  private BulkResponse sendBulk(String index, List<? extends EsBase> documents)
+      throws IOException, InterruptedException {
+    // Serialized once, the bytes of the request reserve the in-flight budget of the bulk
+    JsonpMapper mapper = elasticClient._jsonpMapper();
+    BulkRequest.Builder br = new BulkRequest.Builder();
+    long bytes = 0;
+    for (EsBase document : documents) {
+      BinaryData json = BinaryData.of(document, mapper);
+      bytes += json.size();
+      br.operations(
+          op -> op.index(idx -> idx.index(index).id(document.getBase_id()).document(json)));
+    }
+    long reserved = indexingThrottle.acquire(bytes);
+    try {
+      return elasticClient.bulk(br.build());
+    } finally {
+      indexingThrottle.release(reserved);
+    }
+  }
+
+  public void rebuildOutdatedIndices() {
+    Set<String> outdated = driver.getOutdatedIndices();
+    if (outdated.isEmpty()) {
+      return;
+    }
+    log.info("Rebuilding outdated indices {}", outdated);
+    searchEngine.getModels().stream()
+        .filter(model -> outdated.contains(model.getName()))
+        .forEach(this::rebuildIndex);
+  }
+
+  /**
+   * Rebuild the index of a model from the database, at the throttled rate of {@code
+   * engine.indexing-rebuild-max-docs-per-second}. The changes made while the full scan runs are
+   * caught up with the live indexing of the model paused, then the alias is swapped. Until then the
+   * live changes are written to both indices.
+   *
+   * @param model the model to rebuild
+   * @param <T> the type of the model
+   * @return true if the rebuilt index replaced the current one
+   */
+  public <T extends EsBase> boolean rebuildIndex(EsModel<T> model) {
+    Instant start = Instant.now();
+    // An index whose status was reset keeps being served as is, only the changes made during the
+    // rebuild have to reach it
+    if (indexingStatusRepository.findByType(model.getName()).isEmpty()) {
+      IndexingStatus status = new IndexingStatus();
+      status.setType(model.getName());
+      status.setLastIndexing(start);
+      indexingStatusRepository.save(status);
+    }
+    String rebuildIndex;
+    try {
+      rebuildIndex = driver.createRebuildIndex(elasticClient, model);
+    } catch (IOException | ElasticsearchException e) {
+      log.error("Cannot create the index to rebuild {}: {}", model.getName(), e.getMessage(), e);
+      return false;
+    }
+    rebuildIndices.put(model.getName(), rebuildIndex);
+    boolean swapped = false;
+    try {
+      long indexed = rebuildInto(model, rebuildIndex, model.getHandler().stream(null));
+      ReentrantLock lock = modelLocks.computeIfAbsent(model.getName(), name -> new ReentrantLock());
+      lock.lock();
+      try {
+        long caughtUp =
+            indexed < 0 ? -1 : rebuildInto(model, rebuildIndex, model.getHandler().stream(start));
+        if (caughtUp >= 0) {
+          driver.swapIndex(elasticClient, model.getName(), rebuildIndex);
+          swapped = true;
+          log.info("Index of {} rebuilt with {} documents", model.getName(), indexed + caughtUp);
+        }
+      } finally {
+        rebuildIndices.remove(model.getName());
+        lock.unlock();
+      }
+    } catch (IOException | ElasticsearchException e) {
+      log.error("Rebuild of {} failed: {}", model.getName(), e.getMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!swapped) {
+      log.warn("Index of {} not rebuilt, the current index is kept", model.getName());
+      rebuildIndices.remove(model.getName());
+      driver.deleteRebuildIndex(elasticClient, rebuildIndex);
+    }
+    return swapped;
+  }
+
+  /**
+   * @return the number of documents written, -1 if a bulk could not be executed
+   */
+  private <T extends EsBase> long rebuildInto(EsModel<T> model, String index, Stream<List<T>> pages)
+      throws InterruptedException {
+    int bulkSize = Math.max(1, engineConfig.getIndexingBulkSize());
+    long maxDocsPerSecond = engineConfig.getIndexingRebuildMaxDocsPerSecond();
+    long startNanos = System.nanoTime();
+    long indexed = 0;
+    Iterator<List<T>> iterator = pages.iterator();
+    while (iterator.hasNext()) {
+      List<T> page = iterator.next();
+      for (int from = 0; from < page.size(); from += bulkSize) {
+        List<T> chunk = page.subList(from, Math.min(from + bulkSize, page.size()));
+        if (!bulkIndex(model, index, chunk)) {
+          return -1;
+        }
+        indexed += chunk.size();
+        if (maxDocsPerSecond > 0) {
+          long aheadMillis =
+              indexed * 1000 / maxDocsPerSecond - (System.nanoTime() - startNanos) / 1_000_000;
+          if (aheadMillis > 0) {
+            Thread.sleep(aheadMillis);
+          }
+        }
+      }
     }
+    return indexed;
   }
 
   @Override
@@ -381,9 +651,11 @@ public class ElasticService implements EngineService {
   }
 
   public void bulkDelete(List<String> ids) {
+    indexingRetryService.forget(ids);
     try {
       List<FieldValue> values = ids.stream().map(FieldValue::of).toList();
-      // Delete the direct document corresponding to the id
+      // Delete the direct document corresponding to the id, also in the hidden indices being
+      // rebuilt so they do not bring deleted documents back once swapped
       Query directId =
           TermsQuery.of(
                   t -> t.field("base_id.keyword").terms(TermsQueryField.of(tq -> tq.value(values))))
@@ -400,6 +672,7 @@ public class ElasticService implements EngineService {
       elasticClient.deleteByQuery(
           new DeleteByQueryRequest.Builder()
               .index(engineConfig.getIndexPrefix() + "*")
+              .expandWildcards(ExpandWildcard.Open, ExpandWildcard.Hidden)
               .query(query)
               .refresh(true)
               .build());
@@ -407,6 +680,7 @@ public class ElasticService implements EngineService {
       elasticClient.updateByQuery(
           new UpdateByQueryRequest.Builder()
               .index(engineConfig.getIndexPrefix() + "*")
+              .expandWildcards(ExpandWildcard.Open, ExpandWildcard.Hidden)
               .script(
                   Script.of(
                       s ->
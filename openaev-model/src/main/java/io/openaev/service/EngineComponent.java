@@ -6,6 +6,7 @@ import io.openaev.driver.ElasticDriver;
 import io.openaev.driver.OpenSearchDriver;
 import io.openaev.engine.EngineContext;
 import io.openaev.engine.EngineService;
+import io.openaev.engine.IndexingThrottle;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -40,6 +41,8 @@ public class EngineComponent {
   private final ElasticDriver elasticDriver;
   private final IndexingStatusRepository indexingStatusRepository;
   private final CommonSearchService commonSearchService;
+  private final IndexingRetryService indexingRetryService;
+  private final IndexingThrottle indexingThrottle;
 
   /**
    * Creates and configures the search engine service based on configuration.
@@ -52,11 +55,23 @@ public class EngineComponent {
   public EngineService engine() throws Exception {
     if (config.getEngineSelector().equalsIgnoreCase("elk")) {
       return new ElasticService(
-          searchEngine, elasticDriver, indexingStatusRepository, config, commonSearchService);
+          searchEngine,
+          elasticDriver,
+          indexingStatusRepository,
+          config,
+          commonSearchService,
+          indexingRetryService,
+          indexingThrottle);
     }
     if (config.getEngineSelector().equalsIgnoreCase("opensearch")) {
       return new OpenSearchService(
-          searchEngine, openSearchDriver, indexingStatusRepository, config, commonSearchService);
+          searchEngine,
+          openSearchDriver,
+          indexingStatusRepository,
+          config,
+          commonSearchService,
+          indexingRetryService,
+          indexingThrottle);
     }
     throw new IllegalStateException("engine selector not supported");
   }
@@ -0,0 +1,150 @@
+package io.openaev.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openaev.config.EngineConfig;
+import io.openaev.database.model.IndexingRetry;
+import io.openaev.database.repository.IndexingRetryRepository;
+import io.openaev.engine.EsModel;
+import io.openaev.engine.model.EsBase;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service tracking the documents refused by the analytics engine during bulk indexing.
+ *
+ * <p>A refused document does not block the indexing watermark of its model anymore: it is stored in
+ * the {@code indexing_retries} table and re-sent with an exponential backoff. After {@link
+ * EngineConfig#getIndexingRetryMaxAttempts()} attempts, it is kept in a dead-letter state for
+ * investigation, until a new write of the document schedules it again. Any successful indexing of
+ * the document, or its deletion, clears its entry.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexingRetryService {
+
+  private static final Duration MAX_BACKOFF = Duration.ofHours(6);
+
+  private final IndexingRetryRepository indexingRetryRepository;
+  private final EngineConfig engineConfig;
+  private final ObjectMapper mapper;
+
+  /**
+   * Get the documents of a model due for a new indexing attempt.
+   *
+   * @param model the model
+   * @param limit the maximum number of documents to return
+   * @return the documents to re-send
+   * @param <T> the type of the model
+   */
+  public <T extends EsBase> List<T> dueDocuments(EsModel<T> model, int limit) {
+    return indexingRetryRepository
+        .findDue(
+            model.getName(), IndexingRetry.Status.PENDING, Instant.now(), PageRequest.of(0, limit))
+        .stream()
+        .map(
+            retry -> {
+              try {
+                return mapper.treeToValue(retry.getDocument(), model.getModel());
+              } catch (JsonProcessingException e) {
+                log.error(
+                    "Cannot read document {} to retry for {}",
+                    retry.getDocumentId(),
+                    model.getName(),
+                    e);
+                return null;
+              }
+            })
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  /**
+   * Record the outcome of a bulk: successful documents are cleared from the retries, failed ones
+   * are scheduled for a new attempt or moved to the dead-letter state.
+   *
+   * @param type the model name
+   * @param documents the documents sent in the bulk
+   * @param failures the failure reasons, by id of the refused documents
+   */
+  public void track(String type, List<? extends EsBase> documents, Map<String, String> failures) {
+    List<String> succeeded =
+        documents.stream().map(EsBase::getBase_id).filter(id -> !failures.containsKey(id)).toList();
+    if (!succeeded.isEmpty()) {
+      indexingRetryRepository.deleteByTypeAndDocumentIds(type, succeeded);
+    }
+    if (failures.isEmpty()) {
+      return;
+    }
+    Map<String, IndexingRetry> existing =
+        indexingRetryRepository.findByTypeAndDocumentIdIn(type, failures.keySet()).stream()
+            .collect(Collectors.toMap(IndexingRetry::getDocumentId, Function.identity()));
+    Instant now = Instant.now();
+    List<IndexingRetry> retries = new ArrayList<>();
+    for (EsBase document : documents) {
+      String error = failures.get(document.getBase_id());
+      if (error == null) {
+        continue;
+      }
+      IndexingRetry retry =
+          existing.computeIfAbsent(
+              document.getBase_id(),
+              id -> {
+                IndexingRetry newRetry = new IndexingRetry();
+                newRetry.setType(type);
+                newRetry.setDocumentId(id);
+                return newRetry;
+              });
+      if (retry.getStatus() == IndexingRetry.Status.DEAD) {
+        // A dead document is never re-sent by the retries, so this is a new write of it
+        retry.setAttempts(0);
+      }
+      retry.setDocument(mapper.valueToTree(document));
+      retry.setAttempts(retry.getAttempts() + 1);
+      retry.setLastError(error);
+      retry.setUpdatedAt(now);
+      if (retry.getAttempts() >= engineConfig.getIndexingRetryMaxAttempts()) {
+        retry.setStatus(IndexingRetry.Status.DEAD);
+        retry.setNextAttemptAt(null);
+        log.error(
+            "Indexing of {} {} failed {} times, moved to dead-letter: {}",
+            type,
+            retry.getDocumentId(),
+            retry.getAttempts(),
+            error);
+      } else {
+        retry.setStatus(IndexingRetry.Status.PENDING);
+        retry.setNextAttemptAt(now.plus(backoff(retry.getAttempts())));
+      }
+      retries.add(retry);
+    }
+    log.warn("Indexing of {} documents refused for {}, scheduled for retry", retries.size(), type);
+    indexingRetryRepository.saveAll(retries);
+  }
+
+  /**
+   * Forget the retries of deleted documents, so they are not re-created in the engine.
+   *
+   * @param documentIds the ids of the deleted documents
+   */
+  public void forget(Collection<String> documentIds) {
+    if (!documentIds.isEmpty()) {
+      indexingRetryRepository.deleteByDocumentIds(documentIds);
+    }
+  }
+
+  private Duration backoff(int attempts) {
+    Duration backoff =
+        Duration.ofSeconds(engineConfig.getIndexingRetryBackoffSeconds())
+            .multipliedBy(1L << Math.min(attempts - 1, 20));
+    return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+  }
+}